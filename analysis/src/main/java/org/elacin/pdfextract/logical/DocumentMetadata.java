@@ -21,14 +21,12 @@ package org.elacin.pdfextract.logical;
 import org.apache.log4j.Logger;
 
 import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.style.TextUtils;
 import org.elacin.pdfextract.tree.*;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * This class represents knowledge collected while performing the logical analysis of the document
@@ -39,6 +37,7 @@ public class DocumentMetadata {
 // ------------------------------ FIELDS ------------------------------
     private static final Logger       log = Logger.getLogger(DocumentMetadata.class);
     private final DocumentNode        root;
+    private final ParagraphIndex      paragraphIndex;
     private final Style               bodyText;
     private final List<Style>         candidateHeaderStyles;
     private final Map<Style, Integer> styleCounts;
@@ -47,9 +46,10 @@ public class DocumentMetadata {
     public DocumentMetadata(final DocumentNode root) {
 
         this.root             = root;
-        styleCounts           = findStyleCountsFromDocument(root);
+        paragraphIndex        = new ParagraphIndex(root);
+        styleCounts           = findStyleCountsFromDocument(root, paragraphIndex);
         bodyText              = findBodyTextFromStyleCounts(styleCounts);
-        candidateHeaderStyles = findHeaderCandidates(root, bodyText);
+        candidateHeaderStyles = findHeaderCandidates(root, paragraphIndex, bodyText);
 
         if (log.isInfoEnabled()) {
             log.info("LOG01410:bodytext is " + bodyText);
@@ -80,14 +80,28 @@ public class DocumentMetadata {
             return false;
         }
 
-        final String firstWord = line.getText().trim().split("\\s")[0];
+        /* the first word of the trimmed text, as split by \s */
+        final CharSequence text    = line.getTextView();
+        final int          start   = TextUtils.trimmedStart(text);
+        final int          end     = TextUtils.trimmedEnd(text, start);
+        int                wordEnd = start;
 
-        if (firstWord.length() > 3) {
+        while ((wordEnd < end) && !isRegexWhitespace(text.charAt(wordEnd))) {
+            wordEnd++;
+        }
+
+        if ((wordEnd == start) || (wordEnd - start > 3)) {
             return false;
         }
 
-        if (Character.isDigit(firstWord.charAt(0)) || firstWord.contains(".")
-                || ("abcdABCI".indexOf(firstWord.charAt(0)) != -1)) {
+        final char first  = text.charAt(start);
+        boolean    hasDot = false;
+
+        for (int i = start; i < wordEnd; i++) {
+            hasDot |= (text.charAt(i) == '.');
+        }
+
+        if (Character.isDigit(first) || hasDot || ("abcdABCI".indexOf(first) != -1)) {
             log.warn("LOG01440:Line " + line + " can be line id");
 
             return true;
@@ -96,6 +110,14 @@ public class DocumentMetadata {
         return false;
     }
 
+    /**
+     * the characters matched by \\s in a regular expression
+     */
+    private static boolean isRegexWhitespace(final char c) {
+        return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f')
+               || (c == '\r');
+    }
+
     @NotNull
     private static Style findBodyTextFromStyleCounts(final Map<Style, Integer> styleCounts) {
 
@@ -113,49 +135,80 @@ public class DocumentMetadata {
     }
 
     /**
-     *  create a list of possible styles for headings
+     *  create a list of possible styles for headings, in the order of the first line which makes
+     *  each of them a candidate. The lines of every style are found in the index of the document,
+     *  and only lines of paragraphs directly on a page are considered
      */
     @NotNull
     private static List<Style> findHeaderCandidates(@NotNull final DocumentNode root,
-            @NotNull final Style bodyText) {
+            @NotNull final ParagraphIndex index, @NotNull final Style bodyText) {
+
+        final DocumentIndex lines      = root.getIndex();
+        final List<Integer> candidates = new ArrayList<Integer>();
+        final long[]        firstLine  = new long[index.getStyleCount()];
 
-        List<Style> headerCandidates = new ArrayList<Style>(root.getStyles().size());
+        for (int ordinal = 0; ordinal < index.getStyleCount(); ordinal++) {
+            final Style style = index.getStyleForOrdinal(ordinal);
+
+            if (style.equals(bodyText)) {
+                continue;
+            }
 
-        for (PageNode page : root.getChildren()) {
-            for (ParagraphNode paragraph : page.getChildren()) {
-                for (LineNode line : paragraph.getChildren()) {
-                    Style lineStyle = line.getStyle();
+            for (LineNode line : lines.getLinesWithStyle(style)) {
+                final int row = index.getRow(line.getParent());
 
-                    if (headerCandidates.contains(lineStyle) || bodyText.equals(lineStyle)) {
-                        continue;
-                    }
+                if ((row != -1)
+                        && (canBeHeaderStyle(bodyText, line) || canBeLineId(line, bodyText))) {
+                    firstLine[ordinal] = ((long) row << 32) | positionInParagraph(line);
+                    candidates.add(ordinal);
 
-                    if (canBeHeaderStyle(bodyText, line) || (canBeLineId(line, bodyText))) {
-                        headerCandidates.add(lineStyle);
-                    }
+                    break;
                 }
             }
         }
 
+        Collections.sort(candidates, new Comparator<Integer>() {
+
+            public int compare(@NotNull final Integer o1, @NotNull final Integer o2) {
+                return (firstLine[o1] < firstLine[o2])
+                       ? -1
+                       : ((firstLine[o1] == firstLine[o2])
+                          ? 0
+                          : 1);
+            }
+        });
+
+        final List<Style> headerCandidates = new ArrayList<Style>(candidates.size());
+
+        for (Integer ordinal : candidates) {
+            headerCandidates.add(index.getStyleForOrdinal(ordinal));
+        }
+
         return headerCandidates;
     }
 
-    private static Map<Style, Integer> findStyleCountsFromDocument(final DocumentNode root) {
+    private static int positionInParagraph(@NotNull final LineNode line) {
 
-        Map<Style, Integer> styleCounts = new HashMap<Style, Integer>(root.getStyles().size());
+        final List<LineNode> siblings = line.getParent().getChildren();
 
-        for (int i = 0; i < root.getStyles().size(); i++) {
-            styleCounts.put(root.getStyles().get(i), 0);
+        for (int i = 0; i < siblings.size(); i++) {
+            if (siblings.get(i) == line) {
+                return i;
+            }
         }
 
-        for (WordNode word : root.getWords()) {
-            if (!styleCounts.containsKey(word.getStyle())) {
-                continue;
-            }
+        return -1;
+    }
+
+    private static Map<Style, Integer> findStyleCountsFromDocument(final DocumentNode root,
+            final ParagraphIndex index) {
 
-            int old = styleCounts.get(word.getStyle());
+        Map<Style, Integer> styleCounts = new HashMap<Style, Integer>(root.getStyles().size());
 
-            styleCounts.put(word.getStyle(), old + word.getText().length());
+        for (int i = 0; i < root.getStyles().size(); i++) {
+            final Style style = root.getStyles().get(i);
+
+            styleCounts.put(style, index.getCharCount(style));
         }
 
         return styleCounts;
@@ -170,6 +223,10 @@ public class DocumentMetadata {
         return candidateHeaderStyles;
     }
 
+    public ParagraphIndex getParagraphIndex() {
+        return paragraphIndex;
+    }
+
     public DocumentNode getRoot() {
         return root;
     }
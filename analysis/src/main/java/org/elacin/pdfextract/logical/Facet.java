@@ -0,0 +1,41 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.logical;
+
+/**
+ * The parts of the logical structure of a document which operations read and write. These are
+ *  used to order and select the operations which are needed for a given output.
+ */
+public enum Facet {
+
+    /**
+     * which paragraphs are on the pages. operations which remove paragraphs write this
+     */
+    PARAGRAPHS,
+
+    /**
+     * the styles which might be used for headings, as found in DocumentMetadata
+     */
+    HEADER_STYLES, TITLE, ABSTRACT, FOOTNOTES, DIVS,
+
+    /**
+     * roles of single words, like identifiers and page numbers
+     */
+    WORD_ROLES
+}
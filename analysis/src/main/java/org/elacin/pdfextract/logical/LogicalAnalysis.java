@@ -22,34 +22,153 @@ import org.apache.log4j.Logger;
 
 import org.elacin.pdfextract.logical.operation.*;
 import org.elacin.pdfextract.tree.DocumentNode;
+import org.elacin.pdfextract.util.Parallel;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.elacin.pdfextract.Constants.LOGICAL_PARALLEL_ENABLED;
+import static org.elacin.pdfextract.Constants.LOGICAL_PARALLEL_MIN_PAGES;
 
 /**
- * Created by IntelliJ IDEA. User: elacin Date: 31.05.11 Time: 06.38 To change this template use
- * File | Settings | File Templates.
+ * Runs a pipeline of operations over a document. The operations are run in the order they are
+ *  given, but only the ones which are needed for what is wanted from the analysis. Operations
+ *  which work on one page at a time are run in parallel over the pages.
  */
 public class LogicalAnalysis {
 
 // ------------------------------ FIELDS ------------------------------
     private static final Logger log = Logger.getLogger(LogicalAnalysis.class);
+    @NotNull
+    private final List<Operation> operations;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public LogicalAnalysis(@NotNull final List<Operation> operations) {
+        this.operations = new ArrayList<Operation>(operations);
+    }
 
 // -------------------------- PUBLIC STATIC METHODS --------------------------
     public static void analyzeDocument(final DocumentNode root, final boolean arc) {
+        new LogicalAnalysis(createDefaultOperations(arc)).analyze(root, EnumSet.allOf(Facet.class));
+    }
 
-        if (root.getWords().isEmpty() || root.getChildren().isEmpty()) {
+    /**
+     * @param arc whether the document is an article with an abstract and footnotes
+     */
+    @NotNull
+    public static List<Operation> createDefaultOperations(final boolean arc) {
+
+        final List<Operation> ret = new ArrayList<Operation>();
+
+        ret.add(new ExtractTitle());
+        ret.add(new RemovePageNumbers());
+
+        if (arc) {
+            ret.add(new ExtractFootnotes());
+            ret.add(new ExtractAbstractAndRemovePreceedingText());
+        }
+
+        ret.add(new RecognizeDivs());
+        ret.add(new RecognizeRoles());
+
+        return ret;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Analyzes root, running the operations needed to find what is wanted
+     */
+    public void analyze(@NotNull final DocumentNode root, @NotNull final EnumSet<Facet> wanted) {
+
+        if (!root.hasWords() || root.getChildren().isEmpty()) {
             log.warn("LOG01590:tried to analyze empty document");
             return;
         }
 
-        final DocumentMetadata metadata = new DocumentMetadata(root);
+        final List<Operation> needed = selectOperations(wanted);
 
-        new ExtractTitle().doOperation(root, metadata);
-        new RemovePageNumbers().doOperation(root, metadata);
+        if (needed.isEmpty()) {
+            return;
+        }
 
-        if (arc) {
-            new ExtractFootnotes().doOperation(root, metadata);
-            new ExtractAbstractAndRemovePreceedingText().doOperation(root, metadata);
+        final DocumentMetadata metadata  = new DocumentMetadata(root);
+        final int              pageCount = metadata.getParagraphIndex().getPageCount();
+
+        for (Operation operation : needed) {
+            if (LOGICAL_PARALLEL_ENABLED && (operation instanceof PageOperation)
+                    && (pageCount >= LOGICAL_PARALLEL_MIN_PAGES)) {
+                runOverPages((PageOperation) operation, metadata, pageCount);
+            } else {
+                operation.doOperation(root, metadata);
+            }
+        }
+    }
+
+    /**
+     * Finds the operations which have to be run to get what is wanted. Going backwards, an
+     *  operation is needed if it writes something which is wanted, or which is read by a needed
+     *  operation after it.
+     */
+    @NotNull
+    List<Operation> selectOperations(@NotNull final EnumSet<Facet> wanted) {
+
+        final EnumSet<Facet>  required = EnumSet.copyOf(wanted);
+        final List<Operation> ret      = new ArrayList<Operation>(operations.size());
+
+        for (int i = operations.size() - 1; i >= 0; i--) {
+            final Operation      operation = operations.get(i);
+            final EnumSet<Facet> writes    = EnumSet.copyOf(operation.getWrites());
+
+            writes.retainAll(required);
+
+            if (writes.isEmpty()) {
+                if (log.isInfoEnabled()) {
+                    log.info("LOG01643:Skipping " + operation.getClass().getSimpleName());
+                }
+
+                continue;
+            }
+
+            required.addAll(operation.getReads());
+            ret.add(operation);
+        }
+
+        Collections.reverse(ret);
+
+        return ret;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Divides the pages in a few runs of consecutive pages, and has operation do them in parallel
+     */
+    private static void runOverPages(@NotNull final PageOperation operation,
+                                     @NotNull final DocumentMetadata metadata, final int pageCount) {
+
+        final int            runs  = Math.min(pageCount, 4 * Parallel.getThreadCount());
+        final List<Runnable> tasks = new ArrayList<Runnable>(runs);
+
+        for (int i = 0; i < runs; i++) {
+            final int from = (int) ((long) pageCount * i / runs);
+            final int to   = (int) ((long) pageCount * (i + 1) / runs);
+
+            tasks.add(new Runnable() {
+
+                public void run() {
+
+                    for (int page = from; page < to; page++) {
+                        operation.doOperationOnPage(page, metadata);
+                    }
+                }
+            });
         }
 
-        new RecognizeDivs().doOperation(root, metadata);
+        Parallel.runAll(tasks);
     }
 }
@@ -19,6 +19,10 @@ package org.elacin.pdfextract.logical;
 
 import org.elacin.pdfextract.tree.DocumentNode;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumSet;
+
 /**
  * Created by IntelliJ IDEA. User: elacin Date: Mar 23, 2010 Time: 3:09:37 AM To change this
  * template use File | Settings | File Templates.
@@ -27,4 +31,16 @@ public interface Operation {
 
 // -------------------------- PUBLIC METHODS --------------------------
     void doOperation(DocumentNode root, final DocumentMetadata metadata);
+
+    /**
+     * @return what this operation looks at, so the operations writing it have to be run first
+     */
+    @NotNull
+    EnumSet<Facet> getReads();
+
+    /**
+     * @return what this operation changes. it is skipped if nobody wants any of it
+     */
+    @NotNull
+    EnumSet<Facet> getWrites();
 }
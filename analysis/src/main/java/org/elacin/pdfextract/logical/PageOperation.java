@@ -0,0 +1,36 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.logical;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An operation which looks at one page at a time, and only changes what is on that page. The
+ *  pages may be processed in parallel, so this is called from several threads at once, but never
+ *  for the same page.
+ */
+public interface PageOperation extends Operation {
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * @param pageIndex the position of the page in the document, as used by ParagraphIndex
+     */
+    void doOperationOnPage(int pageIndex, @NotNull DocumentMetadata metadata);
+}
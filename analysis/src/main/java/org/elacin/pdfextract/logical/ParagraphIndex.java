@@ -0,0 +1,347 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.logical;
+
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.tree.*;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A flattened view of all the paragraphs and lines in a document, built in one walk over the tree
+ *  before the logical analysis starts. Styles are replaced by ordinals, and what the operations
+ *  need to know about each paragraph is kept in arrays, so they can look at the whole document
+ *  without recomputing text and styles from the tree again and again.
+ * <p/>
+ * The operations change the tree as they go. When a paragraph is removed from the tree it must
+ *  also be removed from the index, and it will not be visited after that. Rows are otherwise not
+ *  kept up to date, so a paragraph which gets new children should be removed as well.
+ */
+public final class ParagraphIndex {
+
+// ------------------------------ FIELDS ------------------------------
+
+    /* styles, the ones of the document first */
+    @NotNull
+    private final Map<Style, Integer> ordinals = new HashMap<Style, Integer>();
+    @NotNull
+    private Style[]                   styles;
+    @NotNull
+    private int[]                     charsPerStyle;
+    private int                       styleCount;
+
+    /* pages. paragraphs of page p are found in rows pageStart[p] until pageStart[p + 1] */
+    @NotNull
+    private final PageNode[] pages;
+    @NotNull
+    private final int[]      pageStart;
+
+    /* paragraphs */
+    @NotNull
+    private final ParagraphNode[]                     paragraphs;
+    @NotNull
+    private final int[]                               page, style, textLength, lineCount;
+    @NotNull
+    private final float[]                             y;
+    @NotNull
+    private final char[]                              firstChar;
+    @NotNull
+    private final boolean[]                           removed;
+    @NotNull
+    private final IdentityHashMap<ParagraphNode, Integer> rows;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public ParagraphIndex(@NotNull final DocumentNode root) {
+
+        final List<PageNode> pageNodes      = root.getChildren();
+        int                  paragraphCount = 0;
+
+        for (PageNode pageNode : pageNodes) {
+            paragraphCount += pageNode.getChildren().size();
+        }
+
+        styles        = new Style[Math.max(8, root.getStyles().size())];
+        charsPerStyle = new int[styles.length];
+
+        for (Style documentStyle : root.getStyles()) {
+            ordinalOf(documentStyle);
+        }
+
+        pages      = pageNodes.toArray(new PageNode[pageNodes.size()]);
+        pageStart  = new int[pages.length + 1];
+        paragraphs = new ParagraphNode[paragraphCount];
+        page       = new int[paragraphCount];
+        style      = new int[paragraphCount];
+        textLength = new int[paragraphCount];
+        lineCount  = new int[paragraphCount];
+        y          = new float[paragraphCount];
+        firstChar  = new char[paragraphCount];
+        removed    = new boolean[paragraphCount];
+        rows       = new IdentityHashMap<ParagraphNode, Integer>(paragraphCount);
+
+        int row = 0;
+
+        for (int p = 0; p < pages.length; p++) {
+            pageStart[p] = row;
+
+            for (ParagraphNode paragraph : pages[p].getChildren()) {
+                final List<LineNode> paragraphLines = paragraph.getChildren();
+
+                for (LineNode lineNode : paragraphLines) {
+                    ordinalOf(lineNode.getStyle());
+                    addWords(lineNode);
+                }
+
+                paragraphs[row] = paragraph;
+                page[row]       = p;
+                style[row]      = ordinalOf(paragraph.getStyle());
+                textLength[row] = paragraph.getTextView().length();
+                lineCount[row]  = paragraphLines.size();
+                y[row]          = paragraph.getPos().y;
+                firstChar[row]  = findFirstChar(paragraph);
+                rows.put(paragraph, row);
+                row++;
+            }
+        }
+
+        pageStart[pages.length] = row;
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * @return the first character of the first word of paragraph, or 0 if there is none
+     */
+    private static char findFirstChar(@NotNull final ParagraphNode paragraph) {
+
+        if (paragraph.getChildren().isEmpty()) {
+            return 0;
+        }
+
+        final List<WordNode> words = paragraph.getChildren().get(0).getChildren();
+
+        if (words.isEmpty() || (words.get(0).getText().length() == 0)) {
+            return 0;
+        }
+
+        return words.get(0).getText().charAt(0);
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Visits all the paragraphs still in the index, in document order
+     */
+    public void accept(@NotNull final ParagraphVisitor visitor) {
+        visit(visitor, 0, paragraphs.length);
+    }
+
+    /**
+     * Visits the paragraphs still in the index which belong to the given page
+     *
+     * @param pageIndex the position of the page in the document, not its page number
+     */
+    public void acceptPage(final int pageIndex, @NotNull final ParagraphVisitor visitor) {
+        visit(visitor, pageStart[pageIndex], pageStart[pageIndex + 1]);
+    }
+
+    public int getCharCount(@NotNull final Style s) {
+
+        final Integer ordinal = ordinals.get(s);
+
+        return (ordinal == null)
+               ? 0
+               : charsPerStyle[ordinal];
+    }
+
+    public char getFirstChar(final int row) {
+        return firstChar[row];
+    }
+
+    public int getLinesInParagraph(final int row) {
+        return lineCount[row];
+    }
+
+    /**
+     * @return the ordinal of s, or -1 if nothing in the document has that style
+     */
+    public int getOrdinalOfStyle(@Nullable final Style s) {
+
+        final Integer ordinal = ordinals.get(s);
+
+        return (ordinal == null)
+               ? -1
+               : ordinal;
+    }
+
+    @NotNull
+    public PageNode getPage(final int pageIndex) {
+        return pages[pageIndex];
+    }
+
+    public int getPageCount() {
+        return pages.length;
+    }
+
+    public int getPageIndex(final int row) {
+        return page[row];
+    }
+
+    @NotNull
+    public ParagraphNode getParagraph(final int row) {
+        return paragraphs[row];
+    }
+
+    /**
+     * @return the row of paragraph, or -1 if it is not directly on a page of the document
+     */
+    public int getRow(@NotNull final ParagraphNode paragraph) {
+
+        final Integer row = rows.get(paragraph);
+
+        return (row == null)
+               ? -1
+               : row;
+    }
+
+    @NotNull
+    public Style getStyle(final int row) {
+        return styles[style[row]];
+    }
+
+    @NotNull
+    public Style getStyleForOrdinal(final int ordinal) {
+        return styles[ordinal];
+    }
+
+    public int getStyleCount() {
+        return styleCount;
+    }
+
+    public int getStyleOrdinal(final int row) {
+        return style[row];
+    }
+
+    public int getTextLength(final int row) {
+        return textLength[row];
+    }
+
+    public float getY(final int row) {
+        return y[row];
+    }
+
+    public boolean isRemoved(final int row) {
+        return removed[row];
+    }
+
+    /**
+     * @return the next paragraph still in the index on the same page as row, or -1
+     */
+    public int nextOnPage(final int row) {
+
+        final int end = pageStart[page[row] + 1];
+
+        for (int i = row + 1; i < end; i++) {
+            if (!removed[i]) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    public void remove(final int row) {
+        removed[row] = true;
+    }
+
+    /**
+     * Removes paragraph from the index, if it is there
+     */
+    public void remove(@NotNull final ParagraphNode paragraph) {
+
+        final Integer row = rows.get(paragraph);
+
+        if (row != null) {
+            removed[row] = true;
+        }
+    }
+
+    public int size() {
+        return paragraphs.length;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Counts the characters of each style in line
+     */
+    private void addWords(@NotNull final LineNode line) {
+
+        final List<WordNode> words = line.getChildren();
+
+        for (int i = 0; i < words.size(); i++) {
+            final WordNode word = words.get(i);
+
+            charsPerStyle[ordinalOf(word.getStyle())] += word.getText().length();
+        }
+    }
+
+    private int ordinalOf(@NotNull final Style s) {
+
+        final Integer existing = ordinals.get(s);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        if (styleCount == styles.length) {
+            final Style[] newStyles = new Style[styles.length * 2];
+            final int[]   newChars  = new int[styles.length * 2];
+
+            System.arraycopy(styles, 0, newStyles, 0, styleCount);
+            System.arraycopy(charsPerStyle, 0, newChars, 0, styleCount);
+            styles        = newStyles;
+            charsPerStyle = newChars;
+        }
+
+        styles[styleCount] = s;
+        ordinals.put(s, styleCount);
+
+        return styleCount++;
+    }
+
+    private void visit(@NotNull final ParagraphVisitor visitor, final int from, final int to) {
+
+        for (int i = from; i < to; i++) {
+            if (removed[i]) {
+                continue;
+            }
+
+            if (!visitor.visitParagraph(this, i)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.logical;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Visits the paragraphs of a ParagraphIndex in document order.
+ */
+public interface ParagraphVisitor {
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * @param index     the index being visited
+     * @param paragraph the row of the paragraph in index
+     * @return false to stop the visit
+     */
+    boolean visitParagraph(@NotNull ParagraphIndex index, int paragraph);
+}
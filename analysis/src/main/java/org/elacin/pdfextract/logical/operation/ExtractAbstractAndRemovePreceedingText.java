@@ -21,14 +21,20 @@ package org.elacin.pdfextract.logical.operation;
 import org.apache.log4j.Logger;
 
 import org.elacin.pdfextract.logical.DocumentMetadata;
+import org.elacin.pdfextract.logical.Facet;
 import org.elacin.pdfextract.logical.Operation;
+import org.elacin.pdfextract.logical.ParagraphIndex;
 import org.elacin.pdfextract.style.StyleDifference;
 import org.elacin.pdfextract.tree.DocumentNode;
 import org.elacin.pdfextract.tree.PageNode;
 import org.elacin.pdfextract.tree.ParagraphNode;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumSet;
 import java.util.List;
 
+import static org.elacin.pdfextract.logical.Facet.*;
 import static org.elacin.pdfextract.style.StyleComparator.styleCompare;
 
 /**
@@ -48,12 +54,13 @@ public class ExtractAbstractAndRemovePreceedingText implements Operation {
 // --------------------- Interface Operation ---------------------
     public void doOperation(final DocumentNode root, final DocumentMetadata metadata) {
 
-        if (root.getWords().isEmpty() || root.getChildren().isEmpty()) {
+        if (!root.hasWords() || root.getChildren().isEmpty()) {
             throw new RuntimeException("tried to analyze empty document");
         }
 
-        PageNode            firstPage = root.getChildren().get(0);
-        List<ParagraphNode> prfs      = firstPage.getChildren();
+        PageNode             firstPage  = root.getChildren().get(0);
+        List<ParagraphNode>  prfs       = firstPage.getChildren();
+        final ParagraphIndex paragraphs = metadata.getParagraphIndex();
 
         for (int i = 0; i < prfs.size(); i++) {
             final ParagraphNode absTitlePrf = prfs.get(i);
@@ -77,18 +84,24 @@ public class ExtractAbstractAndRemovePreceedingText implements Operation {
                     }
 
                     abstractPrf.addChildren(next.getChildren());
-                    prfs.remove(i);
+                    firstPage.removeChild(next);
+                    paragraphs.remove(next);
                 }
 
                 /* set the newly created paragraph as the special abstract paragraph in the tree,
                  and remove it from the original position*  */
                 root.setAbstractParagraph(abstractPrf);
-                prfs.remove(abstractPrf);
-                prfs.remove(absTitlePrf);
+                firstPage.removeChild(abstractPrf);
+                firstPage.removeChild(absTitlePrf);
+                paragraphs.remove(abstractPrf);
+                paragraphs.remove(absTitlePrf);
 
                 /* then remove all preceeding content */
                 for (int j = 0; j < i -2; j++){
-                    prfs.remove(0);
+                    final ParagraphNode preceeding = prfs.get(0);
+
+                    firstPage.removeChild(preceeding);
+                    paragraphs.remove(preceeding);
                 }
 
 
@@ -101,4 +114,14 @@ public class ExtractAbstractAndRemovePreceedingText implements Operation {
             }
         }
     }
+
+    @NotNull
+    public EnumSet<Facet> getReads() {
+        return EnumSet.of(PARAGRAPHS);
+    }
+
+    @NotNull
+    public EnumSet<Facet> getWrites() {
+        return EnumSet.of(ABSTRACT, PARAGRAPHS);
+    }
 }
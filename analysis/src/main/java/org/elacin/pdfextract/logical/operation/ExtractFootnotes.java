@@ -19,30 +19,63 @@
 package org.elacin.pdfextract.logical.operation;
 
 import org.elacin.pdfextract.logical.DocumentMetadata;
-import org.elacin.pdfextract.logical.Operation;
-import org.elacin.pdfextract.tree.*;
+import org.elacin.pdfextract.logical.Facet;
+import org.elacin.pdfextract.logical.PageOperation;
+import org.elacin.pdfextract.logical.ParagraphIndex;
+import org.elacin.pdfextract.logical.ParagraphVisitor;
+import org.elacin.pdfextract.tree.DocumentNode;
+import org.elacin.pdfextract.tree.Role;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumSet;
+
+import static org.elacin.pdfextract.logical.Facet.*;
 
 /**
  * Created by IntelliJ IDEA. User: elacin Date: 30.03.11 Time: 05.13 To change this template use
  * File | Settings | File Templates.
  */
-public class ExtractFootnotes implements Operation {
+public class ExtractFootnotes implements PageOperation {
 
 // ------------------------ INTERFACE METHODS ------------------------
 // --------------------- Interface Operation ---------------------
     public void doOperation(final DocumentNode root, final DocumentMetadata metadata) {
 
-        for (PageNode pageNode : root.getChildren()) {
-            for (ParagraphNode prf : pageNode.getChildren()) {
-                if (prf.getStyle().xSize < metadata.getBodyText().xSize) {
-                    WordNode firstWord = prf.getChildren().get(0).getChildren().get(0);
-                    char     ch        = firstWord.getText().charAt(0);
+        for (int page = 0; page < metadata.getParagraphIndex().getPageCount(); page++) {
+            doOperationOnPage(page, metadata);
+        }
+    }
+
+    @NotNull
+    public EnumSet<Facet> getReads() {
+        return EnumSet.of(PARAGRAPHS);
+    }
+
+    @NotNull
+    public EnumSet<Facet> getWrites() {
+        return EnumSet.of(FOOTNOTES);
+    }
+
+// --------------------- Interface PageOperation ---------------------
+    public void doOperationOnPage(final int pageIndex, @NotNull final DocumentMetadata metadata) {
+
+        final int bodyTextSize = metadata.getBodyText().xSize;
+
+        metadata.getParagraphIndex().acceptPage(pageIndex, new ParagraphVisitor() {
+
+            public boolean visitParagraph(@NotNull final ParagraphIndex index, final int prf) {
+
+                if (index.getStyle(prf).xSize < bodyTextSize) {
+                    char ch = index.getFirstChar(prf);
 
                     if (Character.isDigit(ch) || (ch == '*')) {
-                        prf.addRole(Role.FOOTNOTE);
+                        index.getParagraph(prf).addRole(Role.FOOTNOTE);
                     }
                 }
+
+                return true;
             }
-        }
+        });
     }
 }
@@ -21,14 +21,22 @@ package org.elacin.pdfextract.logical.operation;
 import org.apache.log4j.Logger;
 
 import org.elacin.pdfextract.logical.DocumentMetadata;
+import org.elacin.pdfextract.logical.Facet;
 import org.elacin.pdfextract.logical.Operation;
+import org.elacin.pdfextract.logical.ParagraphIndex;
+import org.elacin.pdfextract.logical.ParagraphVisitor;
 import org.elacin.pdfextract.style.Style;
 import org.elacin.pdfextract.tree.DocumentNode;
 import org.elacin.pdfextract.tree.PageNode;
 import org.elacin.pdfextract.tree.ParagraphNode;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumSet;
 import java.util.List;
 
+import static org.elacin.pdfextract.logical.Facet.*;
+
 /**
  * Created by IntelliJ IDEA. User: elacin Date: 31.05.11 Time: 06.25 To change this template use
  * File | Settings | File Templates.
@@ -45,31 +53,50 @@ public class ExtractTitle implements Operation {
         final List<Style> headerCandidates = metadata.getCandidateHeaderStyles();
 
         /* extract title */
-        PageNode            firstPage           = root.getChildren().get(0);
-        List<ParagraphNode> firstPagePrfs = firstPage.getChildren();
+        final PageNode firstPage = root.getChildren().get(0);
+
+        metadata.getParagraphIndex().acceptPage(0, new ParagraphVisitor() {
 
-        for (int i = 0; i < firstPagePrfs.size(); i++) {
-            final ParagraphNode titleParagraph = firstPagePrfs.get(i);
+            public boolean visitParagraph(@NotNull final ParagraphIndex index, final int prf) {
 
-            if (headerCandidates.contains(titleParagraph.getStyle())) {
+                if (!headerCandidates.contains(index.getStyle(prf))) {
+                    return true;
+                }
+
+                final ParagraphNode titleParagraph = index.getParagraph(prf);
 
                 /* check if the next text logically belongs with this */
-                if (i + 1 != firstPagePrfs.size() - 1) {
-                    ParagraphNode peekNext = firstPagePrfs.get(i + 1);
+                final int next = index.nextOnPage(prf);
+
+                if ((next != -1) && (index.nextOnPage(next) != -1)) {
+                    ParagraphNode peekNext = index.getParagraph(next);
 
-                    if (peekNext.getStyle().equals(titleParagraph.getStyle())) {
+                    if (index.getStyleOrdinal(next) == index.getStyleOrdinal(prf)) {
                         firstPage.removeChild(peekNext);
+                        index.remove(next);
                         titleParagraph.addChildren(peekNext.getChildren());
                     }
                 }
 
                 root.setTitle(titleParagraph);
                 firstPage.removeChild(titleParagraph);
-//                headerCandidates.remove(titleParagraph.getStyle()); //TODO:does this make sense?
+                index.remove(prf);
+
+//              headerCandidates.remove(titleParagraph.getStyle()); //TODO:does this make sense?
                 log.warn("LOG01430:Title is " + root.getTitle());
 
-                break;
+                return false;
             }
-        }
+        });
+    }
+
+    @NotNull
+    public EnumSet<Facet> getReads() {
+        return EnumSet.of(HEADER_STYLES, PARAGRAPHS);
+    }
+
+    @NotNull
+    public EnumSet<Facet> getWrites() {
+        return EnumSet.of(TITLE, PARAGRAPHS);
     }
 }
@@ -21,14 +21,21 @@ package org.elacin.pdfextract.logical.operation;
 import org.apache.log4j.Logger;
 
 import org.elacin.pdfextract.logical.DocumentMetadata;
+import org.elacin.pdfextract.logical.Facet;
 import org.elacin.pdfextract.logical.Operation;
+import org.elacin.pdfextract.logical.ParagraphIndex;
+import org.elacin.pdfextract.logical.ParagraphVisitor;
 import org.elacin.pdfextract.style.Style;
-import org.elacin.pdfextract.tree.*;
+import org.elacin.pdfextract.tree.DocumentNode;
+import org.elacin.pdfextract.tree.Role;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.EnumSet;
 import java.util.List;
 
+import static org.elacin.pdfextract.logical.Facet.*;
+
 /**
  * Created by IntelliJ IDEA. User: elacin Date: 31.01.11 Time: 10.46 To change this template use
  * File | Settings | File Templates.
@@ -42,75 +49,92 @@ public class RecognizeDivs implements Operation {
 // --------------------- Interface Operation ---------------------
     public void doOperation(@NotNull final DocumentNode root, @NotNull final DocumentMetadata metadata) {
 
-        List<Style> headerCandidates = metadata.getCandidateHeaderStyles();
-        Style       div1             = null,
-                    div2             = null,
-                    div3             = null;
-        int         divFound         = 0;
+        final ParagraphIndex paragraphs = metadata.getParagraphIndex();
 
         /* identify styles for three levels of divs */
-        for (PageNode p : root.getChildren()) {
-            for (ParagraphNode prf : p.getChildren()) {
-                Style currentStyle = prf.getStyle();
+        final DivStyleFinder finder = new DivStyleFinder(metadata.getCandidateHeaderStyles());
+
+        paragraphs.accept(finder);
+
+        /* tag matching headline paragraphs with the corresponding role */
+        final int div1 = paragraphs.getOrdinalOfStyle(finder.divs[0]);
+        final int div2 = paragraphs.getOrdinalOfStyle(finder.divs[1]);
+        final int div3 = paragraphs.getOrdinalOfStyle(finder.divs[2]);
 
-                if (div3 != null) {
-                    continue;
+        paragraphs.accept(new ParagraphVisitor() {
+
+            public boolean visitParagraph(@NotNull final ParagraphIndex index, final int prf) {
+
+                if (!Character.isDigit(index.getFirstChar(prf))) {
+                    return true;
                 }
 
-                if (prf.hasRole()) {
-                    continue;
+                final int currentStyle = index.getStyleOrdinal(prf);
+                Role      r            = null;
+
+                if (currentStyle == div1) {
+                    r = Role.DIV1;
+                } else if (currentStyle == div2) {
+                    r = Role.DIV2;
+                } else if (currentStyle == div3) {
+                    r = Role.DIV3;
                 }
 
-                if (!Character.isDigit(prf.getText().charAt(0))) {
-                    continue;
+                if (r != null) {
+                    index.getParagraph(prf).addRole(r);
                 }
 
-                if (headerCandidates.contains(currentStyle)) {
-                    switch (divFound) {
-                    case 0 :
-                        div1 = currentStyle;
+                return true;
+            }
+        });
+    }
 
-                        break;
-                    case 1 :
-                        div2 = currentStyle;
+    @NotNull
+    public EnumSet<Facet> getReads() {
+        return EnumSet.of(HEADER_STYLES, PARAGRAPHS, FOOTNOTES);
+    }
 
-                        break;
-                    case 2 :
-                        div3 = currentStyle;
+    @NotNull
+    public EnumSet<Facet> getWrites() {
+        return EnumSet.of(DIVS, HEADER_STYLES);
+    }
 
-                        break;
-                    default :
-                        assert false;
-                    }
+// -------------------------- INNER CLASSES --------------------------
 
-                    headerCandidates.remove(currentStyle);
-                    divFound++;
-                }
-            }
+    /**
+     * Picks the styles of the first three numbered paragraphs with a header style as the styles of
+     *  the three levels of divs
+     */
+    private static class DivStyleFinder implements ParagraphVisitor {
+
+        @NotNull
+        final Style[]             divs = new Style[3];
+        int                       divFound;
+        @NotNull
+        private final List<Style> headerCandidates;
+
+        DivStyleFinder(@NotNull final List<Style> headerCandidates) {
+            this.headerCandidates = headerCandidates;
         }
 
-        /* tag matching headline paragraphs with the corresponding role */
-        for (PageNode p : root.getChildren()) {
-            for (ParagraphNode prf : p.getChildren()) {
-                Style currentStyle = prf.getStyle();
-                Role  r            = null;
+        public boolean visitParagraph(@NotNull final ParagraphIndex index, final int prf) {
 
-                if (!Character.isDigit(prf.getText().charAt(0))) {
-                    continue;
-                }
+            if (index.getParagraph(prf).hasRole()) {
+                return true;
+            }
 
-                if (currentStyle.equals(div1)) {
-                    r = Role.DIV1;
-                } else if (currentStyle.equals(div2)) {
-                    r = Role.DIV2;
-                } else if (currentStyle.equals(div3)) {
-                    r = Role.DIV3;
-                }
+            if (!Character.isDigit(index.getFirstChar(prf))) {
+                return true;
+            }
 
-                if (r != null) {
-                    prf.addRole(r);
-                }
+            final Style currentStyle = index.getStyle(prf);
+
+            if (headerCandidates.contains(currentStyle)) {
+                divs[divFound++] = currentStyle;
+                headerCandidates.remove(currentStyle);
             }
+
+            return divFound < divs.length;
         }
     }
 }
@@ -18,9 +18,8 @@
 
 package org.elacin.pdfextract.logical.operation;
 
-import org.apache.log4j.Logger;
-
 import org.elacin.pdfextract.logical.DocumentMetadata;
+import org.elacin.pdfextract.logical.Facet;
 import org.elacin.pdfextract.logical.Operation;
 import org.elacin.pdfextract.style.Style;
 import org.elacin.pdfextract.tree.DocumentNode;
@@ -28,10 +27,10 @@ import org.elacin.pdfextract.tree.Role;
 import org.elacin.pdfextract.tree.WordNode;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.EnumSet;
+
+import static org.elacin.pdfextract.logical.Facet.*;
 
 /**
  * Created by IntelliJ IDEA. User: elacin Date: Mar 23, 2010 Time: 3:11:50 AM To change this
@@ -39,69 +38,139 @@ import java.util.regex.Pattern;
  */
 public class RecognizeRoles implements Operation {
 
-// ------------------------------ FIELDS ------------------------------
-    private static final Logger log = Logger.getLogger(RecognizeRoles.class);
-
-/* these are used to recognize identifiers */
-    static final Pattern id                = Pattern.compile("(?:X\\d{1,2}|\\w{1,2})");
-    static final Pattern refWithDotPattern = Pattern.compile("\\s*(" + id + "\\s*\\.\\s*\\d?).*",
-                                                 Pattern.DOTALL | Pattern.MULTILINE);
-    static final Pattern numInParenthesisPattern = Pattern.compile("(\\(\\s*" + id + "\\s*\\)).*",
-                                                       Pattern.DOTALL | Pattern.MULTILINE);
-    @Nullable
-    final Style breadtext = null;
-
 // ------------------------ INTERFACE METHODS ------------------------
 // --------------------- Interface Operation ---------------------
-    public void doOperation(@NotNull final DocumentNode root, final DocumentMetadata metadata) {
+    public void doOperation(@NotNull final DocumentNode root,
+                            @NotNull final DocumentMetadata metadata) {
 
-        if (breadtext == null) {
-            log.error("provide breadtext here");
-
-            return;
-        }
+        final Style breadtext = metadata.getBodyText();
 
         for (WordNode word : root.getWords()) {
-            checkForIdentifier(word);
-            checkForTopNote(word);
+            checkForIdentifier(word, breadtext);
+            checkForTopNote(word, breadtext);
             checkForPageNumber(word);
         }
     }
 
-// -------------------------- OTHER METHODS --------------------------
-    void checkForIdentifier(@NotNull final WordNode word) {
+    @NotNull
+    public EnumSet<Facet> getReads() {
+        return EnumSet.of(PARAGRAPHS);
+    }
 
-        String       mark        = null;
-        final String trimmedText = word.text.trim();
+    @NotNull
+    public EnumSet<Facet> getWrites() {
+        return EnumSet.of(WORD_ROLES);
+    }
 
-        if ("".equals(trimmedText)) {
-            return;
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Determines whether text starts with an identifier. That is either an id in parenthesis
+     *  like "(a)" or "( 12 )", or an id followed by a dot like "1." or " X12 .". An id is one or
+     *  two word characters, or an 'X' followed by one or two digits.
+     *
+     * This is a single scan over the start of the text, and accepts exactly what the patterns
+     *  <code>\(\s*ID\s*\).*</code> and <code>\s*ID\s*\..*</code> would, with
+     *  <code>ID = (?:X\d{1,2}|\w{1,2})</code>.
+     */
+    static boolean isIdentifier(@NotNull final CharSequence text) {
+
+        if (text.length() == 0) {
+            return false;
         }
 
-        // TODO:!
-        if (word.getStyle().equals(breadtext)) {
-            return;
+        final char terminator;
+        int        pos;
+
+        if (text.charAt(0) == '(') {
+            terminator = ')';
+            pos        = skipWhitespace(text, 1);
+        } else {
+            terminator = '.';
+            pos        = skipWhitespace(text, 0);
         }
 
-        final Matcher matcher = numInParenthesisPattern.matcher(word.text);
+        pos = skipId(text, pos);
 
-        if (matcher.matches()) {
-            mark = matcher.group(1);
-        } else {
-            final Matcher matcher2 = refWithDotPattern.matcher(word.text);
+        if (pos == -1) {
+            return false;
+        }
+
+        pos = skipWhitespace(text, pos);
 
-            if (matcher2.matches()) {
-                mark = matcher2.group(1);
+        return (pos < text.length()) && (text.charAt(pos) == terminator);
+    }
+
+    /**
+     * Returns the position after an id starting at pos, or -1 if there is none. An id is always
+     *  followed by something which is not a word character, so the whole run of word characters
+     *  starting at pos has to be the id.
+     */
+    private static int skipId(@NotNull final CharSequence text, final int pos) {
+
+        final int length = text.length();
+        int       end    = pos;
+
+        while ((end < length) && isWordChar(text.charAt(end))) {
+            end++;
+
+            if (end - pos > 3) {
+                return -1;
             }
         }
 
+        final int run = end - pos;
+
+        if ((run == 1) || (run == 2)) {
+            return end;
+        }
+
+        if ((run == 3) && (text.charAt(pos) == 'X') && isDigit(text.charAt(pos + 1))
+                && isDigit(text.charAt(pos + 2))) {
+            return end;
+        }
+
+        return -1;
+    }
+
+    private static int skipWhitespace(@NotNull final CharSequence text, int pos) {
+
+        while ((pos < text.length()) && isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+
+        return pos;
+    }
+
+    /* these three are the same as \d, \s and \w in java.util.regex */
+    private static boolean isDigit(final char c) {
+        return (c >= '0') && (c <= '9');
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f')
+               || (c == '\r');
+    }
+
+    private static boolean isWordChar(final char c) {
+        return isDigit(c) || ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || (c == '_');
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+    void checkForIdentifier(@NotNull final WordNode word, @NotNull final Style breadtext) {
+
+        // TODO:!
+        if (word.getStyle().equals(breadtext)) {
+            return;
+        }
+
         /* if the first character is '*' or '-' set that as mark */
 
         // final String firstChar = trimmedText.substring(0, 1);
         // if ("*-".contains(firstChar)) {
         // mark = firstChar;
         // }
-        if (mark != null) {
+        if (isIdentifier(word.text)) {
             word.addRole(Role.IDENTIFIER);
         }
     }
@@ -125,7 +194,7 @@ public class RecognizeRoles implements Operation {
         }
     }
 
-    private void checkForTopNote(@NotNull final WordNode word) {
+    private void checkForTopNote(@NotNull final WordNode word, @NotNull final Style breadtext) {
 
         if (word.getPos().y < (word.getPage().getPos().height * 5.0f / 100)) {
 
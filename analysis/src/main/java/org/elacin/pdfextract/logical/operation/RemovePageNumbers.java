@@ -21,18 +21,24 @@ package org.elacin.pdfextract.logical.operation;
 import org.apache.log4j.Logger;
 
 import org.elacin.pdfextract.logical.DocumentMetadata;
+import org.elacin.pdfextract.logical.Facet;
 import org.elacin.pdfextract.logical.Operation;
+import org.elacin.pdfextract.logical.ParagraphIndex;
+import org.elacin.pdfextract.logical.ParagraphVisitor;
 import org.elacin.pdfextract.style.Style;
-import org.elacin.pdfextract.style.TextUtils;
 import org.elacin.pdfextract.tree.DocumentNode;
-import org.elacin.pdfextract.tree.PageNode;
 import org.elacin.pdfextract.tree.ParagraphNode;
 
+import org.jetbrains.annotations.NotNull;
+
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 
+import static org.elacin.pdfextract.logical.Facet.*;
 import static org.elacin.pdfextract.style.TextUtils.findDominatingStyle;
+import static org.elacin.pdfextract.style.TextUtils.isAllDigitsWhenTrimmed;
 
 /**
  * Created by IntelliJ IDEA. User: elacin Date: 24.05.11 Time: 11.26 To change this template use
@@ -48,32 +54,35 @@ public class RemovePageNumbers implements Operation {
     public void doOperation(final DocumentNode root, final DocumentMetadata metadata) {
 
         /* make sure we only find max one page number per page */
-        final int                 size                  = 2 * root.getChildren().size();
+        final ParagraphIndex      paragraphs            = metadata.getParagraphIndex();
+        final int                 size                  = 2 * paragraphs.getPageCount();
         List<List<ParagraphNode>> potPageNumbersForPage = new ArrayList<List<ParagraphNode>>(size);
         List<ParagraphNode>       allPotPageNumbers     = new ArrayList<ParagraphNode>(size);
 
-        for (PageNode page : root.getChildren()) {
+        for (int page = 0; page < paragraphs.getPageCount(); page++) {
             final List<ParagraphNode> currentPagePotPageNum = new ArrayList<ParagraphNode>();
 
-            for (ParagraphNode prf : page.getChildren()) {
-                if (prf.hasRole()) {
-                    continue;
-                }
+            /* only look for page numbers in the lower 15% of the page */
+            final float lowerPart = paragraphs.getPage(page).getPos().endY * 0.85f;
 
-                /* look for one word paragraphs */
-                if (prf.getChildren().size() != 1) {
-                    continue;
-                }
+            paragraphs.acceptPage(page, new ParagraphVisitor() {
 
-                /* only look for page numbers in the lower 15% of the page */
-                if (prf.getPos().y < page.getPos().endY * 0.85f) {
-                    continue;
-                }
+                public boolean visitParagraph(@NotNull final ParagraphIndex index, final int prf) {
+
+                    /* look for one word paragraphs */
+                    if ((index.getLinesInParagraph(prf) != 1) || (index.getY(prf) < lowerPart)) {
+                        return true;
+                    }
+
+                    final ParagraphNode paragraph = index.getParagraph(prf);
 
-                if (isAllDigit(prf.getText().trim())) {
-                    currentPagePotPageNum.add(prf);
+                    if (!paragraph.hasRole() && isAllDigitsWhenTrimmed(paragraph.getTextView())) {
+                        currentPagePotPageNum.add(paragraph);
+                    }
+
+                    return true;
                 }
-            }
+            });
 
             if (currentPagePotPageNum.isEmpty()){
                 continue;
@@ -120,20 +129,19 @@ public class RemovePageNumbers implements Operation {
             ParagraphNode pageNumToRemove = pageNumCandidatesForPage.get(0);
             log.warn("LOG01580:Removing page number " + pageNumToRemove);
             pageNumToRemove.getParent().removeChild(pageNumToRemove);
+            paragraphs.remove(pageNumToRemove);
 
         }
 
     }
 
-// -------------------------- STATIC METHODS --------------------------
-    private static boolean isAllDigit(final String text) {
-
-        for (int i = 0; i < text.length(); i++) {
-            if (!Character.isDigit(text.charAt(i))) {
-                return false;
-            }
-        }
+    @NotNull
+    public EnumSet<Facet> getReads() {
+        return EnumSet.of(PARAGRAPHS, FOOTNOTES);
+    }
 
-        return true;
+    @NotNull
+    public EnumSet<Facet> getWrites() {
+        return EnumSet.of(PARAGRAPHS);
     }
 }
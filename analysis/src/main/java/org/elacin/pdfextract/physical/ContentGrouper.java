@@ -105,8 +105,12 @@ public class ContentGrouper {
     }
 
 // -------------------------- OTHER METHODS --------------------------
-    @SuppressWarnings({ "NumericCastThatLosesPrecision" })
-    private boolean markEverythingConnectedFrom(@NotNull final PhysicalContent content) {
+
+    /**
+     * Assigns content to the current block, and returns whether the content should be used to
+     *  look for more connected content.
+     */
+    private boolean markContent(@NotNull final PhysicalContent content) {
 
         if (!content.isAssignable()) {
             return false;
@@ -125,26 +129,40 @@ public class ContentGrouper {
         content.getAssignable().setBlockNum(allBlocks.size());
         currentBlock.addContent(content);
 
-        if (content.isGraphic()) {
-            return false;
-        }
+        return !content.isGraphic();
+    }
 
-        /* try searching for texts in all directions */
-        int startY = (int) Math.max(rpos.y, content.getPos().y);
-        int endY   = (int) Math.min(rpos.endY, content.getPos().endY);
+    /**
+     * Marks everything connected from content with the current block number. <p/> The search
+     *  state is kept in an explicit stack of {@link ConnectedSearch}es instead of on the call
+     *  stack, so big regions of tightly packed text will not overflow it.
+     */
+    private void markEverythingConnectedFrom(@NotNull final PhysicalContent content) {
 
-        for (int y = startY + 1; y < endY; y++) {
-            markBothWaysFromCurrent(content, region.findContentAtYIndex(y));
+        if (!markContent(content)) {
+            return;
         }
 
-        int startX = 1 + (int) Math.max(rpos.x, content.getPos().x);
-        int endX   = -1 + (int) Math.min(rpos.endX, content.getPos().endX);
+        final List<ConnectedSearch> stack = new ArrayList<ConnectedSearch>();
 
-        for (int x = startX; x < endX - 1; x++) {
-            markBothWaysFromCurrent(content, region.findContentAtXIndex(x));
-        }
+        stack.add(new ConnectedSearch(content));
+
+        while (!stack.isEmpty()) {
+            final ConnectedSearch current   = stack.get(stack.size() - 1);
+            final PhysicalContent neighbour = current.nextNeighbour();
 
-        return true;
+            if (neighbour == null) {
+                stack.remove(stack.size() - 1);
+
+                continue;
+            }
+
+            if (markContent(neighbour)) {
+                stack.add(new ConnectedSearch(neighbour));
+            } else {
+                current.stopDirection();
+            }
+        }
     }
 
     private void createBlocksForFormulas() {
@@ -229,26 +247,6 @@ public class ContentGrouper {
         }
     }
 
-    private void markBothWaysFromCurrent(final PhysicalContent current,
-            @NotNull final List<PhysicalContent> line) {
-
-        final int currentIndex = line.indexOf(current);
-
-        /* left/up */
-        for (int index = currentIndex - 1; (index >= 0); index--) {
-            if (!markEverythingConnectedFrom(line.get(index))){
-                break;
-            }
-        }
-
-        /* right / down */
-        for (int index = currentIndex + 1; (index < line.size()); index++) {
-            if (!markEverythingConnectedFrom(line.get(index))){
-                break;
-            }
-        }
-    }
-
     private void printLastBlock() {
 
         StringBuffer          sb   = new StringBuffer();
@@ -262,4 +260,79 @@ public class ContentGrouper {
 
         log.info("LOG01370:Created block" + sb);
     }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    /**
+     * The state of the search for content connected to one piece of content. All the rows and then
+     *  all the columns it covers are considered in turn, and for each of them the neighbours are
+     *  visited first to the left/up, and then to the right/down, stopping in each direction at
+     *  the first neighbour which is not connected.
+     */
+    private class ConnectedSearch {
+
+        @NotNull
+        final PhysicalContent content;
+        final int             endX, endY;
+        int                   x, y;
+
+        /* the line we are currently looking along */
+        List<PhysicalContent> line;
+        int                   centre, index, direction;
+
+        @SuppressWarnings({ "NumericCastThatLosesPrecision" })
+        ConnectedSearch(@NotNull final PhysicalContent content) {
+
+            this.content = content;
+            y            = 1 + (int) Math.max(rpos.y, content.getPos().y);
+            endY         = (int) Math.min(rpos.endY, content.getPos().endY);
+            x            = 1 + (int) Math.max(rpos.x, content.getPos().x);
+            endX         = -1 + (int) Math.min(rpos.endX, content.getPos().endX);
+        }
+
+        /**
+         * Returns the next neighbour to consider, or null if there are none left
+         */
+        PhysicalContent nextNeighbour() {
+
+            while (true) {
+                if (line != null) {
+                    index += direction;
+
+                    if ((index >= 0) && (index < line.size())) {
+                        return line.get(index);
+                    }
+
+                    stopDirection();
+
+                    continue;
+                }
+
+                if (y < endY) {
+                    line = region.findContentAtYIndex(y++);
+                } else if (x < endX - 1) {
+                    line = region.findContentAtXIndex(x++);
+                } else {
+                    return null;
+                }
+
+                centre    = line.indexOf(content);
+                index     = centre;
+                direction = -1;
+            }
+        }
+
+        /**
+         * Stops looking in the current direction along the current line
+         */
+        void stopDirection() {
+
+            if (direction < 0) {
+                direction = 1;
+                index     = centre;
+            } else {
+                line = null;
+            }
+        }
+    }
 }
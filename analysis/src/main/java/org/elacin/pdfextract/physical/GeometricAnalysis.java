@@ -24,6 +24,7 @@ import org.elacin.pdfextract.content.PhysicalPage;
 import org.elacin.pdfextract.content.PhysicalText;
 import org.elacin.pdfextract.datasource.DocumentContent;
 import org.elacin.pdfextract.datasource.PageContent;
+import org.elacin.pdfextract.physical.column.WhitespaceStatistics;
 import org.elacin.pdfextract.physical.word.WordSegmentator;
 import org.elacin.pdfextract.physical.word.WordSegmentatorImpl;
 import org.elacin.pdfextract.tree.DocumentNode;
@@ -47,23 +48,30 @@ public class GeometricAnalysis {
 
         root.getStyles().addAll(content.getStyles());
 
+        /* the templates are shared with other documents, the statistics are for this one */
+        final LayoutTemplateCache templates = Constants.LAYOUT_TEMPLATE_CACHE_ENABLED
+                                              ? new LayoutTemplateCache()
+                                              : null;
+        final WhitespaceStatistics statistics = new WhitespaceStatistics();
+
         for (final PageContent inputPage : content.getPages()) {
             MDC.put("page", inputPage.getPageNum());
 
-            if (inputPage.getCharacters().isEmpty()) {
+            if (inputPage.getCharacterStore().size() == 0) {
                 log.error("LOG01150:Page " + inputPage.getPageNum() + " is empty");
 
                 continue;
             }
 
-            final List<PhysicalText> words = wordSegmentator.segmentWords(inputPage.getCharacters());
+            final List<PhysicalText> words = wordSegmentator.segmentWords(
+                                                 inputPage.getCharacterStore());
 
             /* create a physical page instance */
             PhysicalPage pp = new PhysicalPage(words, inputPage.getGraphics(), inputPage.getPageNum(),
                                                inputPage.getDimensions());
 
             /* divide the page in smaller sections */
-            final PageNode pageNode = PageSegmentator.analyzePage(pp);
+            final PageNode pageNode = PageSegmentator.analyzePage(pp, templates, statistics);
 
             if (Constants.RENDER_ENABLED) {
                 pageNode.setPhysicalPage(pp);
@@ -78,6 +86,14 @@ public class GeometricAnalysis {
 
         log.info("Analyzed " + content.getPages().size() + " pages in " + td + "ms");
 
+        if (log.isInfoEnabled()) {
+            log.info("LOG01630:" + statistics);
+
+            if (templates != null) {
+                log.info("LOG01641:" + templates.getStatistics());
+            }
+        }
+
         return root;
     }
 }
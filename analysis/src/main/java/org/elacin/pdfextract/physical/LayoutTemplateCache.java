@@ -0,0 +1,513 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.physical;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.content.WhitespaceRectangle;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.geom.Sorting;
+import org.elacin.pdfextract.physical.graphics.CategorizedGraphics;
+import org.elacin.pdfextract.style.Style;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elacin.pdfextract.Constants.LAYOUT_TEMPLATE_CACHE_SIZE;
+import static org.elacin.pdfextract.Constants.LAYOUT_TEMPLATE_MIN_COLUMN_WIDTH;
+import static org.elacin.pdfextract.Constants.LAYOUT_TEMPLATE_STYLE_SHARE;
+import static org.elacin.pdfextract.Constants.LAYOUT_TEMPLATE_TOLERANCE;
+
+/**
+ * Remembers the whitespace and column boundaries found for the main region of pages, keyed by a
+ * fingerprint of the page layout. Pages set with the same template, also in other documents, will
+ * have fingerprints which match, and the whitespace of an earlier page is then used to seed the
+ * whitespace search of the next one.
+ * <p/>
+ * The fingerprint is made of what stays the same from page to page of a template: the size of the
+ * page, its dominating styles, the horizontal positions of its separators and the horizontal
+ * extents of its columns of text. Positions match when they are within
+ * LAYOUT_TEMPLATE_TOLERANCE of each other.
+ * <p/>
+ * Nothing is trusted blindly. The whitespace finder puts every seeded rectangle through the same
+ * checks as the ones it finds itself, and searches for whatever is missing as usual. The column
+ * boundaries found from the result are compared to those of the template, and if they are not
+ * the same the page is counted as a mismatch. What was found is still used, as it is as valid as
+ * a search from scratch, but only searches from scratch are made into templates.
+ * <p/>
+ * The templates are shared by all caches made with the default constructor, while the counts of
+ * how the lookups went belong to each cache, so that one can be used for each document.
+ */
+class LayoutTemplateCache {
+
+// ------------------------------ FIELDS ------------------------------
+
+    /* the templates of all documents */
+    @NotNull
+    private static final Map<Key, List<Template>> sharedTemplates = createTemplateMap(
+                                                                    LAYOUT_TEMPLATE_CACHE_SIZE);
+
+    /* templates with the same key are kept together, and compared one by one */
+    private static final int MAX_TEMPLATES_PER_KEY = 4;
+
+    /* of the lookups through this cache */
+    private final AtomicInteger hits       = new AtomicInteger();
+    private final AtomicInteger misses     = new AtomicInteger();
+    private final AtomicInteger mismatches = new AtomicInteger();
+    @NotNull
+    private final Map<Key, List<Template>> templates;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+
+    /**
+     * A cache with templates of its own, of which at most maxSize sets with the same key are kept
+     */
+    LayoutTemplateCache(final int maxSize) {
+        templates = createTemplateMap(maxSize);
+    }
+
+    /**
+     * A cache which shares its templates with all the other caches made this way
+     */
+    LayoutTemplateCache() {
+        templates = sharedTemplates;
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Fingerprints a page. This must be done before the main region is divided.
+     */
+    @NotNull
+    static Fingerprint fingerprint(@NotNull Rectangle pageDimensions,
+                                   @NotNull PhysicalPageRegion mainRegion,
+                                   @NotNull CategorizedGraphics graphics) {
+
+        final List<PhysicalText> texts = new ArrayList<PhysicalText>();
+
+        for (PhysicalContent content : mainRegion.getContents()) {
+            if (content.isText()) {
+                texts.add(content.getPhysicalText());
+            }
+        }
+
+        final List<GraphicContent> horizontal = graphics.getHorizontalSeparators();
+        final List<GraphicContent> vertical   = graphics.getVerticalSeparators();
+        final float[]              separators = new float[2 * horizontal.size() + vertical.size()];
+        int                        i          = 0;
+
+        for (GraphicContent separator : horizontal) {
+            separators[i++] = separator.getPos().x;
+            separators[i++] = separator.getPos().endX;
+        }
+
+        for (GraphicContent separator : vertical) {
+            separators[i++] = separator.getPos().getMiddleX();
+        }
+
+        Arrays.sort(separators);
+
+        return new Fingerprint(pageDimensions.width, pageDimensions.height,
+                               findDominatingStyles(texts), horizontal.size(), separators,
+                               findColumnExtents(texts,
+                                   mainRegion.getMinimumColumnSpacing()));
+    }
+
+    @NotNull
+    private static Map<Key, List<Template>> createTemplateMap(final int maxSize) {
+
+        /* least recently used keys are evicted first */
+        return new LinkedHashMap<Key, List<Template>>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, List<Template>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Finds the horizontal extents of the columns of text by projecting all the texts onto the x
+     *  axis. Texts which overlap or are closer than minSpacing belong to the same column, and
+     *  what ends up narrower than LAYOUT_TEMPLATE_MIN_COLUMN_WIDTH is not counted as a column.
+     *
+     * @return the start and end of each column, from left to right
+     */
+    @NotNull
+    static float[] findColumnExtents(@NotNull final List<PhysicalText> texts,
+                                     final float minSpacing) {
+
+        final List<PhysicalText> sorted = new ArrayList<PhysicalText>(texts);
+
+        Collections.sort(sorted, Sorting.sortByLowerX);
+
+        final List<Float> extents = new ArrayList<Float>();
+        float             start   = Float.NaN;
+        float             end     = Float.NaN;
+
+        for (PhysicalText text : sorted) {
+            final Rectangle pos = text.getPos();
+
+            if (!Float.isNaN(start) && (pos.x < end + minSpacing)) {
+                end = Math.max(end, pos.endX);
+
+                continue;
+            }
+
+            addColumnExtent(extents, start, end);
+            start = pos.x;
+            end   = pos.endX;
+        }
+
+        addColumnExtent(extents, start, end);
+
+        final float[] ret = new float[extents.size()];
+
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = extents.get(i);
+        }
+
+        return ret;
+    }
+
+    private static void addColumnExtent(@NotNull final List<Float> extents, final float start,
+            final float end) {
+
+        if (!Float.isNaN(start) && (end - start >= LAYOUT_TEMPLATE_MIN_COLUMN_WIDTH)) {
+            extents.add(start);
+            extents.add(end);
+        }
+    }
+
+    /**
+     * @return the styles which each have at least LAYOUT_TEMPLATE_STYLE_SHARE of the characters
+     *  of texts, ordered by their id
+     */
+    @NotNull
+    static List<Style> findDominatingStyles(@NotNull final List<PhysicalText> texts) {
+
+        final Map<Style, Integer> counts = new HashMap<Style, Integer>();
+        int                       total  = 0;
+
+        for (PhysicalText text : texts) {
+            final Integer count = counts.get(text.getStyle());
+            final int     chars = text.getText().length();
+
+            counts.put(text.getStyle(), (count == null)
+                                        ? chars
+                                        : count + chars);
+            total += chars;
+        }
+
+        final List<Style> ret = new ArrayList<Style>();
+
+        for (Map.Entry<Style, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() >= total * LAYOUT_TEMPLATE_STYLE_SHARE) {
+                ret.add(entry.getKey());
+            }
+        }
+
+        Collections.sort(ret, new Comparator<Style>() {
+
+            public int compare(@NotNull final Style o1, @NotNull final Style o2) {
+                return o1.id.compareTo(o2.id);
+            }
+        });
+
+        return ret;
+    }
+
+    static boolean isWithinTolerance(@NotNull final float[] a, @NotNull final float[] b) {
+
+        if (a.length != b.length) {
+            return false;
+        }
+
+        for (int i = 0; i < a.length; i++) {
+            if (!isWithinTolerance(a[i], b[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static boolean isWithinTolerance(final float a, final float b) {
+        return Math.abs(a - b) <= LAYOUT_TEMPLATE_TOLERANCE;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMismatches() {
+        return mismatches.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public String getStatistics() {
+
+        return String.format("%d pages matched a layout template, %d did not, %d of the matched "
+                             + "pages got other columns than their template", hits.get(),
+                             misses.get(), mismatches.get());
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * @return the most recent template which matches fingerprint, or null
+     */
+    @Nullable
+    Template lookup(@NotNull Fingerprint fingerprint) {
+
+        Template found = null;
+
+        synchronized (templates) {
+            final List<Template> candidates = templates.get(fingerprint.key);
+
+            if (candidates != null) {
+                for (int i = candidates.size() - 1; (i >= 0) && (found == null); i--) {
+                    if (candidates.get(i).fingerprint.matches(fingerprint)) {
+                        found = candidates.get(i);
+                    }
+                }
+            }
+        }
+
+        if (found == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+
+        return found;
+    }
+
+    /**
+     * Tells that a page got other columns than its template
+     */
+    void mismatched() {
+        mismatches.incrementAndGet();
+    }
+
+    void store(@NotNull Fingerprint fingerprint, @NotNull List<WhitespaceRectangle> whitespace,
+               @NotNull List<WhitespaceRectangle> columnBoundaries) {
+
+        if (whitespace.isEmpty()) {
+            return;
+        }
+
+        final Template template = new Template(fingerprint, whitespace, columnBoundaries);
+
+        synchronized (templates) {
+            List<Template> candidates = templates.get(fingerprint.key);
+
+            if (candidates == null) {
+                candidates = new ArrayList<Template>(MAX_TEMPLATES_PER_KEY);
+                templates.put(fingerprint.key, candidates);
+            }
+
+            if (candidates.size() == MAX_TEMPLATES_PER_KEY) {
+                candidates.remove(0);
+            }
+
+            candidates.add(template);
+        }
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    /**
+     * What is known about the layout of a page before it is divided
+     */
+    static final class Fingerprint {
+
+        private final float width, height;
+
+        /* the start and end of every horizontal separator followed by the middle of every
+            vertical one, all sorted */
+        @NotNull
+        private final float[] separators;
+
+        /* start and end of each column of text */
+        @NotNull
+        private final float[] columns;
+
+        /* the parts which must be equal to match */
+        @NotNull
+        private final Key key;
+
+        Fingerprint(final float width, final float height, @NotNull final List<Style> styles,
+                    final int numHorizontalSeparators, @NotNull final float[] separators,
+                    @NotNull final float[] columns) {
+
+            this.width      = width;
+            this.height     = height;
+            this.separators = separators;
+            this.columns    = columns;
+            key             = new Key(styles, numHorizontalSeparators, separators.length,
+                                      columns.length);
+        }
+
+        @NotNull
+        float[] getColumns() {
+            return columns;
+        }
+
+        /**
+         * @return true if that is of the same page layout
+         */
+        boolean matches(@NotNull final Fingerprint that) {
+
+            return key.equals(that.key) && isWithinTolerance(width, that.width)
+                   && isWithinTolerance(height, that.height)
+                   && isWithinTolerance(separators, that.separators)
+                   && isWithinTolerance(columns, that.columns);
+        }
+    }
+
+
+    private static final class Key {
+
+        @NotNull
+        private final List<Style> styles;
+        private final int         numHorizontalSeparators, numSeparatorPositions, numColumnEdges;
+        private final int         hash;
+
+        Key(@NotNull final List<Style> styles, final int numHorizontalSeparators,
+            final int numSeparatorPositions, final int numColumnEdges) {
+
+            this.styles                  = styles;
+            this.numHorizontalSeparators = numHorizontalSeparators;
+            this.numSeparatorPositions   = numSeparatorPositions;
+            this.numColumnEdges          = numColumnEdges;
+
+            int result = styles.hashCode();
+
+            result = 31 * result + numHorizontalSeparators;
+            result = 31 * result + numSeparatorPositions;
+            result = 31 * result + numColumnEdges;
+            hash   = result;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key that = (Key) o;
+
+            return (hash == that.hash) && (numHorizontalSeparators == that.numHorizontalSeparators)
+                   && (numSeparatorPositions == that.numSeparatorPositions)
+                   && (numColumnEdges == that.numColumnEdges) && styles.equals(that.styles);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+
+    /**
+     * What was found for the main region of a page. Only the positions are kept, so we dont hold
+     *  on to the page
+     */
+    static final class Template {
+
+        @NotNull
+        private final Fingerprint fingerprint;
+        @NotNull
+        private final Rectangle[] whitespace;
+
+        /* start and end of each column boundary, from left to right */
+        @NotNull
+        private final float[] columnBoundaries;
+
+        Template(@NotNull final Fingerprint fingerprint,
+                 @NotNull final List<WhitespaceRectangle> whitespace,
+                 @NotNull final List<WhitespaceRectangle> columnBoundaries) {
+
+            this.fingerprint = fingerprint;
+            this.whitespace  = new Rectangle[whitespace.size()];
+
+            for (int i = 0; i < this.whitespace.length; i++) {
+                this.whitespace[i] = whitespace.get(i).getPos();
+            }
+
+            this.columnBoundaries = horizontalExtents(columnBoundaries);
+        }
+
+        @NotNull
+        private static float[] horizontalExtents(
+                @NotNull final List<WhitespaceRectangle> columnBoundaries) {
+
+            final List<WhitespaceRectangle> sorted = new ArrayList<WhitespaceRectangle>(
+                                                         columnBoundaries);
+
+            Collections.sort(sorted, Sorting.sortByLowerX);
+
+            final float[] ret = new float[2 * sorted.size()];
+            int           i   = 0;
+
+            for (WhitespaceRectangle boundary : sorted) {
+                ret[i++] = boundary.getPos().x;
+                ret[i++] = boundary.getPos().endX;
+            }
+
+            return ret;
+        }
+
+        @NotNull
+        List<WhitespaceRectangle> getWhitespace() {
+
+            final List<WhitespaceRectangle> ret = new ArrayList<WhitespaceRectangle>(
+                                                      whitespace.length);
+
+            for (Rectangle bound : whitespace) {
+                ret.add(new WhitespaceRectangle(bound));
+            }
+
+            return ret;
+        }
+
+        /**
+         * Checks whether columnBoundaries are where the ones found for the page this template was
+         *  made from were. Only the horizontal extents are compared, as how far up and down they
+         *  go depends on the text of the page
+         */
+        boolean hasColumnBoundaries(@NotNull final List<WhitespaceRectangle> columnBoundaries) {
+            return isWithinTolerance(this.columnBoundaries, horizontalExtents(columnBoundaries));
+        }
+    }
+}
@@ -23,11 +23,11 @@ import org.elacin.pdfextract.content.GraphicContent;
 import org.elacin.pdfextract.content.PhysicalContent;
 import org.elacin.pdfextract.content.PhysicalPageRegion;
 import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.geom.SpatialIndex;
 import org.elacin.pdfextract.physical.graphics.CategorizedGraphics;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -40,6 +40,21 @@ public class PageRegionSplitBySeparators {
     private static final Logger log = Logger.getLogger(PageRegionSplitBySeparators.class);
 
 // -------------------------- STATIC METHODS --------------------------
+    static boolean splitRegionAtX(final PhysicalPageRegion r, final float splitAt) {
+
+        Rectangle rpos  = r.getPos();
+        boolean   ret   = true;
+        Rectangle left  = new Rectangle(0.0f, rpos.y, splitAt, rpos.height + 1);
+
+        ret &= r.extractSubRegionFromBound(left, false);
+
+        Rectangle right = new Rectangle(splitAt, rpos.y, rpos.endX - splitAt, rpos.height + 1);
+
+        ret &= r.extractSubRegionFromBound(right, false);
+
+        return ret;
+    }
+
     static boolean splitRegionAtY(final PhysicalPageRegion r, final float splitAt) {
 
         Rectangle rpos  = r.getPos();
@@ -56,7 +71,13 @@ public class PageRegionSplitBySeparators {
     }
 
     /**
-     * Divide the region r by horizontal and vertical separators
+     * Divide the region r by horizontal and vertical separators. <p/> All the separators are
+     * first checked against a spatial index of the contents of the region. A separator is used if
+     * it spans most of the region, and nothing but what it contains lies across it. The region is
+     * then split into horizontal bands at all the horizontal separators which were found, and
+     * each band is split into columns at the vertical separators within it.
+     * <p/>
+     * Separators which were not used are added as content.
      *
      * @param r
      * @param graphics
@@ -64,54 +85,158 @@ public class PageRegionSplitBySeparators {
     static void splitRegionBySeparators(@NotNull PhysicalPageRegion r,
             @NotNull CategorizedGraphics graphics) {
 
-        List<GraphicContent> toRemove = new ArrayList<GraphicContent>();
+        final Rectangle            rpos     = r.getPos();
+        final SpatialIndex         index    = new SpatialIndex(r.getContents());
+        final List<GraphicContent> splitAtY = new ArrayList<GraphicContent>();
+        final List<GraphicContent> notUsed  = new ArrayList<GraphicContent>();
 
         for (GraphicContent hsep : graphics.getHorizontalSeparators()) {
             float splitAt = hsep.getPos().y;
 
-            if ((hsep.getPos().width < r.getPos().width * 0.6f) || (splitAt <= 0)
-                    || (splitAt >= r.getPos().endY)) {
+            if ((hsep.getPos().width < rpos.width * 0.6f) || (splitAt <= 0)
+                    || (splitAt >= rpos.endY)) {
                 continue;
             }
 
             /* search to see if this separator does not intersect with anything */
-            Rectangle search                 = new Rectangle(0, splitAt, r.getPos().width,
-                                                   hsep.getPos().height);
-            final List<PhysicalContent> list = r.findContentsIntersectingWith(search);
+            Rectangle search = new Rectangle(rpos.x, splitAt, rpos.width, hsep.getPos().height);
+
+            if (isCrossedByContent(index, search, hsep)) {
 
-            if (list.contains(hsep)) {
-                list.remove(hsep);
+                /* just add this for now */
+                notUsed.add(hsep);
+            } else {
+                splitAtY.add(hsep);
             }
+        }
 
-            for (Iterator<PhysicalContent> iterator = list.iterator(); iterator.hasNext(); ) {
-                final PhysicalContent content = iterator.next();
+        /* split into bands from the top, continuing with the lower part each time */
+        final List<PhysicalPageRegion> bands     = new ArrayList<PhysicalPageRegion>();
+        final List<GraphicContent>     usedHSeps = new ArrayList<GraphicContent>();
+        PhysicalPageRegion             active    = r;
+        boolean                        failed    = false;
 
-                if (hsep.getPos().contains(content.getPos())) {
-                    iterator.remove();
-                }
-            }
+        for (GraphicContent hsep : splitAtY) {
+            final float splitAt = hsep.getPos().y;
 
-            if (list.isEmpty()) {
-                if (log.isInfoEnabled()) {
-                    log.info("LOG00880:split/hsep: splitting " + hsep);
-                }
+            if (failed || (splitAt <= active.getPos().y) || (splitAt >= active.getPos().endY)) {
+                notUsed.add(hsep);
 
-                splitRegionAtY(r, splitAt);
+                continue;
+            }
 
-                // r.addContent(hsep);
-                toRemove.add(hsep);
-            } else {
+            if (log.isInfoEnabled()) {
+                log.info("LOG00880:split/hsep: splitting " + hsep);
+            }
 
-                /* just add this for now */
-                r.addContent(hsep);
+            if (!splitRegionAtY(active, splitAt)) {
+                notUsed.add(hsep);
+                failed = true;
+
+                continue;
             }
+
+            usedHSeps.add(hsep);
+            bands.add(active.getSubregions().get(active.getSubregions().size() - 2));
+            active = active.getSubregions().get(active.getSubregions().size() - 1);
+        }
+
+        bands.add(active);
+        graphics.getHorizontalSeparators().removeAll(usedHSeps);
+
+        final List<GraphicContent> usedVSeps = new ArrayList<GraphicContent>();
+
+        for (PhysicalPageRegion band : bands) {
+            usedVSeps.addAll(splitBandByVerticalSeparators(band, graphics.getVerticalSeparators()));
         }
 
-        graphics.getHorizontalSeparators().removeAll(toRemove);
+        graphics.getVerticalSeparators().removeAll(usedVSeps);
+
+        for (GraphicContent hsep : notUsed) {
+            r.addContent(hsep);
+        }
 
-        // TODO: do something with vsep
         for (GraphicContent vsep : graphics.getVerticalSeparators()) {
             r.addContent(vsep);
         }
     }
+
+    /**
+     * Returns true if anything not contained by separator lies within search
+     */
+    private static boolean isCrossedByContent(@NotNull final SpatialIndex index,
+            @NotNull final Rectangle search, @NotNull final GraphicContent separator) {
+
+        for (PhysicalContent content : index.findContentsIntersectingWith(search)) {
+            if (content == separator) {
+                continue;
+            }
+
+            if (!separator.getPos().contains(content.getPos())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Splits band into columns at the vertical separators which run along most of it without
+     *  anything crossing them. vseps must be sorted by x.
+     *
+     * @return the separators which were used
+     */
+    @NotNull
+    private static List<GraphicContent> splitBandByVerticalSeparators(
+            @NotNull final PhysicalPageRegion band, @NotNull final List<GraphicContent> vseps) {
+
+        final Rectangle            bpos     = band.getPos();
+        final SpatialIndex         index    = new SpatialIndex(band.getContents());
+        final List<GraphicContent> splitAtX = new ArrayList<GraphicContent>();
+
+        for (GraphicContent vsep : vseps) {
+            final Rectangle vpos = vsep.getPos();
+
+            if ((vpos.x <= bpos.x) || (vpos.endX >= bpos.endX)) {
+                continue;
+            }
+
+            final float overlap = Math.min(vpos.endY, bpos.endY) - Math.max(vpos.y, bpos.y);
+
+            if (overlap < bpos.height * 0.6f) {
+                continue;
+            }
+
+            final Rectangle search = new Rectangle(vpos.x, bpos.y, vpos.width, bpos.height);
+
+            if (!isCrossedByContent(index, search, vsep)) {
+                splitAtX.add(vsep);
+            }
+        }
+
+        /* split into columns from the left, continuing with the right part each time */
+        final List<GraphicContent> used   = new ArrayList<GraphicContent>();
+        PhysicalPageRegion         active = band;
+
+        for (GraphicContent vsep : splitAtX) {
+            final float splitAt = vsep.getPos().x;
+
+            if ((splitAt <= active.getPos().x) || (splitAt >= active.getPos().endX)) {
+                continue;
+            }
+
+            if (log.isInfoEnabled()) {
+                log.info("LOG01640:split/vsep: splitting " + vsep);
+            }
+
+            if (!splitRegionAtX(active, splitAt)) {
+                break;
+            }
+
+            used.add(vsep);
+            active = active.getSubregions().get(active.getSubregions().size() - 1);
+        }
+
+        return used;
+    }
 }
@@ -22,6 +22,7 @@ import org.apache.log4j.Logger;
 import org.elacin.pdfextract.content.PhysicalContent;
 import org.elacin.pdfextract.content.PhysicalPage;
 import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.StyledText;
 import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.style.Style;
 import org.elacin.pdfextract.style.StyleComparator;
@@ -29,7 +30,7 @@ import org.elacin.pdfextract.style.StyleDifference;
 import org.elacin.pdfextract.style.TextUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -63,16 +64,8 @@ public class PageRegionSplitBySpacing {
     }
 
 // -------------------------- STATIC METHODS --------------------------
-    private static boolean sameStyleOverAndUnderHorizontalLine(final PhysicalPageRegion r,
-            final float y, final Set<PhysicalContent> over) {
-
-        List<PhysicalContent> under  = new ArrayList<PhysicalContent>();
-        float                 yIndex = y;
-
-        while (under.isEmpty() && (yIndex < r.getPos().endY)) {
-            under.addAll(r.findContentAtYIndex(yIndex));
-            yIndex += 1.0f;
-        }
+    private static boolean sameStyleOverAndUnder(@NotNull final Set<PhysicalContent> over,
+            @NotNull final List<PhysicalContent> under) {
 
         final Style styleOver  = TextUtils.findDominatingStyle(over);
         final Style styleUnder = TextUtils.findDominatingStyle(under);
@@ -80,34 +73,54 @@ public class PageRegionSplitBySpacing {
         return StyleComparator.styleCompare(styleOver, styleUnder) == StyleDifference.SAME_STYLE;
     }
 
+    /**
+     * Walks down the region one unit at a time, and splits it at empty rows which are far enough
+     * from the content above, and where the text over and under is not of the same style. After a
+     * split it continues in the lower part.
+     * <p/>
+     * The rows of each region are found in one go with a {@link VerticalProfile}. All the empty
+     * rows of a gap have the same content under them, so the styles are compared only once per
+     * gap.
+     */
     private static boolean tryHorizontalSplit(final PhysicalPageRegion r, final Rectangle dims,
             final float fractionToConsider, final int minimumDistanceToSplit) {
 
-        final float          startY       = dims.y;
-        final float          endY         = Math.min(r.getPos().endY,
-                                                startY + dims.height * fractionToConsider);
-        float                lastBoundary = -1000.0f;
-        float                minX         = Float.MAX_VALUE,
-                             maxX         = Float.MIN_VALUE;
-        PhysicalPageRegion   activeRegion = r;
-        Set<PhysicalContent> workingSet   = new HashSet<PhysicalContent>();
+        final float          startY            = dims.y;
+        final float          endY              = Math.min(r.getPos().endY,
+                                                     startY + dims.height * fractionToConsider);
+        float                lastBoundary      = -1000.0f;
+        PhysicalPageRegion   activeRegion      = r;
+        Set<PhysicalContent> workingSet        = new HashSet<PhysicalContent>();
+        boolean              workingSetHasText = false;
+        float                y                 = startY;
 
-        for (float y = startY; y <= endY; y++) {
+        while (y <= endY) {
             if (y < activeRegion.getPos().y) {
+                y++;
+
                 continue;
             }
 
-            final List<PhysicalContent> row = activeRegion.findContentAtYIndex(y);
+            final VerticalProfile profile     = new VerticalProfile(activeRegion, y, endY);
+            int                   comparedRow = Integer.MIN_VALUE;
+            boolean               sameStyle   = false;
+            boolean               didSplit    = false;
 
-            workingSet.addAll(row);
+            for (int k = 0; (k < profile.size()) && (profile.getY(k) <= endY); k++) {
+                y = profile.getY(k);
 
-            for (PhysicalContent content : row) {
-                minX = Math.min(content.getPos().x, minX);
-                maxX = Math.max(content.getPos().endX, maxX);
-            }
+                for (PhysicalContent content : profile.getAppearing(k)) {
+                    workingSet.add(content);
+                    workingSetHasText |= content instanceof StyledText;
+                }
+
+                if (!profile.isEmpty(k)) {
+                    lastBoundary = y;
 
-            if (row.isEmpty()) {
-                if (!TextUtils.listContainsStyledText(workingSet)) {
+                    continue;
+                }
+
+                if (!workingSetHasText) {
                     continue;
                 }
 
@@ -115,7 +128,16 @@ public class PageRegionSplitBySpacing {
                     continue;
                 }
 
-                if (sameStyleOverAndUnderHorizontalLine(activeRegion, y, workingSet)) {
+                final int under = profile.findNextNonEmpty(k);
+
+                if (under != comparedRow) {
+                    sameStyle   = sameStyleOverAndUnder(workingSet, (under == -1)
+                            ? Collections.<PhysicalContent>emptyList()
+                            : profile.getAppearing(under));
+                    comparedRow = under;
+                }
+
+                if (sameStyle) {
                     continue;
                 }
 
@@ -126,25 +148,25 @@ public class PageRegionSplitBySpacing {
                 boolean success = PageRegionSplitBySeparators.splitRegionAtY(activeRegion, y);
 
                 if (!success) {
-                    break;
+                    return false;
                 }
 
-                PhysicalPageRegion lowerNewSubRegion = activeRegion.getSubregions().get(
-                                                           activeRegion.getSubregions().size() - 1);
-
-                activeRegion = lowerNewSubRegion;
-
-                // tryHorizontalSplit(lowerNewSubRegion, dims, fractionToConsider, minimumDistanceToSplit);
-                // return r.extractSubRegionFromContent(workingSet);
+                activeRegion = activeRegion.getSubregions().get(activeRegion.getSubregions().size()
+                        - 1);
                 workingSet.clear();
-                lastBoundary = y;
+                workingSetHasText = false;
+                lastBoundary      = y;
+                didSplit          = true;
 
-                /* only extract once */
+                break;
+            }
 
-                // return true;
-            } else {
-                lastBoundary = y;
+            if (!didSplit) {
+                break;
             }
+
+            /* continue in the lower new subregion */
+            y++;
         }
 
         return false;
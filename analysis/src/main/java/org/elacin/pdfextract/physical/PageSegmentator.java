@@ -22,11 +22,13 @@ import org.apache.log4j.Logger;
 
 import org.elacin.pdfextract.content.*;
 import org.elacin.pdfextract.geom.MathUtils;
+import org.elacin.pdfextract.geom.ReadingOrder;
 import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.geom.RectangleCollection;
 import org.elacin.pdfextract.geom.Sorting;
 import org.elacin.pdfextract.physical.column.ColumnFinder;
 import org.elacin.pdfextract.physical.column.WhitespaceFinder;
+import org.elacin.pdfextract.physical.column.WhitespaceStatistics;
 import org.elacin.pdfextract.physical.graphics.CategorizedGraphics;
 import org.elacin.pdfextract.physical.graphics.GraphicSegmentator;
 import org.elacin.pdfextract.physical.graphics.GraphicSegmentatorImpl;
@@ -37,6 +39,7 @@ import org.elacin.pdfextract.tree.GraphicsNode;
 import org.elacin.pdfextract.tree.LineNode;
 import org.elacin.pdfextract.tree.PageNode;
 import org.elacin.pdfextract.tree.ParagraphNode;
+import org.elacin.pdfextract.util.Parallel;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -44,6 +47,8 @@ import org.jetbrains.annotations.Nullable;
 import java.util.*;
 
 import static org.elacin.pdfextract.Constants.COLUMNS_ENABLE_COLUMN_DETECTION;
+import static org.elacin.pdfextract.Constants.SEGMENTATION_PARALLEL_ENABLED;
+import static org.elacin.pdfextract.Constants.SEGMENTATION_PARALLEL_MIN_CONTENTS;
 import static org.elacin.pdfextract.geom.Sorting.createSmallestFirstQueue;
 import static org.elacin.pdfextract.physical.PageRegionSplitBySpacing.splitOfTopTextOfPage;
 
@@ -62,6 +67,19 @@ public class PageSegmentator {
 
 // -------------------------- PUBLIC STATIC METHODS --------------------------
     public static PageNode analyzePage(@NotNull PhysicalPage page) {
+        return analyzePage(page, null, new WhitespaceStatistics());
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Analyzes page. If templates is given, the main region is divided with the help of what was
+     *  found for earlier pages with the same layout. The whitespace searches are counted in
+     *  statistics.
+     */
+    static PageNode analyzePage(@NotNull PhysicalPage page,
+                                @Nullable LayoutTemplateCache templates,
+                                @NotNull WhitespaceStatistics statistics) {
 
         final PhysicalPageRegion mainRegion           = page.getMainRegion();
         final ParagraphNumberer  numberer             = new ParagraphNumberer(page.getPageNumber());
@@ -71,6 +89,16 @@ public class PageSegmentator {
 
         mainRegion.addContents(categorizedGraphics.getContents());
 
+        /* has to be done before the main region is divided */
+        final LayoutTemplateCache.Fingerprint fingerprint;
+
+        if (templates != null) {
+            fingerprint = LayoutTemplateCache.fingerprint(page.getPageDimensions(), mainRegion,
+                                                          categorizedGraphics);
+        } else {
+            fingerprint = null;
+        }
+
         /* first separate out what is contained by graphics */
         extractGraphicalRegions(categorizedGraphics, mainRegion);
         mainRegion.ensureAllContentInLeafNodes();
@@ -78,7 +106,11 @@ public class PageSegmentator {
         PageRegionSplitBySeparators.splitRegionBySeparators(mainRegion, categorizedGraphics);
 
         /* This will detect column boundaries and split up all regions */
-        recursivelyDivide(mainRegion);
+        if (fingerprint != null) {
+            divideWithTemplate(mainRegion, templates, fingerprint, statistics);
+        } else {
+            recursivelyDivide(mainRegion, statistics);
+        }
 
         /*
          *  this is to make text ordering work, if it was in the main region it would destroy
@@ -106,7 +138,6 @@ public class PageSegmentator {
         return ret;
     }
 
-// -------------------------- STATIC METHODS --------------------------
     private static void createParagraphsForRegion(final PageNode page, final PhysicalPageRegion region,
             final ParagraphNumberer numberer, boolean wasContainedInGraphic) {
 
@@ -116,7 +147,7 @@ public class PageSegmentator {
         final ContentGrouper            contentGrouper = new ContentGrouper(region);
         final List<RectangleCollection> blocks         = contentGrouper.findBlocksOfContent();
 
-        Collections.sort(blocks, Sorting.regionComparator);
+        ReadingOrder.sortRegions(blocks);
 
         for (RectangleCollection block : blocks) {
 
@@ -175,7 +206,7 @@ public class PageSegmentator {
             page.addChildren(paragraphSegmentator.segmentParagraphsByStyleAndDistance(lines, numberer));
         }
 
-        Collections.sort(region.getSubregions(), Sorting.regionComparator);
+        ReadingOrder.sortRegions(region.getSubregions());
 
         for (int i = 0; i < region.getSubregions().size(); i++) {
             final PhysicalPageRegion subregion = region.getSubregions().get(i);
@@ -283,7 +314,7 @@ public class PageSegmentator {
     private static void printRegions(final StringBuffer sb, final PhysicalPageRegion region,
                                      final int indent) {
 
-        Collections.sort(region.getSubregions(), Sorting.regionComparator);
+        ReadingOrder.sortRegions(region.getSubregions());
 
         for (int i = 0; i < indent; i++) {
             sb.append(" ");
@@ -303,9 +334,68 @@ public class PageSegmentator {
         }
     }
 
-    private static void recursivelyDivide(@NotNull PhysicalPageRegion region) {
+    /**
+     * Finds whitespace and column boundaries for region, and then does the same for its subregions.
+     *  Each subregion is searched from scratch. Whitespace found for the parent is not a good
+     *  start there: the subregions were obstacles in the parent search, so what lies within
+     *  them are just thin slivers along their edges.
+     */
+    private static void recursivelyDivide(@NotNull PhysicalPageRegion region,
+            @NotNull WhitespaceStatistics statistics) {
+
+        final List<WhitespaceRectangle> none        = Collections.emptyList();
+        final List<WhitespaceRectangle> whitespaces = WhitespaceFinder.findWhitespace(region, none,
+                                                          statistics);
+
+        region.addWhitespace(whitespaces);
+
+        if (!COLUMNS_ENABLE_COLUMN_DETECTION) {
+            return;
+        }
+
+        divideByColumns(region, findColumnBoundaries(region, whitespaces), statistics);
+    }
+
+    /**
+     * Divides the main region of a page like {@link #recursivelyDivide(PhysicalPageRegion,
+     *  WhitespaceStatistics)},
+     *  but starts out with the whitespace of an earlier page with a matching fingerprint. The
+     *  seeded search checks the seeds like anything else it finds, so its result is used either
+     *  way. If it does not give the column boundaries of the earlier page the mismatch is only
+     *  counted. Only the outcome of searches from scratch are remembered, so a template is never
+     *  made from another template.
+     */
+    private static void divideWithTemplate(@NotNull PhysicalPageRegion region,
+            @NotNull LayoutTemplateCache templates,
+            @NotNull LayoutTemplateCache.Fingerprint fingerprint,
+            @NotNull WhitespaceStatistics statistics) {
+
+        final LayoutTemplateCache.Template template = templates.lookup(fingerprint);
+
+        if ((template != null) && COLUMNS_ENABLE_COLUMN_DETECTION) {
+            final List<WhitespaceRectangle> seeded = WhitespaceFinder.findWhitespace(region,
+                                                         template.getWhitespace(), statistics);
+
+            region.addWhitespace(seeded);
+
+            final List<WhitespaceRectangle> columnBoundaries = findColumnBoundaries(region, seeded);
+
+            if (!template.hasColumnBoundaries(columnBoundaries)) {
+                if (log.isInfoEnabled()) {
+                    log.info("LOG01652:Columns of " + region + " did not match its layout template");
+                }
+
+                templates.mismatched();
+            }
+
+            divideByColumns(region, columnBoundaries, statistics);
+
+            return;
+        }
 
-        final List<WhitespaceRectangle> whitespaces = WhitespaceFinder.findWhitespace(region);
+        final List<WhitespaceRectangle> none        = Collections.emptyList();
+        final List<WhitespaceRectangle> whitespaces = WhitespaceFinder.findWhitespace(region, none,
+                                                          statistics);
 
         region.addWhitespace(whitespaces);
 
@@ -313,6 +403,17 @@ public class PageSegmentator {
             return;
         }
 
+        final List<WhitespaceRectangle> columnBoundaries = findColumnBoundaries(region,
+                                                               whitespaces);
+
+        templates.store(fingerprint, whitespaces, columnBoundaries);
+        divideByColumns(region, columnBoundaries, statistics);
+    }
+
+    @NotNull
+    private static List<WhitespaceRectangle> findColumnBoundaries(
+            @NotNull PhysicalPageRegion region, @NotNull List<WhitespaceRectangle> whitespaces) {
+
         final List<WhitespaceRectangle> columnBoundaries = ColumnFinder.extractColumnBoundaries(region,
                                                                whitespaces);
 
@@ -322,11 +423,19 @@ public class PageSegmentator {
             }
         }
 
-        region.addWhitespace(columnBoundaries);
+        return columnBoundaries;
+    }
 
-        for (PhysicalPageRegion subRegion : region.getSubregions()) {
-            recursivelyDivide(subRegion);
-        }
+    /**
+     * Adds the column boundaries to region, divides its subregions, and then splits it at the
+     *  column boundaries
+     */
+    private static void divideByColumns(@NotNull PhysicalPageRegion region,
+            @NotNull List<WhitespaceRectangle> columnBoundaries,
+            @NotNull WhitespaceStatistics statistics) {
+
+        region.addWhitespace(columnBoundaries);
+        recursivelyDivideSubRegions(region, statistics);
 
         Collections.sort(columnBoundaries, Sorting.sortByHigherX);
 
@@ -338,4 +447,30 @@ public class PageSegmentator {
             region.extractSubRegionFromBound(right, false);
         }
     }
+
+    /**
+     * Divides all the subregions of region. The subregions are disjoint, so the bigger ones are
+     *  divided in parallel, while the small ones are done right away by the calling thread.
+     */
+    private static void recursivelyDivideSubRegions(@NotNull PhysicalPageRegion region,
+            @NotNull final WhitespaceStatistics statistics) {
+
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        for (final PhysicalPageRegion subRegion : region.getSubregions()) {
+            if (SEGMENTATION_PARALLEL_ENABLED
+                    && (subRegion.getContents().size() >= SEGMENTATION_PARALLEL_MIN_CONTENTS)) {
+                tasks.add(new Runnable() {
+
+                    public void run() {
+                        recursivelyDivide(subRegion, statistics);
+                    }
+                });
+            } else {
+                recursivelyDivide(subRegion, statistics);
+            }
+        }
+
+        Parallel.runAll(tasks);
+    }
 }
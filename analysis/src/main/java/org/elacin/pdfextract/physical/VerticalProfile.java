@@ -0,0 +1,221 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.physical;
+
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.geom.ReadingOrder;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The rows of a region as seen when walking down it one unit at a time from a given y, found in
+ * one pass over the contents instead of searching through them for every row.
+ * <p/>
+ * Row k is at (int) y, where y is the start value incremented k times, just like the loop in
+ * {@link PageRegionSplitBySpacing}, so a row contains exactly the contents
+ * findContentAtYIndex() would return for it. Rows are included down to the given end, and further
+ * down to the end of the region.
+ * <p/>
+ * The region must not change while this is in use.
+ */
+final class VerticalProfile {
+
+// ------------------------------ FIELDS ------------------------------
+    @NotNull
+    private final float[] ys;
+
+    /* number of contents in each row */
+    @NotNull
+    private final int[] occupancy;
+
+    /* the first non-empty row at or after each row which is still within the region, or -1 */
+    @NotNull
+    private final int[] nextNonEmpty;
+
+    /* for each row, the contents which are not in the row before it, sorted like
+     *  findContentAtYIndex() sorts them. null if there are none */
+    @NotNull
+    private final List<PhysicalContent>[] appearing;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    @SuppressWarnings({ "unchecked" })
+    VerticalProfile(@NotNull final PhysicalPageRegion region, final float startY, final float endY) {
+
+        final Rectangle pos = region.getPos();
+
+        /* the rows which will be visited */
+        float[] visited = new float[Math.max(16, (int) (pos.endY - startY) + 2)];
+        int     numRows = 0;
+
+        for (float y = startY; (y <= endY) || (y < pos.endY); y++) {
+            if (numRows == visited.length) {
+                final float[] bigger = new float[visited.length * 2];
+
+                System.arraycopy(visited, 0, bigger, 0, numRows);
+                visited = bigger;
+            }
+
+            visited[numRows++] = y;
+        }
+
+        ys = new float[numRows];
+        System.arraycopy(visited, 0, ys, 0, numRows);
+
+        final int[] rowIndex = new int[numRows];
+
+        for (int k = 0; k < numRows; k++) {
+            rowIndex[k] = (int) ys[k];
+        }
+
+        /* place every content in the rows it intersects */
+        final int[] changes = new int[numRows + 1];
+
+        appearing = new List[numRows];
+
+        for (PhysicalContent content : region.getContents()) {
+            final Rectangle cpos = content.getPos();
+
+            if ((cpos.endX < pos.x) || (cpos.x > pos.x + pos.width)) {
+                continue;
+            }
+
+            /* the content intersects row r when r + 1 >= y and r < endY */
+            final int first = firstAtLeast(rowIndex, (int) Math.ceil((double) cpos.y) - 1);
+            final int last  = lastAtMost(rowIndex, (int) Math.ceil((double) cpos.endY) - 1);
+
+            if (first > last) {
+                continue;
+            }
+
+            changes[first]++;
+            changes[last + 1]--;
+
+            if (appearing[first] == null) {
+                appearing[first] = new ArrayList<PhysicalContent>();
+            }
+
+            appearing[first].add(content);
+        }
+
+        occupancy = new int[numRows];
+
+        int count = 0;
+
+        for (int k = 0; k < numRows; k++) {
+            count        += changes[k];
+            occupancy[k] = count;
+
+            if (appearing[k] != null) {
+                ReadingOrder.sortByLowerX(appearing[k]);
+            }
+        }
+
+        nextNonEmpty = new int[numRows];
+
+        for (int k = numRows - 1; k >= 0; k--) {
+            if (ys[k] >= pos.endY) {
+                nextNonEmpty[k] = -1;
+            } else if (occupancy[k] != 0) {
+                nextNonEmpty[k] = k;
+            } else if (k == numRows - 1) {
+                nextNonEmpty[k] = -1;
+            } else {
+                nextNonEmpty[k] = nextNonEmpty[k + 1];
+            }
+        }
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+    private static int firstAtLeast(@NotNull final int[] sorted, final int value) {
+
+        int low  = 0,
+            high = sorted.length;
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private static int lastAtMost(@NotNull final int[] sorted, final int value) {
+
+        int low  = 0,
+            high = sorted.length;
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low - 1;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * The contents of row k which were not in row k - 1. For a row following an empty row, this
+     *  is all its contents
+     */
+    @NotNull
+    List<PhysicalContent> getAppearing(final int k) {
+
+        if (appearing[k] == null) {
+            return Collections.emptyList();
+        }
+
+        return appearing[k];
+    }
+
+    /**
+     * The first row at or after k which is not empty, which is found by walking down while still
+     *  within the region. -1 if there is none
+     */
+    int findNextNonEmpty(final int k) {
+        return nextNonEmpty[k];
+    }
+
+    float getY(final int k) {
+        return ys[k];
+    }
+
+    boolean isEmpty(final int k) {
+        return occupancy[k] == 0;
+    }
+
+    int size() {
+        return ys.length;
+    }
+}
@@ -26,6 +26,8 @@ import org.elacin.pdfextract.content.WhitespaceRectangle;
 import org.elacin.pdfextract.geom.MathUtils;
 import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.geom.Sorting;
+import org.elacin.pdfextract.geom.SpatialIndex;
+import org.elacin.pdfextract.util.Parallel;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -56,48 +58,84 @@ public class ColumnFinder {
     public static List<WhitespaceRectangle> extractColumnBoundaries(@NotNull PhysicalPageRegion region,
             @NotNull List<WhitespaceRectangle> whitespaces) {
 
-        final List<WhitespaceRectangle> columnBoundaries = selectCandidateColumnBoundaries(region,
+        /* the region is not changed while we look for columns, so all the candidates are
+         *  evaluated against the same snapshot of its contents, possibly in parallel */
+        final SpatialIndex              snapshot         = new SpatialIndex(region.getContents());
+        final List<WhitespaceRectangle> columnBoundaries = selectCandidateColumnBoundaries(snapshot,
                                                                whitespaces);
 
         /* adjust columns to real height */
-        if (COLUMNS_ENABLE_COLUMN_HEIGHT_ADJUSTMENT) {
+        if (COLUMNS_ENABLE_COLUMN_HEIGHT_ADJUSTMENT &&!columnBoundaries.isEmpty()) {
             adjustColumnHeights(region, columnBoundaries);
         }
 
-        filter(region, columnBoundaries);
-        combineColumnBoundaries(region, columnBoundaries);
+        filter(region, snapshot, columnBoundaries);
+        combineColumnBoundaries(snapshot, columnBoundaries);
 
         return columnBoundaries;
     }
 
 // -------------------------- STATIC METHODS --------------------------
-    @Nullable
-    private static WhitespaceRectangle adjustColumn(final PhysicalPageRegion region,
-            final WhitespaceRectangle boundary, final float boundaryStartX, final float boundaryEndX) {
 
-        final Rectangle rpos = region.getPos();
+    /**
+     * Applies evaluation to all the candidates, and returns the results in the same order. When
+     *  there are enough candidates they are split in one contiguous chunk per thread and evaluated
+     *  in parallel, so the evaluation must only read shared state.
+     */
+    @NotNull
+    static <T> List<T> evaluateAll(@NotNull final List<WhitespaceRectangle> candidates,
+                                   @NotNull final Evaluation<T> evaluation) {
 
-        /* find surrounding content */
-        final List<PhysicalContent> everythingRightOf = findAllContentsRightOf(region, boundaryStartX);
+        final int     size    = candidates.size();
+        final List<T> results = new ArrayList<T>(Collections.<T>nCopies(size, null));
+
+        if (!COLUMNS_PARALLEL_ENABLED || (size < COLUMNS_PARALLEL_MIN_CANDIDATES)) {
+            for (int i = 0; i < size; i++) {
+                results.set(i, evaluation.evaluate(candidates.get(i)));
+            }
+
+            return results;
+        }
 
-        Collections.sort(everythingRightOf, Sorting.sortByLowerYThenLowerX);
+        final int            chunks = Math.min(Parallel.getThreadCount(), size);
+        final List<Runnable> tasks  = new ArrayList<Runnable>(chunks);
 
-        final List<PhysicalContent> closeOnLeft = findAllContentsImmediatelyLeftOfX(region,
-                                                      boundaryStartX);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            final int start = chunk * size / chunks;
+            final int end   = (chunk + 1) * size / chunks;
 
-        Collections.sort(closeOnLeft, Sorting.sortByLowerYThenLowerX);
+            tasks.add(new Runnable() {
+
+                public void run() {
+                    for (int i = start; i < end; i++) {
+                        results.set(i, evaluation.evaluate(candidates.get(i)));
+                    }
+                }
+            });
+        }
+
+        Parallel.runAll(tasks);
+
+        return results;
+    }
+    @Nullable
+    private static WhitespaceRectangle adjustColumn(final PhysicalPageRegion region,
+            @NotNull final RowOccupancy rows, final WhitespaceRectangle boundary,
+            final float boundaryStartX, final float boundaryEndX) {
 
-        float   realBoundaryY    = rpos.y;
-        float   realBoundaryEndY = rpos.endY;
-        boolean startYFound      = false;
-        boolean boundaryStarted  = false;
+        final Rectangle rpos             = region.getPos();
+        float           realBoundaryY    = rpos.y;
+        float           realBoundaryEndY = rpos.endY;
+        boolean         startYFound      = false;
+        boolean         boundaryStarted  = false;
 
-        for (int y = (int) rpos.y; y <= (int) (rpos.endY + 1.0F); y++) {
+        for (int y = rows.getFirstRow(); y <= rows.getLastRow(); y++) {
             boolean foundContentRightOfX;
-            PhysicalContent closestOnRight = getClosestToTheRightAtY(everythingRightOf, y,
-                                                 boundary.getPos().endX);
 
-            if (closestOnRight == null) {
+            /* where the closest content on the right side starts */
+            final float closestOnRight = rows.findClosestStartRightOf(y, boundaryStartX);
+
+            if (Float.isNaN(closestOnRight)) {
                 continue;
             } else {
                 foundContentRightOfX = true;
@@ -108,29 +146,15 @@ public class ColumnFinder {
             /* content will be blocking if it intersects, naturally */
             boolean blocked = false;
 
-            if (closestOnRight.getPos().x <= boundaryStartX) {
+            if (closestOnRight <= boundaryStartX) {
                 blocked = true;
             } else if (COLUMNS_ENABLE_TEXT_SPLIT_CHECK) {
 
                 /* also check if this column boundary would separate two words which otherwise are very close */
-                for (PhysicalContent left : closeOnLeft) {
-                    if (left instanceof WhitespaceRectangle) {
-                        continue;
-                    }
-
-                    if (y < (int) left.getPos().y) {
-                        continue;
-                    }
+                final float closeOnLeft = rows.findFurthestEndLeftOf(y, boundaryStartX, 10.0f);
 
-                    if (y > (int) left.getPos().endY) {
-                        continue;
-                    }
-
-                    if (closestOnRight.getPos().x - left.getPos().endX < 6.0f) {
-                        blocked = true;
-
-                        break;
-                    }
+                if (!Float.isNaN(closeOnLeft) && (closestOnRight - closeOnLeft < 6.0f)) {
+                    blocked = true;
                 }
             }
 
@@ -167,57 +191,77 @@ public class ColumnFinder {
         return newBoundary;
     }
 
-    private static void adjustColumnHeights(@NotNull PhysicalPageRegion region,
+    /**
+     * Finds the best column boundary along the whitespace rectangle boundary, by trying three
+     *  positions within it and choosing the tallest result
+     */
+    @Nullable
+    private static WhitespaceRectangle adjustColumnHeight(final PhysicalPageRegion region,
+            @NotNull final RowOccupancy rows, @NotNull final WhitespaceRectangle boundary) {
+
+        final Rectangle bpos = boundary.getPos();
+
+        /*
+         *  calculate three possible columns, on the left and right side of the rectangle,
+         *   and along the middle
+         */
+        final float ADJUST    = 1.0f;
+        final float leftX     = Math.min(bpos.x + ADJUST, bpos.endX);
+        final float leftEndX  = Math.min(leftX + COLUMNS_MIN_COLUMN_WIDTH, bpos.endX - ADJUST);
+        final float midX      = bpos.getMiddleX();
+        final float midEndX   = Math.min(midX + COLUMNS_MIN_COLUMN_WIDTH, bpos.endX);
+        final float rightEndX = Math.max(bpos.endX - ADJUST, bpos.x);
+        final float rightX    = Math.max(rightEndX - COLUMNS_MIN_COLUMN_WIDTH, bpos.x);
+
+        //
+        final WhitespaceRectangle middle = adjustColumn(region, rows, boundary, midX, midEndX);
+        final WhitespaceRectangle left   = adjustColumn(region, rows, boundary, leftX, leftEndX);
+        final WhitespaceRectangle right  = adjustColumn(region, rows, boundary, rightX, rightEndX);
+
+        /* then choose the tallest */
+        final float lHeight = ((left == null) ? -1.0f : left.getPos().height);
+        final float mHeight = ((middle == null) ? -1.0f : middle.getPos().height);
+        final float rHeight = ((right == null) ? -1.0f : right.getPos().height);
+
+        //
+        @Nullable final WhitespaceRectangle adjusted;
+
+        if ((lHeight > mHeight) && (lHeight > rHeight)) {
+            adjusted = left;
+        } else if ((rHeight > mHeight) && (rHeight > lHeight)) {
+            adjusted = right;
+        } else {
+            if (middle != null) {
+                adjusted = middle;
+            } else if (right != null) {
+                adjusted = right;
+            } else if (left != null) {
+                adjusted = left;
+            } else {
+                adjusted = null;
+            }
+        }
+
+        return adjusted;
+    }
+
+    private static void adjustColumnHeights(@NotNull final PhysicalPageRegion region,
             @NotNull List<WhitespaceRectangle> columnBoundaries) {
 
-        final Collection<WhitespaceRectangle> newBoundaries = new ArrayList<WhitespaceRectangle>();
+        /* all the candidates look at the same rows, so index them once */
+        final RowOccupancy              rows     = new RowOccupancy(region);
+        final List<WhitespaceRectangle> adjusted = evaluateAll(columnBoundaries,
+                                                       new Evaluation<WhitespaceRectangle>() {
 
-        for (final WhitespaceRectangle boundary : columnBoundaries) {
-            final Rectangle bpos = boundary.getPos();
-
-            /*
-             *  calculate three possible columns, on the left and right side of the rectangle,
-             *   and along the middle
-             */
-            final float ADJUST    = 1.0f;
-            final float leftX     = Math.min(bpos.x + ADJUST, bpos.endX);
-            final float leftEndX  = Math.min(leftX + COLUMNS_MIN_COLUMN_WIDTH, bpos.endX - ADJUST);
-            final float midX      = bpos.getMiddleX();
-            final float midEndX   = Math.min(midX + COLUMNS_MIN_COLUMN_WIDTH, bpos.endX);
-            final float rightEndX = Math.max(bpos.endX - ADJUST, bpos.x);
-            final float rightX    = Math.max(rightEndX - COLUMNS_MIN_COLUMN_WIDTH, bpos.x);
-
-            //
-            final WhitespaceRectangle middle = adjustColumn(region, boundary, midX, midEndX);
-            final WhitespaceRectangle left   = adjustColumn(region, boundary, leftX, leftEndX);
-            final WhitespaceRectangle right  = adjustColumn(region, boundary, rightX, rightEndX);
-
-            /* then choose the tallest */
-            final float lHeight = ((left == null) ? -1.0f : left.getPos().height);
-            final float mHeight = ((middle == null) ? -1.0f : middle.getPos().height);
-            final float rHeight = ((right == null) ? -1.0f : right.getPos().height);
-
-            //
-            @Nullable final WhitespaceRectangle adjusted;
-
-            if ((lHeight > mHeight) && (lHeight > rHeight)) {
-                adjusted = left;
-            } else if ((rHeight > mHeight) && (rHeight > lHeight)) {
-                adjusted = right;
-            } else {
-                if (middle != null) {
-                    adjusted = middle;
-                } else if (right != null) {
-                    adjusted = right;
-                } else if (left != null) {
-                    adjusted = left;
-                } else {
-                    adjusted = null;
-                }
+            public WhitespaceRectangle evaluate(@NotNull final WhitespaceRectangle boundary) {
+                return adjustColumnHeight(region, rows, boundary);
             }
+        });
+        final Collection<WhitespaceRectangle> newBoundaries = new ArrayList<WhitespaceRectangle>();
 
-            if ((adjusted != null) &&!newBoundaries.contains(adjusted)) {
-                newBoundaries.add(adjusted);
+        for (WhitespaceRectangle boundary : adjusted) {
+            if ((boundary != null) &&!newBoundaries.contains(boundary)) {
+                newBoundaries.add(boundary);
             }
         }
 
@@ -225,7 +269,7 @@ public class ColumnFinder {
         columnBoundaries.addAll(newBoundaries);
     }
 
-    private static void combineColumnBoundaries(@NotNull PhysicalPageRegion region,
+    private static void combineColumnBoundaries(@NotNull SpatialIndex snapshot,
             @NotNull List<WhitespaceRectangle> columnBoundaries) {
 
         for (int i = 0; i < columnBoundaries.size() - 1; i++) {
@@ -243,7 +287,7 @@ public class ColumnFinder {
                 float                       startX        = endX - DEFAULT_COLUMN_WIDTH;
                 Rectangle newPos                          = new Rectangle(startX, startY,
                                                                 DEFAULT_COLUMN_WIDTH, endY - startY);
-                final List<PhysicalContent> intersectingR = region.findContentsIntersectingWith(newPos);
+                final List<PhysicalContent> intersectingR = snapshot.findContentsIntersectingWith(newPos);
 
                 /* if the first try intersected with something - try left */
                 if (!intersectingR.isEmpty()) {
@@ -251,7 +295,7 @@ public class ColumnFinder {
                     newPos = new Rectangle(startX, startY, DEFAULT_COLUMN_WIDTH, endY - startY);
                 }
 
-                final List<PhysicalContent> intersectingL = region.findContentsIntersectingWith(newPos);
+                final List<PhysicalContent> intersectingL = snapshot.findContentsIntersectingWith(newPos);
 
                 if (!intersectingL.isEmpty()) {
                     continue;
@@ -270,88 +314,23 @@ public class ColumnFinder {
         }
     }
 
-    private static void filter(final PhysicalPageRegion r, final List<WhitespaceRectangle> boundaries) {
+    private static void filter(final PhysicalPageRegion r, @NotNull final SpatialIndex snapshot,
+                               final List<WhitespaceRectangle> boundaries) {
 
         List<WhitespaceRectangle> toRemove = new ArrayList<WhitespaceRectangle>();
-        StringBuilder sb = new StringBuilder();
 
         Collections.sort(boundaries, Sorting.sortByLowerX);
 
-        for (int i = boundaries.size() - 1; i >= 0; i--) {
-            final WhitespaceRectangle boundary = boundaries.get(i);
-
-            if (boundary.getPos().height < r.getPos().height * 0.15f) {
-                toRemove.add(boundary);
-
-                continue;
-            }
-
-            final float boundaryToTheLeft = 20;
-
-//            if (i == 0) {
-//                boundaryToTheLeft = r.getPos().x;
-//            } else {
-//                boundaryToTheLeft = boundaries.get(i - 1).getPos().endX;
-//            }
-
-            final Rectangle bpos        = boundary.getPos();
-            final float     searchWidth = bpos.x - boundaryToTheLeft;
-
-            if (searchWidth <= 0.0F) {
-                toRemove.add(boundary);
-
-                continue;
-            }
-
-            Rectangle search                             = new Rectangle(boundaryToTheLeft, bpos.y,
-                                                               searchWidth, bpos.height);
-            final List<PhysicalContent> contentToTheLeft = r.findContentsIntersectingWith(search);
-
-            /* demand a certain amount of words on the left side to split */
-            if (contentToTheLeft.size() < 4) {
-                toRemove.add(boundary);
-
-                continue;
-            }
-
-            sb.setLength(0);
-
-            for (PhysicalContent content : contentToTheLeft) {
-                if (content.isText()) {
-                    sb.append(content.getPhysicalText().getText());
-                }
-            }
-
-            int charsFound = 0;
-
-            for (int j = 0; j < sb.length(); j++) {
-                if (chars.indexOf(sb.charAt(j)) == -1) {
-                    charsFound++;
-                }
-            }
-
-            if (charsFound <= 4) {
-                toRemove.add(boundary);
+        final List<Boolean> remove = evaluateAll(boundaries, new Evaluation<Boolean>() {
 
-                continue;
+            public Boolean evaluate(@NotNull final WhitespaceRectangle boundary) {
+                return isUnlikelyColumnBoundary(r, snapshot, boundary);
             }
+        });
 
-            if ((sb.length() < 20) && (charsFound < 10)) {
-                toRemove.add(boundary);
-
-                continue;
-            }
-
-            if (boundary.getPos().x < r.getPos().x + r.getPos().width * 0.05f) {
-                toRemove.add(boundary);
-
-                continue;
-            }
-
-            if (boundary.getPos().endX > r.getPos().endX - r.getPos().width * 0.05f) {
-                toRemove.add(boundary);
-
-                continue;
+        for (int i = boundaries.size() - 1; i >= 0; i--) {
+            if (remove.get(i)) {
+                toRemove.add(boundaries.get(i));
             }
         }
 
@@ -362,139 +341,150 @@ public class ColumnFinder {
         boundaries.removeAll(toRemove);
     }
 
-    @NotNull
-    private static List<PhysicalContent> findAllContentsImmediatelyLeftOfX(
-            @NotNull PhysicalPageRegion region, float x) {
+    private static boolean isUnlikelyColumnBoundary(final PhysicalPageRegion r,
+            @NotNull final SpatialIndex snapshot, @NotNull final WhitespaceRectangle boundary) {
 
-        final float     lookLeft = 10.0f;
-        final Rectangle rpos     = region.getPos();
-        final Rectangle search   = new Rectangle(x - lookLeft, rpos.y, lookLeft, rpos.height);
+        if (boundary.getPos().height < r.getPos().height * 0.15f) {
+            return true;
+        }
 
-        return region.findContentsIntersectingWith(search);
-    }
+        final float boundaryToTheLeft = 20;
 
-    @NotNull
-    private static List<PhysicalContent> findAllContentsRightOf(@NotNull PhysicalPageRegion region,
-            float x) {
+//      if (i == 0) {
+//          boundaryToTheLeft = r.getPos().x;
+//      } else {
+//          boundaryToTheLeft = boundaries.get(i - 1).getPos().endX;
+//      }
 
-        final Rectangle search = new Rectangle(x, region.getPos().y, region.getPos().width,
-                                     region.getPos().height);
+        final Rectangle bpos        = boundary.getPos();
+        final float     searchWidth = bpos.x - boundaryToTheLeft;
 
-        return region.findContentsIntersectingWith(search);
-    }
+        if (searchWidth <= 0.0F) {
+            return true;
+        }
 
-    /**
-     * @param everythingRightOf x sorted list
-     * @param y                 row to look at
-     * @param endX
-     * @return
-     */
-    @Nullable
-    private static PhysicalContent getClosestToTheRightAtY(
-            final List<PhysicalContent> everythingRightOf, final int y, final float endX) {
+        Rectangle search                             = new Rectangle(boundaryToTheLeft, bpos.y,
+                                                           searchWidth, bpos.height);
+        final List<PhysicalContent> contentToTheLeft = snapshot.findContentsIntersectingWith(search);
 
-        PhysicalContent closest     = null;
-        float           minDistance = Float.MAX_VALUE;
+        /* demand a certain amount of words on the left side to split */
+        if (contentToTheLeft.size() < 4) {
+            return true;
+        }
 
-        for (int j = 0; j < everythingRightOf.size(); j++) {
-            PhysicalContent content = everythingRightOf.get(j);
+        StringBuilder sb = new StringBuilder();
 
-            if ((content instanceof WhitespaceRectangle) || (content instanceof PhysicalPageRegion)) {
-                continue;
+        for (PhysicalContent content : contentToTheLeft) {
+            if (content.isText()) {
+                sb.append(content.getPhysicalText().getText());
             }
+        }
 
-            final Rectangle blockerPos = content.getPos();
+        int charsFound = 0;
 
-            if (blockerPos.endY < (float) y) {
-                continue;
+        for (int j = 0; j < sb.length(); j++) {
+            if (chars.indexOf(sb.charAt(j)) == -1) {
+                charsFound++;
             }
+        }
 
-            if (blockerPos.y > (float) y) {
-                break;
-            }
+        if (charsFound <= 4) {
+            return true;
+        }
 
-            float distance = blockerPos.x - endX;
+        if ((sb.length() < 20) && (charsFound < 10)) {
+            return true;
+        }
 
-            if (distance < minDistance) {
-                minDistance = distance;
-                closest     = content;
-            }
+        if (boundary.getPos().x < r.getPos().x + r.getPos().width * 0.05f) {
+            return true;
         }
 
-        return closest;
+        return boundary.getPos().endX > r.getPos().endX - r.getPos().width * 0.05f;
     }
 
     @NotNull
     private static List<WhitespaceRectangle> selectCandidateColumnBoundaries(
-            @NotNull PhysicalPageRegion region, @NotNull List<WhitespaceRectangle> whitespaces) {
+            @NotNull final SpatialIndex snapshot, @NotNull List<WhitespaceRectangle> whitespaces) {
 
-        final float                     LOOKAHEAD        = 10.0f;
-        final float                     HALF_LOOKAHEAD   = LOOKAHEAD / 2.0F;
-        final List<WhitespaceRectangle> columnBoundaries = new ArrayList<WhitespaceRectangle>();
-
-        for (WhitespaceRectangle whitespace : whitespaces) {
-            final Rectangle pos     = whitespace.getPos();
-            final float     posX    = pos.x;
-            final float     posEndX = pos.endX;
+        final List<Boolean> selected = evaluateAll(whitespaces, new Evaluation<Boolean>() {
 
-            if (pos.height / pos.width <= 1.5f) {
-                continue;
+            public Boolean evaluate(@NotNull final WhitespaceRectangle whitespace) {
+                return isCandidateColumnBoundary(snapshot, whitespace);
             }
+        });
+        final List<WhitespaceRectangle> columnBoundaries = new ArrayList<WhitespaceRectangle>();
 
-            final Rectangle smallerPos = pos.getAdjustedBy(-1.0f);
-
-            /* count how much text is to the immediate left of the current whitespace */
-            final List<PhysicalContent> left = region.searchInDirectionFromOrigin(W, smallerPos,
-                                                   LOOKAHEAD);
+        for (int i = 0; i < whitespaces.size(); i++) {
+            if (selected.get(i)) {
+                final WhitespaceRectangle whitespace = whitespaces.get(i);
 
-            Collections.sort(left, Sorting.sortByHigherX);
+                columnBoundaries.add(whitespace);
+                whitespace.setScore(500);
+            }
+        }
 
-            int leftCount = 0;
+        return columnBoundaries;
+    }
 
-            for (PhysicalContent content : left) {
-                if (content instanceof WhitespaceRectangle) {
-                    continue;
-                }
+    private static boolean isCandidateColumnBoundary(@NotNull final SpatialIndex snapshot,
+            @NotNull final WhitespaceRectangle whitespace) {
 
-                if (MathUtils.isWithinVariance(content.getPos().endX, posX + HALF_LOOKAHEAD,
-                                               LOOKAHEAD)) {
-                    leftCount++;
-                }
-            }
+        final float     LOOKAHEAD      = 10.0f;
+        final float     HALF_LOOKAHEAD = LOOKAHEAD / 2.0F;
+        final Rectangle pos            = whitespace.getPos();
+        final float     posX           = pos.x;
+        final float     posEndX        = pos.endX;
 
-            /* and how much is to the right */
-            final List<PhysicalContent> right = region.searchInDirectionFromOrigin(E, smallerPos,
-                                                    LOOKAHEAD);
+        if (pos.height / pos.width <= 1.5f) {
+            return false;
+        }
 
-            Collections.sort(right, Sorting.sortByLowerX);
+        final Rectangle smallerPos = pos.getAdjustedBy(-1.0f);
 
-            int rightCount = 0;
+        /* count how much text is to the immediate left of the current whitespace */
+        final List<PhysicalContent> left = snapshot.searchInDirectionFromOrigin(W, smallerPos,
+                                               LOOKAHEAD);
+        int leftCount = 0;
 
-            for (PhysicalContent content : right) {
-                if (content instanceof WhitespaceRectangle) {
-                    continue;
-                }
-
-                if (MathUtils.isWithinVariance(content.getPos().x, posEndX + HALF_LOOKAHEAD,
-                                               LOOKAHEAD)) {
-                    rightCount++;
-                }
+        for (PhysicalContent content : left) {
+            if (content instanceof WhitespaceRectangle) {
+                continue;
             }
 
-            if ((leftCount == 0) && (rightCount < 8)) {
-                continue;
+            if (MathUtils.isWithinVariance(content.getPos().endX, posX + HALF_LOOKAHEAD, LOOKAHEAD)) {
+                leftCount++;
             }
+        }
 
-            if ((rightCount == 0) && (leftCount < 8)) {
+        /* and how much is to the right */
+        final List<PhysicalContent> right = snapshot.searchInDirectionFromOrigin(E, smallerPos,
+                                                LOOKAHEAD);
+        int rightCount = 0;
+
+        for (PhysicalContent content : right) {
+            if (content instanceof WhitespaceRectangle) {
                 continue;
             }
 
-            if ((leftCount >= 3) || (rightCount >= 3)) {
-                columnBoundaries.add(whitespace);
-                whitespace.setScore(500);
+            if (MathUtils.isWithinVariance(content.getPos().x, posEndX + HALF_LOOKAHEAD, LOOKAHEAD)) {
+                rightCount++;
             }
         }
 
-        return columnBoundaries;
+        if ((leftCount == 0) && (rightCount < 8)) {
+            return false;
+        }
+
+        if ((rightCount == 0) && (leftCount < 8)) {
+            return false;
+        }
+
+        return (leftCount >= 3) || (rightCount >= 3);
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+    interface Evaluation<T> {
+        T evaluate(@NotNull WhitespaceRectangle candidate);
     }
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.physical.column;
+
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.WhitespaceRectangle;
+import org.elacin.pdfextract.geom.HasPosition;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.geom.Sorting;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * For each integer row of a region, this holds the horizontal extents of the content in that row
+ * as sorted primitive arrays. It is built once per region, and lets
+ * {@link ColumnFinder} answer its questions about what is to the left and right of a possible
+ * column boundary without searching through the contents for every row and every candidate.
+ * <p/>
+ * The region must not change while this is in use.
+ */
+final class RowOccupancy {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Comparator<HasPosition> sortByLowerEndX = new Comparator<HasPosition>() {
+
+        public int compare(@NotNull final HasPosition o1, @NotNull final HasPosition o2) {
+            return Float.compare(o1.getPos().endX, o2.getPos().endX);
+        }
+    };
+    private final int firstRow, lastRow;
+
+    /* for each row, the content ending furthest to the left first, and the smallest start of it
+     *  and everything after it */
+    @NotNull
+    private final float[][] rightEndX, rightMinX;
+
+    /* for each row, the content starting furthest to the left first, and the biggest end of it
+     *  and everything before it */
+    @NotNull
+    private final float[][] leftX, leftMaxEndX;
+
+    /* the width of the region, used to limit the search to the right as ColumnFinder always has */
+    private final float regionWidth;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    @SuppressWarnings({ "NumericCastThatLosesPrecision" })
+    RowOccupancy(@NotNull final PhysicalPageRegion region) {
+
+        final Rectangle rpos = region.getPos();
+
+        firstRow    = (int) rpos.y;
+        lastRow     = (int) (rpos.endY + 1.0F);
+        regionWidth = rpos.width;
+
+        /*
+         * Everything but whitespace which is at least partly within the rows of the region might
+         *  be to the left of a boundary. Subregions are not considered content on the right side.
+         */
+        final List<PhysicalContent> right = new ArrayList<PhysicalContent>();
+        final List<PhysicalContent> left  = new ArrayList<PhysicalContent>();
+
+        if (rpos.height > 0.0f) {
+            for (PhysicalContent content : region.getContents()) {
+                final Rectangle pos = content.getPos();
+
+                if ((content instanceof WhitespaceRectangle) || (pos.y > rpos.endY)
+                        || (pos.endY <= rpos.y)) {
+                    continue;
+                }
+
+                left.add(content);
+
+                if ((rpos.width > 0.0f) && !(content instanceof PhysicalPageRegion)) {
+                    right.add(content);
+                }
+            }
+        }
+
+        Collections.sort(right, sortByLowerEndX);
+        Collections.sort(left, Sorting.sortByLowerX);
+
+        final int numRows = lastRow - firstRow + 1;
+
+        rightEndX   = new float[numRows][];
+        rightMinX   = new float[numRows][];
+        leftX       = new float[numRows][];
+        leftMaxEndX = new float[numRows][];
+
+        /* content on the right side occupies the rows between its edges, both inclusive */
+        final int[] rightFirst = new int[right.size()];
+        final int[] rightLast  = new int[right.size()];
+        final int[] rightCount = new int[numRows];
+
+        for (int i = 0; i < right.size(); i++) {
+            final Rectangle pos = right.get(i).getPos();
+
+            rightFirst[i] = Math.max(firstRow, (int) Math.ceil(pos.y));
+            rightLast[i]  = Math.min(lastRow, (int) Math.floor(pos.endY));
+
+            for (int y = rightFirst[i]; y <= rightLast[i]; y++) {
+                rightCount[y - firstRow]++;
+            }
+        }
+
+        /* content on the left side occupies the rows its truncated edges span */
+        final int[] leftFirst = new int[left.size()];
+        final int[] leftLast  = new int[left.size()];
+        final int[] leftCount = new int[numRows];
+
+        for (int i = 0; i < left.size(); i++) {
+            final Rectangle pos = left.get(i).getPos();
+
+            leftFirst[i] = Math.max(firstRow, (int) pos.y);
+            leftLast[i]  = Math.min(lastRow, (int) pos.endY);
+
+            for (int y = leftFirst[i]; y <= leftLast[i]; y++) {
+                leftCount[y - firstRow]++;
+            }
+        }
+
+        for (int row = 0; row < numRows; row++) {
+            rightEndX[row]   = new float[rightCount[row]];
+            rightMinX[row]   = new float[rightCount[row]];
+            leftX[row]       = new float[leftCount[row]];
+            leftMaxEndX[row] = new float[leftCount[row]];
+            rightCount[row]  = 0;
+            leftCount[row]   = 0;
+        }
+
+        /* the contents are added in sorted order, so each row stays sorted */
+        for (int i = 0; i < right.size(); i++) {
+            final Rectangle pos = right.get(i).getPos();
+
+            for (int y = rightFirst[i]; y <= rightLast[i]; y++) {
+                final int row = y - firstRow;
+
+                rightEndX[row][rightCount[row]] = pos.endX;
+                rightMinX[row][rightCount[row]] = pos.x;
+                rightCount[row]++;
+            }
+        }
+
+        for (int i = 0; i < left.size(); i++) {
+            final Rectangle pos = left.get(i).getPos();
+
+            for (int y = leftFirst[i]; y <= leftLast[i]; y++) {
+                final int row = y - firstRow;
+
+                leftX[row][leftCount[row]]       = pos.x;
+                leftMaxEndX[row][leftCount[row]] = pos.endX;
+                leftCount[row]++;
+            }
+        }
+
+        for (int row = 0; row < numRows; row++) {
+            final float[] minX = rightMinX[row];
+
+            for (int j = minX.length - 2; j >= 0; j--) {
+                minX[j] = Math.min(minX[j], minX[j + 1]);
+            }
+
+            final float[] maxEndX = leftMaxEndX[row];
+
+            for (int j = 1; j < maxEndX.length; j++) {
+                maxEndX[j] = Math.max(maxEndX[j], maxEndX[j - 1]);
+            }
+        }
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * @return the index of the first value in the sorted array which is not less than value
+     */
+    private static int firstIndexNotBelow(@NotNull final float[] sorted, final float value) {
+
+        int low  = 0,
+            high = sorted.length;
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @return the index of the first value in the sorted array which is greater than value
+     */
+    private static int firstIndexAbove(@NotNull final float[] sorted, final float value) {
+
+        int low  = 0,
+            high = sorted.length;
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+// --------------------- GETTER / SETTER METHODS ---------------------
+    int getFirstRow() {
+        return firstRow;
+    }
+
+    int getLastRow() {
+        return lastRow;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Finds where the leftmost non-whitespace content in row y which reaches x or further starts.
+     *  Content starting more than the width of the region to the right of x is not considered.
+     *
+     * @return the start of that content, or NaN if there is none
+     */
+    float findClosestStartRightOf(final int y, final float x) {
+
+        if ((y < firstRow) || (y > lastRow)) {
+            return Float.NaN;
+        }
+
+        final int     row   = y - firstRow;
+        final float[] endX  = rightEndX[row];
+        final int     index = firstIndexNotBelow(endX, x);
+
+        if (index == endX.length) {
+            return Float.NaN;
+        }
+
+        final float closest = rightMinX[row][index];
+
+        if (closest > x + regionWidth) {
+            return Float.NaN;
+        }
+
+        return closest;
+    }
+
+    /**
+     * Finds how far to the right the content in row y which starts at or left of x and ends at
+     *  most lookLeft left of x reaches.
+     *
+     * @return the end of that content, or NaN if there is none
+     */
+    float findFurthestEndLeftOf(final int y, final float x, final float lookLeft) {
+
+        if ((y < firstRow) || (y > lastRow)) {
+            return Float.NaN;
+        }
+
+        final int     row     = y - firstRow;
+        final float   searchX = x - lookLeft;
+        final float[] starts  = leftX[row];
+
+        /* the last content starting at or left of the end of the search area */
+        final int index = firstIndexAbove(starts, searchX + lookLeft) - 1;
+
+        if (index < 0) {
+            return Float.NaN;
+        }
+
+        final float furthest = leftMaxEndX[row][index];
+
+        if (furthest < searchX) {
+            return Float.NaN;
+        }
+
+        return furthest;
+    }
+}
@@ -27,9 +27,16 @@ import org.elacin.pdfextract.geom.FloatPoint;
 import org.elacin.pdfextract.geom.HasPosition;
 import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.geom.RectangleCollection;
+import org.elacin.pdfextract.geom.SpatialIndex;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 
 import static org.elacin.pdfextract.Constants.*;
@@ -51,6 +58,16 @@ public final class WhitespaceFinder {
         the words on the page */
     protected final RectangleCollection region;
 
+    /* the same contents, indexed for the acceptance checks of new whitespace rectangles. the
+        region is not changed while we search, so this is built once */
+    @NotNull
+    private final SpatialIndex contentIndex;
+
+    /* the outcome of the acceptance checks against surrounding content, by candidate bound */
+    @NotNull
+    private final Map<Rectangle, Boolean> rejectedBySurroundings = new HashMap<Rectangle,
+                                                                       Boolean>();
+
     /**
      * State while working follows below
      */
@@ -66,33 +83,82 @@ public final class WhitespaceFinder {
     private final WhitespaceRectangle[] foundWhitespace;
     private int                         foundWhitespaceCount = 0;
 
+    /* how many of the found whitespace rectangles were given to us before searching */
+    private int     seededWhitespaceCount = 0;
+    private boolean searched              = false;
+
     /* the number of whitespace we want to find */
     private final int wantedWhitespaces;
 
+    /* the budget for this search. rectangles of lower quality than minQuality are not considered.
+        a maxTime of zero means no time limit */
+    private final int   maxPivots;
+    private final long  maxTime;
+    private final float minQuality;
+    private int         pivotsExpanded = 0;
+    private long        deadline;
+
+    /* where we count how often the search was stopped early */
+    @NotNull
+    private final WhitespaceStatistics statistics;
+
 // --------------------------- CONSTRUCTORS ---------------------------
     WhitespaceFinder(RectangleCollection region, final int numWantedWhitespaces, final float minWidth,
-                     final float minHeight) {
+                     final float minHeight, @NotNull final WhitespaceStatistics statistics) {
+        this(region, numWantedWhitespaces, minWidth, minHeight, WHITESPACE_MAX_PIVOTS,
+             WHITESPACE_MAX_TIME_MS, WHITESPACE_MIN_RELATIVE_QUALITY, statistics);
+    }
+
+    WhitespaceFinder(RectangleCollection region, final int numWantedWhitespaces,
+                     final float minWidth, final float minHeight, final int maxPivots,
+                     final long maxTime, final float minRelativeQuality,
+                     @NotNull final WhitespaceStatistics statistics) {
 
         this.region       = region;
+        contentIndex      = new SpatialIndex(region.getContents());
         wantedWhitespaces = numWantedWhitespaces;
         foundWhitespace   = new WhitespaceRectangle[numWantedWhitespaces];
         queue             = new PriorityQueue<QueueEntry>(WHITESPACE_MAX_QUEUE_SIZE);
         this.minWidth     = minWidth;
         this.minHeight    = minHeight;
+        this.maxPivots    = maxPivots;
+        this.maxTime      = maxTime;
+        minQuality        = rectangleQuality(region.getPos()) * minRelativeQuality;
+        this.statistics   = statistics;
     }
 
 // -------------------------- PUBLIC STATIC METHODS --------------------------
     public static List<WhitespaceRectangle> findWhitespace(final PhysicalPageRegion region) {
+        return findWhitespace(region, Collections.<WhitespaceRectangle>emptyList(),
+                              new WhitespaceStatistics());
+    }
+
+    /**
+     * Finds whitespace for region, starting out with the parts of seeds (the whitespace found
+     *  for an earlier page with the same layout) which are still valid within it. Only the
+     *  remaining number of rectangles is searched for. How the search went is counted in
+     *  statistics.
+     *
+     * @return the reused rectangles, clipped to region, followed by the new ones
+     */
+    public static List<WhitespaceRectangle> findWhitespace(final PhysicalPageRegion region,
+            @NotNull final Collection<WhitespaceRectangle> seeds,
+            @NotNull final WhitespaceStatistics statistics) {
 
         final long t0             = System.currentTimeMillis();
         final int  numWhitespaces = WHITESPACE_NUMBER_WANTED;
         WhitespaceFinder finder   = new WhitespaceFinder(region, numWhitespaces,
-                                        region.getMinimumColumnSpacing(), region.getMinimumRowSpacing());
+                                        region.getMinimumColumnSpacing(),
+                                        region.getMinimumRowSpacing(), statistics);
+
+        finder.seedWhitespace(seeds);
+
         final List<WhitespaceRectangle> ret  = finder.findWhitespace();
         final long                      time = System.currentTimeMillis() - t0;
 
-        log.info(String.format("LOG00380:%d of %d whitespaces for %s in %d ms", ret.size(),
-                               numWhitespaces, region, time));
+        log.info(String.format("LOG00380:%d of %d whitespaces (%d reused) for %s in %d ms",
+                               ret.size(), numWhitespaces, finder.seededWhitespaceCount, region,
+                               time));
 
         return ret;
     }
@@ -178,6 +244,29 @@ public final class WhitespaceFinder {
             /** Place an upper bound. If we reach this queue size we should already have enough data */
             if (WHITESPACE_MAX_QUEUE_SIZE - 4 <= queue.size()) {
                 log.warn("Queue too long");
+                statistics.queueLimitExceeded.incrementAndGet();
+
+                return null;
+            }
+
+            /**
+             * Stop if we have spent our budget for this region. what we have found so far will be
+             *  used
+             */
+            if (isBudgetExceeded()) {
+                return null;
+            }
+
+            /**
+             * If the best remaining rectangle is this small compared to the region, the rest will
+             *  not be of any use
+             */
+            if (queue.peek().quality < minQuality) {
+                if (log.isInfoEnabled()) {
+                    log.info("LOG01600:Remaining whitespace candidates are too small, stopping");
+                }
+
+                statistics.qualityCutoffReached.incrementAndGet();
 
                 return null;
             }
@@ -210,22 +299,9 @@ public final class WhitespaceFinder {
                     continue;
                 }
 
-                /* find all the surrounding content. make sure this rectangle is not too small.
-                 * This is an expensive check, which is why it is done here. i think it is still
-                 * correct. */
-                if (WHITESPACE_CHECK_LOCAL_HEIGHT) {
-                    if (isWhitespaceTooShortForSurroundingText(newWhitespace)) {
-                        continue;
-                    }
-                }
-
-                /* we do not want to accept whitespace rectangles which has only one or two words
-                 * on each side (0 is fine), as these doesn't affect layout and tend to break up
-                 * small paragraphs of text unnecessarily */
-                if (WHITESPACE_CHECK_TEXT_BOTH_SIDES) {
-                    if (isWhitespaceNeedlesslySeparatingText(newWhitespace)) {
-                        continue;
-                    }
+                /* check the rectangle against the content surrounding it */
+                if (isRejectedBySurroundingContent(newWhitespace)) {
+                    continue;
                 }
 
                 return newWhitespace;
@@ -234,6 +310,8 @@ public final class WhitespaceFinder {
             /** choose an obstacle near the middle of the current rectangle */
             final HasPosition pivot = choosePivot(current);
 
+            pivotsExpanded++;
+
             /**
              * Create four subrectangles, one on each side of the pivot, and determine the obstacles
              *  located inside it. Then add each subrectangle to the queue (as long as it is not too
@@ -294,13 +372,24 @@ public final class WhitespaceFinder {
      */
     List<WhitespaceRectangle> findWhitespace() {
 
-        if (foundWhitespaceCount == 0) {
+        if (!searched) {
+            searched = true;
+            statistics.regionsSearched.incrementAndGet();
+            deadline = System.currentTimeMillis() + maxTime;
 
-            /* first add the whole page (all its contents as obstacle)s to the priority queue */
+            /* first add the whole page (all its contents as obstacle)s to the priority queue.
+             *   whitespace we have been seeded with is an obstacle as well */
             int           obstacleCount = region.getContents().size();
-            HasPosition[] obstacles     = region.getContents().toArray(new HasPosition[obstacleCount]);
+            HasPosition[] obstacles     = new HasPosition[obstacleCount + wantedWhitespaces];
 
-            queue.add(new QueueEntry(region.getPos(), obstacles, obstacleCount, 0));
+            region.getContents().toArray(obstacles);
+
+            for (int i = 0; i < foundWhitespaceCount; i++) {
+                obstacles[obstacleCount++] = foundWhitespace[i];
+            }
+
+            queue.add(new QueueEntry(region.getPos(), obstacles, obstacleCount,
+                                     foundWhitespaceCount));
 
             /* continue looking for whitespace until we have the wanted number or we run out */
             while (foundWhitespaceCount < wantedWhitespaces) {
@@ -324,6 +413,162 @@ public final class WhitespaceFinder {
         return ret;
     }
 
+    /**
+     * Checks whether we have expanded too many pivots or spent too much time on this region. The
+     *  clock is only checked every now and then, as this is called for every queue entry.
+     */
+    boolean isBudgetExceeded() {
+
+        if (pivotsExpanded >= maxPivots) {
+            log.warn("LOG01610:Whitespace search for " + region + " expanded " + pivotsExpanded
+                     + " pivots, using " + foundWhitespaceCount + " whitespaces found so far");
+            statistics.pivotBudgetExceeded.incrementAndGet();
+
+            return true;
+        }
+
+        if ((maxTime > 0L) && ((pivotsExpanded & 0xff) == 0xff)
+                && (System.currentTimeMillis() > deadline)) {
+            log.warn("LOG01620:Whitespace search for " + region + " took more than " + maxTime
+                     + "ms, using " + foundWhitespaceCount + " whitespaces found so far");
+            statistics.timeBudgetExceeded.incrementAndGet();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds the parts of seeds which lie within the region, and which are still empty there, as
+     *  already found whitespace. The best ones are used first, and they must pass the same checks
+     *  as the rectangles we find ourselves.
+     */
+    void seedWhitespace(@NotNull final Collection<WhitespaceRectangle> seeds) {
+
+        if (searched || seeds.isEmpty()) {
+            return;
+        }
+
+        final Rectangle        bound      = region.getPos();
+        final List<QueueEntry> candidates = new ArrayList<QueueEntry>(seeds.size());
+
+        for (WhitespaceRectangle whitespace : seeds) {
+            final Rectangle clipped = whitespace.getPos().clippedTo(bound);
+
+            if ((clipped == null) || (clipped.width <= minWidth) || (clipped.height <= minHeight)) {
+                continue;
+            }
+
+            /* whitespace in the region might well be the very rectangle we were seeded with */
+            final List<HasPosition> inside = new ArrayList<HasPosition>();
+
+            for (PhysicalContent content : region.getContents()) {
+                if (content.isWhitespace()) {
+                    continue;
+                }
+
+                if (clipped.intersectsAdmittingOverlap(content.getPos(), WHITESPACE_OBSTACLE_OVERLAP)) {
+                    inside.add(content);
+                }
+            }
+
+            final QueueEntry candidate = new QueueEntry(clipped,
+                                             inside.toArray(new HasPosition[inside.size()]),
+                                             inside.size(), 0);
+
+            if (isEmptyEnough(candidate)) {
+                candidates.add(candidate);
+            }
+        }
+
+        Collections.sort(candidates);
+
+        /*
+         * then accept them the same way as the rectangles we search for. a candidate which is not
+         *  yet next to an edge or an accepted rectangle may be after the next one is accepted, so
+         *  go through them again as long as that happens
+         */
+        boolean acceptedAny = true;
+
+        while (acceptedAny && (foundWhitespaceCount < wantedWhitespaces)) {
+            acceptedAny = false;
+
+            for (Iterator<QueueEntry> iterator = candidates.iterator(); iterator.hasNext(); ) {
+                if (foundWhitespaceCount == wantedWhitespaces) {
+                    break;
+                }
+
+                final QueueEntry candidate = iterator.next();
+
+                /* the seeds might overlap each other after being clipped */
+                if (overlapsFoundWhitespace(candidate.bound)) {
+                    iterator.remove();
+
+                    continue;
+                }
+
+                final WhitespaceRectangle seed = new WhitespaceRectangle(candidate.bound);
+
+                if (WHITESPACE_CHECK_CONNECTED_FROM_EDGE &&!isNextToWhitespaceOrEdge(seed)) {
+                    continue;
+                }
+
+                iterator.remove();
+
+                if (!isRejectedBySurroundingContent(seed)) {
+                    foundWhitespace[foundWhitespaceCount++] = seed;
+                    acceptedAny                             = true;
+                }
+            }
+        }
+
+        seededWhitespaceCount = foundWhitespaceCount;
+        statistics.whitespaceReused.addAndGet(seededWhitespaceCount);
+    }
+
+    private boolean overlapsFoundWhitespace(@NotNull final Rectangle bound) {
+
+        for (int i = 0; i < foundWhitespaceCount; i++) {
+            if (bound.intersectsAdmittingOverlap(foundWhitespace[i].getPos(),
+                    WHITESPACE_OBSTACLE_OVERLAP)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Runs the acceptance checks which look at the content around newWhitespace. These are
+     *  expensive, so the outcome is remembered for each bound we have seen.
+     */
+    boolean isRejectedBySurroundingContent(final WhitespaceRectangle newWhitespace) {
+
+        final Rectangle bound    = newWhitespace.getPos();
+        Boolean         rejected = rejectedBySurroundings.get(bound);
+
+        if (rejected == null) {
+
+            /* find all the surrounding content. make sure this rectangle is not too small.
+             * This is an expensive check, which is why it is done here. i think it is still
+             * correct. */
+            rejected = WHITESPACE_CHECK_LOCAL_HEIGHT
+                       && isWhitespaceTooShortForSurroundingText(newWhitespace);
+
+            /* we do not want to accept whitespace rectangles which has only one or two words
+             * on each side (0 is fine), as these doesn't affect layout and tend to break up
+             * small paragraphs of text unnecessarily */
+            if (!rejected && WHITESPACE_CHECK_TEXT_BOTH_SIDES) {
+                rejected = isWhitespaceNeedlesslySeparatingText(newWhitespace);
+            }
+
+            rejectedBySurroundings.put(bound, rejected);
+        }
+
+        return rejected;
+    }
+
     /**
      * Check if the whitespace rectangle is made useless by the way it separates text. see thesis
      *  text for details.
@@ -338,7 +583,8 @@ public final class WhitespaceFinder {
          *   above and below */
         Rectangle                   search     = newWhitespace.getPos().getAdjustedBy(-1.0f);
         final float                 range      = 8.0f;
-        final List<PhysicalContent> right      = region.searchInDirectionFromOrigin(E, search, range);
+        final List<PhysicalContent> right      = contentIndex.searchInDirectionFromOrigin(E, search,
+                                                           range);
         int                         rightCount = 0;
 
         for (PhysicalContent content : right) {
@@ -348,7 +594,8 @@ public final class WhitespaceFinder {
         }
 
         if ((rightCount == 1) || (rightCount == 2)) {
-            final List<PhysicalContent> left      = region.searchInDirectionFromOrigin(W, search, range);
+            final List<PhysicalContent> left      = contentIndex.searchInDirectionFromOrigin(W,
+                                                          search, range);
             int                         leftCount = 0;
 
             for (PhysicalContent content : left) {
@@ -370,7 +617,7 @@ public final class WhitespaceFinder {
      */
     boolean isWhitespaceTooShortForSurroundingText(final WhitespaceRectangle newWhitespace) {
 
-        final List<PhysicalContent> surroundings = region.findSurrounding(newWhitespace, 8);
+        final List<PhysicalContent> surroundings = contentIndex.findSurrounding(newWhitespace, 8);
 
         if (!surroundings.isEmpty()) {
             float averageHeight = 0.0f;
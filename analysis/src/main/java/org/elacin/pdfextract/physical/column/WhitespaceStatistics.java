@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical.column;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts how often the whitespace search was stopped early, summed over the regions of one
+ * analysis. Regions of the same page may be searched from several threads at once.
+ */
+public final class WhitespaceStatistics {
+
+// ------------------------------ FIELDS ------------------------------
+    final AtomicInteger regionsSearched      = new AtomicInteger();
+    final AtomicInteger pivotBudgetExceeded  = new AtomicInteger();
+    final AtomicInteger timeBudgetExceeded   = new AtomicInteger();
+    final AtomicInteger queueLimitExceeded   = new AtomicInteger();
+    final AtomicInteger qualityCutoffReached = new AtomicInteger();
+    final AtomicInteger whitespaceReused     = new AtomicInteger();
+
+// --------------------- GETTER / SETTER METHODS ---------------------
+    public int getPivotBudgetExceeded() {
+        return pivotBudgetExceeded.get();
+    }
+
+    public int getQualityCutoffReached() {
+        return qualityCutoffReached.get();
+    }
+
+    public int getQueueLimitExceeded() {
+        return queueLimitExceeded.get();
+    }
+
+    public int getRegionsSearched() {
+        return regionsSearched.get();
+    }
+
+    public int getTimeBudgetExceeded() {
+        return timeBudgetExceeded.get();
+    }
+
+    public int getWhitespaceReused() {
+        return whitespaceReused.get();
+    }
+
+// ------------------------ CANONICAL METHODS ------------------------
+    @NotNull
+    @Override
+    public String toString() {
+
+        return String.format("%d regions searched for whitespace, stopped early because of "
+                             + "pivots: %d, time: %d, queue size: %d, quality: %d. %d whitespaces "
+                             + "reused from parent regions", regionsSearched.get(),
+                             pivotBudgetExceeded.get(), timeBudgetExceeded.get(),
+                             queueLimitExceeded.get(), qualityCutoffReached.get(),
+                             whitespaceReused.get());
+    }
+}
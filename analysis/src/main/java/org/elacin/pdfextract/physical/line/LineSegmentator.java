@@ -21,15 +21,14 @@ package org.elacin.pdfextract.physical.line;
 import org.apache.log4j.Logger;
 import org.elacin.pdfextract.content.PhysicalContent;
 import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.geom.ReadingOrder;
 import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.geom.RectangleCollection;
-import org.elacin.pdfextract.geom.Sorting;
 import org.elacin.pdfextract.tree.LineNode;
 import org.elacin.pdfextract.tree.WordNode;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import static org.elacin.pdfextract.content.AssignablePhysicalContent.BLOCK_NOT_ASSIGNED;
@@ -78,7 +77,7 @@ public class LineSegmentator {
 
         List<Integer> lineBoundaries = findLineBoundaries(counts);
 
-        Collections.sort(block.getContents(), Sorting.sortByLowerY);
+        ReadingOrder.sortByLowerY(block.getContents());
 
         LineNode currentLine = new LineNode();
 
@@ -18,6 +18,7 @@
 
 package org.elacin.pdfextract.physical.word;
 
+import org.elacin.pdfextract.content.PageTextStore;
 import org.elacin.pdfextract.content.PhysicalText;
 import org.jetbrains.annotations.NotNull;
 
@@ -32,4 +33,7 @@ public interface WordSegmentator {
 // -------------------------- PUBLIC METHODS --------------------------
     @NotNull
     List<PhysicalText> segmentWords(List<PhysicalText> text);
+
+    @NotNull
+    List<PhysicalText> segmentWords(PageTextStore text);
 }
@@ -20,6 +20,7 @@ package org.elacin.pdfextract.physical.word;
 
 import org.apache.log4j.Logger;
 
+import org.elacin.pdfextract.content.PageTextStore;
 import org.elacin.pdfextract.content.PhysicalText;
 import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.geom.Sorting;
@@ -52,56 +53,84 @@ public class WordSegmentatorImpl implements WordSegmentator {
     @NotNull
     public List<PhysicalText> segmentWords(@NotNull final List<PhysicalText> texts) {
 
-        final long         t0  = System.currentTimeMillis();
-        List<PhysicalText> ret = new ArrayList<PhysicalText>(texts.size());
+        Collections.sort(texts, Sorting.sortTextByBaseLine);
 
-        /**
-         * iterate through all incoming TextPositions, and process them
-         * in a line by line fashion. We do this to be able to calculate
-         * char and word distances for each line
-         */
-        List<PhysicalText> line = new ArrayList<PhysicalText>();
+        return segmentSortedWords(new PageTextStore(texts));
+    }
 
-        Collections.sort(texts, Sorting.sortTextByBaseLine);
+    /**
+     * Same as above, for characters which are kept in a store
+     */
+    @NotNull
+    public List<PhysicalText> segmentWords(@NotNull final PageTextStore texts) {
+        return segmentSortedWords(texts.sortedByBaseLine());
+    }
+
+// -------------------------- PUBLIC STATIC METHODS --------------------------
+
+    /**
+     * Segments one line of characters into words, see below. The line is emptied in the process.
+     */
+    @NotNull
+    public static Collection<PhysicalText> createWordsInLine(@NotNull final List<PhysicalText> line) {
+
+        final Collection<PhysicalText> ret = createWordsInLine(new PageTextStore(line), 0,
+                                                 line.size());
+
+        line.clear();
+
+        return ret;
+    }
 
-        float baseline     = 0.0f;
-        float maxY         = Float.MIN_VALUE;
-        float maxX         = 0.0f;
-        Style currentStyle = null;
+// -------------------------- STATIC METHODS --------------------------
 
-        for (final PhysicalText text : texts) {
+    /**
+     * Iterates through all the characters, which are sorted by baseline, and processes them
+     * in a line by line fashion. We do this to be able to calculate char and word distances for
+     * each line. A line is kept as the range of indexes [lineStart, i) into the store
+     */
+    @NotNull
+    private static List<PhysicalText> segmentSortedWords(@NotNull final PageTextStore store) {
+
+        final long         t0           = System.currentTimeMillis();
+        List<PhysicalText> ret          = new ArrayList<PhysicalText>(store.size());
+        int                lineStart    = 0;
+        float              baseline     = 0.0f;
+        float              maxY         = Float.MIN_VALUE;
+        float              maxX         = 0.0f;
+        Style              currentStyle = null;
+
+        for (int i = 0; i < store.size(); i++) {
 
             /* if this is the first text in a line */
-            if (line.isEmpty()) {
-                baseline     = text.getBaseLine();
-                maxX         = text.getPos().endX;
-                currentStyle = text.getStyle();
+            if (i == lineStart) {
+                baseline     = store.getBaseLine(i);
+                maxX         = store.getEndX(i);
+                currentStyle = store.getStyle(i);
             }
 
-            final boolean stopGrouping = isOnAnotherLine(baseline, text, maxY)
-                                         || isTooFarAwayHorizontally(maxX, text)
-                                         || fontDiffers(currentStyle, text);
+            final boolean stopGrouping = isOnAnotherLine(baseline, store.getBaseLine(i), maxY)
+                                         || isTooFarAwayHorizontally(maxX, store, i)
+                                         || fontDiffers(currentStyle, store.getStyle(i));
 
             if (stopGrouping) {
-                if (!line.isEmpty()) {
-                    ret.addAll(createWordsInLine(line));
-                    line.clear();
+                if (i != lineStart) {
+                    ret.addAll(createWordsInLine(store, lineStart, i));
+                    lineStart = i;
                 }
 
-                baseline     = text.getBaseLine();
-                maxY         = text.getPos().endY;
-                currentStyle = text.getStyle();
+                baseline     = store.getBaseLine(i);
+                maxY         = store.getEndY(i);
+                currentStyle = store.getStyle(i);
             }
 
-            /* then add the current text to start next line */
-            line.add(text);
-            maxY = Math.max(maxY, text.getPos().endX);
-            maxX = text.getPos().endX;
+            /* then the current text is part of the line */
+            maxY = Math.max(maxY, store.getEndX(i));
+            maxX = store.getEndX(i);
         }
 
-        if (!line.isEmpty()) {
-            ret.addAll(createWordsInLine(line));
-            line.clear();
+        if (lineStart != store.size()) {
+            ret.addAll(createWordsInLine(store, lineStart, store.size()));
         }
 
         if (log.isDebugEnabled()) {
@@ -111,8 +140,6 @@ public class WordSegmentatorImpl implements WordSegmentator {
         return ret;
     }
 
-// -------------------------- PUBLIC STATIC METHODS --------------------------
-
     /**
      * The above methods are generally responsible for grouping text according to line and style;
      * this is the one which will actually do the segmentation. <p/> There are two cases to consider
@@ -121,62 +148,68 @@ public class WordSegmentatorImpl implements WordSegmentator {
      * spacing. <p/> Then, iterate through the characters in the line from left to right: calculate
      * the real distance between a pair of characters normalize that by subtracting the charspacing
      * if that normalized spacing is bigger than fontSize / 15, consider the space a word boundary
-     *
-     * @param line
-     * @return
+     * <p/> The line is given as the range [from, to) of the store. A word is only turned into a
+     * PhysicalText when it is complete.
      */
     @NotNull
-    public static Collection<PhysicalText> createWordsInLine(@NotNull final List<PhysicalText> line) {
-
-        /* unfinished words are put back into this queue, and will this be picked as currentWord below */
-        /*
-        * Note, sorting this by lower X-coords breaks because of bad information for many documents
-        * */
-        final List<PhysicalText> queue = line;
+    static Collection<PhysicalText> createWordsInLine(@NotNull final PageTextStore store,
+            final int from, final int to) {
 
         /* this list of words will be returned */
         final Collection<PhysicalText> segmentedWords = new ArrayList<PhysicalText>();
 
         /* if we already have whitespace information */
-        final boolean containsSpaces = USE_EXISTING_WHITESPACE && containsWhiteSpace(line);
+        final boolean containsSpaces = USE_EXISTING_WHITESPACE && containsWhiteSpace(store, from, to);
 
         /* an approximate average charspacing distance */
-        final float charSpacing = approximateCharSpacing(line);
+        final float charSpacing = approximateCharSpacing(store, from, to);
 
         /* all font sizes are the same. if it is missing just guess 10 */
         final float fontSize;
 
-        if (line.get(0).getStyle().xSize == 0) {
+        if (store.getStyle(from).xSize == 0) {
             fontSize = 10.0f;
         } else {
-            fontSize = (float) line.get(0).getStyle().xSize;
+            fontSize = (float) store.getStyle(from).xSize;
         }
 
         /*
          *       this is necessary to keep track of the width of the last character we
          *       combined into a a word, else it would disappear when combining
          */
-        float currentWidth = queue.get(0).getPos().width;
+        float currentWidth = store.getWidth(from);
 
         if (log.isDebugEnabled()) {
-            printLine(line);
+            log.debug("line:" + store.getText(from, to));
         }
 
         /**
-         * iterate through all texts from left to right, and combine into words as we go
+         * iterate through all texts from left to right, and combine into words as we go.
+         *  an unfinished word is kept in word, and next is the first character not yet
+         *  considered
          */
-        while (!queue.isEmpty()) {
-            final PhysicalText currentWord = queue.remove(0);
-            final PhysicalText nextChar    = queue.isEmpty() ? null : queue.get(0);
+        WordInProgress word = null;
+        int            next = from;
+
+        while ((word != null) || (next != to)) {
+            final WordInProgress currentWord;
+
+            if (word == null) {
+                currentWord = new WordInProgress(store, next);
+                next++;
+            } else {
+                currentWord = word;
+                word        = null;
+            }
 
             /* we have no need for spaces after establishing word boundaries, so skip */
-            if ("".equals(currentWord.getText().trim())) {
+            if (currentWord.isSingleCharacter() && store.isBlank(currentWord.start)) {
                 continue;
             }
 
             /* if it is the last in line */
-            if (nextChar == null) {
-                segmentedWords.add(currentWord);
+            if (next == to) {
+                segmentedWords.add(currentWord.toPhysicalText(store));
 
                 break;
             }
@@ -187,16 +220,17 @@ public class WordSegmentatorImpl implements WordSegmentator {
             final boolean isWordBoundary;
 
             if (containsSpaces) {
-                isWordBoundary = "".equals(nextChar.getText().trim());
+                isWordBoundary = store.isBlank(next);
             } else {
-                final float distance = currentWord.getPos().distance(nextChar.getPos());
+                final float distance = currentWord.distance(store, next);
                 final float limit    = 0.8f * fontSize / fontDenom;
 
                 isWordBoundary = distance - charSpacing > limit;
 
                 if (log.isDebugEnabled()) {
-                    log.debug(currentWord.getText() + "[" + currentWidth + "] " + distance + " "
-                              + nextChar.getText() + "[" + nextChar.getPos().width + "]: limit=" + limit
+                    log.debug(store.getText(currentWord.start, currentWord.end) + "[" + currentWidth
+                              + "] " + distance + " " + store.getText(next) + "["
+                              + store.getWidth(next) + "]: limit=" + limit
                               + ", effective distance:" + (distance - charSpacing) + ", fontSize:"
                               + (fontSize) + ", charSpacing:" + charSpacing);
                 }
@@ -208,17 +242,19 @@ public class WordSegmentatorImpl implements WordSegmentator {
             if (isWordBoundary) {
 
                 /* save this word and continue with next */
-                segmentedWords.add(currentWord);
+                segmentedWords.add(currentWord.toPhysicalText(store));
             } else {
 
                 /* combine the two fragments */
-                PhysicalText combinedWord = currentWord.combineWith(nextChar);
-
-                queue.remove(nextChar);
-                queue.add(0, combinedWord);
+                currentWord.extendWith(store, next);
+                word = currentWord;
             }
 
-            currentWidth = nextChar.getPos().width;
+            currentWidth = store.getWidth(next);
+
+            if (word != null) {
+                next++;
+            }
         }
 
         for (PhysicalText text : segmentedWords) {
@@ -230,8 +266,6 @@ public class WordSegmentatorImpl implements WordSegmentator {
         return segmentedWords;
     }
 
-// -------------------------- STATIC METHODS --------------------------
-
     /**
      * Tries to find an estimate of the character spacing applied to the given line of characters.
      * <p/> The idea is that font kerning and other local adjustments will contribute relatively
@@ -244,20 +278,20 @@ public class WordSegmentatorImpl implements WordSegmentator {
      * being skipped for being too big), the approximation of the character spacing would thus end
      * up around 4.
      *
-     * @param line list of characters in the line. this must be sorted
+     * @param store characters of the line, which is the sorted range [from, to)
      * @return an approximate character spacing
      */
-    static float approximateCharSpacing(@NotNull List<PhysicalText> line) {
+    static float approximateCharSpacing(@NotNull PageTextStore store, final int from, final int to) {
 
         /**
          * the real lower bound where this algorithm applies might be higher, but
          *  at least for 0 or 1 distances it would be non-functional
          */
-        if (line.size() <= 1) {
+        if (to - from <= 1) {
             return 0.0f;
         }
 
-        final float[] distances = calculateDistancesBetweenCharacters(line);
+        final float[] distances = calculateDistancesBetweenCharacters(store, from, to);
 
         Arrays.sort(distances);
 
@@ -290,34 +324,33 @@ public class WordSegmentatorImpl implements WordSegmentator {
     }
 
     /**
-     * Calculates a list of distances between the given list of characters in the obvious way.
+     * Calculates a list of distances between the given range of characters in the obvious way.
      *
-     * @param line list of characters. this should be sorted!
+     * @param store characters. the range [from, to) should be sorted!
      * @return
      */
     @NotNull
-    private static float[] calculateDistancesBetweenCharacters(@NotNull List<PhysicalText> line) {
+    private static float[] calculateDistancesBetweenCharacters(@NotNull PageTextStore store,
+            final int from, final int to) {
 
-        if (line.size() <= 1) {
+        if (to - from <= 1) {
             return new float[0];
         }
 
-        final float[] distances = new float[line.size() - 1];
-
-        for (int i = 0; i < line.size() - 1; i++) {
-            final Rectangle leftChar  = line.get(i).getPos();
-            final Rectangle rightChar = line.get(i + 1).getPos();
+        final float[] distances = new float[to - from - 1];
 
-            distances[i] = leftChar.distance(rightChar);
+        for (int i = from; i < to - 1; i++) {
+            distances[i - from] = store.distance(i, i + 1);
         }
 
         return distances;
     }
 
-    private static boolean containsWhiteSpace(@NotNull List<PhysicalText> line) {
+    private static boolean containsWhiteSpace(@NotNull PageTextStore store, final int from,
+            final int to) {
 
-        for (PhysicalText physicalText : line) {
-            if (" ".equals(physicalText.getText())) {
+        for (int i = from; i < to; i++) {
+            if (store.isSpace(i)) {
                 return true;
             }
         }
@@ -325,33 +358,62 @@ public class WordSegmentatorImpl implements WordSegmentator {
         return false;
     }
 
-    private static boolean fontDiffers(@NotNull final Style style, @NotNull final PhysicalText text) {
+    private static boolean fontDiffers(@NotNull final Style style, @NotNull final Style textStyle) {
 
-        StyleDifference diff = StyleComparator.styleCompare(text.getStyle(), style);
+        StyleDifference diff = StyleComparator.styleCompare(textStyle, style);
 
         return diff.equals(BIG_DIFFERENCE) || diff.equals(SPLIT);
     }
 
-    private static boolean isOnAnotherLine(final float baseline, @NotNull final PhysicalText text,
+    private static boolean isOnAnotherLine(final float baseline, final float textBaseLine,
             final float maxY) {
-        return ((baseline != text.getBaseLine()) && (text.getBaseLine() > maxY));
+        return ((baseline != textBaseLine) && (textBaseLine > maxY));
     }
 
-    private static boolean isTooFarAwayHorizontally(final float endX, @NotNull final PhysicalText text) {
+    private static boolean isTooFarAwayHorizontally(final float endX,
+            @NotNull final PageTextStore store, final int i) {
 
-        final float variation = text.getPos().width;
+        final float variation = store.getWidth(i);
 
-        return !isWithinVariance(endX, text.getPos().x, variation);
+        return !isWithinVariance(endX, store.getX(i), variation);
     }
 
-    private static void printLine(@NotNull List<PhysicalText> physicalTexts) {
+// -------------------------- INNER CLASSES --------------------------
+
+    /**
+     * The characters [start, end) of a word being built, along with their bounds
+     */
+    private static final class WordInProgress {
+
+        final int start;
+        int       end;
+        @NotNull
+        Rectangle bound;
+
+        WordInProgress(@NotNull final PageTextStore store, final int i) {
 
-        StringBuffer sb = new StringBuffer();
+            start = i;
+            end   = i + 1;
+            bound = store.getPos(i);
+        }
+
+        float distance(@NotNull final PageTextStore store, final int i) {
+            return store.distance(bound, i);
+        }
+
+        void extendWith(@NotNull final PageTextStore store, final int i) {
 
-        for (PhysicalText physicalText : physicalTexts) {
-            sb.append(physicalText.getText());
+            bound = bound.union(store.getPos(i));
+            end   = i + 1;
         }
 
-        log.debug("line:" + sb);
+        boolean isSingleCharacter() {
+            return end - start == 1;
+        }
+
+        @NotNull
+        PhysicalText toPhysicalText(@NotNull final PageTextStore store) {
+            return store.createText(start, end, bound);
+        }
     }
 }
@@ -20,8 +20,10 @@ package org.elacin.pdfextract.datasource.pdfbox;
 
 import org.apache.log4j.Logger;
 import org.apache.log4j.MDC;
+import org.apache.pdfbox.pdfviewer.PageDrawer;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.elacin.pdfextract.Constants;
 import org.elacin.pdfextract.datasource.DocumentContent;
 import org.elacin.pdfextract.datasource.PDFSource;
@@ -29,6 +31,7 @@ import org.elacin.pdfextract.datasource.RenderedPage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -40,7 +43,12 @@ import java.io.IOException;
 public class PDFBoxSource implements PDFSource {
 
 // ------------------------------ FIELDS ------------------------------
-    private static final Logger log = Logger.getLogger(PDFBoxSource.class);
+    private static final Logger log               = Logger.getLogger(PDFBoxSource.class);
+    @NotNull
+    private static final Color  TRANSPARENT_WHITE = new Color(255, 255, 255, 0);
+
+    /* the image type pages are rendered to */
+    private static final int    IMAGE_TYPE        = BufferedImage.TYPE_USHORT_565_RGB;
     private DocumentContent     contents;
     @NotNull
     private final PDDocument    doc;
@@ -87,12 +95,28 @@ public class PDFBoxSource implements PDFSource {
 
     @NotNull
     public RenderedPage renderPage(int pageNum) {
+        return renderPage(pageNum, Constants.RENDER_DPI, null);
+    }
+
+    /**
+     * PDFBox can not draw pages of the same document from several threads, so this is
+     *  synchronized.
+     */
+    @NotNull
+    public synchronized RenderedPage renderPage(int pageNum, int dpi,
+            @Nullable BufferedImage buffer) {
 
         final PDPage        page = (PDPage) doc.getDocumentCatalog().getAllPages().get(pageNum - 1);
         final BufferedImage image;
 
         try {
-            image = page.convertToImage(8, Constants.RENDER_DPI);
+            if (page.findRotation() == 0) {
+                image = drawPage(page, dpi, buffer);
+            } else {
+
+                /* leave rotated pages to PDFBox */
+                image = page.convertToImage(IMAGE_TYPE, dpi);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -113,6 +137,44 @@ public class PDFBoxSource implements PDFSource {
     }
 
 // -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Draws page the same way as PDPage.convertToImage(), but into buffer if it has the right size
+     *  and type.
+     */
+    @NotNull
+    private static BufferedImage drawPage(@NotNull final PDPage page, final int dpi,
+            @Nullable final BufferedImage buffer)
+            throws IOException {
+
+        final PDRectangle   mediaBox = page.findMediaBox();
+        final float         scaling  = dpi / 72.0f;
+        final int           widthPx  = Math.round(mediaBox.getWidth() * scaling);
+        final int           heightPx = Math.round(mediaBox.getHeight() * scaling);
+        final BufferedImage image;
+
+        if ((buffer != null) && (buffer.getWidth() == widthPx) && (buffer.getHeight() == heightPx)
+                && (buffer.getType() == IMAGE_TYPE)) {
+            image = buffer;
+        } else {
+            image = new BufferedImage(widthPx, heightPx, IMAGE_TYPE);
+        }
+
+        final Graphics2D graphics = image.createGraphics();
+
+        try {
+            graphics.setBackground(TRANSPARENT_WHITE);
+            graphics.clearRect(0, 0, widthPx, heightPx);
+            graphics.scale(scaling, scaling);
+            new PageDrawer().drawPage(graphics, page, new Dimension((int) mediaBox.getWidth(),
+                    (int) mediaBox.getHeight()));
+        } finally {
+            graphics.dispose();
+        }
+
+        return image;
+    }
+
     @NotNull
     protected static PDDocument openPdfDocument(@NotNull final File pdfFile,
             @Nullable final String password) {
@@ -26,7 +26,9 @@ import org.elacin.pdfextract.datasource.PDFSource;
 import org.elacin.pdfextract.datasource.RenderedPage;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 
 /**
@@ -92,6 +94,12 @@ public class PopplerDataSource implements PDFSource {
         return null;
     }
 
+    @NotNull
+    public RenderedPage renderPage(final int page, final int dpi,
+                                   @Nullable final BufferedImage buffer) {
+        return null;
+    }
+
 // -------------------------- INNER CLASSES --------------------------
     public interface PopplerInterface extends Library {
 
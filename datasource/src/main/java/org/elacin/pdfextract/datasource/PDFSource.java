@@ -19,6 +19,9 @@
 package org.elacin.pdfextract.datasource;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.image.BufferedImage;
 
 /**
  * Created by IntelliJ IDEA. User: elacin Date: 15.01.11 Time: 19.32 To change this template use
@@ -34,4 +37,12 @@ public interface PDFSource {
 
     @NotNull
     RenderedPage renderPage(int page);
+
+    /**
+     * Renders page at the given resolution. If buffer has the size and type of the rendering, the
+     *  page is drawn into it instead of into a new image, so buffers can be reused between pages.
+     *  Sources may render one page at a time, even when called from several threads.
+     */
+    @NotNull
+    RenderedPage renderPage(int page, int dpi, @Nullable BufferedImage buffer);
 }
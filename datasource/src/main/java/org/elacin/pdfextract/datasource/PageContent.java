@@ -19,6 +19,7 @@
 package org.elacin.pdfextract.datasource;
 
 import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PageTextStore;
 import org.elacin.pdfextract.content.PhysicalText;
 import org.elacin.pdfextract.geom.Rectangle;
 
@@ -32,26 +33,38 @@ import java.util.List;
 public class PageContent implements Serializable {
 
 // ------------------------------ FIELDS ------------------------------
-    final List<PhysicalText>   characters;
+    final PageTextStore        characters;
     final Rectangle            dimensions;
     final List<GraphicContent> graphics;
     final int                  pageNum;
 
 // --------------------------- CONSTRUCTORS ---------------------------
+
+    /**
+     * The characters are kept in a {@link PageTextStore} until the page is analyzed, so the list
+     *  and its texts need not be kept around
+     */
     public PageContent(List<PhysicalText> characters, List<GraphicContent> graphics, int pageNum,
                        Rectangle dimensions) {
 
-        this.characters = characters;
+        this.characters = new PageTextStore(characters);
         this.graphics   = graphics;
         this.pageNum    = pageNum;
         this.dimensions = dimensions;
     }
 
 // --------------------- GETTER / SETTER METHODS ---------------------
-    public List<PhysicalText> getCharacters() {
+    public PageTextStore getCharacterStore() {
         return characters;
     }
 
+    /**
+     * @return a view of the characters, where each text is created when it is asked for
+     */
+    public List<PhysicalText> getCharacters() {
+        return characters.asList();
+    }
+
     public Rectangle getDimensions() {
         return dimensions;
     }
@@ -61,7 +61,11 @@ public abstract class AbstractNode<ParentType extends AbstractParentNode> extend
 
 // -------------------------- PUBLIC METHODS --------------------------
     public void addRole(Role r) {
-        log.info(r + ": " + this);
+
+        if (log.isInfoEnabled()) {
+            log.info(r + ": " + this);
+        }
+
         roles.add(r);
     }
 
@@ -75,7 +79,7 @@ public abstract class AbstractNode<ParentType extends AbstractParentNode> extend
                 return (PageNode) current;
             }
 
-            current = current.parent;
+            current = current.getEnclosingNode();
         }
 
         return null;
@@ -85,6 +89,15 @@ public abstract class AbstractNode<ParentType extends AbstractParentNode> extend
 
     public abstract String getText();
 
+    /**
+     * Returns the text of this node without necessarily putting it together as a string, for
+     *  looking at the length or some of the characters.
+     */
+    @NotNull
+    public CharSequence getTextView() {
+        return getText();
+    }
+
     public boolean hasRole(Role r) {
         return roles.contains(r);
     }
@@ -94,5 +107,28 @@ public abstract class AbstractNode<ParentType extends AbstractParentNode> extend
     }
 
 // -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Tells the nodes above that node was just added somewhere below, or removed from there. The
+     *  document keeps an index of its contents, the others just pass it on
+     */
+    protected void descendantChanged(@NotNull final AbstractNode node, final boolean removed) {
+
+        final AbstractParentNode enclosing = getEnclosingNode();
+
+        if (enclosing != null) {
+            enclosing.descendantChanged(node, removed);
+        }
+    }
+
+    /**
+     * The node which contains this one. This is the parent for all nodes but graphics, which are
+     *  kept by the page on the side of its children
+     */
+    @Nullable
+    protected AbstractParentNode getEnclosingNode() {
+        return parent;
+    }
+
     protected abstract void invalidateThisAndParents();
 }
@@ -18,7 +18,8 @@
 
 package org.elacin.pdfextract.tree;
 
-import org.elacin.pdfextract.geom.MathUtils;
+import org.elacin.pdfextract.geom.IncrementalBounds;
+import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.style.Style;
 import org.elacin.pdfextract.style.TextUtils;
 
@@ -40,16 +41,18 @@ public abstract class AbstractParentNode<ChildType extends AbstractNode,
 
     /* caches */
     @Nullable
-    protected transient String textCache;
+    protected transient JoinedText textCache;
     @Nullable
-    protected transient Style  styleCache;
-    @Nullable
-    protected transient String toStringCache;
+    protected transient Style      styleCache;
 
     /* children nodes */
     @NotNull
     private final List<ChildType> children = new ArrayList<ChildType>();
 
+    /* bounds of the children, kept up to date as children are added and removed */
+    @NotNull
+    private final IncrementalBounds bounds = new IncrementalBounds(true);
+
 // --------------------------- CONSTRUCTORS ---------------------------
     public AbstractParentNode() {}
 
@@ -60,7 +63,7 @@ public abstract class AbstractParentNode<ChildType extends AbstractNode,
 // ------------------------ INTERFACE METHODS ------------------------
 // --------------------- Interface HasPosition ---------------------
     public void calculatePos() {
-        setPos(MathUtils.findBounds(children));
+        setPos(bounds.getBounds(children));
     }
 
 // --------------------- Interface StyledText ---------------------
@@ -77,37 +80,14 @@ public abstract class AbstractParentNode<ChildType extends AbstractNode,
     @NotNull
     @Override
     public String getText() {
-
-        if (textCache == null) {
-            StringBuilder sb = new StringBuilder();
-
-            if (!children.isEmpty()) {
-                for (ChildType child : children) {
-                    sb.append(child.getText()).append(" ");
-                }
-
-                sb.setLength(sb.length() - 1);
-            }
-
-            textCache = sb.toString();
-        }
-
-        return textCache;
+        return getTextView().toString();
     }
 
 // ------------------------ CANONICAL METHODS ------------------------
     @NotNull
     @Override
     public String toString() {
-
-        if (toStringCache == null) {
-            final StringBuilder sb = new StringBuilder();
-
-            sb.append(getText());
-            toStringCache = sb.toString();
-        }
-
-        return toStringCache;
+        return getText();
     }
 
 // ------------------------ OVERRIDING METHODS ------------------------
@@ -130,26 +110,55 @@ public abstract class AbstractParentNode<ChildType extends AbstractNode,
         return children;
     }
 
+    /**
+     * The text of the children joined by spaces. This is kept until the children change
+     */
+    @NotNull
+    @Override
+    public CharSequence getTextView() {
+
+        JoinedText ret = textCache;
+
+        if (ret == null) {
+            ret       = new JoinedText(children);
+            textCache = ret;
+        }
+
+        return ret;
+    }
+
 // -------------------------- PUBLIC METHODS --------------------------
     public final void addChild(@NotNull final ChildType child) {
 
         child.invalidateThisAndParents();
+
+        final Rectangle before = getPosIfCalculated();
+
         children.add(child);
         child.parent = this;
-        child.invalidateThisAndParents();
+        bounds.added(child, children.size());
+        invalidateThisAndTellParent(before);
         Collections.sort(children, getChildComparator());
+        descendantChanged(child, false);
     }
 
     public final void addChildren(@NotNull final List<ChildType> newChildren) {
 
+        final Rectangle before = getPosIfCalculated();
+
         for (ChildType child : newChildren) {
             child.invalidateThisAndParents();
             children.add(child);
             child.parent = this;
+            bounds.added(child, children.size());
         }
 
         Collections.sort(children, getChildComparator());
-        invalidateThisAndParents();
+        invalidateThisAndTellParent(before);
+
+        for (ChildType child : newChildren) {
+            descendantChanged(child, false);
+        }
     }
 
     @NotNull
@@ -157,33 +166,108 @@ public abstract class AbstractParentNode<ChildType extends AbstractNode,
 
     public void removeChild(ChildType child) {
 
-        child.invalidateThisAndParents();
-        children.remove(child);
-        child.parent = null;
+        final Rectangle before = getPosIfCalculated();
+
+        final boolean removed = doRemoveChild(child);
+
+        invalidateThisAndTellParent(before);
+
+        if (removed) {
+            descendantChanged(child, true);
+        }
     }
 
     public void removeChildren(List<ChildType> childrenToRemove) {
 
+        final Rectangle before = getPosIfCalculated();
+
+        final List<ChildType> removed = new ArrayList<ChildType>(childrenToRemove.size());
+
         for (ChildType child : childrenToRemove) {
-            child.invalidateThisAndParents();
-            children.remove(child);
-            child.parent = null;
+            if (doRemoveChild(child)) {
+                removed.add(child);
+            }
+        }
+
+        invalidateThisAndTellParent(before);
+
+        for (ChildType child : removed) {
+            descendantChanged(child, true);
         }
     }
 
 // -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Called by a child whose position changed from before to after, while everything else about
+     *  it might have changed as well
+     */
+    protected void childChanged(@NotNull final Rectangle before, @NotNull final Rectangle after) {
+
+        final Rectangle ourBefore = getPosIfCalculated();
+
+        bounds.changed(before, after);
+        invalidateThisAndTellParent(ourBefore);
+    }
+
+    /**
+     * Use when the position of this might have changed in any way, and needs to be found again
+     *  from the children. Everything above is invalidated as well
+     */
     protected void invalidateThisAndParents() {
 
-        invalidatePos();
-        textCache     = null;
-        toStringCache = null;
-        styleCache    = null;
+        bounds.invalidate();
+        invalidateCaches();
 
         if (getParent() != null) {
             getParent().invalidateThisAndParents();
         }
     }
 
+    /**
+     * @return true if child was one of the children
+     */
+    private boolean doRemoveChild(@NotNull final ChildType child) {
+
+        final int index = children.indexOf(child);
+
+        if (index != -1) {
+            children.remove(index);
+            bounds.removed(child, children.size());
+        }
+
+        child.parent = null;
+
+        return index != -1;
+    }
+
+    private void invalidateCaches() {
+
+        invalidatePos();
+        textCache  = null;
+        styleCache = null;
+    }
+
+    /**
+     * Invalidates everything after the children of this node changed. If the bounds of the
+     *  children were kept up to date, the parent is told exactly how the position of this changed
+     *  from before, so that it might do the same. Otherwise all the parents are invalidated
+     */
+    private void invalidateThisAndTellParent(@Nullable final Rectangle before) {
+
+        invalidateCaches();
+
+        if (getParent() == null) {
+            return;
+        }
+
+        if ((before == null) ||!bounds.isValid()) {
+            getParent().invalidateThisAndParents();
+        } else {
+            getParent().childChanged(before, getPos());
+        }
+    }
+
 // -------------------------- INNER CLASSES --------------------------
 
     /**
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.tree;
+
+import org.elacin.pdfextract.style.Style;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * An index of the lines and words of a document, in the order they are found in the tree: page by
+ * page, first the paragraphs of a page and then those within its graphics. Everything is kept in
+ * arrays with positions back into the tree, so that all the words, or the lines of a given style,
+ * can be found without walking the tree. What the logical analysis needs per paragraph and page
+ * is kept by its own ParagraphIndex.
+ * <p/>
+ * The document tells the index about changes to the tree. Removing lines, or anything containing
+ * them, just marks the lines as removed, and they are taken out of the arrays the next time
+ * something is asked for. For other changes the document will build a new index when it is next
+ * needed.
+ * <p/>
+ * The lists returned are snapshots, and are not changed by later edits of the tree.
+ */
+public final class DocumentIndex {
+
+// ------------------------------ FIELDS ------------------------------
+
+    /* lines, with the first word and the style ordinal of each. lineFirstWord has one extra */
+    @NotNull
+    private LineNode[]                               lines;
+    @NotNull
+    private int[]                                    lineFirstWord;
+    @NotNull
+    private int[]                                    lineStyle;
+    @NotNull
+    private IdentityHashMap<LineNode, Integer>       lineOrdinals;
+    @NotNull
+    private WordNode[]                               words;
+
+    /* the styles of the lines, and for each style ordinal the lines with that style */
+    @NotNull
+    private final Map<Style, Integer>                styleOrdinals = new HashMap<Style, Integer>();
+    @NotNull
+    private int[][]                                  linesWithStyle;
+
+    /* lines which are no longer in the tree */
+    @NotNull
+    private boolean[]                                removed;
+    private int                                      numRemoved;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    DocumentIndex(@NotNull final DocumentNode document) {
+
+        final List<LineNode> lineList = new ArrayList<LineNode>();
+
+        for (PageNode page : document.getChildren()) {
+            for (ParagraphNode paragraph : page.getChildren()) {
+                lineList.addAll(paragraph.getChildren());
+            }
+
+            for (GraphicsNode graphics : page.getGraphics()) {
+                for (ParagraphNode paragraph : graphics.getChildren()) {
+                    lineList.addAll(paragraph.getChildren());
+                }
+            }
+        }
+
+        lines         = lineList.toArray(new LineNode[lineList.size()]);
+        lineFirstWord = new int[lines.length + 1];
+        lineStyle     = new int[lines.length];
+
+        for (int l = 0; l < lines.length; l++) {
+            lineFirstWord[l + 1] = lineFirstWord[l] + lines[l].getChildren().size();
+
+            final Style style   = lines[l].getStyle();
+            Integer     ordinal = styleOrdinals.get(style);
+
+            if (ordinal == null) {
+                ordinal = styleOrdinals.size();
+                styleOrdinals.put(style, ordinal);
+            }
+
+            lineStyle[l] = ordinal;
+        }
+
+        words = new WordNode[lineFirstWord[lines.length]];
+
+        for (int l = 0; l < lines.length; l++) {
+            final List<WordNode> lineWords = lines[l].getChildren();
+
+            for (int w = 0; w < lineWords.size(); w++) {
+                words[lineFirstWord[l] + w] = lineWords.get(w);
+            }
+        }
+
+        findPositionsOfLines();
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+    @NotNull
+    public synchronized List<LineNode> getLines() {
+
+        compactIfNeeded();
+
+        return Collections.unmodifiableList(Arrays.asList(lines));
+    }
+
+    @NotNull
+    public synchronized List<LineNode> getLinesWithStyle(@NotNull final Style style) {
+
+        final Integer ordinal = styleOrdinals.get(style);
+
+        if (ordinal == null) {
+            return Collections.emptyList();
+        }
+
+        compactIfNeeded();
+
+        final int[]          posting = linesWithStyle[ordinal];
+        final List<LineNode> ret     = new ArrayList<LineNode>(posting.length);
+
+        for (int l : posting) {
+            ret.add(lines[l]);
+        }
+
+        return Collections.unmodifiableList(ret);
+    }
+
+    public synchronized int getWordCount() {
+
+        compactIfNeeded();
+
+        return words.length;
+    }
+
+    @NotNull
+    public synchronized List<WordNode> getWords() {
+
+        compactIfNeeded();
+
+        return Collections.unmodifiableList(Arrays.asList(words));
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Called when node was removed from the document.
+     *
+     * @return false if the index cannot follow the change, and has to be built again
+     */
+    synchronized boolean removed(@NotNull final AbstractNode node) {
+
+        /* the graphics of a page are not among its children, and the words of a line are not
+            tracked */
+        if ((node instanceof PageNode) || (node instanceof WordNode)) {
+            return false;
+        }
+
+        return markRemoved(node);
+    }
+
+    /**
+     * Takes the removed lines (and their words) out of the arrays, so that everything is kept
+     *  in place without looking at the tree again
+     */
+    private void compactIfNeeded() {
+
+        if (numRemoved == 0) {
+            return;
+        }
+
+        final int        lineCount        = lines.length - numRemoved;
+        final LineNode[] newLines         = new LineNode[lineCount];
+        final int[]      newLineFirstWord = new int[lineCount + 1];
+        final int[]      newLineStyle     = new int[lineCount];
+        int              kept             = 0;
+
+        for (int l = 0; l < lines.length; l++) {
+            if (!removed[l]) {
+                newLines[kept]             = lines[l];
+                newLineStyle[kept]         = lineStyle[l];
+                newLineFirstWord[kept + 1] = newLineFirstWord[kept]
+                                             + (lineFirstWord[l + 1] - lineFirstWord[l]);
+                kept++;
+            }
+        }
+
+        final WordNode[] newWords = new WordNode[newLineFirstWord[lineCount]];
+
+        kept = 0;
+
+        for (int l = 0; l < lines.length; l++) {
+            if (!removed[l]) {
+                System.arraycopy(words, lineFirstWord[l], newWords, newLineFirstWord[kept],
+                                 lineFirstWord[l + 1] - lineFirstWord[l]);
+                kept++;
+            }
+        }
+
+        lines         = newLines;
+        lineFirstWord = newLineFirstWord;
+        lineStyle     = newLineStyle;
+        words         = newWords;
+        findPositionsOfLines();
+    }
+
+    /**
+     * Finds the ordinal of every line and the lines of every style, after the lines changed
+     */
+    private void findPositionsOfLines() {
+
+        lineOrdinals = new IdentityHashMap<LineNode, Integer>(lines.length);
+
+        final int[] count = new int[styleOrdinals.size()];
+
+        for (int l = 0; l < lines.length; l++) {
+            lineOrdinals.put(lines[l], l);
+            count[lineStyle[l]]++;
+        }
+
+        linesWithStyle = new int[count.length][];
+
+        for (int s = 0; s < count.length; s++) {
+            linesWithStyle[s] = new int[count[s]];
+            count[s]          = 0;
+        }
+
+        for (int l = 0; l < lines.length; l++) {
+            linesWithStyle[lineStyle[l]][count[lineStyle[l]]++] = l;
+        }
+
+        removed    = new boolean[lines.length];
+        numRemoved = 0;
+    }
+
+    private boolean markRemoved(@NotNull final AbstractNode node) {
+
+        if (node instanceof LineNode) {
+            final Integer l = lineOrdinals.get(node);
+
+            /* a line which is not known here was added without the index being built again */
+            if (l == null) {
+                return false;
+            }
+
+            if (!removed[l]) {
+                removed[l] = true;
+                numRemoved++;
+            }
+
+            return true;
+        }
+
+        for (Object child : ((AbstractParentNode) node).getChildren()) {
+            if (!markRemoved((AbstractNode) child)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -40,12 +40,14 @@ public class DocumentNode extends AbstractParentNode<PageNode, DocumentNode> {
      */
     @NotNull
     protected final List<Style>       styles = new ArrayList<Style>();
-    @NotNull
-    private final List<WordNode>      words  = new ArrayList<WordNode>();
     private ParagraphNode             abstractParagraph;
     private ParagraphNode             title;
     final private List<ParagraphNode> references = new ArrayList<ParagraphNode>();
 
+    /* built when first needed, and followed along as the tree changes */
+    @Nullable
+    private transient DocumentIndex   index;
+
 // --------------------------- CONSTRUCTORS ---------------------------
     public DocumentNode() {}
 
@@ -75,28 +77,24 @@ public class DocumentNode extends AbstractParentNode<PageNode, DocumentNode> {
         this.title = title;
     }
 
+    /**
+     * All the words of the document, including those within graphics, in the order of the tree
+     */
     @NotNull
     public List<WordNode> getWords() {
+        return getIndex().getWords();
+    }
 
-        if (words.isEmpty()) {
-            for (PageNode page : getChildren()) {
-                for (ParagraphNode paragraph : page.getChildren()) {
-                    for (LineNode line : paragraph.getChildren()) {
-                        words.addAll(line.getChildren());
-                    }
-                }
+// -------------------------- STATIC METHODS --------------------------
+    private static boolean hasWords(@NotNull final ParagraphNode paragraph) {
 
-//            for (GraphicsNode graphics : page.getGraphics()) {
-//                for (ParagraphNode paragraph : graphics.getChildren()) {
-//                    for (LineNode line : paragraph.getChildren()) {
-//                        words.addAll(line.getChildren());
-//                    }
-//                }
-//            }
+        for (LineNode line : paragraph.getChildren()) {
+            if (!line.getChildren().isEmpty()) {
+                return true;
             }
         }
 
-        return words;
+        return false;
     }
 
 // -------------------------- PUBLIC METHODS --------------------------
@@ -123,6 +121,49 @@ public class DocumentNode extends AbstractParentNode<PageNode, DocumentNode> {
         };
     }
 
+    /**
+     * Returns an index of the lines and words of the document, which is kept up to date as
+     *  the tree changes
+     */
+    @NotNull
+    public synchronized DocumentIndex getIndex() {
+
+        if (index == null) {
+            index = new DocumentIndex(this);
+        }
+
+        return index;
+    }
+
+    /**
+     * Checks whether there is any word in the document. This stops at the first word found, and
+     *  does not build the index for it
+     */
+    public synchronized boolean hasWords() {
+
+        if (index != null) {
+            return index.getWordCount() != 0;
+        }
+
+        for (PageNode page : getChildren()) {
+            for (ParagraphNode paragraph : page.getChildren()) {
+                if (hasWords(paragraph)) {
+                    return true;
+                }
+            }
+
+            for (GraphicsNode graphics : page.getGraphics()) {
+                for (ParagraphNode paragraph : graphics.getChildren()) {
+                    if (hasWords(paragraph)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
     @Nullable
     public PageNode getPageNumber(final int pageNumber) {
 
@@ -134,4 +175,14 @@ public class DocumentNode extends AbstractParentNode<PageNode, DocumentNode> {
 
         return null;
     }
+
+// -------------------------- OTHER METHODS --------------------------
+    @Override
+    protected synchronized void descendantChanged(@NotNull final AbstractNode node,
+                                                  final boolean removed) {
+
+        if ((index != null) && !(removed && index.removed(node))) {
+            index = null;
+        }
+    }
 }
@@ -20,6 +20,7 @@ package org.elacin.pdfextract.tree;
 
 import org.elacin.pdfextract.geom.Rectangle;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Comparator;
 
@@ -33,6 +34,13 @@ public class GraphicsNode extends AbstractParentNode<ParagraphNode, PageNode> {
     @NotNull
     private Rectangle graphicsPos;
 
+    /*
+     * the page this is on. this is not the parent, as the page does not count graphics among its
+     *  children, and should not have its position changed by them
+     */
+    @Nullable
+    PageNode page;
+
 // --------------------------- CONSTRUCTORS ---------------------------
     public GraphicsNode(final Rectangle graphicsPos) {
 
@@ -92,4 +100,11 @@ public class GraphicsNode extends AbstractParentNode<ParagraphNode, PageNode> {
             }
         };
     }
+
+// -------------------------- OTHER METHODS --------------------------
+    @Nullable
+    @Override
+    protected AbstractParentNode getEnclosingNode() {
+        return page;
+    }
 }
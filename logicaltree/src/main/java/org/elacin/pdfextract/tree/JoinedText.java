@@ -0,0 +1,147 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.tree;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The text of a node, as a view over the text of its children joined by single spaces. The length
+ * is known right away and characters can be looked at directly, while the string itself is only
+ * put together the first time it is asked for.
+ * <p/>
+ * A JoinedText is a snapshot of the children at the time it was made, so it must be thrown away
+ * when they change. The views of children which did not change are reused as they are.
+ */
+public final class JoinedText implements CharSequence {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final char    SEPARATOR = ' ';
+    @NotNull
+    private final CharSequence[] parts;
+    @NotNull
+    private final int[]          starts;
+    private final int            length;
+    @Nullable
+    private volatile String      string;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public JoinedText(@NotNull final List<? extends AbstractNode> nodes) {
+
+        parts  = new CharSequence[nodes.size()];
+        starts = new int[nodes.size()];
+
+        int pos = 0;
+
+        for (int i = 0; i < parts.length; i++) {
+            parts[i]  = nodes.get(i).getTextView();
+            starts[i] = pos;
+            pos       += parts[i].length() + 1;
+        }
+
+        length = Math.max(0, pos - 1);
+    }
+
+// ------------------------ INTERFACE METHODS ------------------------
+// --------------------- Interface CharSequence ---------------------
+    public int length() {
+        return length;
+    }
+
+    public char charAt(final int index) {
+
+        if ((index < 0) || (index >= length)) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+
+        /* find the last part starting at or before index */
+        int low  = 0;
+        int high = parts.length - 1;
+
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+
+            if (starts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        final int offset = index - starts[low];
+
+        return (offset < parts[low].length())
+               ? parts[low].charAt(offset)
+               : SEPARATOR;
+    }
+
+    @NotNull
+    public CharSequence subSequence(final int start, final int end) {
+        return toString().substring(start, end);
+    }
+
+// ------------------------ CANONICAL METHODS ------------------------
+    @NotNull
+    @Override
+    public String toString() {
+
+        String ret = string;
+
+        if (ret == null) {
+            final StringBuilder sb = new StringBuilder(length);
+
+            appendTo(sb);
+            ret    = sb.toString();
+            string = ret;
+        }
+
+        return ret;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Appends the text without putting together the strings of the parts which have not been
+     *  asked for yet
+     */
+    private void appendTo(@NotNull final StringBuilder sb) {
+
+        final String ready = string;
+
+        if (ready != null) {
+            sb.append(ready);
+
+            return;
+        }
+
+        for (int i = 0; i < parts.length; i++) {
+            if (i != 0) {
+                sb.append(SEPARATOR);
+            }
+
+            if (parts[i] instanceof JoinedText) {
+                ((JoinedText) parts[i]).appendTo(sb);
+            } else {
+                sb.append(parts[i]);
+            }
+        }
+    }
+}
@@ -39,26 +39,6 @@ public class LineNode extends AbstractParentNode<WordNode, ParagraphNode> {
         super(child);
     }
 
-// ------------------------ OVERRIDING METHODS ------------------------
-    @NotNull
-    @Override
-    public String getText() {
-
-        StringBuilder sb = new StringBuilder();
-
-        for (int i = 0; i < getChildren().size(); i++) {
-            final WordNode word = getChildren().get(i);
-
-            sb.append(word.getText());
-
-            if (i != getChildren().size() - 1) {
-                sb.append(" ");
-            }
-        }
-
-        return sb.toString();
-    }
-
 // -------------------------- PUBLIC METHODS --------------------------
     @NotNull
     public Style findDominatingStyle() {
@@ -60,7 +60,10 @@ public class PageNode extends AbstractParentNode<ParagraphNode, DocumentNode> {
 
 // -------------------------- PUBLIC METHODS --------------------------
     public void addGraphics(GraphicsNode graphicsNode) {
+
         graphics.add(graphicsNode);
+        graphicsNode.page = this;
+        descendantChanged(graphicsNode, false);
     }
 
     /**
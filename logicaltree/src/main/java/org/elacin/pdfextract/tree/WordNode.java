@@ -82,6 +82,10 @@ public class WordNode extends AbstractNode<LineNode> {
     }
 
 // --------------------- GETTER / SETTER METHODS ---------------------
+    public float getCharSpacing() {
+        return charSpacing;
+    }
+
 // -------------------------- PUBLIC METHODS --------------------------
     public boolean isPartOfSameWordAs(@NotNull final WordNode nextNode) {
 
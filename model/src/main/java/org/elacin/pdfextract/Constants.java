@@ -31,6 +31,7 @@ public class Constants {
     public static final int    RENDER_RESOLUTION        = 100;
     public static final String SIMPLE_OUTPUT_EXTENSION  = ".pxml";
     public static final String TEI_OUTPUT_EXTENSION     = ".xml";
+    public static final String JSONL_OUTPUT_EXTENSION   = ".jsonl";
 
 // ------------------------------ FIELDS ------------------------------
 
@@ -53,15 +54,28 @@ public class Constants {
     public static final boolean RENDER_COLUMNS           = true;
     public static final boolean RENDER_COLUMN_CANDIDATES = false;
 
+/* pages are rendered in parallel, into at most this many images at a time */
+    public static final boolean RENDER_PARALLEL_ENABLED = true;
+    public static final int     RENDER_BUFFER_COUNT     = 4;
+
 /* technical */
     public static final boolean RECTANGLE_COLLECTION_CACHE_ENABLED = true;
 
+/* parallel segmentation. smaller regions than this are divided by the calling thread */
+    public static final boolean SEGMENTATION_PARALLEL_ENABLED      = true;
+    public static final int     SEGMENTATION_PARALLEL_MIN_CONTENTS = 200;
+
 /* xmls output */
     public static final boolean VERBOSE_OUTPUT        = false;
     public static final boolean TEI_OUTPUT_ENABLED    = true;
     public static final boolean SIMPLE_OUTPUT_ENABLED = true;
+    public static final boolean JSONL_OUTPUT_ENABLED  = false;
     public static final boolean ESCAPE_HTML           = false;
 
+/* outputs are written on a separate thread while the next document is analyzed. processing waits
+    when this many outputs are not yet written */
+    public static final int OUTPUT_QUEUE_SIZE = 6;
+
 /* whitespace cover algorithm */
     public static final boolean WHITESPACE_CHECK_LOCAL_HEIGHT        = true;
     public static final boolean WHITESPACE_CHECK_TEXT_BOTH_SIDES     = true;
@@ -72,10 +86,36 @@ public class Constants {
     public static final int     WHITESPACE_MAX_QUEUE_SIZE            = 100000;
     public static final int     WHITESPACE_NUMBER_WANTED             = 50;
 
+/* work budget for the whitespace search in one region. when it is exceeded, the whitespace
+    found so far is used. the time limit makes the result depend on the speed of the machine, so
+    it is off (0) unless set */
+    public static final int   WHITESPACE_MAX_PIVOTS           = 50000;
+    public static final long  WHITESPACE_MAX_TIME_MS          = 0L;
+    public static final float WHITESPACE_MIN_RELATIVE_QUALITY = 0.00001f;
+
     public static final boolean WHITESPACE_USE_WHOLE_PAGE = false;
 
+/* seed the whitespace search with what was found for an earlier page, possibly of another
+    document, with the same layout. positions match within the tolerance. a style is part of the
+    layout if it has this share of the text, and columns of text must be at least this wide */
+    public static final boolean LAYOUT_TEMPLATE_CACHE_ENABLED    = true;
+    public static final int     LAYOUT_TEMPLATE_CACHE_SIZE       = 100;
+    public static final float   LAYOUT_TEMPLATE_TOLERANCE        = 4.0f;
+    public static final float   LAYOUT_TEMPLATE_STYLE_SHARE      = 0.1f;
+    public static final float   LAYOUT_TEMPLATE_MIN_COLUMN_WIDTH = 40.0f;
+
 /* columns */
     public static final boolean COLUMNS_ENABLE_TEXT_SPLIT_CHECK         = true;
     public static final boolean COLUMNS_ENABLE_COLUMN_HEIGHT_ADJUSTMENT = true;
     public static final boolean COLUMNS_ENABLE_COLUMN_DETECTION         = true;
+
+/* the candidates for column boundaries in a region are evaluated in parallel when there are at
+    least this many */
+    public static final boolean COLUMNS_PARALLEL_ENABLED        = true;
+    public static final int     COLUMNS_PARALLEL_MIN_CANDIDATES = 8;
+
+/* operations of the logical analysis which work on one page at a time are run in parallel for
+    documents with at least this many pages */
+    public static final boolean LOGICAL_PARALLEL_ENABLED   = true;
+    public static final int     LOGICAL_PARALLEL_MIN_PAGES = 16;
 }
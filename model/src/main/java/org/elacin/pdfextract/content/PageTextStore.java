@@ -0,0 +1,366 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.content;
+
+import org.elacin.pdfextract.geom.MathUtils;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An immutable copy of a list of texts, typically all the characters of a page, stored column by
+ * column in primitive arrays. The texts are referred to by their index in the list.
+ * <p/>
+ * This is meant for the analysis which looks at every single character, where walking through
+ * arrays of floats is much cheaper than following a PhysicalText and its Rectangle for every
+ * comparison. The geometric methods give exactly the same results as the corresponding ones in
+ * {@link Rectangle}.
+ * <p/>
+ * A store takes up a fraction of the memory of the PhysicalTexts it was made from, so the pages of
+ * a document keep their characters this way until they are analyzed. PhysicalContent holds its
+ * own position and block assignment, so it cannot be shared between users of a store. Instead,
+ * {@link #asList()} gives a view which creates each text when it is asked for.
+ */
+public final class PageTextStore implements Serializable {
+
+// ------------------------------ FIELDS ------------------------------
+
+    /* position and baseline of each text */
+    @NotNull
+    private final float[] x, y, width, height, endX, endY, baseLine;
+
+    /* each distinct style is stored once */
+    @NotNull
+    private final int[]   styleIndex;
+    @NotNull
+    private final Style[] styles;
+
+    /* all the text, with the text of index i found from textStart[i] to textStart[i + 1] */
+    @NotNull
+    private final char[] chars;
+    @NotNull
+    private final int[]  textStart;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public PageTextStore(@NotNull final List<? extends PhysicalText> texts) {
+
+        final int n = texts.size();
+
+        x          = new float[n];
+        y          = new float[n];
+        width      = new float[n];
+        height     = new float[n];
+        endX       = new float[n];
+        endY       = new float[n];
+        baseLine   = new float[n];
+        styleIndex = new int[n];
+        textStart  = new int[n + 1];
+
+        final Map<Style, Integer> styleIndexes = new IdentityHashMap<Style, Integer>();
+        final List<Style>         styleList    = new ArrayList<Style>();
+        int                       numChars     = 0;
+
+        for (int i = 0; i < n; i++) {
+            final PhysicalText text = texts.get(i);
+            final Rectangle    pos  = text.getPos();
+
+            x[i]        = pos.x;
+            y[i]        = pos.y;
+            width[i]    = pos.width;
+            height[i]   = pos.height;
+            endX[i]     = pos.endX;
+            endY[i]     = pos.endY;
+            baseLine[i] = text.getBaseLine();
+
+            Integer index = styleIndexes.get(text.getStyle());
+
+            if (index == null) {
+                index = styleList.size();
+                styleIndexes.put(text.getStyle(), index);
+                styleList.add(text.getStyle());
+            }
+
+            styleIndex[i] = index;
+            textStart[i]  = numChars;
+            numChars      += text.getText().length();
+        }
+
+        textStart[n] = numChars;
+        styles       = styleList.toArray(new Style[styleList.size()]);
+        chars        = new char[numChars];
+
+        for (int i = 0; i < n; i++) {
+            final String text = texts.get(i).getText();
+
+            text.getChars(0, text.length(), chars, textStart[i]);
+        }
+    }
+
+    /**
+     * Copies the texts of source in the given order of their indexes
+     */
+    private PageTextStore(@NotNull final PageTextStore source, @NotNull final Integer[] order) {
+
+        final int n = order.length;
+
+        x          = new float[n];
+        y          = new float[n];
+        width      = new float[n];
+        height     = new float[n];
+        endX       = new float[n];
+        endY       = new float[n];
+        baseLine   = new float[n];
+        styleIndex = new int[n];
+        textStart  = new int[n + 1];
+        styles     = source.styles;
+        chars      = new char[source.chars.length];
+
+        int numChars = 0;
+
+        for (int i = 0; i < n; i++) {
+            final int from   = order[i];
+            final int length = source.textStart[from + 1] - source.textStart[from];
+
+            x[i]          = source.x[from];
+            y[i]          = source.y[from];
+            width[i]      = source.width[from];
+            height[i]     = source.height[from];
+            endX[i]       = source.endX[from];
+            endY[i]       = source.endY[from];
+            baseLine[i]   = source.baseLine[from];
+            styleIndex[i] = source.styleIndex[from];
+            textStart[i]  = numChars;
+            System.arraycopy(source.chars, source.textStart[from], chars, numChars, length);
+            numChars += length;
+        }
+
+        textStart[n] = numChars;
+    }
+
+// -------------------------- PUBLIC STATIC METHODS --------------------------
+
+    /**
+     * Same as {@link Rectangle#distance(Rectangle)}, for two rectangles given by their
+     *  coordinates
+     */
+    public static float distance(final float x1, final float y1, final float endX1,
+                                 final float endY1, final float x2, final float y2,
+                                 final float endX2, final float endY2) {
+
+        /* they intersect */
+        if ((endX2 >= x1) && (x2 <= endX1) && (y2 <= endY1) && (endY2 > y1)) {
+            return 0.0f;
+        }
+
+        float distance = 0.0f;
+
+        if (x1 > endX2) {
+            distance += (x1 - endX2) * (x1 - endX2);
+        } else if (x2 > endX1) {
+            distance += (x2 - endX1) * (x2 - endX1);
+        }
+
+        if (y1 > endY2) {
+            distance += (y1 - endY2) * (y1 - endY2);
+        } else if (y2 > endY1) {
+            distance += (y2 - endY1) * (y2 - endY1);
+        }
+
+        return MathUtils.sqrt(distance);
+    }
+
+// --------------------- GETTER / SETTER METHODS ---------------------
+    public float getBaseLine(final int i) {
+        return baseLine[i];
+    }
+
+    public float getEndX(final int i) {
+        return endX[i];
+    }
+
+    public float getEndY(final int i) {
+        return endY[i];
+    }
+
+    public float getHeight(final int i) {
+        return height[i];
+    }
+
+    @NotNull
+    public Style getStyle(final int i) {
+        return styles[styleIndex[i]];
+    }
+
+    public float getWidth(final int i) {
+        return width[i];
+    }
+
+    public float getX(final int i) {
+        return x[i];
+    }
+
+    public float getY(final int i) {
+        return y[i];
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * @return the texts as a list, where each text is created when it is asked for. The list can
+     *  not be changed
+     */
+    @NotNull
+    public List<PhysicalText> asList() {
+        return new TextList();
+    }
+
+    /**
+     * @return the text at index i as a new PhysicalText, equal to the one it was stored from
+     */
+    @NotNull
+    public PhysicalText createText(final int i) {
+        return new PhysicalText(getText(i), getStyle(i), getPos(i), baseLine[i]);
+    }
+
+    /**
+     * @return the texts from index from up to, but not including, to put together as one text at
+     *  bound. The style and baseline are those of the first one
+     */
+    @NotNull
+    public PhysicalText createText(final int from, final int to, @NotNull final Rectangle bound) {
+        return new PhysicalText(getText(from, to), getStyle(from), bound, baseLine[from]);
+    }
+
+    /**
+     * Distance between the texts at index i and j, as found by Rectangle.distance()
+     */
+    public float distance(final int i, final int j) {
+        return distance(x[i], y[i], endX[i], endY[i], x[j], y[j], endX[j], endY[j]);
+    }
+
+    /**
+     * Distance between bound and the text at index i, as found by Rectangle.distance()
+     */
+    public float distance(@NotNull final Rectangle bound, final int i) {
+        return distance(bound.x, bound.y, bound.endX, bound.endY, x[i], y[i], endX[i], endY[i]);
+    }
+
+    /**
+     * @return the position of the text at index i as a new Rectangle, equal to the one it was
+     *  stored from
+     */
+    @NotNull
+    public Rectangle getPos(final int i) {
+        return new Rectangle(x[i], y[i], width[i], height[i]);
+    }
+
+    public int getStyleCount() {
+        return styles.length;
+    }
+
+    public int getStyleIndex(final int i) {
+        return styleIndex[i];
+    }
+
+    @NotNull
+    public String getText(final int i) {
+        return getText(i, i + 1);
+    }
+
+    /**
+     * @return the texts from index from up to, but not including, to put together
+     */
+    @NotNull
+    public String getText(final int from, final int to) {
+        return new String(chars, textStart[from], textStart[to] - textStart[from]);
+    }
+
+    /**
+     * @return true if the text at index i would be empty after String.trim()
+     */
+    public boolean isBlank(final int i) {
+
+        for (int c = textStart[i]; c < textStart[i + 1]; c++) {
+            if (chars[c] > ' ') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if the text at index i is exactly one space
+     */
+    public boolean isSpace(final int i) {
+        return (textStart[i + 1] - textStart[i] == 1) && (chars[textStart[i]] == ' ');
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    /**
+     * @return a new store with the same texts sorted by baseline. Texts on the same baseline keep
+     *  their order, like with Collections.sort()
+     */
+    @NotNull
+    public PageTextStore sortedByBaseLine() {
+
+        final Integer[] order = new Integer[size()];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+
+            public int compare(@NotNull final Integer o1, @NotNull final Integer o2) {
+                return Float.compare(baseLine[o1], baseLine[o2]);
+            }
+        });
+
+        return new PageTextStore(this, order);
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+    private final class TextList extends AbstractList<PhysicalText> implements RandomAccess {
+
+        @NotNull
+        @Override
+        public PhysicalText get(final int index) {
+            return createText(index);
+        }
+
+        @Override
+        public int size() {
+            return x.length;
+        }
+    }
+}
@@ -23,7 +23,6 @@ import org.elacin.pdfextract.Constants;
 import org.elacin.pdfextract.geom.HasPosition;
 import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.geom.RectangleCollection;
-import org.elacin.pdfextract.style.Style;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -54,11 +53,14 @@ public class PhysicalPageRegion extends RectangleCollection {
     @Nullable
     private GraphicContent containingGraphic;
 
-    /* average font sizes for this page region */
-    private transient float   _avgFontSizeX;
-    private transient float   _avgFontSizeY;
+    /* font sizes of all the characters in this region, summed up as content is added and
+        removed. the average font sizes are found from these */
+    private long fontSizeXSum;
+    private long fontSizeYSum;
+    private int  numCharsFound;
+
+    /* depends on the bounds of the region, so this is found again after every change */
     private transient int     _medianOfVerticalDistances;
-    private transient boolean fontInfoFound;
     private transient boolean medianFound;
 
 // --------------------------- CONSTRUCTORS ---------------------------
@@ -72,6 +74,10 @@ public class PhysicalPageRegion extends RectangleCollection {
 
         super(contents, parent);
         this.page = page;
+
+        for (PhysicalContent content : contents) {
+            contentAdded(content);
+        }
     }
 
 // ------------------------ INTERFACE METHODS ------------------------
@@ -95,8 +101,33 @@ public class PhysicalPageRegion extends RectangleCollection {
     public void clearCache() {
 
         super.clearCache();
-        fontInfoFound = false;
-        medianFound   = false;
+        medianFound = false;
+    }
+
+    @Override
+    protected void contentAdded(@NotNull final PhysicalContent content) {
+
+        if (content.isText()) {
+            final PhysicalText text   = content.getPhysicalText();
+            final int          length = text.getText().length();
+
+            fontSizeXSum  += (long) text.getStyle().xSize * (long) length;
+            fontSizeYSum  += (long) text.getStyle().ySize * (long) length;
+            numCharsFound += length;
+        }
+    }
+
+    @Override
+    protected void contentRemoved(@NotNull final PhysicalContent content) {
+
+        if (content.isText()) {
+            final PhysicalText text   = content.getPhysicalText();
+            final int          length = text.getText().length();
+
+            fontSizeXSum  -= (long) text.getStyle().xSize * (long) length;
+            fontSizeYSum  -= (long) text.getStyle().ySize * (long) length;
+            numCharsFound -= length;
+        }
     }
 
 // --------------------- GETTER / SETTER METHODS ---------------------
@@ -180,20 +211,20 @@ public class PhysicalPageRegion extends RectangleCollection {
 
     public float getAvgFontSizeX() {
 
-        if (!fontInfoFound) {
-            findAndSetFontInformation();
+        if (numCharsFound == 0) {
+            return Float.MIN_VALUE;
         }
 
-        return _avgFontSizeX;
+        return (float) fontSizeXSum / (float) numCharsFound;
     }
 
     public float getAvgFontSizeY() {
 
-        if (!fontInfoFound) {
-            findAndSetFontInformation();
+        if (numCharsFound == 0) {
+            return Float.MIN_VALUE;
         }
 
-        return _avgFontSizeY;
+        return (float) fontSizeYSum / (float) numCharsFound;
     }
 
     public int getMedianOfVerticalDistances() {
@@ -210,11 +241,6 @@ public class PhysicalPageRegion extends RectangleCollection {
     }
 
     public float getMinimumRowSpacing() {
-
-        if (!fontInfoFound) {
-            findAndSetFontInformation();
-        }
-
         return (float) getMedianOfVerticalDistances() * 1.1f;
     }
 
@@ -311,7 +337,7 @@ public class PhysicalPageRegion extends RectangleCollection {
         }
 
         log.info("LOG00890:Extracted PPR:" + newRegion + " from " + this);
-        removeContents(subContents);
+        removeContentsByIdentity(subContents);
         addContents(saveWhitespace);
 
         if (addToParent && (getParent() != null) && (getParent() instanceof PhysicalPageRegion)) {
@@ -323,35 +349,6 @@ public class PhysicalPageRegion extends RectangleCollection {
         return true;
     }
 
-/* find average font sizes, and most used style for the region */
-    protected void findAndSetFontInformation() {
-
-        float xFontSizeSum  = 0.0f,
-              yFontSizeSum  = 0.0f;
-        int   numCharsFound = 0;
-
-        for (PhysicalContent content : getContents()) {
-            if (content.isText()) {
-                final Style style  = content.getPhysicalText().getStyle();
-                final int   length = content.getPhysicalText().getText().length();
-
-                xFontSizeSum  += (float) (style.xSize * length);
-                yFontSizeSum  += (float) (style.ySize * length);
-                numCharsFound += length;
-            }
-        }
-
-        if (numCharsFound == 0) {
-            _avgFontSizeX = Float.MIN_VALUE;
-            _avgFontSizeY = Float.MIN_VALUE;
-        } else {
-            _avgFontSizeX = xFontSizeSum / (float) numCharsFound;
-            _avgFontSizeY = yFontSizeSum / (float) numCharsFound;
-        }
-
-        fontInfoFound = true;
-    }
-
     /**
      * Finds an approximation of the normal vertical line spacing for the region. <p/> This is done
      * by looking at three vertical rays, calculating distances between all the lines intersecting
@@ -53,6 +53,15 @@ public abstract class HasPositionAbstract implements HasPosition {
     }
 
 // --------------------- GETTER / SETTER METHODS ---------------------
+
+    /**
+     * Returns the position if it is already known, without calculating it
+     */
+    @Nullable
+    protected final Rectangle getPosIfCalculated() {
+        return pos;
+    }
+
     protected void setPos(@Nullable final Rectangle pos) {
         this.pos = pos;
     }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.geom;
+
+import org.elacin.pdfextract.content.WhitespaceRectangle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Keeps the bounds of a collection of contents up to date as contents are added and removed, so
+ * that they do not have to be found from scratch after every change. The result is always exactly
+ * the same as {@link MathUtils#findBounds(Collection)} (or findBoundsExcludingWhitespace()) would
+ * give for the same contents.
+ * <p/>
+ * Adding content just grows the bounds. Removing content only makes it necessary to look at all
+ * contents again if it was on the boundary. The bounds are tied to the size of the collection, so
+ * if contents were added or removed without telling, they will be found from scratch next time.
+ * <p/>
+ * Contents which are collections themselves can change position without the containing
+ * collection knowing, so as long as there are any of those, the bounds are found from scratch
+ * after every change.
+ */
+public final class IncrementalBounds {
+
+// ------------------------------ FIELDS ------------------------------
+    private final boolean countWhitespace;
+
+    /* same start values as MathUtils.findBounds() */
+    private float minX, minY, maxX, maxY;
+
+    /* number of contents within the bounds, and how many of those are collections */
+    private int counted;
+    private int numCollections;
+
+    /* size of the collection the bounds are valid for, or -1 */
+    private int validForSize = -1;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public IncrementalBounds(final boolean countWhitespace) {
+        this.countWhitespace = countWhitespace;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Tells that content was added, so that the collection now has sizeAfter elements
+     */
+    public void added(@NotNull final HasPosition content, final int sizeAfter) {
+
+        if ((validForSize == -1) || (validForSize != sizeAfter - 1)) {
+            invalidate();
+
+            return;
+        }
+
+        validForSize = sizeAfter;
+
+        if (isCounted(content)) {
+            include(content.getPos());
+            counted++;
+        }
+
+        if (content instanceof RectangleCollection) {
+            numCollections++;
+        }
+
+        if (numCollections != 0) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Tells that the position of a piece of content changed from before to after. The size of the
+     *  collection is the same
+     */
+    public void changed(@NotNull final Rectangle before, @NotNull final Rectangle after) {
+
+        if ((validForSize == -1) || (numCollections != 0)) {
+            invalidate();
+
+            return;
+        }
+
+        final boolean grew = (after.x <= before.x) && (after.y <= before.y)
+                             && (after.endX >= before.endX) && (after.endY >= before.endY);
+
+        if (grew ||!isOnBoundary(before)) {
+            include(after);
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * Returns the bounds of contents, which is the collection the other methods were told about
+     */
+    @NotNull
+    public Rectangle getBounds(@NotNull final Collection<? extends HasPosition> contents) {
+
+        if (validForSize != contents.size()) {
+            recalculate(contents);
+        }
+
+        if (counted == 0) {
+            return Rectangle.EMPTY_RECTANGLE;
+        }
+
+        return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    public void invalidate() {
+        validForSize = -1;
+    }
+
+    /**
+     * @return true if the bounds are known without looking at the contents again
+     */
+    public boolean isValid() {
+        return validForSize != -1;
+    }
+
+    /**
+     * Tells that content was removed, so that the collection now has sizeAfter elements
+     */
+    public void removed(@NotNull final HasPosition content, final int sizeAfter) {
+
+        if ((validForSize == -1) || (validForSize != sizeAfter + 1) || (numCollections != 0)) {
+            invalidate();
+
+            return;
+        }
+
+        if (!isCounted(content)) {
+            validForSize = sizeAfter;
+
+            return;
+        }
+
+        if (isOnBoundary(content.getPos())) {
+            invalidate();
+
+            return;
+        }
+
+        counted--;
+        validForSize = sizeAfter;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+    private void include(@NotNull final Rectangle pos) {
+
+        minX = Math.min(minX, pos.x);
+        minY = Math.min(minY, pos.y);
+        maxX = Math.max(maxX, pos.endX);
+        maxY = Math.max(maxY, pos.endY);
+    }
+
+    private boolean isCounted(@NotNull final HasPosition content) {
+        return countWhitespace ||!(content instanceof WhitespaceRectangle);
+    }
+
+    private boolean isOnBoundary(@NotNull final Rectangle pos) {
+        return (pos.x <= minX) || (pos.y <= minY) || (pos.endX >= maxX) || (pos.endY >= maxY);
+    }
+
+    private void recalculate(@NotNull final Collection<? extends HasPosition> contents) {
+
+        minX           = Float.MAX_VALUE;
+        minY           = Float.MAX_VALUE;
+        maxX           = Float.MIN_VALUE;
+        maxY           = Float.MIN_VALUE;
+        counted        = 0;
+        numCollections = 0;
+
+        for (HasPosition content : contents) {
+            if (content instanceof RectangleCollection) {
+                numCollections++;
+            }
+
+            if (isCounted(content)) {
+                include(content.getPos());
+                counted++;
+            }
+        }
+
+        validForSize = (numCollections == 0) ? contents.size() : -1;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.geom;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Sorts with the same result as Collections.sort() with the comparators in {@link Sorting}, but
+ * reads the position of every element only once. The comparators ask for getPos() on every
+ * comparison, which for regions and other collections might mean recalculating their bounds.
+ * <p/>
+ * Orderings by one coordinate are done by packing the coordinate and the original index into a
+ * long, so that a primitive sort gives the same stable order. The region ordering is not a total
+ * order, so there the bounds are copied once and compared with exactly the same rules (and the
+ * same sorting algorithm) as {@link Sorting#regionComparator}.
+ */
+public final class ReadingOrder {
+
+// ------------------------------ FIELDS ------------------------------
+    @NotNull
+    private static final Comparator<Bounds> boundsComparator = new Comparator<Bounds>() {
+
+        public int compare(@NotNull final Bounds o1, @NotNull final Bounds o2) {
+
+            if (o1.endY < o2.y) {
+                return -1;
+            }
+
+            if (o1.y > o2.endY) {
+                return 1;
+            }
+
+            if (o1.endX < o2.x) {
+                return -1;
+            }
+
+            if (o1.x > o2.endX) {
+                return 1;
+            }
+
+            if (!MathUtils.isWithinPercent(o1.y, o2.y, 4)) {
+                return Float.compare(o1.y, o2.y);
+            }
+
+            return Float.compare(o1.x, o2.x);
+        }
+    };
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    private ReadingOrder() {}
+
+// -------------------------- PUBLIC STATIC METHODS --------------------------
+
+    /**
+     * Same as sorting with {@link Sorting#regionComparator}
+     */
+    @SuppressWarnings({ "unchecked" })
+    public static <T extends HasPosition> void sortRegions(@NotNull final List<T> list) {
+
+        if (list.size() <= 1) {
+            return;
+        }
+
+        final Bounds[] bounds = new Bounds[list.size()];
+        int            i      = 0;
+
+        for (T t : list) {
+            bounds[i++] = new Bounds(t);
+        }
+
+        Arrays.sort(bounds, boundsComparator);
+
+        final ListIterator<T> iterator = list.listIterator();
+
+        for (Bounds b : bounds) {
+            iterator.next();
+            iterator.set((T) b.element);
+        }
+    }
+
+    /**
+     * Same as sorting with {@link Sorting#sortByLowerX}
+     */
+    public static <T extends HasPosition> void sortByLowerX(@NotNull final List<T> list) {
+
+        if (list.size() <= 1) {
+            return;
+        }
+
+        final long[] keys = new long[list.size()];
+        int          i    = 0;
+
+        for (T t : list) {
+            keys[i] = packKey(t.getPos().x, i);
+            i++;
+        }
+
+        applyOrder(list, keys);
+    }
+
+    /**
+     * Same as sorting with {@link Sorting#sortByLowerY}
+     */
+    public static <T extends HasPosition> void sortByLowerY(@NotNull final List<T> list) {
+
+        if (list.size() <= 1) {
+            return;
+        }
+
+        final long[] keys = new long[list.size()];
+        int          i    = 0;
+
+        for (T t : list) {
+            keys[i] = packKey(t.getPos().y, i);
+            i++;
+        }
+
+        applyOrder(list, keys);
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Sorts keys, and rearranges list in the same way
+     */
+    @SuppressWarnings({ "unchecked" })
+    private static <T> void applyOrder(@NotNull final List<T> list, @NotNull final long[] keys) {
+
+        final Object[] original = list.toArray();
+
+        Arrays.sort(keys);
+
+        final ListIterator<T> iterator = list.listIterator();
+
+        for (long key : keys) {
+            iterator.next();
+            iterator.set((T) original[(int) key]);
+        }
+    }
+
+    /**
+     * The float goes in the upper half, transformed so that the signed ordering of its bits is
+     *  the same as that of Float.compare(). The index in the lower half breaks ties like a stable
+     *  sort would.
+     */
+    private static long packKey(final float value, final int index) {
+
+        int bits = Float.floatToIntBits(value);
+
+        bits ^= (bits >> 31) & 0x7fffffff;
+
+        return ((long) bits << 32) | (long) index;
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+    private static final class Bounds {
+
+        final float       x, y, endX, endY;
+        final HasPosition element;
+
+        Bounds(@NotNull final HasPosition element) {
+
+            final Rectangle pos = element.getPos();
+
+            x            = pos.x;
+            y            = pos.y;
+            endX         = pos.endX;
+            endY         = pos.endY;
+            this.element = element;
+        }
+    }
+}
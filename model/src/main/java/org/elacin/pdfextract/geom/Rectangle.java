@@ -279,6 +279,24 @@ public final class Rectangle extends HasPositionAbstract {
         return new Rectangle(minX, minY, maxX - minX, maxY - minY);
     }
 
+    /**
+     * Returns the part of this rectangle which lies within bound, or null if nothing of it does
+     */
+    @Nullable
+    public Rectangle clippedTo(@NotNull Rectangle bound) {
+
+        final float x1 = Math.max(x, bound.x);
+        final float y1 = Math.max(y, bound.y);
+        final float x2 = Math.min(endX, bound.endX);
+        final float y2 = Math.min(endY, bound.endY);
+
+        if ((x2 <= x1) || (y2 <= y1)) {
+            return null;
+        }
+
+        return new Rectangle(x1, y1, x2 - x1, y2 - y1);
+    }
+
     public boolean intersectsAdmittingOverlap(@NotNull Rectangle that, final float overlap) {
 
         if (isEmpty()) {
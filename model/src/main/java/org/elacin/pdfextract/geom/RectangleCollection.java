@@ -49,6 +49,10 @@ public class RectangleCollection extends PhysicalContent {
     @Nullable
     private final RectangleCollection   parent;
 
+    /* kept up to date as contents are added and removed, see calculatePos() */
+    @NotNull
+    private final IncrementalBounds bounds = new IncrementalBounds(false);
+
 // --------------------------- CONSTRUCTORS ---------------------------
     public RectangleCollection(@NotNull final Collection<? extends PhysicalContent> newContents,
                                @Nullable final RectangleCollection parent) {
@@ -62,7 +66,7 @@ public class RectangleCollection extends PhysicalContent {
 // ------------------------ INTERFACE METHODS ------------------------
 // --------------------- Interface HasPosition ---------------------
     public void calculatePos() {
-        setPos(MathUtils.findBoundsExcludingWhitespace(contents));
+        setPos(bounds.getBounds(contents));
     }
 
 // --------------------- GETTER / SETTER METHODS ---------------------
@@ -76,16 +80,54 @@ public class RectangleCollection extends PhysicalContent {
         return parent;
     }
 
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * The area searched by findSurrounding()
+     */
+    @NotNull
+    static Rectangle surroundingSearchArea(@NotNull final HasPosition content, final int distance) {
+
+        final Rectangle bound = content.getPos();
+
+        return new Rectangle(bound.x - (float) distance, bound.y - (float) distance,
+                             bound.width + (float) distance, bound.height + (float) distance);
+    }
+
+    /**
+     * The area searched by searchInDirectionFromOrigin()
+     */
+    @NotNull
+    static Rectangle directionSearchArea(@NotNull Direction dir, @NotNull HasPosition origin,
+            float distance) {
+
+        final Rectangle pos = origin.getPos();
+        final float     x   = pos.x + dir.xDiff * distance;
+        final float     y   = pos.y + dir.yDiff * distance;
+
+        return new Rectangle(x, y, pos.width, pos.height);
+    }
+
 // -------------------------- PUBLIC METHODS --------------------------
     public void addContent(final PhysicalContent content) {
 
         contents.add(content);
+        bounds.added(content, contents.size());
+        contentAdded(content);
         clearCache();
     }
 
     public void addContents(Collection<? extends PhysicalContent> newContents) {
 
+        int size = contents.size();
+
         contents.addAll(newContents);
+
+        for (PhysicalContent content : newContents) {
+            bounds.added(content, ++size);
+            contentAdded(content);
+        }
+
         clearCache();
     }
 
@@ -101,7 +143,7 @@ public class RectangleCollection extends PhysicalContent {
                                                   getPos().height);
             final List<PhysicalContent> result = findContentsIntersectingWith(searchRectangle);
 
-            Collections.sort(result, Sorting.sortByLowerY);
+            ReadingOrder.sortByLowerY(result);
             xCache.put(x, result);
         }
 
@@ -120,7 +162,7 @@ public class RectangleCollection extends PhysicalContent {
                                                      1.0F);
             final List<PhysicalContent> result = findContentsIntersectingWith(searchRectangle);
 
-            Collections.sort(result, Sorting.sortByLowerX);
+            ReadingOrder.sortByLowerX(result);
             yCache.put(y, result);
         }
 
@@ -145,11 +187,8 @@ public class RectangleCollection extends PhysicalContent {
     public List<PhysicalContent> findSurrounding(@NotNull final HasPosition content,
             final int distance) {
 
-        final Rectangle bound     = content.getPos();
-        Rectangle searchRectangle = new Rectangle(bound.x - (float) distance,
-                                        bound.y - (float) distance, bound.width + (float) distance,
-                                        bound.height + (float) distance);
-        final List<PhysicalContent> ret = findContentsIntersectingWith(searchRectangle);
+        final List<PhysicalContent> ret = findContentsIntersectingWith(
+                                              surroundingSearchArea(content, distance));
 
         if (ret.contains(content)) {
             ret.remove(content);
@@ -160,28 +199,65 @@ public class RectangleCollection extends PhysicalContent {
 
     public void removeContent(PhysicalContent toRemove) {
 
-        if (!contents.remove(toRemove)) {
+        final int index = contents.indexOf(toRemove);
+
+        if (index == -1) {
             throw new RuntimeException("Region " + this + ": Could not remove " + toRemove);
         }
 
+        final PhysicalContent removed = contents.remove(index);
+
+        bounds.removed(removed, contents.size());
+        contentRemoved(removed);
         clearCache();
     }
 
+    /**
+     * Removes all contents which are contained in listToRemove, like List.removeAll(), but in one
+     *  pass which keeps the remaining contents in place.
+     */
     public void removeContents(@NotNull Collection<PhysicalContent> listToRemove) {
 
-        contents.removeAll(listToRemove);
+        int kept = 0;
+        int left = contents.size();
+
+        for (int i = 0, size = contents.size(); i < size; i++) {
+            final PhysicalContent content = contents.get(i);
+
+            if (listToRemove.contains(content)) {
+                bounds.removed(content, --left);
+                contentRemoved(content);
+            } else {
+                contents.set(kept++, content);
+            }
+        }
+
+        contents.subList(kept, contents.size()).clear();
         clearCache();
     }
 
+    /**
+     * Removes exactly the given pieces of content, compared by identity. This is linear in the
+     *  number of contents regardless of what kind of collection listToRemove is.
+     */
+    public void removeContentsByIdentity(@NotNull Collection<? extends PhysicalContent> listToRemove) {
+
+        final Map<PhysicalContent, Boolean> toRemove = new IdentityHashMap<PhysicalContent,
+                                                           Boolean>(listToRemove.size());
+
+        for (PhysicalContent content : listToRemove) {
+            toRemove.put(content, Boolean.TRUE);
+        }
+
+        removeContents(toRemove.keySet());
+    }
+
     @NotNull
     public List<PhysicalContent> searchInDirectionFromOrigin(@NotNull Direction dir,
             @NotNull HasPosition origin, float distance) {
 
-        final Rectangle             pos    = origin.getPos();
-        final float                 x      = pos.x + dir.xDiff * distance;
-        final float                 y      = pos.y + dir.yDiff * distance;
-        final Rectangle             search = new Rectangle(x, y, pos.width, pos.height);
-        final List<PhysicalContent> ret    = findContentsIntersectingWith(search);
+        final List<PhysicalContent> ret = findContentsIntersectingWith(directionSearchArea(dir,
+                                              origin, distance));
 
         if (ret.contains(origin)) {
             ret.remove(origin);
@@ -191,6 +267,18 @@ public class RectangleCollection extends PhysicalContent {
     }
 
 // -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Called for every piece of content added to this collection after it was created, so
+     *  subclasses can keep information derived from the contents up to date.
+     */
+    protected void contentAdded(@NotNull PhysicalContent content) {}
+
+    /**
+     * Called for every piece of content removed from this collection
+     */
+    protected void contentRemoved(@NotNull PhysicalContent content) {}
+
     protected void clearCache() {
 
         yCache.clear();
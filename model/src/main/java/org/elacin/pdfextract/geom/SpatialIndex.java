@@ -0,0 +1,228 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.geom;
+
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable grid index over a set of contents, which answers the same queries as the linear
+ * searches in {@link RectangleCollection} by only looking at the contents in the grid cells the
+ * search area covers.
+ * <p/>
+ * Contents are registered in every cell they cover, and reported only from the first cell shared
+ * with the search area, so no duplicate removal is needed. Results are returned in the same order
+ * as the contents were given.
+ */
+public final class SpatialIndex {
+
+// ------------------------------ FIELDS ------------------------------
+
+    /* upper limit for the number of cells in each direction */
+    private static final int MAX_CELLS = 128;
+    @NotNull
+    private final PhysicalContent[] contents;
+
+    /* the cell span of each content, inclusive */
+    @NotNull
+    private final int[] firstColumn, lastColumn, firstRow, lastRow;
+
+    /* indexes into contents for each cell, row major */
+    @NotNull
+    private final int[][] cells;
+    @NotNull
+    private final int[]   cellSizes;
+    private final int     columns, rows;
+    private final float   originX, originY, cellWidth, cellHeight;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public SpatialIndex(@NotNull final Collection<? extends PhysicalContent> newContents) {
+
+        contents = newContents.toArray(new PhysicalContent[newContents.size()]);
+
+        final int       n     = contents.length;
+        final Rectangle bound = MathUtils.findBounds(newContents);
+        final int       side  = Math.max(1, Math.min(MAX_CELLS, (int) Math.ceil(Math.sqrt(n))));
+
+        columns    = side;
+        rows       = side;
+        originX    = bound.x;
+        originY    = bound.y;
+        cellWidth  = Math.max(bound.width / (float) columns, 1.0f);
+        cellHeight = Math.max(bound.height / (float) rows, 1.0f);
+
+        firstColumn = new int[n];
+        lastColumn  = new int[n];
+        firstRow    = new int[n];
+        lastRow     = new int[n];
+        cells       = new int[columns * rows][];
+        cellSizes   = new int[columns * rows];
+
+        for (int i = 0; i < n; i++) {
+            final Rectangle pos = contents[i].getPos();
+
+            firstColumn[i] = column(pos.x);
+            lastColumn[i]  = column(pos.endX);
+            firstRow[i]    = row(pos.y);
+            lastRow[i]     = row(pos.endY);
+
+            for (int r = firstRow[i]; r <= lastRow[i]; r++) {
+                for (int c = firstColumn[i]; c <= lastColumn[i]; c++) {
+                    final int cell = r * columns + c;
+
+                    if (cells[cell] == null) {
+                        cells[cell] = new int[4];
+                    } else if (cellSizes[cell] == cells[cell].length) {
+                        cells[cell] = grow(cells[cell]);
+                    }
+
+                    cells[cell][cellSizes[cell]++] = i;
+                }
+            }
+        }
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Same as {@link RectangleCollection#findContentsIntersectingWith(HasPosition)}
+     */
+    @NotNull
+    public List<PhysicalContent> findContentsIntersectingWith(@NotNull final HasPosition search) {
+
+        final Rectangle searchPos = search.getPos();
+
+        if (searchPos.isEmpty() || (contents.length == 0)) {
+            return new ArrayList<PhysicalContent>(0);
+        }
+
+        final int c0 = column(searchPos.x),
+                  c1 = column(searchPos.endX),
+                  r0 = row(searchPos.y),
+                  r1 = row(searchPos.endY);
+        int[]     found      = new int[16];
+        int       foundCount = 0;
+
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                final int   cell    = r * columns + c;
+                final int[] indexes = cells[cell];
+
+                for (int j = 0; j < cellSizes[cell]; j++) {
+                    final int i = indexes[j];
+
+                    /* only report from the first cell both the content and the search covers */
+                    if ((c != Math.max(c0, firstColumn[i])) || (r != Math.max(r0, firstRow[i]))) {
+                        continue;
+                    }
+
+                    if (!searchPos.intersectsWith(contents[i].getPos())) {
+                        continue;
+                    }
+
+                    if (foundCount == found.length) {
+                        found = grow(found);
+                    }
+
+                    found[foundCount++] = i;
+                }
+            }
+        }
+
+        Arrays.sort(found, 0, foundCount);
+
+        final List<PhysicalContent> ret = new ArrayList<PhysicalContent>(foundCount);
+
+        for (int j = 0; j < foundCount; j++) {
+            ret.add(contents[found[j]]);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Same as {@link RectangleCollection#findSurrounding(HasPosition, int)}
+     */
+    @NotNull
+    public List<PhysicalContent> findSurrounding(@NotNull final HasPosition content,
+            final int distance) {
+
+        final List<PhysicalContent> ret = findContentsIntersectingWith(
+                                              RectangleCollection.surroundingSearchArea(content,
+                                                  distance));
+
+        ret.remove(content);
+
+        return ret;
+    }
+
+    /**
+     * Same as {@link RectangleCollection#searchInDirectionFromOrigin(RectangleCollection.Direction,
+     * HasPosition, float)}
+     */
+    @NotNull
+    public List<PhysicalContent> searchInDirectionFromOrigin(
+            @NotNull RectangleCollection.Direction dir, @NotNull HasPosition origin, float distance) {
+
+        final List<PhysicalContent> ret = findContentsIntersectingWith(
+                                              RectangleCollection.directionSearchArea(dir, origin,
+                                                  distance));
+
+        ret.remove(origin);
+
+        return ret;
+    }
+
+    public int size() {
+        return contents.length;
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+    @NotNull
+    private static int[] grow(@NotNull final int[] array) {
+
+        final int[] ret = new int[array.length * 2];
+
+        System.arraycopy(array, 0, ret, 0, array.length);
+
+        return ret;
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+    @SuppressWarnings({ "NumericCastThatLosesPrecision" })
+    private int column(final float x) {
+
+        final int c = (int) Math.floor((x - originX) / cellWidth);
+
+        return Math.max(0, Math.min(columns - 1, c));
+    }
+
+    @SuppressWarnings({ "NumericCastThatLosesPrecision" })
+    private int row(final float y) {
+
+        final int r = (int) Math.floor((y - originY) / cellHeight);
+
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+}
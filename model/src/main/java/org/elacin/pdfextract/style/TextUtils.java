@@ -73,6 +73,24 @@ public class TextUtils {
         return style;
     }
 
+    /**
+     * Checks whether the text, trimmed the way String.trim() does it, is all digits. This does not
+     *  create any new strings. Note that this is true for blank text.
+     */
+    public static boolean isAllDigitsWhenTrimmed(@NotNull final CharSequence text) {
+
+        final int start = trimmedStart(text);
+        final int end   = trimmedEnd(text, start);
+
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public static boolean listContainsStyledText(@NotNull final Collection<? extends HasPosition> list) {
 
         for (HasPosition content : list) {
@@ -83,4 +101,32 @@ public class TextUtils {
 
         return false;
     }
+
+    /**
+     * @return the index where text would end after String.trim()
+     */
+    public static int trimmedEnd(@NotNull final CharSequence text, final int trimmedStart) {
+
+        int end = text.length();
+
+        while ((end > trimmedStart) && (text.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+
+        return end;
+    }
+
+    /**
+     * @return the index where text would start after String.trim()
+     */
+    public static int trimmedStart(@NotNull final CharSequence text) {
+
+        int start = 0;
+
+        while ((start < text.length()) && (text.charAt(start) <= ' ')) {
+            start++;
+        }
+
+        return start;
+    }
 }
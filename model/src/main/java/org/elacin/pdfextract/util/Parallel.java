@@ -0,0 +1,229 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.util;
+
+import org.apache.log4j.MDC;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A shared pool of worker threads for running independent pieces of work in parallel. <p/> Tasks
+ * may themselves call {@link #runAll(List)}. To avoid having all the worker threads wait for work
+ * which is still queued, the calling thread will run every task which has not yet been picked up
+ * by a worker itself, so this never deadlocks regardless of pool size. <p/> There are at least
+ * two workers, so that the parallel code paths are the same on every machine. The logging context
+ * of the calling thread is copied to the workers for as long as they run its tasks.
+ */
+public final class Parallel {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final int                  THREAD_COUNT = Math.max(2,
+                                                                 Runtime.getRuntime()
+                                                                     .availableProcessors());
+    @NotNull
+    private static final ExecutorService      pool         = Executors.newFixedThreadPool(
+                                                                 THREAD_COUNT,
+                                                                 new WorkerThreadFactory());
+
+    /* set on threads which run all their tasks themselves, see runSequentially() */
+    @NotNull
+    private static final ThreadLocal<Boolean> sequential   = new ThreadLocal<Boolean>();
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    private Parallel() {}
+
+// -------------------------- PUBLIC STATIC METHODS --------------------------
+    public static int getThreadCount() {
+        return THREAD_COUNT;
+    }
+
+    /**
+     * Runs all the tasks, possibly in parallel, and returns when all of them are done. If any task
+     *  failed, the first failure is rethrown after all tasks have finished.
+     */
+    public static void runAll(@NotNull final List<? extends Runnable> tasks) {
+
+        if ((tasks.size() < 2) || Boolean.TRUE.equals(sequential.get())) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+
+            return;
+        }
+
+        final List<ClaimableTask> submitted = new ArrayList<ClaimableTask>(tasks.size() - 1);
+
+        for (int i = 1; i < tasks.size(); i++) {
+            final ClaimableTask task = new ClaimableTask(tasks.get(i));
+
+            submitted.add(task);
+            pool.execute(task);
+        }
+
+        Throwable failure = null;
+
+        try {
+            tasks.get(0).run();
+        } catch (Throwable t) {
+            failure = t;
+        }
+
+        for (ClaimableTask task : submitted) {
+            final Throwable taskFailure = task.join();
+
+            if (failure == null) {
+                failure = taskFailure;
+            }
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+    }
+
+    /**
+     * Runs work on the calling thread, and has every {@link #runAll(List)} it makes run the tasks
+     *  one after another on the same thread. This is used to compare parallel results with
+     *  sequential ones.
+     */
+    public static void runSequentially(@NotNull final Runnable work) {
+
+        final Boolean before = sequential.get();
+
+        sequential.set(Boolean.TRUE);
+
+        try {
+            work.run();
+        } finally {
+            sequential.set(before);
+        }
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    /**
+     * A task which is run by whoever claims it first, either a worker thread or the thread waiting
+     *  for it to finish
+     */
+    private static final class ClaimableTask implements Runnable {
+
+        @NotNull
+        private final AtomicBoolean   claimed = new AtomicBoolean(false);
+        @NotNull
+        private final CountDownLatch  done    = new CountDownLatch(1);
+        @NotNull
+        private final Runnable        task;
+        @NotNull
+        private final Thread          owner;
+        @Nullable
+        private final Hashtable<?, ?> context;
+        private volatile Throwable    failure;
+
+        ClaimableTask(@NotNull final Runnable task) {
+
+            this.task = task;
+            owner     = Thread.currentThread();
+
+            final Hashtable<?, ?> current = MDC.getContext();
+
+            context = (current == null) ? null : new Hashtable<Object, Object>(current);
+        }
+
+        public void run() {
+
+            if (claimed.compareAndSet(false, true)) {
+                runClaimed();
+            }
+        }
+
+        Throwable join() {
+
+            if (claimed.compareAndSet(false, true)) {
+                runClaimed();
+            } else {
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+
+                    throw new RuntimeException("Interrupted while waiting for task", e);
+                }
+            }
+
+            return failure;
+        }
+
+        private void runClaimed() {
+
+            /* a worker gets the logging context of the owner, so log lines are tagged the same */
+            final boolean copyContext = (context != null) && (Thread.currentThread() != owner);
+
+            if (copyContext) {
+                for (Map.Entry<?, ?> entry : context.entrySet()) {
+                    MDC.put((String) entry.getKey(), entry.getValue());
+                }
+            }
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                if (copyContext) {
+                    for (Object key : context.keySet()) {
+                        MDC.remove((String) key);
+                    }
+                }
+
+                done.countDown();
+            }
+        }
+    }
+
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        public Thread newThread(@NotNull final Runnable r) {
+
+            final Thread thread = new Thread(r, "pdfextract-worker-" + count.incrementAndGet());
+
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -23,21 +23,33 @@ import org.apache.log4j.Logger;
 import org.elacin.pdfextract.datasource.DocumentContent;
 import org.elacin.pdfextract.datasource.PDFSource;
 import org.elacin.pdfextract.datasource.pdfbox.PDFBoxSource;
+import org.elacin.pdfextract.logical.Facet;
 import org.elacin.pdfextract.logical.LogicalAnalysis;
+import org.elacin.pdfextract.output.OutputSink;
+import org.elacin.pdfextract.output.OutputSinks;
+import org.elacin.pdfextract.output.SimpleOutputSink;
+import org.elacin.pdfextract.output.WriterSink;
 import org.elacin.pdfextract.physical.GeometricAnalysis;
 import org.elacin.pdfextract.renderer.PageRenderer;
 import org.elacin.pdfextract.tree.DocumentNode;
-import org.elacin.pdfextract.xml.SimpleXMLOutput;
+import org.elacin.pdfextract.util.OutputQueue;
+import org.elacin.pdfextract.xml.JsonLinesOutput;
 import org.elacin.pdfextract.xml.TEIOutput;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.elacin.pdfextract.Constants.*;
 
@@ -56,11 +68,21 @@ public class ProcessDocument {
     public String               password;
     public int                  startPage;
     public int                  endPage;
+    public int                  renderDpi = RENDER_DPI;
     final boolean               arc;
 
+    /* where output is written. if null it is written before processFile() returns */
+    @Nullable
+    private final OutputQueue outputs;
+
 // --------------------------- CONSTRUCTORS ---------------------------
     public ProcessDocument(File pdfFile, File dest, String password, int startPage, int endPage,
                            final boolean arc) {
+        this(pdfFile, dest, password, startPage, endPage, arc, null);
+    }
+
+    public ProcessDocument(File pdfFile, File dest, String password, int startPage, int endPage,
+                           final boolean arc, @Nullable final OutputQueue outputs) {
 
         this.dest      = dest;
         this.pdfFile   = pdfFile;
@@ -68,6 +90,7 @@ public class ProcessDocument {
         this.startPage = startPage;
         this.endPage   = endPage;
         this.arc       = arc;
+        this.outputs   = outputs;
     }
 
 // -------------------------- STATIC METHODS --------------------------
@@ -86,37 +109,94 @@ public class ProcessDocument {
         return output;
     }
 
-    static void renderPDF(PDFSource source, @NotNull DocumentNode root, @NotNull File destination) {
+    static void renderPDF(PDFSource source, @NotNull DocumentNode root, @NotNull File destination,
+                          final int dpi) {
 
-        long               t0         = System.currentTimeMillis();
-        final PageRenderer renderer   = new PageRenderer(source, root, RENDER_RESOLUTION);
-        DateFormat         dateFormat = new SimpleDateFormat("MMddHHmm");
-        Date               date       = new Date();
+        long                     t0          = System.currentTimeMillis();
+        final PageRenderer       renderer    = new PageRenderer(source, root, RENDER_RESOLUTION,
+                                                   dpi);
+        DateFormat               dateFormat  = new SimpleDateFormat("MMddHHmm");
+        Date                     date        = new Date();
+        final Map<Integer, File> outputFiles = new LinkedHashMap<Integer, File>();
 
         for (int i = 0; i < root.getChildren().size(); i++) {
 
             /* one indexed pages */
             final int pageNum = root.getChildren().get(i).getPageNumber();
 
-            /* then open and write to file */
+            /* then find the file to write it to */
             String path = destination.getAbsolutePath();
 
             path = path.replace("%p", String.valueOf(pageNum));
             path = path.replace("%d", dateFormat.format(date));
 
-            final File outputFile = new File(path);
-
-            renderer.renderToFile(pageNum, outputFile);
+            outputFiles.put(pageNum, new File(path));
         }
 
+        renderer.renderToFiles(outputFiles);
+
         log.debug("Rendering of pdf took " + (System.currentTimeMillis() - t0) + " ms");
     }
 
+    /**
+     * Creates the outputs which are enabled, in the order they are to be written
+     */
+    @NotNull
+    static List<OutputSink> createSinks() {
+
+        final List<OutputSink> sinks = new ArrayList<OutputSink>();
+
+        if (SIMPLE_OUTPUT_ENABLED) {
+            sinks.add(new SimpleOutputSink());
+        }
+
+        /* everything the analysis finds is written */
+        if (JSONL_OUTPUT_ENABLED) {
+            sinks.add(new WriterSink(new JsonLinesOutput(), JSONL_OUTPUT_EXTENSION,
+                                     EnumSet.allOf(Facet.class)));
+        }
+
+        /* TEIOutput changes the tree while writing it, so it has to come last */
+        if (TEI_OUTPUT_ENABLED) {
+            sinks.add(new WriterSink(new TEIOutput(), TEI_OUTPUT_EXTENSION,
+                                     EnumSet.of(Facet.PARAGRAPHS, Facet.TITLE, Facet.ABSTRACT,
+                                                Facet.DIVS, Facet.FOOTNOTES)));
+        }
+
+        return sinks;
+    }
+
+    /**
+     * Finds what the logical analysis has to find for the outputs which are enabled
+     */
+    @NotNull
+    static EnumSet<Facet> findWantedFacets(@NotNull final List<OutputSink> sinks) {
+
+        final EnumSet<Facet> wanted = EnumSet.noneOf(Facet.class);
+
+        if (RENDER_ENABLED) {
+            wanted.add(Facet.PARAGRAPHS);
+        }
+
+        for (OutputSink sink : sinks) {
+            wanted.addAll(sink.getWantedFacets());
+        }
+
+        return wanted;
+    }
+
 // -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Analyzes the document and writes the outputs which are enabled. If an output queue was given
+     *  the outputs may still be being written when this returns, and the returned tree must then
+     *  not be changed.
+     */
     public DocumentNode processFile() {
 
-        PDFSource    source = null;
-        DocumentNode documentNode;
+        PDFSource              source = null;
+        DocumentNode           documentNode;
+        final List<OutputSink> sinks  = createSinks();
 
         try {
             source = new PDFBoxSource(pdfFile, startPage, endPage, password);
@@ -124,24 +204,16 @@ public class ProcessDocument {
             final DocumentContent content = source.readPages();
 
             documentNode = GeometricAnalysis.analyzeDocument(content);
-
-            if (SIMPLE_OUTPUT_ENABLED) {
-                File xmlOutFile = getOutputFile(dest, pdfFile, SIMPLE_OUTPUT_EXTENSION);
-
-                new SimpleXMLOutput().writeTree(documentNode, xmlOutFile);
-            }
-
-            LogicalAnalysis.analyzeDocument(documentNode, arc);
+            writeOutputs(sinks, documentNode, true);
+            new LogicalAnalysis(LogicalAnalysis.createDefaultOperations(arc)).analyze(documentNode,
+                                findWantedFacets(sinks));
 
             if (RENDER_ENABLED) {
-                renderPDF(source, documentNode, getOutputFile(dest, pdfFile, ".%d.%p.png"));
+                renderPDF(source, documentNode, getOutputFile(dest, pdfFile, ".%d.%p.png"),
+                          renderDpi);
             }
 
-            if (TEI_OUTPUT_ENABLED) {
-                File teiOutFile = getOutputFile(dest, pdfFile, TEI_OUTPUT_EXTENSION);
-
-                new TEIOutput().writeTree(documentNode, teiOutFile);
-            }
+            writeOutputs(sinks, documentNode, false);
         } finally {
             if (source != null) {
                 source.closeSource();
@@ -150,4 +222,23 @@ public class ProcessDocument {
 
         return documentNode;
     }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Writes root to the sinks which come before or after the logical analysis, in order. A sink
+     *  which fails does not stop the ones after it.
+     */
+    private void writeOutputs(@NotNull final List<OutputSink> sinks,
+                              @NotNull final DocumentNode root, final boolean beforeAnalysis) {
+
+        for (OutputSink sink : sinks) {
+            if (sink.isBeforeLogicalAnalysis() != beforeAnalysis) {
+                continue;
+            }
+
+            OutputSinks.write(sink, root, getOutputFile(dest, pdfFile, sink.getExtension()),
+                              outputs);
+        }
+    }
 }
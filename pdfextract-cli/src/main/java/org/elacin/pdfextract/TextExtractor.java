@@ -22,6 +22,7 @@ import org.apache.commons.cli.*;
 import org.apache.log4j.Logger;
 
 import org.elacin.pdfextract.util.FileWalker;
+import org.elacin.pdfextract.util.OutputQueue;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -31,6 +32,9 @@ import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.elacin.pdfextract.Constants.OUTPUT_QUEUE_SIZE;
+import static org.elacin.pdfextract.Constants.RENDER_DPI;
+
 /**
  * Created by IntelliJ IDEA. User: elacin Date: Apr 8, 2010 Time: 6:50:25 AM To change this template
  * use File | Settings | File Templates.
@@ -45,10 +49,12 @@ public class TextExtractor {
     private final List<File>   pdfFiles;
     private final int          startPage;
     private final boolean      arc;
+    private final int          renderDpi;
 
 // --------------------------- CONSTRUCTORS ---------------------------
     public TextExtractor(final List<File> pdfFiles, final File destination, final int startPage,
-                         final int endPage, final String password, final boolean arc) {
+                         final int endPage, final String password, final boolean arc,
+                         final int renderDpi) {
 
         this.pdfFiles    = pdfFiles;
         this.destination = destination;
@@ -56,6 +62,7 @@ public class TextExtractor {
         this.endPage     = endPage;
         this.password    = password;
         this.arc         = arc;
+        this.renderDpi   = renderDpi;
     }
 
 // -------------------------- STATIC METHODS --------------------------
@@ -89,6 +96,7 @@ public class TextExtractor {
         options.addOption("s", "startpage", true, "First page to parse");
         options.addOption("e", "endpage", true, "Last page to parse");
         options.addOption("a", "arc", false, "Activate ARC extensions");
+        options.addOption("r", "dpi", true, "Resolution of rendered pages");
 
         return options;
     }
@@ -120,15 +128,24 @@ public class TextExtractor {
 // -------------------------- PUBLIC METHODS --------------------------
     public final void processFiles() {
 
-        for (File pdfFile : pdfFiles) {
-            try {
-                ProcessDocument processDocument = new ProcessDocument(pdfFile, destination, password,
-                                                      startPage, endPage, arc);
+        /* the outputs of one file are written while the next is processed */
+        final OutputQueue outputs = new OutputQueue(OUTPUT_QUEUE_SIZE);
 
-                processDocument.processFile();
-            } catch (Exception e) {
-                log.error("Error while processing PDF:", e);
+        try {
+            for (File pdfFile : pdfFiles) {
+                try {
+                    ProcessDocument processDocument = new ProcessDocument(pdfFile, destination,
+                                                          password, startPage, endPage, arc,
+                                                          outputs);
+
+                    processDocument.renderDpi = renderDpi;
+                    processDocument.processFile();
+                } catch (Exception e) {
+                    log.error("Error while processing PDF:", e);
+                }
             }
+        } finally {
+            outputs.close();
         }
     }
 
@@ -165,6 +182,12 @@ public class TextExtractor {
 
 
         final boolean arc = cmd.hasOption("arc");
+        int           dpi = RENDER_DPI;
+
+        if (cmd.hasOption("dpi")) {
+            dpi = Integer.valueOf(cmd.getOptionValue("dpi"));
+            log.info("LOG01651:Rendering pages at " + dpi + " dpi");
+        }
 
         List<File> pdfFiles    = findAllPdfFilesUnderDirectory(cmd.getArgs()[0]);
         final File destination = new File(cmd.getArgs()[1]);
@@ -188,7 +211,7 @@ public class TextExtractor {
         }
 
         final TextExtractor textExtractor = new TextExtractor(pdfFiles, destination, startPage, endPage,
-                                                password, arc);
+                                                password, arc, dpi);
 
         textExtractor.processFiles();
     }
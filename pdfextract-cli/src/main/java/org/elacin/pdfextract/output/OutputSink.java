@@ -0,0 +1,56 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.output;
+
+import org.elacin.pdfextract.logical.Facet;
+import org.elacin.pdfextract.tree.DocumentNode;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.EnumSet;
+
+/**
+ * One of the outputs of a document. A sink either sees the tree as it is before the logical
+ * analysis, or as it is after, in which case it tells which facets the analysis has to find for
+ * it. <p/> The work of a sink is split in two: what needs the tree as it is right now is done in
+ * {@link #prepare(DocumentNode, File)}, and the rest is returned to be run on the writer thread.
+ */
+public interface OutputSink {
+
+// -------------------------- PUBLIC METHODS --------------------------
+    @NotNull
+    String getExtension();
+
+    @NotNull
+    EnumSet<Facet> getWantedFacets();
+
+    boolean isBeforeLogicalAnalysis();
+
+    /**
+     * Returns the job which writes root to output. After the logical analysis the tree is only
+     *  changed by the jobs of the sinks which come later, so those jobs may read the tree. A sink
+     *  which comes before the analysis has to be done with the tree here, and may return null
+     *  when there is nothing left to do.
+     */
+    @Nullable
+    Runnable prepare(@NotNull DocumentNode root, @NotNull File output);
+}
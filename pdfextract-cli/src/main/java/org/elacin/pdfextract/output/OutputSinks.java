@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.output;
+
+import org.apache.log4j.Logger;
+
+import org.elacin.pdfextract.tree.DocumentNode;
+import org.elacin.pdfextract.util.OutputQueue;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+
+/**
+ * Runs the sinks of a document. A sink which fails is logged, like a failing job on the {@link
+ * OutputQueue}, so that one output which can not be written does not stop the others.
+ */
+public final class OutputSinks {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Logger log = Logger.getLogger(OutputSinks.class);
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    private OutputSinks() {}
+
+// -------------------------- PUBLIC STATIC METHODS --------------------------
+
+    /**
+     * Writes root to output with sink. What is left after {@link OutputSink#prepare(DocumentNode,
+     *  File)} is submitted to outputs, or run right away if there is no queue.
+     */
+    public static void write(@NotNull final OutputSink sink, @NotNull final DocumentNode root,
+                             @NotNull final File output, @Nullable final OutputQueue outputs) {
+
+        final Runnable job;
+
+        try {
+            job = sink.prepare(root, output);
+        } catch (RuntimeException e) {
+            log.error("LOG01653:Error while writing " + output, e);
+
+            return;
+        }
+
+        if (job == null) {
+            return;
+        }
+
+        if (outputs != null) {
+            outputs.submit(job, output);
+
+            return;
+        }
+
+        try {
+            job.run();
+        } catch (RuntimeException e) {
+            log.error("LOG01653:Error while writing " + output, e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.output;
+
+import org.elacin.pdfextract.logical.Facet;
+import org.elacin.pdfextract.tree.DocumentNode;
+import org.elacin.pdfextract.xml.SimpleXMLOutput;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+
+import java.util.EnumSet;
+
+import static org.elacin.pdfextract.Constants.SIMPLE_OUTPUT_EXTENSION;
+
+/**
+ * Writes the tree as it is before the logical analysis with {@link SimpleXMLOutput}. Since the
+ * analysis changes the tree, the file is written right away on the calling thread, and nothing is
+ * left for the writer thread.
+ */
+public final class SimpleOutputSink implements OutputSink {
+
+// ------------------------ INTERFACE METHODS ------------------------
+// --------------------- Interface OutputSink ---------------------
+    @NotNull
+    public String getExtension() {
+        return SIMPLE_OUTPUT_EXTENSION;
+    }
+
+    @NotNull
+    public EnumSet<Facet> getWantedFacets() {
+        return EnumSet.noneOf(Facet.class);
+    }
+
+    public boolean isBeforeLogicalAnalysis() {
+        return true;
+    }
+
+    @Nullable
+    public Runnable prepare(@NotNull final DocumentNode root, @NotNull final File output) {
+
+        new SimpleXMLOutput().writeTree(root, output);
+
+        return null;
+    }
+}
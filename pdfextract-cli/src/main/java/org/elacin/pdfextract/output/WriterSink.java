@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.output;
+
+import org.elacin.pdfextract.logical.Facet;
+import org.elacin.pdfextract.tree.DocumentNode;
+import org.elacin.pdfextract.xml.XMLWriter;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.EnumSet;
+
+/**
+ * Writes the tree after the logical analysis with an {@link XMLWriter}. The tree is read on the
+ * writer thread, so the writer is only ever used by one thread at a time.
+ */
+public final class WriterSink implements OutputSink {
+
+// ------------------------------ FIELDS ------------------------------
+    @NotNull
+    private final XMLWriter      writer;
+    @NotNull
+    private final String         extension;
+    @NotNull
+    private final EnumSet<Facet> wantedFacets;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public WriterSink(@NotNull final XMLWriter writer, @NotNull final String extension,
+                      @NotNull final EnumSet<Facet> wantedFacets) {
+
+        this.writer       = writer;
+        this.extension    = extension;
+        this.wantedFacets = wantedFacets;
+    }
+
+// ------------------------ INTERFACE METHODS ------------------------
+// --------------------- Interface OutputSink ---------------------
+    @NotNull
+    public String getExtension() {
+        return extension;
+    }
+
+    @NotNull
+    public EnumSet<Facet> getWantedFacets() {
+        return wantedFacets;
+    }
+
+    public boolean isBeforeLogicalAnalysis() {
+        return false;
+    }
+
+    @NotNull
+    public Runnable prepare(@NotNull final DocumentNode root, @NotNull final File output) {
+
+        return new Runnable() {
+            public void run() {
+                writer.writeTree(root, output);
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.util;
+
+import org.apache.log4j.Logger;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread which writes output files, so that the next document can be analyzed while the output
+ * of the last one is being written. <p/> Jobs are run one at a time in the order they were
+ * submitted. When a given number of jobs are not yet finished, {@link #submit(Runnable, File)}
+ * waits, so that a slow disk does not make us keep more and more documents in memory.
+ */
+public final class OutputQueue {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Logger      log = Logger.getLogger(OutputQueue.class);
+    @NotNull
+    private final ExecutorService    writer;
+    @NotNull
+    private final Semaphore          permits;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    public OutputQueue(final int capacity) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        permits = new Semaphore(capacity);
+        writer  = Executors.newSingleThreadExecutor(new WriterThreadFactory());
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Waits until everything which was submitted is written, and stops the writer thread
+     */
+    public void close() {
+
+        writer.shutdown();
+
+        try {
+            while (!writer.awaitTermination(1L, TimeUnit.MINUTES)) {
+                log.info("LOG01648:Still waiting for output to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues job, which writes output, to be run on the writer thread, waiting for room in the
+     *  queue if it is full. A job which fails is logged, and does not stop the jobs after it.
+     */
+    public void submit(@NotNull final Runnable job, @NotNull final File output) {
+
+        permits.acquireUninterruptibly();
+
+        try {
+            writer.execute(new Runnable() {
+                public void run() {
+
+                    try {
+                        job.run();
+                    } catch (Throwable t) {
+                        log.error("LOG01649:Error while writing " + output, t);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    /**
+     * The writer thread is not a daemon, so that the program does not exit with output which is not
+     *  yet written
+     */
+    private static final class WriterThreadFactory implements ThreadFactory {
+
+        public Thread newThread(@NotNull final Runnable r) {
+            return new Thread(r, "pdfextract-writer");
+        }
+    }
+}
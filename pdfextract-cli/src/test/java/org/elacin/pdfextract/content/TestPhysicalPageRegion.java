@@ -0,0 +1,158 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.content;
+
+import org.elacin.pdfextract.geom.MathUtils;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPhysicalPageRegion {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style small = new Style("Times", "Type1", 8, 9, "times8", false, false,
+                                           false);
+    private static final Style big   = new Style("Times", "Type1", 14, 16, "times14", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Two columns of text, the left one in a small font and the right one in a big one
+     */
+    private static PhysicalPage createTwoColumnPage() {
+
+        List<PhysicalText> words = new ArrayList<PhysicalText>();
+
+        for (int row = 0; row < 30; row++) {
+            for (int column = 0; column < 4; column++) {
+                final float y = 50.0f + row * 20.0f;
+
+                words.add(new PhysicalText("word", small, 50.0f + column * 40.0f, y, 35.0f, 9.0f,
+                                           y + 7.0f));
+                words.add(new PhysicalText("longer", big, 300.0f + column * 60.0f, y, 55.0f, 16.0f,
+                                           y + 13.0f));
+            }
+        }
+
+        return new PhysicalPage(words, new ArrayList<GraphicContent>(), 1,
+                                new Rectangle(0.0f, 0.0f, 600.0f, 700.0f));
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * The font statistics of both the extracted region and what is left must be the same as for
+     *  regions created from scratch with the same contents
+     */
+    @Test
+    public void testFontStatisticsAfterExtraction() {
+
+        final PhysicalPageRegion main = createTwoColumnPage().getMainRegion();
+
+        main.getAvgFontSizeX();
+        main.extractSubRegionFromBound(new Rectangle(40.0f, 40.0f, 200.0f, 640.0f), false);
+
+        final PhysicalPageRegion sub = main.getSubregions().get(0);
+
+        assertEquals(sub.getAvgFontSizeX(), 8.0f);
+        assertEquals(sub.getAvgFontSizeY(), 9.0f);
+
+        final List<PhysicalContent> remaining = new ArrayList<PhysicalContent>(main.getContents());
+
+        remaining.remove(sub);
+
+        final PhysicalPageRegion fresh = new PhysicalPageRegion(remaining, main.getPage());
+
+        assertEquals(main.getAvgFontSizeX(), fresh.getAvgFontSizeX());
+        assertEquals(main.getAvgFontSizeY(), fresh.getAvgFontSizeY());
+        assertEquals(main.getAvgFontSizeX(), 14.0f);
+    }
+
+    /**
+     * Every piece of content must end up in exactly one of the regions after extraction, except
+     *  whitespace which is kept in both
+     */
+    @Test
+    public void testExtractionPartitionsContents() {
+
+        final PhysicalPageRegion  main       = createTwoColumnPage().getMainRegion();
+        final int                 numWords   = main.getContents().size();
+        final WhitespaceRectangle whitespace = new WhitespaceRectangle(new Rectangle(220.0f, 40.0f,
+                                                   60.0f, 600.0f));
+        final List<WhitespaceRectangle> whitespaces = new ArrayList<WhitespaceRectangle>();
+
+        whitespaces.add(whitespace);
+        main.addWhitespace(whitespaces);
+        main.extractSubRegionFromBound(new Rectangle(250.0f, 40.0f, 300.0f, 640.0f), false);
+
+        final PhysicalPageRegion sub = main.getSubregions().get(0);
+
+        assertEquals(sub.getContents().size() + main.getContents().size(), numWords + 3);
+        assertTrue(sub.getContents().contains(whitespace));
+        assertTrue(main.getContents().contains(whitespace));
+        assertTrue(main.getContents().contains(sub));
+
+        for (PhysicalContent content : sub.getContents()) {
+            if (content.isText()) {
+                assertFalse(main.getContents().contains(content));
+            }
+        }
+    }
+
+    /**
+     * The bounds of regions must be the same as if they were found from scratch, both after
+     *  extracting a subregion and after removing and adding content in the new region
+     */
+    @Test
+    public void testBoundsAfterExtraction() {
+
+        final PhysicalPageRegion main = createTwoColumnPage().getMainRegion();
+
+        main.getPos();
+        main.extractSubRegionFromBound(new Rectangle(40.0f, 40.0f, 200.0f, 640.0f), false);
+
+        final PhysicalPageRegion sub = main.getSubregions().get(0);
+
+        assertEquals(main.getPos(), MathUtils.findBoundsExcludingWhitespace(main.getContents()));
+        assertEquals(sub.getPos(), MathUtils.findBoundsExcludingWhitespace(sub.getContents()));
+
+        final List<PhysicalContent> removed = new ArrayList<PhysicalContent>();
+
+        while (sub.getContents().size() > 1) {
+            final PhysicalContent content = sub.getContents().get(sub.getContents().size() / 2);
+
+            sub.removeContent(content);
+            removed.add(content);
+            assertEquals(sub.getPos(), MathUtils.findBoundsExcludingWhitespace(sub.getContents()));
+        }
+
+        for (PhysicalContent content : removed) {
+            sub.addContent(content);
+            assertEquals(sub.getPos(), MathUtils.findBoundsExcludingWhitespace(sub.getContents()));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.geom;
+
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestReadingOrder {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Sorting with ReadingOrder must leave the very same objects in the very same order as
+     *  Collections.sort() with the comparators does. Coordinates are rounded so there are many
+     *  ties, and negative coordinates are included for the packed keys
+     */
+    @Test
+    public void testSameOrderAsComparators() {
+
+        final Random random = new Random(7L);
+
+        for (int round = 0; round < 100; round++) {
+            final List<PhysicalContent> contents = new ArrayList<PhysicalContent>();
+            final int                   count    = random.nextInt(300);
+
+            for (int i = 0; i < count; i++) {
+                final float width  = (float) (1 + random.nextInt(60));
+                final float height = (float) (1 + random.nextInt(20));
+                final float x      = (float) (random.nextInt(100) * 6 - 20);
+                final float y      = (float) (random.nextInt(100) * 8 - 20);
+
+                contents.add(new PhysicalText("word", style, x, y, width, height, y + height));
+            }
+
+            final List<PhysicalContent> regions = new ArrayList<PhysicalContent>(contents);
+            final List<PhysicalContent> byX     = new ArrayList<PhysicalContent>(contents);
+            final List<PhysicalContent> byY     = new ArrayList<PhysicalContent>(contents);
+
+            ReadingOrder.sortRegions(regions);
+            ReadingOrder.sortByLowerX(byX);
+            ReadingOrder.sortByLowerY(byY);
+            assertSameObjects(regions, sortedCopy(contents, Sorting.regionComparator));
+            assertSameObjects(byX, sortedCopy(contents, Sorting.sortByLowerX));
+            assertSameObjects(byY, sortedCopy(contents, Sorting.sortByLowerY));
+        }
+    }
+
+// -------------------------- STATIC METHODS --------------------------
+    private static void assertSameObjects(final List<PhysicalContent> actual,
+            final List<PhysicalContent> expected) {
+
+        assertEquals(actual.size(), expected.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(actual.get(i), expected.get(i));
+        }
+    }
+
+    private static List<PhysicalContent> sortedCopy(final List<PhysicalContent> contents,
+            final Comparator<HasPosition> comparator) {
+
+        final List<PhysicalContent> ret = new ArrayList<PhysicalContent>(contents);
+
+        Collections.sort(ret, comparator);
+
+        return ret;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.geom;
+
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestSpatialIndex {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * The index must give exactly the same answers, in the same order, as the linear searches in
+     *  RectangleCollection. Some of the contents are much bigger than the rest, like regions are
+     */
+    @Test
+    public void testSameResultsAsRectangleCollection() {
+
+        final Random random = new Random(42L);
+
+        for (int round = 0; round < 50; round++) {
+            final List<PhysicalContent> contents = new ArrayList<PhysicalContent>();
+            final int                   count    = random.nextInt(400);
+
+            for (int i = 0; i < count; i++) {
+                final boolean big    = random.nextInt(10) == 0;
+                final float   width  = big ? random.nextFloat() * 400.0f : random.nextFloat() * 30.0f;
+                final float   height = big ? random.nextFloat() * 400.0f : random.nextFloat() * 12.0f;
+                final float   x      = (float) random.nextInt(600);
+                final float   y      = (float) random.nextInt(800);
+
+                contents.add(new PhysicalText("word", style, x, y, width, height, y + height));
+            }
+
+            final RectangleCollection collection = new RectangleCollection(contents, null);
+            final SpatialIndex        index      = new SpatialIndex(contents);
+
+            for (int i = 0; i < 100; i++) {
+                final Rectangle search = new Rectangle((float) (random.nextInt(700) - 50),
+                                             (float) (random.nextInt(900) - 50),
+                                             random.nextFloat() * 100.0f,
+                                             random.nextFloat() * 100.0f);
+
+                assertEquals(index.findContentsIntersectingWith(search),
+                             collection.findContentsIntersectingWith(search));
+                assertEquals(index.findSurrounding(search, 8), collection.findSurrounding(search, 8));
+                assertEquals(index.searchInDirectionFromOrigin(RectangleCollection.Direction.W,
+                        search, 8.0f), collection.searchInDirectionFromOrigin(
+                            RectangleCollection.Direction.W, search, 8.0f));
+
+                if (count != 0) {
+                    final PhysicalContent content = contents.get(random.nextInt(count));
+
+                    assertEquals(index.findSurrounding(content, 8),
+                                 collection.findSurrounding(content, 8));
+                }
+            }
+        }
+    }
+}
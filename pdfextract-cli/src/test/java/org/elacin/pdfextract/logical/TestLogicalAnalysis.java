@@ -0,0 +1,228 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.logical;
+
+import org.apache.log4j.Logger;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.logical.operation.ExtractTitle;
+import org.elacin.pdfextract.logical.operation.RecognizeDivs;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.tree.*;
+import org.testng.annotations.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLogicalAnalysis {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Logger log   = Logger.getLogger(TestLogicalAnalysis.class);
+    private static final int    PAGES = 500;
+    private static final Style  body  = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                            false);
+    private static final Style  small = new Style("Times", "Type1", 8, 8, "times8", false, false,
+                                            false);
+    private static final Style  title = new Style("Times", "Type1", 20, 20, "times20", false, false,
+                                            false);
+    private static final Style  div1  = new Style("TimesBold", "Type1", 14, 14, "timesbold14", false,
+                                            true, false);
+    private static final Style  div2  = new Style("TimesBold", "Type1", 12, 12, "timesbold12", false,
+                                            true, false);
+    private int                 seqNo;
+
+// -------------------------- STATIC METHODS --------------------------
+    private static int countParagraphsWithRole(final DocumentNode root, final Role role) {
+
+        int count = 0;
+
+        for (PageNode page : root.getChildren()) {
+            for (ParagraphNode paragraph : page.getChildren()) {
+                if (paragraph.hasRole(role)) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private static WordNode firstWord(final PageNode page, final int paragraph) {
+        return page.getChildren().get(paragraph).getChildren().get(0).getChildren().get(0);
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Only the operations writing what is wanted, or what they read themselves, are to be run
+     */
+    @Test
+    public void testOperationSelection() {
+
+        final LogicalAnalysis analysis = new LogicalAnalysis(LogicalAnalysis.createDefaultOperations(
+                                             true));
+
+        assertTrue(analysis.selectOperations(EnumSet.noneOf(Facet.class)).isEmpty());
+
+        final List<Operation> forTitle = analysis.selectOperations(EnumSet.of(Facet.TITLE));
+
+        assertEquals(forTitle.size(), 1);
+        assertTrue(forTitle.get(0) instanceof ExtractTitle);
+
+        final List<Operation> forDivs = analysis.selectOperations(EnumSet.of(Facet.DIVS));
+
+        assertEquals(forDivs.size(), 5);
+        assertTrue(forDivs.get(4) instanceof RecognizeDivs);
+
+        final List<Operation> forFootnotes = analysis.selectOperations(EnumSet.of(Facet.FOOTNOTES));
+
+        /* the paragraphs it looks at are decided by the operations before it */
+        assertEquals(forFootnotes.size(), 3);
+        assertTrue(forFootnotes.get(2) instanceof PageOperation);
+    }
+
+    /**
+     * Runs the whole logical analysis over a made up thesis of 500 pages, with a title, an
+     *  abstract, numbered chapters and sections, footnotes, running headers and page numbers.
+     *  This doubles as a benchmark, the time used is logged.
+     */
+    @Test
+    public void testThesis() {
+
+        long best = Long.MAX_VALUE;
+
+        for (int round = 0; round < 5; round++) {
+            final DocumentNode root = createThesis();
+            final long         t0   = System.nanoTime();
+
+            LogicalAnalysis.analyzeDocument(root, true);
+            best = Math.min(best, System.nanoTime() - t0);
+
+            if (round != 0) {
+                continue;
+            }
+
+            assertEquals(root.getTitle().getText(), "A Thesis About Things");
+            assertEquals(root.getAbstractParagraph().getText(), "we study things in great detail");
+            assertEquals(countParagraphsWithRole(root, Role.DIV1), PAGES / 10);
+            assertEquals(countParagraphsWithRole(root, Role.DIV2), PAGES / 2);
+            assertEquals(countParagraphsWithRole(root, Role.FOOTNOTE), PAGES / 4);
+
+            for (PageNode page : root.getChildren()) {
+                for (ParagraphNode paragraph : page.getChildren()) {
+                    assertFalse(paragraph.getText().equals(String.valueOf(page.getPageNumber())),
+                                "page number left on page " + page.getPageNumber());
+                }
+
+                assertTrue(page.getChildren().size() > 1);
+            }
+
+            /* section numbers are identifiers, the body text gets no roles */
+            final PageNode second = root.getChildren().get(1);
+
+            assertTrue(firstWord(second, 1).hasRole(Role.IDENTIFIER));
+            assertFalse(firstWord(second, 2).hasRole());
+        }
+
+        log.info("LOG01642:Logical analysis of " + PAGES + " pages took " + best / 1000000L + " ms");
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+    private DocumentNode createThesis() {
+
+        final DocumentNode root = new DocumentNode();
+
+        root.getStyles().add(body);
+        root.getStyles().add(small);
+        root.getStyles().add(title);
+        root.getStyles().add(div1);
+        root.getStyles().add(div2);
+        seqNo = 0;
+
+        int chapter = 0;
+        int section = 0;
+
+        for (int pageNum = 1; pageNum <= PAGES; pageNum++) {
+            final PageNode page = new PageNode(pageNum);
+            float          y    = 60.0f;
+
+            page.addChild(createParagraph(small, 20.0f, "Chapter " + chapter));
+
+            if (pageNum == 1) {
+                page.addChild(createParagraph(title, y, "A Thesis About Things"));
+                page.addChild(createParagraph(body, y + 30.0f, "Abstract"));
+                page.addChild(createParagraph(body, y + 45.0f, "we study things", "in great detail"));
+                y += 80.0f;
+            }
+
+            if (pageNum % 10 == 1) {
+                chapter++;
+                section = 0;
+                page.addChild(createParagraph(div1, y, chapter + " Chapter heading"));
+                y += 25.0f;
+            } else if (pageNum % 2 == 0) {
+                section++;
+                page.addChild(createParagraph(div2, y, chapter + "." + section + " Section"));
+                y += 20.0f;
+            }
+
+            for (int i = 0; i < 4; i++) {
+                page.addChild(createParagraph(body, y, "some text about the model of",
+                                              "the text which we have analysed", "and found to hold"));
+                y += 45.0f;
+            }
+
+            if (pageNum % 4 == 0) {
+                page.addChild(createParagraph(small, 700.0f, "1 a footnote to the text"));
+            }
+
+            page.addChild(createParagraph(body, 760.0f, String.valueOf(pageNum)));
+            root.addChild(page);
+        }
+
+        return root;
+    }
+
+    private ParagraphNode createParagraph(final Style style, final float y, final String... lines) {
+
+        final ParagraphNode paragraph = new ParagraphNode(seqNo++);
+        float               lineY     = y;
+
+        for (String text : lines) {
+            final LineNode line = new LineNode();
+            float          x    = 50.0f;
+
+            for (String word : text.split(" ")) {
+                final float width = 5.0f * word.length() + 1.0f;
+
+                line.addChild(new WordNode(new Rectangle(x, lineY, width, (float) style.ySize), style,
+                                           word, 1.0f));
+                x += width + 4.0f;
+            }
+
+            paragraph.addChild(line);
+            lineY += style.ySize + 2.0f;
+        }
+
+        return paragraph;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.logical.operation;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestRecognizeRoles {
+
+// ------------------------------ FIELDS ------------------------------
+
+/* the patterns which RecognizeRoles used before, kept here as the reference */
+    private static final Pattern id                = Pattern.compile("(?:X\\d{1,2}|\\w{1,2})");
+    private static final Pattern refWithDotPattern = Pattern.compile("\\s*(" + id
+                                                         + "\\s*\\.\\s*\\d?).*",
+                                                         Pattern.DOTALL | Pattern.MULTILINE);
+    private static final Pattern numInParenthesisPattern = Pattern.compile("(\\(\\s*" + id
+                                                               + "\\s*\\)).*",
+                                                               Pattern.DOTALL | Pattern.MULTILINE);
+
+/* mostly characters which mean something to the grammar, and a few which do not */
+    private static final String alphabet = "()().. \t\n\u000B\f\rXXXxa_Z0099\u00e9\u0663*-";
+
+// -------------------------- STATIC METHODS --------------------------
+    private static boolean matchesPatterns(final String text) {
+        return numInParenthesisPattern.matcher(text).matches()
+               || refWithDotPattern.matcher(text).matches();
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+    @Test
+    public void testExamples() {
+
+        assertTrue(RecognizeRoles.isIdentifier("(a)"));
+        assertTrue(RecognizeRoles.isIdentifier("( 12 )text"));
+        assertTrue(RecognizeRoles.isIdentifier("1."));
+        assertTrue(RecognizeRoles.isIdentifier(" X12 .3"));
+        assertFalse(RecognizeRoles.isIdentifier("123."));
+        assertFalse(RecognizeRoles.isIdentifier("(abc)"));
+        assertFalse(RecognizeRoles.isIdentifier("(1."));
+        assertFalse(RecognizeRoles.isIdentifier(""));
+    }
+
+    /**
+     * Generates a lot of short strings over an alphabet which favours the characters of the
+     *  grammar, and checks that the scanner agrees with the patterns for every one of them
+     */
+    @Test
+    public void testSameAsPatterns() {
+
+        final Random random = new Random(44L);
+
+        for (int round = 0; round < 200000; round++) {
+            final int           length = random.nextInt(9);
+            final StringBuilder sb     = new StringBuilder(length);
+
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            final String text = sb.toString();
+
+            assertEquals(RecognizeRoles.isIdentifier(text), matchesPatterns(text),
+                         "Disagreement for \"" + text + '"');
+        }
+    }
+
+    /**
+     * Every string of up to five characters over a smaller alphabet
+     */
+    @Test
+    public void testSameAsPatternsExhaustive() {
+
+        final String small = "( ).X1a";
+        final int    base  = small.length();
+        int          total = 1;
+
+        for (int length = 0; length <= 5; length++) {
+            for (int n = 0; n < total; n++) {
+                final StringBuilder sb   = new StringBuilder(length);
+                int                 rest = n;
+
+                for (int i = 0; i < length; i++) {
+                    sb.append(small.charAt(rest % base));
+                    rest /= base;
+                }
+
+                final String text = sb.toString();
+
+                assertEquals(RecognizeRoles.isIdentifier(text), matchesPatterns(text),
+                             "Disagreement for \"" + text + '"');
+            }
+
+            total *= base;
+        }
+    }
+}
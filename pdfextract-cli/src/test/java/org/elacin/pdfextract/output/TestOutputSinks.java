@@ -0,0 +1,159 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.output;
+
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.logical.Facet;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.tree.*;
+import org.elacin.pdfextract.util.OutputQueue;
+import org.elacin.pdfextract.xml.XMLWriter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestOutputSinks {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+    @NotNull
+    private static DocumentNode createDocument() {
+
+        final DocumentNode  document  = new DocumentNode();
+        final PageNode      page      = new PageNode(1);
+        final ParagraphNode paragraph = new ParagraphNode(0);
+        final LineNode      line      = new LineNode();
+
+        line.addChild(new WordNode(new Rectangle(10.0f, 10.0f, 20.0f, 10.0f), style, "word", 1.0f));
+        paragraph.addChild(line);
+        page.addChild(paragraph);
+        document.addChild(page);
+        document.getStyles().add(style);
+
+        return document;
+    }
+
+    /**
+     * A sink which writes the name of the output to written, or fails if the name says so
+     */
+    @NotNull
+    private static OutputSink createSink(@NotNull final List<String> written) {
+
+        return new WriterSink(new XMLWriter() {
+
+            public void writeTree(@NotNull final DocumentNode root, @NotNull final File output) {
+
+                if (output.getName().startsWith("fail")) {
+                    throw new RuntimeException("Could not open output file");
+                }
+
+                written.add(output.getName());
+            }
+        }, ".xml", EnumSet.allOf(Facet.class));
+    }
+
+    /**
+     * Writes a document to a failing sink between two working ones, where the simple output
+     *  also fails as its directory does not exist
+     */
+    @NotNull
+    private static List<String> writeWithFailures(@Nullable final OutputQueue outputs) {
+
+        final List<String> written  = Collections.synchronizedList(new ArrayList<String>());
+        final OutputSink   sink     = createSink(written);
+        final DocumentNode document = createDocument();
+        final File         missing  = new File("no such directory", "document.pxml");
+
+        OutputSinks.write(sink, document, new File("first.xml"), outputs);
+        OutputSinks.write(new SimpleOutputSink(), document, missing, outputs);
+        OutputSinks.write(sink, document, new File("failing.xml"), outputs);
+        OutputSinks.write(sink, document, new File("last.xml"), outputs);
+
+        if (outputs != null) {
+            outputs.close();
+        }
+
+        return written;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * One sink which fails must not stop the others, whether the outputs are written right away
+     *  or on the writer thread
+     */
+    @Test
+    public void testFailingSinkDoesNotStopOthers() {
+
+        final List<String> wanted = new ArrayList<String>();
+
+        wanted.add("first.xml");
+        wanted.add("last.xml");
+        assertEquals(writeWithFailures(null), wanted);
+        assertEquals(writeWithFailures(new OutputQueue(1)), wanted);
+    }
+
+    /**
+     * The simple output is written before the logical analysis changes the tree, so nothing is
+     *  left for the writer thread
+     */
+    @Test
+    public void testSimpleOutputIsWrittenRightAway() throws IOException {
+
+        final File output = File.createTempFile("pdfextract", ".pxml");
+
+        try {
+            output.delete();
+            assertNull(new SimpleOutputSink().prepare(createDocument(), output));
+            assertTrue(output.length() > 0);
+        } finally {
+            output.delete();
+        }
+    }
+
+    /**
+     * The job of a writer sink writes the tree to the file it was prepared for
+     */
+    @Test
+    public void testWriterSinkWritesOnWriterThread() {
+
+        final List<String> written = Collections.synchronizedList(new ArrayList<String>());
+        final Runnable     job     = createSink(written).prepare(createDocument(),
+                                         new File("document.xml"));
+
+        assertTrue(written.isEmpty());
+        job.run();
+        assertEquals(written, Collections.singletonList("document.xml"));
+    }
+}
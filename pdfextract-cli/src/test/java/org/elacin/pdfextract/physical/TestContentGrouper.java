@@ -0,0 +1,70 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.physical;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalPage;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.geom.RectangleCollection;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestContentGrouper {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * A region with 20000 tightly packed words, which are all connected. This used to overflow
+     *  the stack while grouping the content.
+     */
+    @Test
+    public void testHugeConnectedRegion() {
+
+        final int          rows    = 200,
+                           columns = 100;
+        List<PhysicalText> words   = new ArrayList<PhysicalText>(rows * columns);
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final float x = 50.0f + column * 20.0f;
+                final float y = 50.0f + row * 10.0f;
+
+                words.add(new PhysicalText("word", style, x, y, 19.0f, 9.5f, y + 8.0f));
+            }
+        }
+
+        final PhysicalPage page = new PhysicalPage(words, new ArrayList<GraphicContent>(), 1,
+                                      new Rectangle(0.0f, 0.0f, 2100.0f, 2100.0f));
+        final List<RectangleCollection> blocks =
+            new ContentGrouper(page.getMainRegion()).findBlocksOfContent();
+
+        assertEquals(blocks.size(), 1);
+        assertEquals(blocks.get(0).getContents().size(), rows * columns);
+    }
+}
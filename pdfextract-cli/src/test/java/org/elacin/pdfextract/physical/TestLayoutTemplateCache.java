@@ -0,0 +1,239 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalPage;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.content.WhitespaceRectangle;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.physical.column.WhitespaceStatistics;
+import org.elacin.pdfextract.physical.graphics.CategorizedGraphics;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLayoutTemplateCache {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * A page with columns of text between the same margins, with words of random widths so no two
+     *  pages have the same text
+     */
+    private static PhysicalPage createPage(int columns, float leftMargin, long seed) {
+        return createPage(columns, leftMargin, seed, new Rectangle(0.0f, 0.0f, 600.0f, 800.0f));
+    }
+
+    private static PhysicalPage createPage(int columns, float leftMargin, long seed,
+            Rectangle pageDimensions) {
+
+        final Random             random      = new Random(seed);
+        final float              columnWidth = (400.0f - (columns - 1) * 30.0f) / columns;
+        final List<PhysicalText> words       = new ArrayList<PhysicalText>();
+
+        /* the pages do not all have the same number of lines */
+        final int rows = 40 + random.nextInt(10);
+
+        for (int row = 0; row < rows; row++) {
+            final float y = 60.0f + row * 12.0f;
+
+            for (int column = 0; column < columns; column++) {
+                final float start = leftMargin + column * (columnWidth + 30.0f);
+                float       x     = start;
+
+                while (true) {
+                    final float width = 10.0f + random.nextInt(30);
+
+                    if (x + width > start + columnWidth) {
+                        break;
+                    }
+
+                    words.add(new PhysicalText("word", style, x, y, width, 10.0f, y + 8.0f));
+                    x += width + 4.0f;
+                }
+
+                /* make sure every line reaches both edges of the column */
+                words.add(new PhysicalText("w", style, start + columnWidth - 4.0f, y, 4.0f, 10.0f,
+                                           y + 8.0f));
+            }
+        }
+
+        return new PhysicalPage(words, new ArrayList<GraphicContent>(), 1, pageDimensions);
+    }
+
+    private static LayoutTemplateCache.Fingerprint fingerprint(PhysicalPage page) {
+        return LayoutTemplateCache.fingerprint(page.getPageDimensions(), page.getMainRegion(),
+                new CategorizedGraphics());
+    }
+
+    /**
+     * The positions of the regions of page. What they contain is left out, as the whitespace found
+     *  with and without a template need not be the same
+     */
+    private static String describeRegions(PhysicalPage page) {
+
+        final StringBuilder sb = new StringBuilder();
+
+        describeRegion(sb, page.getMainRegion(), "");
+
+        return sb.toString();
+    }
+
+    private static void describeRegion(StringBuilder sb, PhysicalPageRegion region, String indent) {
+
+        sb.append(indent).append(region.getPos()).append('\n');
+
+        for (PhysicalPageRegion subregion : region.getSubregions()) {
+            describeRegion(sb, subregion, indent + "  ");
+        }
+    }
+
+    private static String analyzeCold(PhysicalPage page, WhitespaceStatistics statistics) {
+
+        PageSegmentator.analyzePage(page, new LayoutTemplateCache(10), statistics);
+
+        return describeRegions(page);
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * The second page of a template must find the first one in the cache, reuse its whitespace,
+     *  and still be divided in the same regions as it would have been without it
+     */
+    @Test
+    public void testTemplatePageHitsCache() {
+
+        final LayoutTemplateCache  templates = new LayoutTemplateCache(10);
+        final WhitespaceStatistics first     = new WhitespaceStatistics();
+        final WhitespaceStatistics second    = new WhitespaceStatistics();
+        final PhysicalPage         page      = createPage(2, 100.0f, 2L);
+
+        PageSegmentator.analyzePage(createPage(2, 100.0f, 1L), templates, first);
+        assertEquals(templates.getMisses(), 1);
+        assertEquals(templates.getHits(), 0);
+        assertEquals(first.getWhitespaceReused(), 0);
+
+        PageSegmentator.analyzePage(page, templates, second);
+        assertEquals(templates.getMisses(), 1);
+        assertEquals(templates.getHits(), 1);
+        assertEquals(templates.getMismatches(), 0);
+        assertTrue(second.getWhitespaceReused() > 0);
+
+        final String cold = analyzeCold(createPage(2, 100.0f, 2L), new WhitespaceStatistics());
+
+        assertEquals(describeRegions(page), cold);
+    }
+
+    /**
+     * A template which does not give the columns it remembers is counted, but its result is kept
+     *  without searching the page again
+     */
+    @Test
+    public void testMismatchingTemplateIsNotSearchedAgain() {
+
+        final LayoutTemplateCache templates = new LayoutTemplateCache(10);
+        final PhysicalPage        page      = createPage(2, 100.0f, 2L);
+
+        /* whitespace in the left margin, and no column boundaries */
+        final List<WhitespaceRectangle> margin = new ArrayList<WhitespaceRectangle>();
+
+        margin.add(new WhitespaceRectangle(new Rectangle(20.0f, 60.0f, 60.0f, 400.0f)));
+        templates.store(fingerprint(page), margin, Collections.<WhitespaceRectangle>emptyList());
+
+        final WhitespaceStatistics warm = new WhitespaceStatistics();
+        final WhitespaceStatistics cold = new WhitespaceStatistics();
+
+        PageSegmentator.analyzePage(page, templates, warm);
+
+        final String regions = analyzeCold(createPage(2, 100.0f, 2L), cold);
+
+        assertEquals(templates.getHits(), 1);
+        assertEquals(templates.getMismatches(), 1);
+        assertEquals(warm.getRegionsSearched(), cold.getRegionsSearched());
+        assertEquals(describeRegions(page), regions);
+    }
+
+    /**
+     * Pages with a little more or less text, or a column edge moved a point or two, have the same
+     *  layout
+     */
+    @Test
+    public void testFingerprintTolerance() {
+
+        final LayoutTemplateCache.Fingerprint page = fingerprint(createPage(2, 100.0f, 1L));
+
+        assertTrue(page.matches(fingerprint(createPage(2, 100.0f, 2L))));
+        assertTrue(page.matches(fingerprint(createPage(2, 102.0f, 3L))));
+        assertFalse(page.matches(fingerprint(createPage(3, 100.0f, 1L))));
+        assertFalse(page.matches(fingerprint(createPage(2, 100.0f, 1L,
+                new Rectangle(0.0f, 0.0f, 612.0f, 792.0f)))));
+    }
+
+    /**
+     * Odd and even pages often have mirrored margins, they can not share the whitespace
+     */
+    @Test
+    public void testMirroredMarginsHaveDifferentFingerprints() {
+
+        final LayoutTemplateCache.Fingerprint odd  = fingerprint(createPage(2, 100.0f, 1L));
+        final LayoutTemplateCache.Fingerprint even = fingerprint(createPage(2, 80.0f, 1L));
+
+        assertFalse(odd.matches(even));
+        assertFalse(even.matches(odd));
+    }
+
+    /**
+     * Caches made with the default constructor, like the one for each document, share their
+     *  templates but not their counts
+     */
+    @Test
+    public void testTemplatesAreSharedBetweenDocuments() {
+
+        /* a page size no other test uses, as the templates live on */
+        final Rectangle           dimensions = new Rectangle(0.0f, 0.0f, 333.0f, 777.0f);
+        final LayoutTemplateCache document1  = new LayoutTemplateCache();
+        final LayoutTemplateCache document2  = new LayoutTemplateCache();
+
+        PageSegmentator.analyzePage(createPage(2, 100.0f, 1L, dimensions), document1,
+                                    new WhitespaceStatistics());
+        PageSegmentator.analyzePage(createPage(2, 100.0f, 2L, dimensions), document2,
+                                    new WhitespaceStatistics());
+
+        assertEquals(document1.getMisses(), 1);
+        assertEquals(document1.getHits(), 0);
+        assertEquals(document2.getMisses(), 0);
+        assertEquals(document2.getHits(), 1);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.elacin.pdfextract.content.PhysicalPage;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.physical.graphics.CategorizedGraphics;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPageRegionSplitBySeparators {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+    private static void addLines(List<PhysicalText> words, float x, float endX, float y,
+                                 float endY) {
+
+        for (float lineY = y; lineY + 10.0f <= endY; lineY += 14.0f) {
+            for (float wordX = x; wordX + 30.0f <= endX; wordX += 40.0f) {
+                words.add(new PhysicalText("word", style, wordX, lineY, 30.0f, 10.0f,
+                                           lineY + 8.0f));
+            }
+        }
+    }
+
+    private static void assertAllWithin(PhysicalPageRegion region, Rectangle bound) {
+
+        assertTrue(region.getContents().size() > 0);
+
+        for (PhysicalContent content : region.getContents()) {
+            assertTrue(bound.contains(content.getPos()), content + " is outside " + bound);
+        }
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * A heading across the page, a horizontal rule under it, and two columns of text under that.
+     *  Of the two vertical rules, the one between the columns splits the lower band, while the
+     *  one running through the left column is not used.
+     */
+    @Test
+    public void testTwoColumnPageWithRules() {
+
+        final List<PhysicalText> words = new ArrayList<PhysicalText>();
+
+        addLines(words, 50.0f, 550.0f, 50.0f, 110.0f);
+        addLines(words, 50.0f, 280.0f, 150.0f, 650.0f);
+        addLines(words, 320.0f, 550.0f, 150.0f, 650.0f);
+
+        final PhysicalPage page = new PhysicalPage(words, new ArrayList<GraphicContent>(), 1,
+                                      new Rectangle(0.0f, 0.0f, 600.0f, 700.0f));
+        final PhysicalPageRegion  main     = page.getMainRegion();
+        final CategorizedGraphics graphics = new CategorizedGraphics();
+        final GraphicContent      hrule    = new GraphicContent(new Rectangle(50.0f, 130.0f, 500.0f,
+                                                 1.0f), false, Color.BLACK);
+        final GraphicContent      crossing = new GraphicContent(new Rectangle(145.0f, 140.0f,
+                                                 1.0f, 520.0f), false, Color.BLACK);
+        final GraphicContent      between  = new GraphicContent(new Rectangle(300.0f, 140.0f,
+                                                 1.0f, 520.0f), false, Color.BLACK);
+
+        graphics.getHorizontalSeparators().add(hrule);
+        graphics.getVerticalSeparators().add(crossing);
+        graphics.getVerticalSeparators().add(between);
+        PageRegionSplitBySeparators.splitRegionBySeparators(main, graphics);
+
+        /* one band above the horizontal rule, and one under it */
+        assertEquals(main.getSubregions().size(), 2);
+
+        final PhysicalPageRegion top    = main.getSubregions().get(0);
+        final PhysicalPageRegion bottom = main.getSubregions().get(1);
+
+        assertAllWithin(top, new Rectangle(50.0f, 50.0f, 500.0f, 60.0f));
+        assertEquals(top.getSubregions().size(), 0);
+
+        /* the lower band is split in two columns at the rule between them */
+        assertEquals(bottom.getSubregions().size(), 2);
+
+        final PhysicalPageRegion left  = bottom.getSubregions().get(0);
+        final PhysicalPageRegion right = bottom.getSubregions().get(1);
+
+        assertAllWithin(left, new Rectangle(50.0f, 150.0f, 230.0f, 500.0f));
+        assertAllWithin(right, new Rectangle(320.0f, 150.0f, 230.0f, 500.0f));
+        assertEquals(top.getContents().size() + left.getContents().size()
+                     + right.getContents().size(), words.size());
+
+        /* the used rules are consumed, the crossed one is left as content of the region */
+        assertTrue(graphics.getHorizontalSeparators().isEmpty());
+        assertEquals(graphics.getVerticalSeparators().size(), 1);
+        assertTrue(graphics.getVerticalSeparators().contains(crossing));
+        assertTrue(main.getContents().contains(crossing));
+    }
+}
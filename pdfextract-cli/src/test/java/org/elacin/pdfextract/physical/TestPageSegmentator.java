@@ -0,0 +1,147 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalPage;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.content.WhitespaceRectangle;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.tree.PageNode;
+import org.elacin.pdfextract.util.Parallel;
+import org.testng.annotations.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPageSegmentator {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Three bands of text separated by horizontal rules, each in two columns of words of random
+     *  widths. Every band holds enough words to be divided on its own thread.
+     */
+    static PhysicalPage createBandedPage(final long seed) {
+
+        final Random               random   = new Random(seed);
+        final List<PhysicalText>   words    = new ArrayList<PhysicalText>();
+        final List<GraphicContent> graphics = new ArrayList<GraphicContent>();
+
+        for (int band = 0; band < 3; band++) {
+            final float top = 40.0f + band * 250.0f;
+
+            for (int row = 0; row < 17; row++) {
+                final float y = top + row * 13.0f;
+
+                for (int column = 0; column < 2; column++) {
+                    final float start = 50.0f + column * 260.0f;
+                    float       x     = start;
+
+                    while (true) {
+                        final float width = 10.0f + random.nextInt(25);
+
+                        if (x + width > start + 230.0f) {
+                            break;
+                        }
+
+                        words.add(new PhysicalText("word", style, x, y, width, 10.0f, y + 8.0f));
+                        x += width + 4.0f;
+                    }
+                }
+            }
+
+            if (band > 0) {
+                graphics.add(new GraphicContent(new Rectangle(50.0f, top - 20.0f, 490.0f, 1.0f),
+                                                false, Color.BLACK));
+            }
+        }
+
+        return new PhysicalPage(words, graphics, 1, new Rectangle(0.0f, 0.0f, 600.0f, 800.0f));
+    }
+
+    /**
+     * Describes the regions of page with their contents and whitespace, in order
+     */
+    static String describeRegions(final PhysicalPage page) {
+
+        final StringBuilder sb = new StringBuilder();
+
+        describeRegion(sb, page.getMainRegion(), "");
+
+        return sb.toString();
+    }
+
+    private static void describeRegion(final StringBuilder sb, final PhysicalPageRegion region,
+                                       final String indent) {
+
+        sb.append(indent).append(region.getPos()).append(' ').append(region.getContents().size());
+        sb.append('\n');
+
+        for (WhitespaceRectangle whitespace : region.getWhitespace()) {
+            sb.append(indent).append("- ").append(whitespace.getPos()).append('\n');
+        }
+
+        for (PhysicalPageRegion subregion : region.getSubregions()) {
+            describeRegion(sb, subregion, indent + "  ");
+        }
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Dividing the bands of a page in parallel must give the same regions, whitespace and
+     *  paragraphs as dividing them one after another
+     */
+    @Test
+    public void testParallelSameAsSequential() {
+
+        for (long seed = 1; seed <= 5; seed++) {
+            final PhysicalPage sequentialPage = createBandedPage(seed);
+            final PageNode[]   sequential     = new PageNode[1];
+
+            Parallel.runSequentially(new Runnable() {
+                public void run() {
+                    sequential[0] = PageSegmentator.analyzePage(sequentialPage);
+                }
+            });
+
+            final PhysicalPage parallelPage = createBandedPage(seed);
+            final PageNode     parallel     = PageSegmentator.analyzePage(parallelPage);
+
+            /* the page has to be divided for this to test anything */
+            assertTrue(parallelPage.getMainRegion().getSubregions().size() >= 3);
+            assertEquals(describeRegions(parallelPage), describeRegions(sequentialPage));
+            assertEquals(parallel.getChildren().size(), sequential[0].getChildren().size());
+            assertEquals(parallel.getText(), sequential[0].getText());
+        }
+    }
+}
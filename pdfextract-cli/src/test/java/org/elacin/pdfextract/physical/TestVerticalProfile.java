@@ -0,0 +1,260 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.elacin.pdfextract.content.PhysicalPage;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.style.StyleComparator;
+import org.elacin.pdfextract.style.StyleDifference;
+import org.elacin.pdfextract.style.TextUtils;
+import org.testng.annotations.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestVerticalProfile {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style[] styles = {
+        new Style("Times", "Type1", 10, 10, "times10", false, false, false),
+        new Style("Times", "Type1", 14, 16, "times14", false, false, false),
+        new Style("Times", "Type1", 10, 10, "times10b", false, true, false)
+    };
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * A page of lines in random styles, with random gaps between them and now and then a graphic,
+     *  all at fractional positions
+     */
+    private static PhysicalPage createPage(final long seed) {
+
+        final Random               random   = new Random(seed);
+        final List<PhysicalText>   words    = new ArrayList<PhysicalText>();
+        final List<GraphicContent> graphics = new ArrayList<GraphicContent>();
+        float                      y        = 20.0f + random.nextFloat() * 50.0f;
+
+        while (y < 700.0f) {
+            final Style style  = styles[random.nextInt(styles.length)];
+            final float height = style.ySize + random.nextFloat() * 2.0f;
+            float       x      = 50.0f + random.nextFloat() * 30.0f;
+
+            for (int i = random.nextInt(8); i >= 0; i--) {
+                final float width = 10.0f + random.nextFloat() * 40.0f;
+                final float wordY = y + random.nextFloat() * 2.0f;
+
+                words.add(new PhysicalText("word", style, x, wordY, width, height,
+                                           wordY + height * 0.8f));
+                x += width + random.nextFloat() * 8.0f;
+            }
+
+            if (random.nextInt(10) == 0) {
+                graphics.add(new GraphicContent(new Rectangle(60.0f, y + height + 2.0f,
+                        200.0f * random.nextFloat() + 1.0f, 10.0f * random.nextFloat() + 0.5f),
+                        random.nextBoolean(), Color.BLACK));
+            }
+
+            y += height + random.nextFloat() * 40.0f;
+        }
+
+        final PhysicalPage page = new PhysicalPage(words, graphics, 1,
+                                      new Rectangle(0.0f, 0.0f, 600.0f, 800.0f));
+
+        page.getMainRegion().addContents(graphics);
+
+        return page;
+    }
+
+    private static String describeRegions(final PhysicalPageRegion region) {
+
+        final StringBuilder sb = new StringBuilder();
+
+        describeRegion(sb, region, "");
+
+        return sb.toString();
+    }
+
+    private static void describeRegion(final StringBuilder sb, final PhysicalPageRegion region,
+                                       final String indent) {
+
+        sb.append(indent).append(region.getPos()).append(' ').append(region.getContents().size());
+        sb.append('\n');
+
+        for (PhysicalPageRegion subregion : region.getSubregions()) {
+            describeRegion(sb, subregion, indent + "  ");
+        }
+    }
+
+    /**
+     * The first row at or after k which is not empty, walking down while within the region
+     */
+    private static int referenceNextNonEmpty(final PhysicalPageRegion region,
+            final VerticalProfile profile, final int k) {
+
+        for (int i = k; (i < profile.size()) && (profile.getY(i) < region.getPos().endY); i++) {
+            if (!region.findContentAtYIndex(profile.getY(i)).isEmpty()) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * The split search as it was before {@link VerticalProfile}, looking up every row with
+     *  findContentAtYIndex()
+     */
+    private static void referenceHorizontalSplit(final PhysicalPageRegion r, final Rectangle dims,
+            final float fractionToConsider, final int minimumDistanceToSplit) {
+
+        final float          startY       = dims.y;
+        final float          endY         = Math.min(r.getPos().endY,
+                                                startY + dims.height * fractionToConsider);
+        float                lastBoundary = -1000.0f;
+        PhysicalPageRegion   activeRegion = r;
+        Set<PhysicalContent> workingSet   = new HashSet<PhysicalContent>();
+
+        for (float y = startY; y <= endY; y++) {
+            if (y < activeRegion.getPos().y) {
+                continue;
+            }
+
+            final List<PhysicalContent> row = activeRegion.findContentAtYIndex(y);
+
+            workingSet.addAll(row);
+
+            if (!row.isEmpty()) {
+                lastBoundary = y;
+
+                continue;
+            }
+
+            if (!TextUtils.listContainsStyledText(workingSet)
+                    || (y - lastBoundary < minimumDistanceToSplit)) {
+                continue;
+            }
+
+            final List<PhysicalContent> under  = new ArrayList<PhysicalContent>();
+            float                       yIndex = y;
+
+            while (under.isEmpty() && (yIndex < activeRegion.getPos().endY)) {
+                under.addAll(activeRegion.findContentAtYIndex(yIndex));
+                yIndex += 1.0f;
+            }
+
+            if (StyleComparator.styleCompare(TextUtils.findDominatingStyle(workingSet),
+                    TextUtils.findDominatingStyle(under)) == StyleDifference.SAME_STYLE) {
+                continue;
+            }
+
+            if (!PageRegionSplitBySeparators.splitRegionAtY(activeRegion, y)) {
+                break;
+            }
+
+            activeRegion = activeRegion.getSubregions().get(activeRegion.getSubregions().size()
+                    - 1);
+            workingSet.clear();
+            lastBoundary = y;
+        }
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Every row of profiles of random regions, started at random fractional positions, must be
+     *  what findContentAtYIndex() finds for it
+     */
+    @Test
+    public void testRowsSameAsFindContentAtYIndex() {
+
+        final Random random = new Random(38L);
+
+        for (int round = 0; round < 200; round++) {
+            final PhysicalPageRegion region  = createPage(random.nextLong()).getMainRegion();
+            final Rectangle          pos     = region.getPos();
+            final float              startY  = pos.y - 5.0f + random.nextFloat() * pos.height;
+            final float              endY    = startY + random.nextFloat() * pos.height;
+            final VerticalProfile    profile = new VerticalProfile(region, startY, endY);
+            int                      k       = 0;
+
+            for (float y = startY; (y <= endY) || (y < pos.endY); y++, k++) {
+                assertEquals(profile.getY(k), y);
+
+                final List<PhysicalContent> row       = region.findContentAtYIndex(y);
+                final List<PhysicalContent> previous  = (k == 0)
+                        ? new ArrayList<PhysicalContent>()
+                        : region.findContentAtYIndex(profile.getY(k - 1));
+                final Set<PhysicalContent>  appearing = new HashSet<PhysicalContent>(row);
+
+                appearing.removeAll(previous);
+                assertEquals(profile.isEmpty(k), row.isEmpty(), "Row " + k + " at y=" + y);
+                assertEquals(new HashSet<PhysicalContent>(profile.getAppearing(k)), appearing,
+                             "Row " + k + " at y=" + y);
+                assertEquals(profile.findNextNonEmpty(k),
+                             referenceNextNonEmpty(region, profile, k), "Row " + k + " at y=" + y);
+            }
+
+            assertEquals(profile.size(), k);
+        }
+    }
+
+    /**
+     * The split lines chosen on random pages must be the same as when every row is looked up
+     *  with findContentAtYIndex()
+     */
+    @Test
+    public void testSplitsSameAsRowByRow() {
+
+        final Random random = new Random(380L);
+
+        for (int round = 0; round < 200; round++) {
+            final long seed = random.nextLong();
+
+            /* the top of the page */
+            final PhysicalPage topPage     = createPage(seed);
+            final PhysicalPage topExpected = createPage(seed);
+
+            PageRegionSplitBySpacing.splitOfTopTextOfPage(topPage, 0.4f);
+            referenceHorizontalSplit(topExpected.getMainRegion(),
+                                     topExpected.getPageDimensions(), 0.4f, 10);
+            assertEquals(describeRegions(topPage.getMainRegion()),
+                         describeRegions(topExpected.getMainRegion()), "Seed " + seed);
+
+            /* a whole region */
+            final PhysicalPageRegion region   = createPage(seed).getMainRegion();
+            final PhysicalPageRegion expected = createPage(seed).getMainRegion();
+
+            PageRegionSplitBySpacing.splitRegionHorizontally(region);
+            referenceHorizontalSplit(expected, expected.getPos(), 1.0f, 20);
+            assertEquals(describeRegions(region), describeRegions(expected), "Seed " + seed);
+        }
+    }
+}
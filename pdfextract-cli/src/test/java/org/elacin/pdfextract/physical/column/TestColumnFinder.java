@@ -0,0 +1,171 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical.column;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalPage;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.content.WhitespaceRectangle;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.util.Parallel;
+import org.jetbrains.annotations.NotNull;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestColumnFinder {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Two or three columns of lines of words with random widths, where some lines are missing
+     */
+    private static PhysicalPageRegion createRegion(final long seed) {
+
+        final Random             random  = new Random(seed);
+        final List<PhysicalText> words   = new ArrayList<PhysicalText>();
+        final int                columns = 2 + random.nextInt(2);
+        final float              width   = 500.0f / columns - 20.0f;
+
+        for (int row = 0; row < 45; row++) {
+            final float y = 50.0f + row * 13.0f + random.nextFloat();
+
+            for (int column = 0; column < columns; column++) {
+                if (random.nextInt(10) == 0) {
+                    continue;
+                }
+
+                final float start = 50.0f + column * (width + 20.0f);
+                float       x     = start;
+
+                for (int i = random.nextInt(9); i >= 0; i--) {
+                    final float wordWidth = 10.0f + random.nextFloat() * 25.0f;
+
+                    if (x + wordWidth > start + width) {
+                        break;
+                    }
+
+                    words.add(new PhysicalText("word", style, x, y, wordWidth, 10.0f, y + 8.0f));
+                    x += wordWidth + 4.0f;
+                }
+            }
+        }
+
+        return new PhysicalPage(words, new ArrayList<GraphicContent>(), 1,
+                                new Rectangle(0.0f, 0.0f, 600.0f, 800.0f)).getMainRegion();
+    }
+
+    private static List<Rectangle> findBoundaries(final PhysicalPageRegion region,
+            final List<WhitespaceRectangle> whitespaces) {
+
+        final List<Rectangle> ret = new ArrayList<Rectangle>();
+
+        for (WhitespaceRectangle boundary : ColumnFinder.extractColumnBoundaries(region,
+                new ArrayList<WhitespaceRectangle>(whitespaces))) {
+            ret.add(boundary.getPos());
+        }
+
+        return ret;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * The results of a parallel evaluation come back in the order of the candidates, just like
+     *  when they are evaluated one by one
+     */
+    @Test
+    public void testEvaluateAllKeepsOrder() {
+
+        final List<WhitespaceRectangle> candidates = new ArrayList<WhitespaceRectangle>();
+
+        for (int i = 0; i < 100; i++) {
+            candidates.add(new WhitespaceRectangle(new Rectangle((float) i, 0.0f, 1.0f, 1.0f)));
+        }
+
+        final ColumnFinder.Evaluation<Float> evaluation = new ColumnFinder.Evaluation<Float>() {
+
+            public Float evaluate(@NotNull final WhitespaceRectangle candidate) {
+                return candidate.getPos().x;
+            }
+        };
+        final List<List<Float>> sequential = new ArrayList<List<Float>>();
+
+        Parallel.runSequentially(new Runnable() {
+
+            public void run() {
+                sequential.add(ColumnFinder.evaluateAll(candidates, evaluation));
+            }
+        });
+
+        final List<Float> parallel = ColumnFinder.evaluateAll(candidates, evaluation);
+
+        assertEquals(parallel, sequential.get(0));
+
+        for (int i = 0; i < candidates.size(); i++) {
+            assertEquals(parallel.get(i), Float.valueOf((float) i));
+        }
+    }
+
+    /**
+     * Column boundaries found with the candidates evaluated in parallel must be the same as
+     *  when they are evaluated one by one, for the very same regions and whitespace
+     */
+    @Test
+    public void testParallelSameAsSequential() {
+
+        final Random random = new Random(32L);
+        int          found  = 0;
+
+        for (int round = 0; round < 20; round++) {
+            final long                      seed        = random.nextLong();
+            final PhysicalPageRegion        region      = createRegion(seed);
+            final List<WhitespaceRectangle> whitespaces = WhitespaceFinder.findWhitespace(region);
+            final List<List<Rectangle>>     sequential  = new ArrayList<List<Rectangle>>();
+
+            /* as the segmentation does before looking for columns */
+            region.addWhitespace(whitespaces);
+            Parallel.runSequentially(new Runnable() {
+
+                public void run() {
+                    sequential.add(findBoundaries(region, whitespaces));
+                }
+            });
+
+            final List<Rectangle> parallel = findBoundaries(region, whitespaces);
+
+            assertEquals(parallel, sequential.get(0), "Seed " + seed);
+            found += parallel.size();
+        }
+
+        assertFalse(found == 0, "No column boundaries were found at all");
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical.column;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalContent;
+import org.elacin.pdfextract.content.PhysicalPage;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.content.WhitespaceRectangle;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestRowOccupancy {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * A region of lines of words at fractional positions with random gaps between them, so that
+     *  some rows are empty. There are graphics, whitespace and a subregion among the contents
+     *  as well. Every other time the region is a subregion, so that its edges are not those of
+     *  the page.
+     */
+    private static PhysicalPageRegion createRegion(final long seed) {
+
+        final Random               random   = new Random(seed);
+        final List<PhysicalText>   words    = new ArrayList<PhysicalText>();
+        final List<GraphicContent> graphics = new ArrayList<GraphicContent>();
+        float                      y        = 20.0f + random.nextFloat() * 30.0f;
+
+        while (y < 700.0f) {
+            final float height = 8.0f + random.nextFloat() * 4.0f;
+            float       x      = 30.0f + random.nextFloat() * 30.0f;
+
+            for (int i = random.nextInt(12); i >= 0; i--) {
+                final float width = 5.0f + random.nextFloat() * 40.0f;
+                final float wordY = y + random.nextFloat() * 2.0f;
+
+                words.add(new PhysicalText("word", style, x, wordY, width, height,
+                                           wordY + height * 0.8f));
+                x += width + random.nextFloat() * 20.0f;
+            }
+
+            if (random.nextInt(8) == 0) {
+                graphics.add(new GraphicContent(new Rectangle(40.0f + random.nextFloat() * 300.0f,
+                        y + height + 1.0f, 100.0f * random.nextFloat() + 1.0f,
+                        10.0f * random.nextFloat() + 0.5f), random.nextBoolean(), Color.BLACK));
+            }
+
+            y += height + random.nextFloat() * 25.0f;
+        }
+
+        final PhysicalPage page = new PhysicalPage(words, graphics, 1,
+                                      new Rectangle(0.0f, 0.0f, 600.0f, 800.0f));
+        PhysicalPageRegion region = page.getMainRegion();
+
+        region.addContents(graphics);
+
+        final List<WhitespaceRectangle> whitespace = new ArrayList<WhitespaceRectangle>();
+
+        for (int i = 0; i < 5; i++) {
+            whitespace.add(new WhitespaceRectangle(new Rectangle(random.nextFloat() * 500.0f,
+                    random.nextFloat() * 700.0f, 5.0f + random.nextFloat() * 50.0f,
+                    5.0f + random.nextFloat() * 100.0f)));
+        }
+
+        region.addWhitespace(whitespace);
+        region.extractSubRegionFromBound(new Rectangle(200.0f + random.nextFloat() * 100.0f,
+                100.0f + random.nextFloat() * 300.0f, 50.0f + random.nextFloat() * 100.0f,
+                50.0f + random.nextFloat() * 200.0f), false);
+
+        if (random.nextBoolean() && !region.getSubregions().isEmpty()) {
+            region = region.getSubregions().get(0);
+        }
+
+        return region;
+    }
+
+    /**
+     * Where the leftmost content to the right of x starts in row y, as adjustColumn() found it
+     *  before {@link RowOccupancy}
+     */
+    private static float referenceClosestStartRightOf(final PhysicalPageRegion region,
+            final int y, final float x) {
+
+        final Rectangle             rpos        = region.getPos();
+        final List<PhysicalContent> rightOf     = region.findContentsIntersectingWith(
+                                                      new Rectangle(x, rpos.y, rpos.width,
+                                                          rpos.height));
+        float                       closest     = Float.NaN;
+        float                       minDistance = Float.MAX_VALUE;
+
+        for (PhysicalContent content : rightOf) {
+            if ((content instanceof WhitespaceRectangle)
+                    || (content instanceof PhysicalPageRegion)) {
+                continue;
+            }
+
+            final Rectangle pos = content.getPos();
+
+            if ((pos.endY < (float) y) || (pos.y > (float) y)) {
+                continue;
+            }
+
+            if (pos.x - x < minDistance) {
+                minDistance = pos.x - x;
+                closest     = pos.x;
+            }
+        }
+
+        return closest;
+    }
+
+    /**
+     * How far the content immediately left of x reaches in row y, as adjustColumn() found it
+     *  before {@link RowOccupancy}
+     */
+    private static float referenceFurthestEndLeftOf(final PhysicalPageRegion region,
+            final int y, final float x, final float lookLeft) {
+
+        final Rectangle             rpos     = region.getPos();
+        final List<PhysicalContent> leftOf   = region.findContentsIntersectingWith(
+                                                   new Rectangle(x - lookLeft, rpos.y, lookLeft,
+                                                       rpos.height));
+        float                       furthest = Float.NaN;
+
+        for (PhysicalContent content : leftOf) {
+            if (content instanceof WhitespaceRectangle) {
+                continue;
+            }
+
+            final Rectangle pos = content.getPos();
+
+            if ((y < (int) pos.y) || (y > (int) pos.endY)) {
+                continue;
+            }
+
+            if (Float.isNaN(furthest) || (pos.endX > furthest)) {
+                furthest = pos.endX;
+            }
+        }
+
+        return furthest;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Every row of random regions, including the empty ones and those at the edges, must give
+     *  the same answers as searching through the contents did, for positions across and just
+     *  outside the region
+     */
+    @Test
+    public void testSameAsRowByRowLookups() {
+
+        final Random random = new Random(31L);
+
+        for (int round = 0; round < 50; round++) {
+            final long               seed   = random.nextLong();
+            final PhysicalPageRegion region = createRegion(seed);
+            final Rectangle          rpos   = region.getPos();
+            final RowOccupancy       rows   = new RowOccupancy(region);
+
+            assertEquals(rows.getFirstRow(), (int) rpos.y);
+            assertEquals(rows.getLastRow(), (int) (rpos.endY + 1.0f));
+
+            final float[] xs = new float[25];
+
+            xs[0] = rpos.x;
+            xs[1] = rpos.endX;
+            xs[2] = rpos.x - 1.0f;
+            xs[3] = rpos.endX + 1.0f;
+
+            for (int i = 4; i < xs.length; i++) {
+                xs[i] = rpos.x - 10.0f + random.nextFloat() * (rpos.width + 20.0f);
+            }
+
+            int emptyRows = 0;
+
+            for (int y = rows.getFirstRow(); y <= rows.getLastRow(); y++) {
+                if (Float.isNaN(rows.findClosestStartRightOf(y, rpos.x - 1.0f))) {
+                    emptyRows++;
+                }
+
+                for (float x : xs) {
+                    final String where = "Seed " + seed + ", y=" + y + ", x=" + x;
+
+                    /* boxed, as NaN for nothing there only equals itself that way */
+                    assertEquals(Float.valueOf(rows.findClosestStartRightOf(y, x)),
+                                 Float.valueOf(referenceClosestStartRightOf(region, y, x)), where);
+                    assertEquals(Float.valueOf(rows.findFurthestEndLeftOf(y, x, 10.0f)),
+                                 Float.valueOf(referenceFurthestEndLeftOf(region, y, x, 10.0f)),
+                                 where);
+                }
+            }
+
+            assertTrue(emptyRows > 0, "Seed " + seed + " had no empty rows");
+
+            /* rows outside the region have nothing in them */
+            assertTrue(Float.isNaN(rows.findClosestStartRightOf(rows.getFirstRow() - 1, rpos.x)));
+            assertTrue(Float.isNaN(rows.findClosestStartRightOf(rows.getLastRow() + 1, rpos.x)));
+            assertTrue(Float.isNaN(rows.findFurthestEndLeftOf(rows.getFirstRow() - 1, rpos.endX,
+                    10.0f)));
+            assertTrue(Float.isNaN(rows.findFurthestEndLeftOf(rows.getLastRow() + 1, rpos.endX,
+                    10.0f)));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical.column;
+
+import org.elacin.pdfextract.content.GraphicContent;
+import org.elacin.pdfextract.content.PhysicalPage;
+import org.elacin.pdfextract.content.PhysicalPageRegion;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.content.WhitespaceRectangle;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.elacin.pdfextract.Constants.WHITESPACE_MAX_TIME_MS;
+import static org.elacin.pdfextract.Constants.WHITESPACE_NUMBER_WANTED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestWhitespaceFinder {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Two columns of lines of words with random widths
+     */
+    private static PhysicalPageRegion createRegion(final long seed) {
+
+        final Random             random = new Random(seed);
+        final List<PhysicalText> words  = new ArrayList<PhysicalText>();
+
+        for (int row = 0; row < 40; row++) {
+            final float y = 50.0f + row * 13.0f;
+
+            for (int column = 0; column < 2; column++) {
+                final float start = 50.0f + column * 260.0f;
+                float       x     = start;
+
+                for (int i = random.nextInt(9); i >= 0; i--) {
+                    final float width = 10.0f + random.nextInt(25);
+
+                    if (x + width > start + 230.0f) {
+                        break;
+                    }
+
+                    words.add(new PhysicalText("word", style, x, y, width, 10.0f, y + 8.0f));
+                    x += width + 4.0f;
+                }
+            }
+        }
+
+        return new PhysicalPage(words, new ArrayList<GraphicContent>(), 1,
+                                new Rectangle(0.0f, 0.0f, 600.0f, 800.0f)).getMainRegion();
+    }
+
+    private static WhitespaceFinder createFinder(final PhysicalPageRegion region,
+            final int maxPivots, final float minRelativeQuality,
+            final WhitespaceStatistics statistics) {
+
+        return new WhitespaceFinder(region, WHITESPACE_NUMBER_WANTED,
+                                    region.getMinimumColumnSpacing(),
+                                    region.getMinimumRowSpacing(), maxPivots, 0L,
+                                    minRelativeQuality, statistics);
+    }
+
+    private static List<Rectangle> positions(final List<WhitespaceRectangle> whitespaces) {
+
+        final List<Rectangle> ret = new ArrayList<Rectangle>(whitespaces.size());
+
+        for (WhitespaceRectangle whitespace : whitespaces) {
+            ret.add(whitespace.getPos());
+        }
+
+        return ret;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * When the pivot budget is spent, the search stops with what it has found so far, which is
+     *  the start of what an unlimited search finds. The stop is counted.
+     */
+    @Test
+    public void testPivotBudget() {
+
+        for (long seed = 1; seed <= 10; seed++) {
+            final PhysicalPageRegion    region    = createRegion(seed);
+            final WhitespaceStatistics statistics = new WhitespaceStatistics();
+            final List<Rectangle>      unlimited  = positions(createFinder(region,
+                                                        Integer.MAX_VALUE, 0.0f,
+                                                        new WhitespaceStatistics())
+                                                        .findWhitespace());
+            final List<Rectangle>      limited    = positions(createFinder(region, 200, 0.0f,
+                                                        statistics).findWhitespace());
+
+            assertEquals(statistics.getPivotBudgetExceeded(), 1);
+            assertEquals(statistics.getRegionsSearched(), 1);
+            assertTrue(limited.size() < unlimited.size());
+            assertEquals(limited, unlimited.subList(0, limited.size()));
+        }
+    }
+
+    /**
+     * When the best remaining candidate is too small compared to the region, the search stops.
+     *  Everything found until then is of good enough quality, and the same as an unlimited
+     *  search finds first.
+     */
+    @Test
+    public void testQualityCutoff() {
+
+        final float minRelativeQuality = 0.002f;
+
+        for (long seed = 1; seed <= 10; seed++) {
+            final PhysicalPageRegion   region     = createRegion(seed);
+            final List<Rectangle>      unlimited  = positions(createFinder(region,
+                                                        Integer.MAX_VALUE, 0.0f,
+                                                        new WhitespaceStatistics())
+                                                        .findWhitespace());
+            final WhitespaceStatistics statistics = new WhitespaceStatistics();
+            final List<Rectangle>      cut        = positions(createFinder(region,
+                                                        Integer.MAX_VALUE, minRelativeQuality,
+                                                        statistics).findWhitespace());
+            final float                minQuality = WhitespaceFinder.rectangleQuality(
+                                                        region.getPos()) * minRelativeQuality;
+
+            assertEquals(statistics.getQualityCutoffReached(), 1);
+            assertEquals(statistics.getPivotBudgetExceeded(), 0);
+            assertTrue(cut.size() < unlimited.size());
+            assertEquals(cut, unlimited.subList(0, cut.size()));
+
+            for (Rectangle pos : cut) {
+                assertTrue(WhitespaceFinder.rectangleQuality(pos) >= minQuality, pos.toString());
+            }
+        }
+    }
+
+    /**
+     * A search seeded with what a fresh search finds, like for a page which matches a layout
+     *  template, ends up with the same whitespace as the fresh search
+     */
+    @Test
+    public void testSeededSameAsFresh() {
+
+        for (long seed = 1; seed <= 10; seed++) {
+            final PhysicalPageRegion        region     = createRegion(seed);
+            final List<WhitespaceRectangle> fresh      = WhitespaceFinder.findWhitespace(region);
+            final WhitespaceStatistics      statistics = new WhitespaceStatistics();
+            final List<WhitespaceRectangle> seeded     = WhitespaceFinder.findWhitespace(region,
+                                                             fresh, statistics);
+
+            assertEquals(statistics.getWhitespaceReused(), fresh.size());
+            assertEquals(new HashSet<Rectangle>(positions(seeded)),
+                         new HashSet<Rectangle>(positions(fresh)));
+            assertEquals(seeded.size(), fresh.size());
+        }
+    }
+
+    /**
+     * The default search does not depend on the clock, and each analysis counts its own searches
+     */
+    @Test
+    public void testStatisticsArePerAnalysis() {
+
+        assertEquals(WHITESPACE_MAX_TIME_MS, 0L);
+
+        final WhitespaceStatistics one    = new WhitespaceStatistics();
+        final WhitespaceStatistics two    = new WhitespaceStatistics();
+        final PhysicalPageRegion   region = createRegion(1L);
+
+        WhitespaceFinder.findWhitespace(region, new ArrayList<WhitespaceRectangle>(), one);
+        WhitespaceFinder.findWhitespace(region, new ArrayList<WhitespaceRectangle>(), one);
+        WhitespaceFinder.findWhitespace(region, new ArrayList<WhitespaceRectangle>(), two);
+        assertEquals(one.getRegionsSearched(), 2);
+        assertEquals(two.getRegionsSearched(), 1);
+        assertEquals(one.getTimeBudgetExceeded(), 0);
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.physical.word;
+
+import org.elacin.pdfextract.content.PageTextStore;
+import org.elacin.pdfextract.content.PhysicalText;
+import org.elacin.pdfextract.geom.Sorting;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.style.StyleComparator;
+import org.elacin.pdfextract.style.StyleDifference;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.elacin.pdfextract.Constants.USE_EXISTING_WHITESPACE;
+import static org.elacin.pdfextract.geom.MathUtils.isWithinVariance;
+import static org.testng.Assert.assertEquals;
+
+public class TestWordSegmentator {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style[] styles = {
+        new Style("Times", "Type1", 10, 10, "times10", false, false, false),
+        new Style("Times", "Type1", 10, 10, "times10i", true, false, false),
+        new Style("Times", "Type1", 16, 16, "times16", false, true, false),
+        new Style("Times", "Type1", 0, 0, "times0", false, false, false)
+    };
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Lines of characters at fractional positions, with random spacing within and between words.
+     *  Some lines have explicit spaces, some change style halfway, and some characters overlap.
+     *  The lines come in random order, but the characters of a line are left to right.
+     */
+    private static List<PhysicalText> createCharacters(final long seed) {
+
+        final Random                   random = new Random(seed);
+        final List<List<PhysicalText>> lines  = new ArrayList<List<PhysicalText>>();
+        float                          y      = 20.0f;
+
+        while (y < 750.0f) {
+            final List<PhysicalText> line       = new ArrayList<PhysicalText>();
+            final boolean            withSpaces = random.nextInt(4) == 0;
+            final float              wordGap    = 1.0f + random.nextFloat() * 6.0f;
+            Style                    style      = styles[random.nextInt(styles.length)];
+            float                    x          = 40.0f + random.nextFloat() * 20.0f;
+
+            for (int word = random.nextInt(10); word >= 0; word--) {
+                if (random.nextInt(8) == 0) {
+                    style = styles[random.nextInt(styles.length)];
+                }
+
+                for (int c = random.nextInt(8); c >= 0; c--) {
+                    final float width  = 3.0f + random.nextFloat() * 4.0f;
+                    final float height = 8.0f + random.nextFloat();
+
+                    line.add(new PhysicalText(String.valueOf((char) ('a' + random.nextInt(26))),
+                                              style, x, y, width, height, y + 7.0f));
+                    x += width + random.nextFloat() * 1.2f - 0.3f;
+                }
+
+                if (withSpaces) {
+                    line.add(new PhysicalText(" ", style, x, y, wordGap, 9.0f, y + 7.0f));
+                }
+
+                x += wordGap;
+            }
+
+            lines.add(line);
+            y += 10.0f + random.nextFloat() * 15.0f;
+        }
+
+        Collections.shuffle(lines, random);
+
+        final List<PhysicalText> ret = new ArrayList<PhysicalText>();
+
+        for (List<PhysicalText> line : lines) {
+            ret.addAll(line);
+        }
+
+        return ret;
+    }
+
+    private static String describe(final List<PhysicalText> words) {
+
+        final StringBuilder sb = new StringBuilder();
+
+        for (PhysicalText word : words) {
+            sb.append(word.getText()).append(' ').append(word.getStyle().id).append(' ');
+            sb.append(word.getPos()).append(' ').append(word.getBaseLine()).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Word segmentation as it was done with PhysicalTexts before {@link PageTextStore}, combining
+     *  characters one by one with combineWith()
+     */
+    private static List<PhysicalText> referenceSegmentWords(final List<PhysicalText> texts) {
+
+        final List<PhysicalText> ret  = new ArrayList<PhysicalText>();
+        final List<PhysicalText> line = new ArrayList<PhysicalText>();
+
+        Collections.sort(texts, Sorting.sortTextByBaseLine);
+
+        float baseline     = 0.0f;
+        float maxY         = Float.MIN_VALUE;
+        float maxX         = 0.0f;
+        Style currentStyle = null;
+
+        for (final PhysicalText text : texts) {
+            if (line.isEmpty()) {
+                baseline     = text.getBaseLine();
+                maxX         = text.getPos().endX;
+                currentStyle = text.getStyle();
+            }
+
+            final StyleDifference diff = StyleComparator.styleCompare(text.getStyle(),
+                                             currentStyle);
+            final boolean stopGrouping = ((baseline != text.getBaseLine())
+                                          && (text.getBaseLine() > maxY))
+                                         || !isWithinVariance(maxX, text.getPos().x,
+                                             text.getPos().width)
+                                         || diff.equals(StyleDifference.BIG_DIFFERENCE)
+                                         || diff.equals(StyleDifference.SPLIT);
+
+            if (stopGrouping) {
+                if (!line.isEmpty()) {
+                    ret.addAll(referenceWordsInLine(line));
+                    line.clear();
+                }
+
+                baseline     = text.getBaseLine();
+                maxY         = text.getPos().endY;
+                currentStyle = text.getStyle();
+            }
+
+            line.add(text);
+            maxY = Math.max(maxY, text.getPos().endX);
+            maxX = text.getPos().endX;
+        }
+
+        if (!line.isEmpty()) {
+            ret.addAll(referenceWordsInLine(line));
+        }
+
+        return ret;
+    }
+
+    private static List<PhysicalText> referenceWordsInLine(final List<PhysicalText> line) {
+
+        final List<PhysicalText> queue          = new ArrayList<PhysicalText>(line);
+        final List<PhysicalText> segmentedWords = new ArrayList<PhysicalText>();
+        boolean                  containsSpaces = false;
+
+        for (PhysicalText text : line) {
+            containsSpaces |= USE_EXISTING_WHITESPACE && " ".equals(text.getText());
+        }
+
+        final float charSpacing = referenceCharSpacing(line);
+        final float fontSize    = (line.get(0).getStyle().xSize == 0)
+                                  ? 10.0f
+                                  : (float) line.get(0).getStyle().xSize;
+
+        while (!queue.isEmpty()) {
+            final PhysicalText currentWord = queue.remove(0);
+            final PhysicalText nextChar    = queue.isEmpty() ? null : queue.get(0);
+
+            if ("".equals(currentWord.getText().trim())) {
+                continue;
+            }
+
+            if (nextChar == null) {
+                segmentedWords.add(currentWord);
+
+                break;
+            }
+
+            final boolean isWordBoundary;
+
+            if (containsSpaces) {
+                isWordBoundary = "".equals(nextChar.getText().trim());
+            } else {
+                final float distance = currentWord.getPos().distance(nextChar.getPos());
+
+                isWordBoundary = distance - charSpacing
+                                 > 0.8f * fontSize / WordSegmentatorImpl.fontDenom;
+            }
+
+            if (isWordBoundary) {
+                segmentedWords.add(currentWord);
+            } else {
+                queue.remove(nextChar);
+                queue.add(0, currentWord.combineWith(nextChar));
+            }
+        }
+
+        return segmentedWords;
+    }
+
+    private static float referenceCharSpacing(final List<PhysicalText> line) {
+
+        if (line.size() <= 1) {
+            return 0.0f;
+        }
+
+        final float[] distances = new float[line.size() - 1];
+
+        for (int i = 0; i < line.size() - 1; i++) {
+            distances[i] = line.get(i).getPos().distance(line.get(i + 1).getPos());
+        }
+
+        Arrays.sort(distances);
+
+        final float maxBoundary = Math.max(WordSegmentatorImpl.fontDenom, distances[0] * 2f);
+        int         counted     = 0;
+        float       sum         = 0.0f;
+
+        for (float sortedDistance : distances) {
+            if (sortedDistance > maxBoundary) {
+                break;
+            }
+
+            sum += sortedDistance;
+            counted++;
+        }
+
+        return sum / (float) counted;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * The texts of a store are equal to the ones it was made from, also after sorting
+     */
+    @Test
+    public void testStoreGivesBackTheTexts() {
+
+        final List<PhysicalText> texts  = createCharacters(35L);
+        final PageTextStore      store  = new PageTextStore(texts);
+        final List<PhysicalText> sorted = new ArrayList<PhysicalText>(texts);
+
+        assertEquals(describe(store.asList()), describe(texts));
+        Collections.sort(sorted, Sorting.sortTextByBaseLine);
+        assertEquals(describe(store.sortedByBaseLine().asList()), describe(sorted));
+    }
+
+    /**
+     * Words segmented from a store must be the same as those the object based segmentation
+     *  made, for the store and for the list of texts
+     */
+    @Test
+    public void testStoreSameAsObjects() {
+
+        final Random              random      = new Random(350L);
+        final WordSegmentatorImpl segmentator = new WordSegmentatorImpl();
+
+        for (int round = 0; round < 100; round++) {
+            final long               seed     = random.nextLong();
+            final String             expected = describe(referenceSegmentWords(
+                                                    createCharacters(seed)));
+            final PageTextStore      store    = new PageTextStore(createCharacters(seed));
+
+            assertEquals(describe(segmentator.segmentWords(store)), expected, "Seed " + seed);
+            assertEquals(describe(segmentator.segmentWords(createCharacters(seed))), expected,
+                         "Seed " + seed);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.renderer;
+
+import org.elacin.pdfextract.datasource.DocumentContent;
+import org.elacin.pdfextract.datasource.PDFSource;
+import org.elacin.pdfextract.datasource.RenderedPage;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.tree.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elacin.pdfextract.Constants.RENDER_BUFFER_COUNT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestPageRenderer {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+    @NotNull
+    private static DocumentNode createDocument(final int numPages) {
+
+        final Random       random   = new Random(50L);
+        final DocumentNode document = new DocumentNode();
+
+        for (int p = 1; p <= numPages; p++) {
+            final PageNode page = new PageNode(p);
+
+            for (int i = 0; i < 8; i++) {
+                final ParagraphNode paragraph = new ParagraphNode(i);
+                final float         y         = 50.0f + i * 80.0f + random.nextFloat() * 20.0f;
+
+                for (int l = 0; l < 1 + random.nextInt(4); l++) {
+                    final LineNode line = new LineNode();
+
+                    for (int w = 0; w < 1 + random.nextInt(8); w++) {
+                        line.addChild(new WordNode(new Rectangle(50.0f + w * 40.0f, y + l * 12.0f,
+                                30.0f + random.nextFloat() * 8.0f, 10.0f), style, "word", 1.0f));
+                    }
+
+                    paragraph.addChild(line);
+                }
+
+                page.addChild(paragraph);
+            }
+
+            document.addChild(page);
+        }
+
+        return document;
+    }
+
+    private static void assertSameImage(@NotNull final File expected, @NotNull final File actual)
+            throws IOException {
+
+        final BufferedImage one = ImageIO.read(expected);
+        final BufferedImage two = ImageIO.read(actual);
+
+        assertEquals(two.getWidth(), one.getWidth());
+        assertEquals(two.getHeight(), one.getHeight());
+
+        for (int x = 0; x < one.getWidth(); x++) {
+            for (int y = 0; y < one.getHeight(); y++) {
+                assertEquals(two.getRGB(x, y), one.getRGB(x, y), actual + " at " + x + "," + y);
+            }
+        }
+    }
+
+    @NotNull
+    private static File createTempDir() throws IOException {
+
+        final File dir = File.createTempFile("pdfextract", "render");
+
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+
+        return dir;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Pages rendered in parallel into reused images must look the same as pages rendered one by
+     *  one, and no more images than the pool holds may be made
+     */
+    @Test
+    public void testParallelSameAsSequential() throws IOException {
+
+        final DocumentNode       document = createDocument(12);
+        final FakeSource         source   = new FakeSource();
+        final PageRenderer       renderer = new PageRenderer(source, document, 100, 72);
+        final File               dir      = createTempDir();
+        final Map<Integer, File> files    = new LinkedHashMap<Integer, File>();
+
+        for (PageNode page : document.getChildren()) {
+            final int num = page.getPageNumber();
+
+            renderer.renderToFile(num, new File(dir, "sequential." + num + ".png"));
+            files.put(num, new File(dir, "parallel." + num + ".png"));
+        }
+
+        source.allocated.set(0);
+        renderer.renderToFiles(files);
+        assertTrue(source.allocated.get() >= 1);
+        assertTrue(source.allocated.get() <= RENDER_BUFFER_COUNT,
+                   source.allocated.get() + " images were made");
+
+        for (PageNode page : document.getChildren()) {
+            final int num = page.getPageNumber();
+
+            assertSameImage(new File(dir, "sequential." + num + ".png"), files.get(num));
+        }
+
+        for (File file : dir.listFiles()) {
+            assertTrue(file.delete());
+        }
+
+        assertTrue(dir.delete());
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    /**
+     * Draws the page number on a blank page, and counts the images it has to make
+     */
+    private static final class FakeSource implements PDFSource {
+
+        @NotNull
+        final AtomicInteger allocated = new AtomicInteger();
+
+// ------------------------ INTERFACE METHODS ------------------------
+// --------------------- Interface PDFSource ---------------------
+        public void closeSource() {}
+
+        @NotNull
+        public DocumentContent readPages() {
+            throw new UnsupportedOperationException();
+        }
+
+        @NotNull
+        public RenderedPage renderPage(final int page) {
+            return renderPage(page, 72, null);
+        }
+
+        @NotNull
+        public synchronized RenderedPage renderPage(final int page, final int dpi,
+                @Nullable BufferedImage buffer) {
+
+            final int width  = 612 * dpi / 72;
+            final int height = 792 * dpi / 72;
+
+            if ((buffer == null) || (buffer.getWidth() != width)
+                    || (buffer.getHeight() != height)) {
+                buffer = new BufferedImage(width, height, BufferedImage.TYPE_USHORT_565_RGB);
+                allocated.incrementAndGet();
+            }
+
+            final Graphics2D graphics = buffer.createGraphics();
+
+            graphics.setBackground(Color.WHITE);
+            graphics.clearRect(0, 0, width, height);
+            graphics.setColor(Color.GRAY);
+            graphics.drawString("page " + page, 50, 50);
+            graphics.dispose();
+
+            return new RenderedPage(buffer, dpi / 72.0f, dpi / 72.0f);
+        }
+    }
+}
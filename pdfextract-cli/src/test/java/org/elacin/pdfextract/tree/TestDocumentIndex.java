@@ -0,0 +1,254 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.tree;
+
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.jetbrains.annotations.NotNull;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestDocumentIndex {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style[] styles = {
+        new Style("Times", "Type1", 10, 10, "times10", false, false, false),
+        new Style("Times", "Type1", 12, 12, "times12", false, false, false),
+        new Style("Courier", "Type1", 10, 10, "courier10", false, false, false)
+    };
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Checks everything the index can tell against what is found by walking the tree
+     */
+    private static void assertSameAsTree(@NotNull final DocumentNode document) {
+
+        final DocumentIndex  index    = document.getIndex();
+        final List<LineNode> allLines = new ArrayList<LineNode>();
+        final List<WordNode> allWords = new ArrayList<WordNode>();
+
+        for (PageNode page : document.getChildren()) {
+            final List<ParagraphNode> paragraphs = new ArrayList<ParagraphNode>(page.getChildren());
+
+            for (GraphicsNode graphics : page.getGraphics()) {
+                paragraphs.addAll(graphics.getChildren());
+            }
+
+            for (ParagraphNode paragraph : paragraphs) {
+                for (LineNode line : paragraph.getChildren()) {
+                    allLines.add(line);
+                    allWords.addAll(line.getChildren());
+                }
+            }
+        }
+
+        assertEquals(index.getLines(), allLines);
+        assertEquals(index.getWords(), allWords);
+        assertEquals(document.getWords(), allWords);
+        assertEquals(index.getWordCount(), allWords.size());
+        assertEquals(document.hasWords(), !allWords.isEmpty());
+
+        for (Style style : styles) {
+            final List<LineNode> withStyle = new ArrayList<LineNode>();
+
+            for (LineNode line : allLines) {
+                if (line.getStyle().equals(style)) {
+                    withStyle.add(line);
+                }
+            }
+
+            assertEquals(index.getLinesWithStyle(style), withStyle);
+        }
+    }
+
+    @NotNull
+    private static LineNode createLine(@NotNull final Random random, final float y) {
+
+        final LineNode line  = new LineNode();
+        final Style    style = styles[random.nextInt(styles.length)];
+
+        for (int i = 0; i < 1 + random.nextInt(5); i++) {
+            line.addChild(new WordNode(new Rectangle(10.0f + i * 40.0f, y, 30.0f, 10.0f), style,
+                                       "word" + i, 1.0f));
+        }
+
+        return line;
+    }
+
+    @NotNull
+    private static ParagraphNode createParagraph(@NotNull final Random random, final int seqNo) {
+
+        final ParagraphNode paragraph = new ParagraphNode(seqNo);
+
+        for (int i = 0; i < 1 + random.nextInt(4); i++) {
+            paragraph.addChild(createLine(random, 20.0f * seqNo + 12.0f * i));
+        }
+
+        return paragraph;
+    }
+
+    @NotNull
+    private static <T> T pick(@NotNull final Random random, @NotNull final List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Edits a document at random, and checks the index against the tree in between.
+     */
+    @Test
+    public void testIndexFollowsEdits() {
+
+        final Random       random   = new Random(45L);
+        final DocumentNode document = new DocumentNode();
+
+        for (int p = 1; p <= 6; p++) {
+            final PageNode page = new PageNode(p);
+
+            for (int i = 0; i < 8; i++) {
+                page.addChild(createParagraph(random, i));
+            }
+
+            final GraphicsNode graphics = new GraphicsNode(new Rectangle(300.0f, 300.0f, 50.0f,
+                                              50.0f));
+
+            graphics.addChild(createParagraph(random, 20));
+            page.addGraphics(graphics);
+            document.addChild(page);
+        }
+
+        assertSameAsTree(document);
+
+        for (int round = 0; round < 400; round++) {
+            final PageNode page = pick(random, document.getChildren());
+
+            if (page.getChildren().isEmpty()) {
+                page.addChild(createParagraph(random, round));
+
+                continue;
+            }
+
+            final ParagraphNode paragraph = pick(random, page.getChildren());
+
+            switch (random.nextInt(6)) {
+            case 0 :
+                page.removeChild(paragraph);
+
+                break;
+            case 1 :
+                if (paragraph.getChildren().size() > 1) {
+                    paragraph.removeChild(pick(random, paragraph.getChildren()));
+                }
+
+                break;
+            case 2 :
+                final LineNode line = pick(random, paragraph.getChildren());
+
+                if (line.getChildren().size() > 1) {
+                    line.removeChild(pick(random, line.getChildren()));
+                }
+
+                break;
+            case 3 :
+                paragraph.addChild(createLine(random, 15.0f * round));
+
+                break;
+            case 4 :
+                final GraphicsNode graphics = pick(random, page.getGraphics());
+
+                graphics.addChild(createParagraph(random, round));
+
+                break;
+            default :
+                final List<ParagraphNode> some = new ArrayList<ParagraphNode>();
+
+                for (ParagraphNode candidate : page.getChildren()) {
+                    if (random.nextInt(3) == 0) {
+                        some.add(candidate);
+                    }
+                }
+
+                page.removeChildren(some);
+            }
+
+            if (random.nextInt(4) == 0) {
+                assertSameAsTree(document);
+            }
+        }
+
+        assertSameAsTree(document);
+    }
+
+    /**
+     * Words are found also when they are only within graphics, and the answer is the same before
+     *  and after the index is built
+     */
+    @Test
+    public void testHasWords() {
+
+        final Random       random   = new Random(3L);
+        final DocumentNode document = new DocumentNode();
+        final PageNode     page     = new PageNode(1);
+
+        document.addChild(page);
+        assertFalse(document.hasWords());
+
+        final GraphicsNode graphics = new GraphicsNode(new Rectangle(300.0f, 300.0f, 50.0f, 50.0f));
+
+        graphics.addChild(createParagraph(random, 1));
+        page.addGraphics(graphics);
+        assertTrue(document.hasWords());
+        assertEquals(document.getWords().size(), document.getIndex().getWordCount());
+        assertTrue(document.hasWords());
+    }
+
+    /**
+     * Removing paragraphs and lines should not make the document build a new index
+     */
+    @Test
+    public void testRemovalsKeepIndex() {
+
+        final Random       random   = new Random(7L);
+        final DocumentNode document = new DocumentNode();
+        final PageNode     page     = new PageNode(1);
+
+        for (int i = 0; i < 10; i++) {
+            page.addChild(createParagraph(random, i));
+        }
+
+        document.addChild(page);
+
+        final DocumentIndex index = document.getIndex();
+
+        page.removeChild(page.getChildren().get(3));
+        page.getChildren().get(0).removeChild(page.getChildren().get(0).getChildren().get(0));
+        assertSameAsTree(document);
+        assertSame(document.getIndex(), index);
+    }
+}
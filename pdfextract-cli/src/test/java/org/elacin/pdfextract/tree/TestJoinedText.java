@@ -0,0 +1,169 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.tree;
+
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.style.TextUtils;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestJoinedText {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style  style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                            false);
+    private static final String chars = "ab1. \t";
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Checks the text of node against the text put together from scratch, one character at a time
+     */
+    private static String assertTextFromScratch(final AbstractNode<?> node) {
+
+        if (node instanceof WordNode) {
+            return node.getText();
+        }
+
+        final StringBuilder sb       = new StringBuilder();
+        final List<?>       children = ((AbstractParentNode<?, ?>) node).getChildren();
+
+        for (int i = 0; i < children.size(); i++) {
+            if (i != 0) {
+                sb.append(' ');
+            }
+
+            sb.append(assertTextFromScratch((AbstractNode<?>) children.get(i)));
+        }
+
+        final String       expected = sb.toString();
+        final CharSequence view     = node.getTextView();
+
+        assertEquals(view.length(), expected.length());
+
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(view.charAt(i), expected.charAt(i));
+        }
+
+        assertEquals(node.getText(), expected);
+
+        return expected;
+    }
+
+    private static WordNode createWord(final Random random) {
+
+        final StringBuilder text = new StringBuilder();
+        final int           size = random.nextInt(4);
+
+        for (int i = 0; i < size; i++) {
+            text.append(chars.charAt(random.nextInt(chars.length())));
+        }
+
+        return new WordNode(new Rectangle(random.nextFloat() * 500.0f, random.nextFloat() * 700.0f,
+                                          10.0f, 10.0f), style, text.toString(), 1.0f);
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * The trimming helpers must agree with String.trim()
+     */
+    @Test
+    public void testTrimmedQueries() {
+
+        final Random random = new Random(5L);
+
+        for (int round = 0; round < 2000; round++) {
+            final String text    = createWord(random).getText() + createWord(random).getText();
+            final String trimmed = text.trim();
+            final int    start   = TextUtils.trimmedStart(text);
+
+            assertEquals(text.substring(start, TextUtils.trimmedEnd(text, start)), trimmed);
+            assertEquals(TextUtils.isAllDigitsWhenTrimmed(text), trimmed.matches("\\d*"));
+        }
+    }
+
+    /**
+     * Edits words and lines in a page while reading the text in between. The text must always
+     *  be the same as if it was put together from scratch
+     */
+    @Test
+    public void testTextAfterTreeEdits() {
+
+        final Random              random     = new Random(13L);
+        final PageNode            page       = new PageNode(1);
+        final List<ParagraphNode> paragraphs = new ArrayList<ParagraphNode>();
+        final List<LineNode>      lines      = new ArrayList<LineNode>();
+
+        for (int i = 0; i < 4; i++) {
+            final ParagraphNode paragraph = new ParagraphNode(i);
+
+            for (int j = 0; j < 3; j++) {
+                final LineNode line = new LineNode();
+
+                for (int k = 0; k < 4; k++) {
+                    line.addChild(createWord(random));
+                }
+
+                paragraph.addChild(line);
+                lines.add(line);
+            }
+
+            page.addChild(paragraph);
+            paragraphs.add(paragraph);
+        }
+
+        for (int round = 0; round < 300; round++) {
+            final LineNode line = lines.get(random.nextInt(lines.size()));
+
+            switch (random.nextInt(3)) {
+            case 0 :
+                line.addChild(createWord(random));
+
+                break;
+            case 1 :
+                if (line.getChildren().size() > 1) {
+                    line.removeChild(line.getChildren().get(random.nextInt(line.getChildren().size())));
+                }
+
+                break;
+            default :
+                final ParagraphNode from = line.getParent();
+                final ParagraphNode to   = paragraphs.get(random.nextInt(paragraphs.size()));
+
+                if ((from != null) && (from.getChildren().size() > 1)) {
+                    from.removeChild(line);
+                    to.addChild(line);
+                }
+            }
+
+            if (random.nextBoolean()) {
+                assertTextFromScratch(page);
+            }
+        }
+
+        assertTextFromScratch(page);
+    }
+}
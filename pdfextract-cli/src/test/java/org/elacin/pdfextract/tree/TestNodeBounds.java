@@ -0,0 +1,145 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.tree;
+
+import org.elacin.pdfextract.geom.HasPosition;
+import org.elacin.pdfextract.geom.MathUtils;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestNodeBounds {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style style = new Style("Times", "Type1", 10, 10, "times10", false, false,
+                                           false);
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Checks the position of node and everything below against bounds found from scratch
+     */
+    private static Rectangle assertBoundsFromScratch(final AbstractNode<?> node) {
+
+        if (node instanceof WordNode) {
+            return node.getPos();
+        }
+
+        final List<HasPosition> childBounds = new ArrayList<HasPosition>();
+
+        for (Object child : ((AbstractParentNode<?, ?>) node).getChildren()) {
+            childBounds.add(assertBoundsFromScratch((AbstractNode<?>) child));
+        }
+
+        final Rectangle expected = MathUtils.findBounds(childBounds);
+
+        assertEquals(node.getPos(), expected);
+
+        return expected;
+    }
+
+    private static WordNode createWord(final Random random) {
+
+        final float x = random.nextFloat() * 500.0f;
+        final float y = random.nextFloat() * 700.0f;
+
+        return new WordNode(new Rectangle(x, y, 1.0f + random.nextFloat() * 40.0f, 10.0f), style,
+                            "word", 1.0f);
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Adds, removes and moves words and lines around in a page, while reading the positions in
+     *  between. The positions must always be the same as if they were found from scratch
+     */
+    @Test
+    public void testBoundsAfterTreeEdits() {
+
+        final Random              random     = new Random(11L);
+        final PageNode            page       = new PageNode(1);
+        final List<ParagraphNode> paragraphs = new ArrayList<ParagraphNode>();
+        final List<LineNode>      lines      = new ArrayList<LineNode>();
+
+        for (int i = 0; i < 5; i++) {
+            final ParagraphNode paragraph = new ParagraphNode(i);
+
+            for (int j = 0; j < 4; j++) {
+                final LineNode line = new LineNode();
+
+                for (int k = 0; k < 5; k++) {
+                    line.addChild(createWord(random));
+                }
+
+                paragraph.addChild(line);
+                lines.add(line);
+            }
+
+            page.addChild(paragraph);
+            paragraphs.add(paragraph);
+        }
+
+        assertBoundsFromScratch(page);
+
+        for (int round = 0; round < 500; round++) {
+            final LineNode line = lines.get(random.nextInt(lines.size()));
+
+            switch (random.nextInt(4)) {
+            case 0 :
+                line.addChild(createWord(random));
+
+                break;
+            case 1 :
+                if (line.getChildren().size() > 1) {
+                    line.removeChild(line.getChildren().get(random.nextInt(line.getChildren().size())));
+                }
+
+                break;
+            case 2 :
+                final ParagraphNode from = line.getParent();
+                final ParagraphNode to   = paragraphs.get(random.nextInt(paragraphs.size()));
+
+                if ((from != null) && (from.getChildren().size() > 1)) {
+                    from.removeChild(line);
+                    to.addChild(line);
+                }
+
+                break;
+            default :
+                final List<WordNode> words = new ArrayList<WordNode>();
+
+                words.add(createWord(random));
+                words.add(createWord(random));
+                line.addChildren(words);
+            }
+
+            if (random.nextBoolean()) {
+                assertBoundsFromScratch(page);
+            }
+        }
+
+        assertBoundsFromScratch(page);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.util;
+
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestOutputQueue {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final File output = new File("output.xml");
+
+// -------------------------- STATIC METHODS --------------------------
+    private static Runnable record(final List<Integer> written, final int i) {
+
+        return new Runnable() {
+            public void run() {
+                written.add(i);
+            }
+        };
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Jobs are written in the order they were submitted, and close() waits for all of them
+     */
+    @Test
+    public void testKeepsOrder() {
+
+        final OutputQueue   queue   = new OutputQueue(3);
+        final List<Integer> written = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Integer> wanted  = new ArrayList<Integer>();
+
+        for (int i = 0; i < 200; i++) {
+            queue.submit(record(written, i), output);
+            wanted.add(i);
+        }
+
+        queue.close();
+        assertEquals(written, wanted);
+    }
+
+    /**
+     * With as many jobs as the capacity waiting to be written, submitting another one blocks
+     *  until one of them is done
+     */
+    @Test
+    public void testFullQueueBlocks() throws InterruptedException {
+
+        final OutputQueue    queue     = new OutputQueue(2);
+        final CountDownLatch release   = new CountDownLatch(1);
+        final CountDownLatch submitted = new CountDownLatch(1);
+        final List<Integer>  written   = Collections.synchronizedList(new ArrayList<Integer>());
+
+        queue.submit(new Runnable() {
+            public void run() {
+
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+
+                written.add(0);
+            }
+        }, output);
+        queue.submit(record(written, 1), output);
+
+        final Thread producer = new Thread(new Runnable() {
+            public void run() {
+
+                queue.submit(record(written, 2), output);
+                submitted.countDown();
+            }
+        });
+
+        producer.start();
+        assertFalse(submitted.await(200L, TimeUnit.MILLISECONDS));
+        assertTrue(written.isEmpty());
+
+        release.countDown();
+        assertTrue(submitted.await(10L, TimeUnit.SECONDS));
+        producer.join();
+        queue.close();
+
+        final List<Integer> wanted = new ArrayList<Integer>();
+
+        wanted.add(0);
+        wanted.add(1);
+        wanted.add(2);
+        assertEquals(written, wanted);
+    }
+
+    /**
+     * A job which fails is logged, and the jobs after it are still written
+     */
+    @Test
+    public void testFailingJobDoesNotStopOthers() {
+
+        final OutputQueue   queue   = new OutputQueue(1);
+        final List<Integer> written = Collections.synchronizedList(new ArrayList<Integer>());
+
+        queue.submit(record(written, 0), output);
+        queue.submit(new Runnable() {
+            public void run() {
+                throw new RuntimeException("disk full");
+            }
+        }, output);
+        queue.submit(record(written, 2), output);
+        queue.close();
+
+        final List<Integer> wanted = new ArrayList<Integer>();
+
+        wanted.add(0);
+        wanted.add(2);
+        assertEquals(written, wanted);
+    }
+}
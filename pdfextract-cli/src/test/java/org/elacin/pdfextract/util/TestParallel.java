@@ -0,0 +1,121 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.util;
+
+import org.apache.log4j.MDC;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParallel {
+
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Runs as many tasks as there are workers, which all wait for each other, so that every worker
+     *  has to run one of them. Returns the page each task saw in its logging context.
+     */
+    private static List<Object> runOnAllWorkers() {
+
+        final int            count = Parallel.getThreadCount() + 1;
+        final CountDownLatch ready = new CountDownLatch(count);
+        final List<Object>   pages = Collections.synchronizedList(new ArrayList<Object>());
+        final List<Runnable> tasks = new ArrayList<Runnable>(count);
+
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Runnable() {
+                public void run() {
+
+                    ready.countDown();
+
+                    try {
+                        assertTrue(ready.await(10L, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+
+                    pages.add(MDC.get("page"));
+                }
+            });
+        }
+
+        Parallel.runAll(tasks);
+
+        return pages;
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Log lines written by workers must be tagged with the page of the thread which gave them the
+     *  work, also when the workers did work for another page before
+     */
+    @Test
+    public void testLoggingContextIsCopied() {
+
+        try {
+            MDC.put("page", "1");
+
+            for (Object page : runOnAllWorkers()) {
+                assertEquals(page, "1");
+            }
+
+            MDC.put("page", "2");
+
+            for (Object page : runOnAllWorkers()) {
+                assertEquals(page, "2");
+            }
+        } finally {
+            MDC.remove("page");
+        }
+    }
+
+    @Test
+    public void testRunSequentially() {
+
+        final Set<Thread>    threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final List<Runnable> tasks   = new ArrayList<Runnable>();
+
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Runnable() {
+                public void run() {
+                    threads.add(Thread.currentThread());
+                }
+            });
+        }
+
+        Parallel.runSequentially(new Runnable() {
+            public void run() {
+                Parallel.runAll(tasks);
+            }
+        });
+        assertEquals(threads.size(), 1);
+        assertTrue(threads.contains(Thread.currentThread()));
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.xml;
+
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.tree.*;
+import org.jetbrains.annotations.NotNull;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+public class TestJsonLines {
+
+// ------------------------------ FIELDS ------------------------------
+    private static final Style[]  styles = {
+        new Style("Times", "Type1", 10, 10, "times10", false, false, false),
+        new Style("Times \"Roman\"", "Type1", 12, 12, "times12", true, false, false),
+        new Style("Symbol", "", 9, 11, "symbol9", false, true, true)
+    };
+    private static final String[] texts  = {
+        "word", "quote\"d", "back\\slash", "tab\there", "ctrl\u0001", "\u00f8yvind", "1.", "-"
+    };
+
+// -------------------------- STATIC METHODS --------------------------
+    @NotNull
+    private static DocumentNode createDocument(@NotNull final Random random) {
+
+        final DocumentNode document = new DocumentNode();
+
+        for (int p = 1; p <= 5; p++) {
+            final PageNode page = new PageNode(p);
+
+            for (int i = 0; i < 6; i++) {
+                page.addChild(createParagraph(random, i, 50.0f + i * 100.0f));
+            }
+
+            if (p % 2 == 0) {
+                final GraphicsNode graphics = new GraphicsNode(new Rectangle(300.0f, 50.0f, 120.5f,
+                                                  80.25f));
+
+                graphics.addChild(createParagraph(random, 10, 60.0f));
+                page.addGraphics(graphics);
+            }
+
+            document.addChild(page);
+        }
+
+        /* the title is taken out of the tree, while the abstract stays */
+        document.setTitle(createParagraph(random, 0, 10.0f));
+        document.setAbstractParagraph(document.getChildren().get(0).getChildren().get(1));
+
+        return document;
+    }
+
+    @NotNull
+    private static ParagraphNode createParagraph(@NotNull final Random random, final int seqNo,
+            final float y) {
+
+        final ParagraphNode paragraph = new ParagraphNode(seqNo);
+
+        if (random.nextInt(4) == 0) {
+            paragraph.addRole(Role.DIV1);
+        }
+
+        for (int l = 0; l < 1 + random.nextInt(4); l++) {
+            final LineNode line = new LineNode();
+
+            for (int w = 0; w < 1 + random.nextInt(6); w++) {
+                final Rectangle pos  = new Rectangle(40.0f + w * 33.3f + random.nextFloat(),
+                                           y + l * 12.1f, 30.0f + random.nextFloat(), 10.0f);
+                final WordNode  word = new WordNode(pos, styles[random.nextInt(styles.length)],
+                                           texts[random.nextInt(texts.length)], random.nextFloat());
+
+                if (random.nextInt(5) == 0) {
+                    word.addRole(Role.IDENTIFIER);
+                    word.addRole(Role.FOOTNOTE);
+                }
+
+                line.addChild(word);
+            }
+
+            paragraph.addChild(line);
+        }
+
+        return paragraph;
+    }
+
+    @NotNull
+    private static String write(@NotNull final DocumentNode document) throws IOException {
+
+        final StringWriter out = new StringWriter();
+
+        new JsonLinesOutput().write(document, out);
+
+        return out.toString();
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * A document read back should be written exactly the same way again, and have the same
+     *  words, styles and positions
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+
+        final DocumentNode original = createDocument(new Random(48L));
+        final String       written  = write(original);
+        final DocumentNode read     = new JsonLinesReader().read(new StringReader(written));
+
+        assertEquals(write(read), written);
+        assertEquals(read.getChildren().size(), original.getChildren().size());
+        assertEquals(read.getWords().size(), original.getWords().size());
+
+        for (int i = 0; i < original.getWords().size(); i++) {
+            final WordNode expected = original.getWords().get(i);
+            final WordNode actual   = read.getWords().get(i);
+
+            assertEquals(actual.getText(), expected.getText());
+            assertEquals(actual.getPos(), expected.getPos());
+            assertEquals(actual.getCharSpacing(), expected.getCharSpacing());
+            assertEquals(actual.getRoles(), expected.getRoles());
+            assertEquals(actual.getStyle().fontName, expected.getStyle().fontName);
+            assertEquals(actual.getStyle().ySize, expected.getStyle().ySize);
+            assertEquals(actual.getStyle().isMathFont(), expected.getStyle().isMathFont());
+            assertEquals(actual.getPage().getPageNumber(), expected.getPage().getPageNumber());
+        }
+
+        assertEquals(read.getTitle().getText(), original.getTitle().getText());
+        assertNull(read.getTitle().getParent());
+        assertSame(read.getAbstractParagraph(), read.getChildren().get(0).getChildren().get(1));
+        assertEquals(read.getChildren().get(1).getGraphics().get(0).getGraphicsPos(),
+                     original.getChildren().get(1).getGraphics().get(0).getGraphicsPos());
+    }
+
+    @Test
+    public void testOneRecordPerLine() throws IOException {
+
+        final String[] records = write(createDocument(new Random(3L))).split("\n");
+
+        assertTrue(records[0].startsWith("{\"type\":\"document\""));
+
+        for (String record : records) {
+            assertTrue(record.startsWith("{\"type\":\"") && record.endsWith("}"), record);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testBrokenRecord() throws IOException {
+        new JsonLinesReader().read(
+            new StringReader("{\"type\":\"page\",\"number\":1}\n{\"type\":"));
+    }
+
+    /**
+     * The error from the parser is kept as the cause
+     */
+    @Test
+    public void testBrokenRecordHasCause() {
+
+        try {
+            new JsonLinesReader().read(new StringReader("{\"type\":"));
+            fail("no exception for a broken record");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof RuntimeException);
+        }
+    }
+
+    /**
+     * JSON has no NaN or infinity, so those are written as null and read back as NaN
+     */
+    @Test
+    public void testNonFiniteNumbers() throws IOException {
+
+        final DocumentNode  document  = new DocumentNode();
+        final PageNode      page      = new PageNode(1);
+        final ParagraphNode paragraph = new ParagraphNode(0);
+        final LineNode      line      = new LineNode();
+
+        line.addChild(new WordNode(new Rectangle(10.0f, 10.0f, 20.0f, 10.0f), styles[0], "nan",
+                                   Float.NaN));
+        line.addChild(new WordNode(new Rectangle(40.0f, 10.0f, 20.0f, 10.0f), styles[0], "inf",
+                                   Float.POSITIVE_INFINITY));
+        paragraph.addChild(line);
+        page.addChild(paragraph);
+        document.addChild(page);
+
+        final String written = write(document);
+
+        assertFalse(written.contains("NaN"), written);
+        assertFalse(written.contains("Infinity"), written);
+
+        final DocumentNode read = new JsonLinesReader().read(new StringReader(written));
+
+        assertTrue(Float.isNaN(read.getWords().get(0).getCharSpacing()));
+        assertTrue(Float.isNaN(read.getWords().get(1).getCharSpacing()));
+        assertEquals(read.getWords().get(1).getPos(), new Rectangle(40.0f, 10.0f, 20.0f, 10.0f));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+
+package org.elacin.pdfextract.renderer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A bounded pool of images which pages are rendered into. At most a given number of images are
+ * taken at the same time, and whoever asks for one more waits until one is given back. This keeps
+ * the memory used for rendering bounded regardless of how many threads render.
+ */
+final class ImagePool {
+
+// ------------------------------ FIELDS ------------------------------
+    @NotNull
+    private final BlockingQueue<BufferedImage> free;
+    @NotNull
+    private final Semaphore                    permits;
+
+// --------------------------- CONSTRUCTORS ---------------------------
+    ImagePool(final int size) {
+
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+
+        free    = new ArrayBlockingQueue<BufferedImage>(size);
+        permits = new Semaphore(size);
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Gives back an image which was taken, or which was rendered instead of one which was taken.
+     *  Null is given back if nothing was rendered.
+     */
+    void giveBack(@Nullable final BufferedImage image) {
+
+        if (image != null) {
+            free.offer(image);
+        }
+
+        permits.release();
+    }
+
+    /**
+     * Takes an image to render into, waiting if all are taken. Returns null if no image has been
+     *  made yet, in which case the renderer makes one.
+     */
+    @Nullable
+    BufferedImage take() {
+
+        permits.acquireUninterruptibly();
+
+        return free.poll();
+    }
+}
@@ -23,14 +23,15 @@ import org.elacin.pdfextract.Constants;
 import org.elacin.pdfextract.content.PhysicalPage;
 import org.elacin.pdfextract.content.PhysicalPageRegion;
 import org.elacin.pdfextract.content.WhitespaceRectangle;
-import org.elacin.pdfextract.datasource.DocumentContent;
 import org.elacin.pdfextract.datasource.PDFSource;
 import org.elacin.pdfextract.datasource.PageContent;
 import org.elacin.pdfextract.datasource.RenderedPage;
 import org.elacin.pdfextract.geom.HasPosition;
 import org.elacin.pdfextract.geom.Rectangle;
 import org.elacin.pdfextract.tree.*;
+import org.elacin.pdfextract.util.Parallel;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
@@ -38,12 +39,18 @@ import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.elacin.pdfextract.Constants.*;
 
 /**
  * Created by IntelliJ IDEA. User: elacin Date: Jun 17, 2010 Time: 5:02:09 AM To change this
- * template use File | Settings | File Templates.
+ * template use File | Settings | File Templates. <p/> Pages may be rendered from several threads
+ * at the same time, everything which belongs to the rendering of one page is kept in a {@link
+ * PageDrawing}.
  */
 public class PageRenderer {
 
@@ -53,20 +60,23 @@ public class PageRenderer {
     private static final Color  TRANSPARENT_WHITE = new Color(255, 255, 255, 0);
     @NotNull
     private static final Color  DONT_DRAW         = new Color(254, 254, 254, 0);
-    private int                 paragraphCounter  = 1;
     private final DocumentNode  documentNode;
-    private Graphics2D          graphics;
     private final int           resolution;
     private final PDFSource     source;
-    private float               xScale;
-    private float               yScale;
+    private final int           dpi;
 
 // --------------------------- CONSTRUCTORS ---------------------------
     public PageRenderer(final PDFSource source, final DocumentNode documentNode, final int resolution) {
+        this(source, documentNode, resolution, RENDER_DPI);
+    }
+
+    public PageRenderer(final PDFSource source, final DocumentNode documentNode,
+                        final int resolution, final int dpi) {
 
         this.source       = source;
         this.documentNode = documentNode;
         this.resolution   = resolution;
+        this.dpi          = dpi;
     }
 
 // -------------------------- STATIC METHODS --------------------------
@@ -112,6 +122,73 @@ public class PageRenderer {
 // -------------------------- PUBLIC METHODS --------------------------
     @NotNull
     public BufferedImage renderToFile(final int pageNum, File outputFile) {
+        return renderToFile(pageNum, outputFile, null, findPageDimensions());
+    }
+
+    /**
+     * Renders each page to its file. The pages are rendered in parallel into a bounded number of
+     *  images which are reused, so while the source draws one page, others have our information
+     *  drawn on top and are encoded and written.
+     */
+    public void renderToFiles(@NotNull final Map<Integer, File> outputFiles) {
+
+        final ImagePool               pool       = new ImagePool(RENDER_BUFFER_COUNT);
+        final List<Runnable>          tasks      = new ArrayList<Runnable>(outputFiles.size());
+        final Map<Integer, Rectangle> dimensions = findPageDimensions();
+
+        for (final Map.Entry<Integer, File> entry : outputFiles.entrySet()) {
+            tasks.add(new Runnable() {
+                public void run() {
+
+                    BufferedImage image = pool.take();
+
+                    try {
+                        image = renderToFile(entry.getKey(), entry.getValue(), image,
+                                             dimensions);
+                    } finally {
+                        pool.giveBack(image);
+                    }
+                }
+            });
+        }
+
+        if (RENDER_PARALLEL_ENABLED) {
+            Parallel.runAll(tasks);
+        } else {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * The dimensions of the pages, which are only needed when the real page is not rendered. They
+     *  are read here once, since the source can not be read from several threads at once.
+     */
+    @NotNull
+    private Map<Integer, Rectangle> findPageDimensions() {
+
+        final Map<Integer, Rectangle> ret = new HashMap<Integer, Rectangle>();
+
+        if (!RENDER_REAL_PAGE) {
+            for (PageContent page : source.readPages().getPages()) {
+                ret.put(page.getPageNum(), page.getDimensions());
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Renders the page into buffer if it fits, or else into a new image, and writes it to
+     *  outputFile. Returns the image which was rendered into.
+     */
+    @NotNull
+    private BufferedImage renderToFile(final int pageNum, @NotNull File outputFile,
+                                       @Nullable BufferedImage buffer,
+                                       @NotNull Map<Integer, Rectangle> dimensions) {
 
         final PageNode pageNode = documentNode.getPageNumber(pageNum);
 
@@ -123,26 +200,20 @@ public class PageRenderer {
 
         /* first have PDFBox draw the pdf to a BufferedImage */
         final BufferedImage image;
+        final float         xScale, yScale;
 
         if (RENDER_REAL_PAGE) {
-            final RenderedPage renderedPage = source.renderPage(pageNum);
+            final RenderedPage renderedPage = source.renderPage(pageNum, dpi, buffer);
 
             image  = renderedPage.getRendering();
             xScale = renderedPage.getXScale();
             yScale = renderedPage.getYScale();
         } else {
-            Rectangle             dims       = null;
-            final DocumentContent docContent = source.readPages();
-
-            for (PageContent page : docContent.getPages()) {
-                if (page.getPageNum() == pageNum) {
-                    dims = page.getDimensions();
-                }
-            }
+            final Rectangle dims = dimensions.get(pageNum);
 
             assert dims != null;
 
-            float         scaling  = resolution / (float) RENDER_DPI;
+            float         scaling  = resolution / (float) dpi;
             int           widthPx  = Math.round(dims.width * scaling);
             int           heightPx = Math.round(dims.height * scaling);
             BufferedImage ret      = new BufferedImage(widthPx, heightPx, BufferedImage.TYPE_INT_ARGB);
@@ -163,17 +234,21 @@ public class PageRenderer {
         }
 
         /* then draw our information on top */
-        graphics = image.createGraphics();
+        final Graphics2D graphics = image.createGraphics();
+
         graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
+        final PageDrawing drawing = new PageDrawing(graphics, xScale, yScale);
+
         /* render graphics and whitespace, both are left in the physical page */
         final PhysicalPage physicalPage = pageNode.getPhysicalPage();
 
         if (physicalPage != null) {
-            drawRegionAndWhitespace(physicalPage.getMainRegion(), 0);
+            drawing.drawRegionAndWhitespace(physicalPage.getMainRegion(), 0);
         }
 
-        drawTree(pageNode);
+        drawing.drawTree(pageNode);
+        graphics.dispose();
 
         /* write to file */
         try {
@@ -188,143 +263,165 @@ public class PageRenderer {
         return image;
     }
 
-// -------------------------- OTHER METHODS --------------------------
-    @SuppressWarnings({ "NumericCastThatLosesPrecision" })
-    private void drawRectangle(@NotNull final HasPosition object) {
+// -------------------------- INNER CLASSES --------------------------
+
+    /**
+     * Draws our information on top of the rendering of one page
+     */
+    private static final class PageDrawing {
+
+        private int              paragraphCounter = 1;
+        @NotNull
+        private final Graphics2D graphics;
+        private final float      xScale;
+        private final float      yScale;
 
-        final int       ALPHA = 60;
-        final Rectangle pos   = object.getPos();
-        final Color     color = getColorForObject(object);
+        PageDrawing(@NotNull final Graphics2D graphics, final float xScale, final float yScale) {
 
-        if (DONT_DRAW.equals(color)) {
-            return;
+            this.graphics = graphics;
+            this.xScale   = xScale;
+            this.yScale   = yScale;
         }
 
-        graphics.setColor(color);
+        @SuppressWarnings({ "NumericCastThatLosesPrecision" })
+        private void drawRectangle(@NotNull final HasPosition object) {
 
-        final int x      = (int) ((float) pos.x * xScale);
-        final int width  = (int) ((float) pos.width * xScale);
-        int       y      = (int) ((float) pos.y * yScale);
-        final int height = (int) ((float) pos.height * yScale);
+            final int       ALPHA = 60;
+            final Rectangle pos   = object.getPos();
+            final Color     color = getColorForObject(object);
 
-        graphics.drawRect(x, y, width, height);
+            if (DONT_DRAW.equals(color)) {
+                return;
+            }
 
-        if (true) {
-            graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), ALPHA));
-            graphics.fillRect(x, y, width, height);
-        }
-    }
+            graphics.setColor(color);
+
+            final int x      = (int) ((float) pos.x * xScale);
+            final int width  = (int) ((float) pos.width * xScale);
+            int       y      = (int) ((float) pos.y * yScale);
+            final int height = (int) ((float) pos.height * yScale);
 
-    private void drawParagraphNumber(@NotNull HasPosition p) {
+            graphics.drawRect(x, y, width, height);
 
-        graphics.setFont(new Font("TimesRoman", Font.BOLD | Font.ITALIC, 20));
+            if (true) {
+                graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(),
+                                            ALPHA));
+                graphics.fillRect(x, y, width, height);
+            }
+        }
 
-        final float x = p.getPos().x * xScale;
-        final float y = p.getPos().y * yScale;
+        private void drawParagraphNumber(@NotNull HasPosition p) {
 
-        graphics.setColor(Color.red.brighter().brighter());
+            graphics.setFont(new Font("TimesRoman", Font.BOLD | Font.ITALIC, 20));
 
-        // graphics.setBackground(Color.red.brighter().brighter());
-        graphics.fillRect((int) x, (int) y, 30, 25);
+            final float x = p.getPos().x * xScale;
+            final float y = p.getPos().y * yScale;
 
-        // graphics.setBackground(Color.black);
-        graphics.setColor(Color.black);
-        graphics.drawString(String.valueOf(paragraphCounter), x, y + 20);
-        paragraphCounter++;
-    }
+            graphics.setColor(Color.red.brighter().brighter());
 
-    private void drawRegionAndWhitespace(@NotNull PhysicalPageRegion region, final int nesting) {
+            // graphics.setBackground(Color.red.brighter().brighter());
+            graphics.fillRect((int) x, (int) y, 30, 25);
 
-        for (WhitespaceRectangle o : region.getWhitespace()) {
-            drawRectangle(o);
+            // graphics.setBackground(Color.black);
+            graphics.setColor(Color.black);
+            graphics.drawString(String.valueOf(paragraphCounter), x, y + 20);
+            paragraphCounter++;
         }
 
-        if (Constants.RENDER_PAGE_REGIONS) {
-            Rectangle   pos = region.getPos();
-            final Color color;    // = Color.DARK_GRAY;
+        private void drawRegionAndWhitespace(@NotNull PhysicalPageRegion region,
+                                             final int nesting) {
+
+            for (WhitespaceRectangle o : region.getWhitespace()) {
+                drawRectangle(o);
+            }
 
-            switch (nesting) {
-            case 0 :
-                color = Color.BLACK;
+            if (Constants.RENDER_PAGE_REGIONS) {
+                Rectangle   pos = region.getPos();
+                final Color color;    // = Color.DARK_GRAY;
 
-                break;
-            case 1 :
-                color = Color.BLUE;
+                switch (nesting) {
+                case 0 :
+                    color = Color.BLACK;
 
-                break;
-            case 2 :
-                color = Color.RED;
+                    break;
+                case 1 :
+                    color = Color.BLUE;
 
-                break;
-            case 3 :
-                color = Color.MAGENTA;
+                    break;
+                case 2 :
+                    color = Color.RED;
 
-                break;
-            default :
-                color = Color.GREEN;
-            }
+                    break;
+                case 3 :
+                    color = Color.MAGENTA;
 
-            Stroke      oldStroke    = graphics.getStroke();
-            final float dash1[]      = { (float) (1 + 3 * nesting) };
-            final BasicStroke dashed = new BasicStroke(3.0f, BasicStroke.CAP_BUTT,
-                                           BasicStroke.JOIN_MITER, 10.0f, dash1, 0.0f);
+                    break;
+                default :
+                    color = Color.GREEN;
+                }
 
-            graphics.setStroke(dashed);
-            graphics.setColor(color);
+                Stroke      oldStroke    = graphics.getStroke();
+                final float dash1[]      = { (float) (1 + 3 * nesting) };
+                final BasicStroke dashed = new BasicStroke(3.0f, BasicStroke.CAP_BUTT,
+                                               BasicStroke.JOIN_MITER, 10.0f, dash1, 0.0f);
+
+                graphics.setStroke(dashed);
+                graphics.setColor(color);
+
+                final int               x      = (int) ((float) pos.x * xScale);
+                final int               width  = (int) ((float) pos.width * xScale);
+                int                     y      = (int) ((float) pos.y * yScale);
+                final int               height = (int) ((float) pos.height * yScale);
+                RoundRectangle2D.Double r      = new RoundRectangle2D.Double(x, y, width, height,
+                                                     20.0, 20.0);
+
+                graphics.draw(r);
+                graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 40));
+                graphics.fill(r);
+                graphics.setStroke(oldStroke);
+            }
 
-            final int               x      = (int) ((float) pos.x * xScale);
-            final int               width  = (int) ((float) pos.width * xScale);
-            int                     y      = (int) ((float) pos.y * yScale);
-            final int               height = (int) ((float) pos.height * yScale);
-            RoundRectangle2D.Double r      = new RoundRectangle2D.Double(x, y, width, height, 20.0,
-                                                 20.0);
-
-            graphics.draw(r);
-            graphics.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 40));
-            graphics.fill(r);
-            graphics.setStroke(oldStroke);
+            for (PhysicalPageRegion subRegion : region.getSubregions()) {
+                drawRegionAndWhitespace(subRegion, nesting + 1);
+            }
         }
 
-        for (PhysicalPageRegion subRegion : region.getSubregions()) {
-            drawRegionAndWhitespace(subRegion, nesting + 1);
-        }
-    }
+        private void drawTree(@NotNull PageNode page) {
 
-    private void drawTree(@NotNull PageNode page) {
+            paragraphCounter = 1;
 
-        paragraphCounter = 1;
+            for (GraphicsNode graphicsNode : page.getGraphics()) {
 
-        for (GraphicsNode graphicsNode : page.getGraphics()) {
+                // for (ParagraphNode paragraph : graphicsNode.getChildren()) {
+                // for (LineNode lineNode : paragraph.getChildren()) {
+                // for (WordNode wordNode : lineNode.getChildren()) {
+                // drawRectangle(wordNode);
+                // }
+                // drawRectangle(lineNode);
+                // }
+                // drawRectangle(paragraph);
+                // }
+                drawRectangle(graphicsNode);
 
-            // for (ParagraphNode paragraph : graphicsNode.getChildren()) {
-            // for (LineNode lineNode : paragraph.getChildren()) {
-            // for (WordNode wordNode : lineNode.getChildren()) {
-            // drawRectangle(wordNode);
-            // }
-            // drawRectangle(lineNode);
-            // }
-            // drawRectangle(paragraph);
-            // }
-            drawRectangle(graphicsNode);
+                // if (RENDER_PARAGRAPH_NUMBERS) {
+                // drawParagraphNumber(graphicsNode);
+                // }
+            }
 
-            // if (RENDER_PARAGRAPH_NUMBERS) {
-            // drawParagraphNumber(graphicsNode);
-            // }
-        }
+            for (ParagraphNode paragraphNode : page.getChildren()) {
+                for (LineNode lineNode : paragraphNode.getChildren()) {
+                    for (WordNode wordNode : lineNode.getChildren()) {
+                        drawRectangle(wordNode);
+                    }
 
-        for (ParagraphNode paragraphNode : page.getChildren()) {
-            for (LineNode lineNode : paragraphNode.getChildren()) {
-                for (WordNode wordNode : lineNode.getChildren()) {
-                    drawRectangle(wordNode);
+                    drawRectangle(lineNode);
                 }
 
-                drawRectangle(lineNode);
-            }
-
-            drawRectangle(paragraphNode);
+                drawRectangle(paragraphNode);
 
-            if (RENDER_PARAGRAPH_NUMBERS) {
-                drawParagraphNumber(paragraphNode);
+                if (RENDER_PARAGRAPH_NUMBERS) {
+                    drawParagraphNumber(paragraphNode);
+                }
             }
         }
     }
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.xml;
+
+import org.apache.log4j.Logger;
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.tree.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the logical tree as JSON lines, one record per line, for programs which only want the
+ * words, lines, styles and positions back without parsing XML. The records come in the order of
+ * the tree, and every record is a JSON object with a "type":
+ * <pre>
+ * document   version, pages
+ * style      ordinal, id, font, subType, xSize, ySize, italic, bold, math
+ * page       number, pos
+ * graphics   pos
+ * paragraph  in, seqNo, pos, roles, title, abstract
+ * line       style, pos, roles, text, words
+ * </pre>
+ * A style is written before the first record which refers to it by ordinal. A pos is an array of
+ * x, y, width and height. A paragraph belongs to the last page ("in":"page"), the last graphics
+ * ("in":"graphics"), or is the title or abstract of the document which have been taken out of
+ * the pages ("in":"title" and "in":"abstract"). Paragraphs which are still on a page and are also
+ * the title or abstract are marked with "title" or "abstract". A line belongs to the last
+ * paragraph, and its words are arrays of text, style ordinal, x, y, width, height and character
+ * spacing, followed by the roles if there are any. Roles are only written when there are some.
+ * <p/>
+ * {@link JsonLinesReader} reads the records back into a tree.
+ */
+public class JsonLinesOutput implements XMLWriter {
+
+// ------------------------------ FIELDS ------------------------------
+    public static final int     FORMAT_VERSION = 1;
+    private static final Logger log            = Logger.getLogger(JsonLinesOutput.class);
+
+    /* ordinals of the styles written so far */
+    @NotNull
+    private final Map<Style, Integer> styleOrdinals = new HashMap<Style, Integer>();
+
+// -------------------------- STATIC METHODS --------------------------
+    private static void writeRoles(@NotNull final Writer out, @NotNull final AbstractNode node)
+            throws IOException {
+
+        boolean first = true;
+
+        for (Role role : Role.values()) {
+            if (node.hasRole(role)) {
+                out.write(first
+                          ? "["
+                          : ",");
+                out.write('"');
+                out.write(role.name());
+                out.write('"');
+                first = false;
+            }
+        }
+
+        if (!first) {
+            out.write(']');
+        }
+    }
+
+    private static void writePos(@NotNull final Writer out, @NotNull final Rectangle pos)
+            throws IOException {
+
+        out.write('[');
+        writeNumbers(out, pos);
+        out.write(']');
+    }
+
+    /**
+     * Writes value as a JSON number. JSON has no NaN or infinity, so those are written as null
+     */
+    static void writeNumber(@NotNull final Writer out, final float value) throws IOException {
+
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            out.write("null");
+        } else {
+            out.write(Float.toString(value));
+        }
+    }
+
+    private static void writeNumbers(@NotNull final Writer out, @NotNull final Rectangle pos)
+            throws IOException {
+
+        writeNumber(out, pos.x);
+        out.write(',');
+        writeNumber(out, pos.y);
+        out.write(',');
+        writeNumber(out, pos.width);
+        out.write(',');
+        writeNumber(out, pos.height);
+    }
+
+    /**
+     * Writes text as a JSON string, with quotes, backslashes and control characters escaped
+     */
+    static void writeString(@NotNull final Writer out, @Nullable final CharSequence text)
+            throws IOException {
+
+        if (text == null) {
+            out.write("null");
+
+            return;
+        }
+
+        out.write('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+
+            switch (c) {
+            case '"' :
+                out.write("\\\"");
+
+                break;
+            case '\\' :
+                out.write("\\\\");
+
+                break;
+            case '\n' :
+                out.write("\\n");
+
+                break;
+            case '\r' :
+                out.write("\\r");
+
+                break;
+            case '\t' :
+                out.write("\\t");
+
+                break;
+            default :
+                if (c < 0x20) {
+                    out.write("\\u00");
+                    out.write(Character.forDigit(c >> 4, 16));
+                    out.write(Character.forDigit(c & 0xF, 16));
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+
+        out.write('"');
+    }
+
+// ------------------------ INTERFACE METHODS ------------------------
+// --------------------- Interface XMLWriter ---------------------
+    public void writeTree(@NotNull final DocumentNode root, @NotNull final File output) {
+
+        log.info("LOG01646:Opening " + output + " for output");
+
+        final Writer out;
+
+        try {
+            out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output, false),
+                    "UTF-8"), 8192 * 4);
+        } catch (Exception e) {
+            throw new RuntimeException("Could not open output file", e);
+        }
+
+        try {
+            write(root, out);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while writing to output file", e);
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.warn("LOG01647:Could not close output file " + output, e);
+            }
+        }
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Writes the records for root to out, which is not closed
+     */
+    public void write(@NotNull final DocumentNode root, @NotNull final Writer out)
+            throws IOException {
+
+        styleOrdinals.clear();
+        out.write("{\"type\":\"document\",\"version\":");
+        out.write(Integer.toString(FORMAT_VERSION));
+        out.write(",\"pages\":");
+        out.write(Integer.toString(root.getChildren().size()));
+        out.write("}\n");
+
+        final ParagraphNode title             = root.getTitle();
+        final ParagraphNode abstractParagraph = root.getAbstractParagraph();
+
+        if ((title != null) && (title.getParent() == null)) {
+            writeParagraph(out, root, title, "title");
+        }
+
+        if ((abstractParagraph != null) && (abstractParagraph.getParent() == null)) {
+            writeParagraph(out, root, abstractParagraph, "abstract");
+        }
+
+        for (PageNode page : root.getChildren()) {
+            out.write("{\"type\":\"page\",\"number\":");
+            out.write(Integer.toString(page.getPageNumber()));
+            out.write(",\"pos\":");
+            writePos(out, page.getPos());
+            out.write("}\n");
+
+            for (ParagraphNode paragraph : page.getChildren()) {
+                writeParagraph(out, root, paragraph, "page");
+            }
+
+            for (GraphicsNode graphics : page.getGraphics()) {
+                out.write("{\"type\":\"graphics\",\"pos\":");
+                writePos(out, graphics.getGraphicsPos());
+                out.write("}\n");
+
+                for (ParagraphNode paragraph : graphics.getChildren()) {
+                    writeParagraph(out, root, paragraph, "graphics");
+                }
+            }
+        }
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Returns the ordinal of style, after writing a record for it if it is new
+     */
+    private int getOrdinal(@NotNull final Writer out, @NotNull final Style style)
+            throws IOException {
+
+        final Integer existing = styleOrdinals.get(style);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        final int ordinal = styleOrdinals.size();
+
+        styleOrdinals.put(style, ordinal);
+        out.write("{\"type\":\"style\",\"ordinal\":");
+        out.write(Integer.toString(ordinal));
+        out.write(",\"id\":");
+        writeString(out, style.id);
+        out.write(",\"font\":");
+        writeString(out, style.fontName);
+        out.write(",\"subType\":");
+        writeString(out, style.subType);
+        out.write(",\"xSize\":");
+        out.write(Integer.toString(style.xSize));
+        out.write(",\"ySize\":");
+        out.write(Integer.toString(style.ySize));
+        out.write(",\"italic\":");
+        out.write(String.valueOf(style.isItalic()));
+        out.write(",\"bold\":");
+        out.write(String.valueOf(style.isBold()));
+        out.write(",\"math\":");
+        out.write(String.valueOf(style.isMathFont()));
+        out.write("}\n");
+
+        return ordinal;
+    }
+
+    private void writeLine(@NotNull final Writer out, @NotNull final LineNode line)
+            throws IOException {
+
+        /* find all the styles first, so that their records come before this one */
+        final int   lineStyle  = getOrdinal(out, line.getStyle());
+        final int[] wordStyles = new int[line.getChildren().size()];
+
+        for (int i = 0; i < wordStyles.length; i++) {
+            wordStyles[i] = getOrdinal(out, line.getChildren().get(i).getStyle());
+        }
+
+        out.write("{\"type\":\"line\",\"style\":");
+        out.write(Integer.toString(lineStyle));
+        out.write(",\"pos\":");
+        writePos(out, line.getPos());
+
+        if (line.hasRole()) {
+            out.write(",\"roles\":");
+            writeRoles(out, line);
+        }
+
+        out.write(",\"text\":");
+        writeString(out, line.getTextView());
+        out.write(",\"words\":[");
+
+        for (int i = 0; i < wordStyles.length; i++) {
+            final WordNode  word = line.getChildren().get(i);
+            final Rectangle pos  = word.getPos();
+
+            if (i != 0) {
+                out.write(',');
+            }
+
+            out.write('[');
+            writeString(out, word.text);
+            out.write(',');
+            out.write(Integer.toString(wordStyles[i]));
+            out.write(',');
+            writeNumbers(out, pos);
+            out.write(',');
+            writeNumber(out, word.getCharSpacing());
+
+            if (word.hasRole()) {
+                out.write(',');
+                writeRoles(out, word);
+            }
+
+            out.write(']');
+        }
+
+        out.write("]}\n");
+    }
+
+    private void writeParagraph(@NotNull final Writer out, @NotNull final DocumentNode root,
+                                @NotNull final ParagraphNode paragraph, @NotNull final String in)
+            throws IOException {
+
+        out.write("{\"type\":\"paragraph\",\"in\":\"");
+        out.write(in);
+        out.write("\",\"seqNo\":");
+        out.write(Integer.toString(paragraph.getSeqNo()));
+        out.write(",\"pos\":");
+        writePos(out, paragraph.getPos());
+
+        if (paragraph.hasRole()) {
+            out.write(",\"roles\":");
+            writeRoles(out, paragraph);
+        }
+
+        if ((paragraph == root.getTitle()) && !"title".equals(in)) {
+            out.write(",\"title\":true");
+        }
+
+        if ((paragraph == root.getAbstractParagraph()) && !"abstract".equals(in)) {
+            out.write(",\"abstract\":true");
+        }
+
+        out.write("}\n");
+
+        for (LineNode line : paragraph.getChildren()) {
+            writeLine(out, line);
+        }
+    }
+}
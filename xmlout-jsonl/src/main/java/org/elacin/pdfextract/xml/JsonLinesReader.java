@@ -0,0 +1,562 @@
+/*
+ * Copyright 2010-2011 Øyvind Berg (elacin@gmail.com)
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+
+package org.elacin.pdfextract.xml;
+
+import org.elacin.pdfextract.geom.Rectangle;
+import org.elacin.pdfextract.style.Style;
+import org.elacin.pdfextract.tree.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the records written by {@link JsonLinesOutput} back into a tree. The records are read one
+ * line at a time, and the tree is put together from the bottom, so that every node gets all its
+ * children at once.
+ */
+public class JsonLinesReader {
+
+// ------------------------------ FIELDS ------------------------------
+    private DocumentNode         root;
+    private List<Style>          styles;
+    private List<PageNode>       pages;
+    private PageNode             page;
+    private GraphicsNode         graphics;
+
+    /* the paragraph being read, where it goes, and its lines so far */
+    private ParagraphNode        paragraph;
+    private String               paragraphIn;
+    private final List<LineNode> lines = new ArrayList<LineNode>();
+
+// -------------------------- STATIC METHODS --------------------------
+    private static void addRoles(@NotNull final AbstractNode node, @Nullable final Object roles) {
+
+        if (roles == null) {
+            return;
+        }
+
+        for (Object role : (List<?>) roles) {
+            node.addRole(Role.valueOf((String) role));
+        }
+    }
+
+    @NotNull
+    private static Rectangle toRectangle(@NotNull final Object pos) {
+
+        final List<?> list = (List<?>) pos;
+
+        return new Rectangle(toFloat(list.get(0)), toFloat(list.get(1)), toFloat(list.get(2)),
+                             toFloat(list.get(3)));
+    }
+
+    /**
+     * Numbers which could not be written as JSON are null, and read back as NaN
+     */
+    private static float toFloat(@Nullable final Object number) {
+
+        if (number == null) {
+            return Float.NaN;
+        }
+
+        return Float.parseFloat(((NumberLiteral) number).text);
+    }
+
+    private static int toInt(@NotNull final Object number) {
+        return Integer.parseInt(((NumberLiteral) number).text);
+    }
+
+// -------------------------- PUBLIC METHODS --------------------------
+
+    /**
+     * Reads the records from in, which is not closed
+     */
+    @NotNull
+    public DocumentNode read(@NotNull final Reader in) throws IOException {
+
+        final BufferedReader reader = (in instanceof BufferedReader)
+                                      ? (BufferedReader) in
+                                      : new BufferedReader(in);
+
+        root        = new DocumentNode();
+        styles      = new ArrayList<Style>();
+        pages       = new ArrayList<PageNode>();
+        page        = null;
+        graphics    = null;
+        paragraph   = null;
+        paragraphIn = null;
+        lines.clear();
+
+        int    lineNumber = 0;
+        String text;
+
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (text.trim().length() == 0) {
+                continue;
+            }
+
+            try {
+                readRecord(new Parser(text).parseRecord());
+            } catch (RuntimeException e) {
+                final IOException ioe = new IOException("Invalid record at line " + lineNumber
+                                            + ": " + e.getMessage());
+
+                ioe.initCause(e);
+
+                throw ioe;
+            }
+        }
+
+        finishParagraph();
+        root.addChildren(pages);
+
+        final DocumentNode ret = root;
+
+        root = null;
+
+        return ret;
+    }
+
+    @NotNull
+    public DocumentNode readTree(@NotNull final File input) {
+
+        final Reader in;
+
+        try {
+            in = new BufferedReader(new InputStreamReader(new FileInputStream(input), "UTF-8"),
+                                    8192 * 4);
+        } catch (Exception e) {
+            throw new RuntimeException("Could not open input file", e);
+        }
+
+        try {
+            return read(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while reading " + input, e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+
+                /* nothing more to read anyway */
+            }
+        }
+    }
+
+// -------------------------- OTHER METHODS --------------------------
+
+    /**
+     * Gives the paragraph being read its lines, and puts it where it belongs
+     */
+    private void finishParagraph() {
+
+        if (paragraph == null) {
+            return;
+        }
+
+        paragraph.addChildren(lines);
+        lines.clear();
+
+        if ("page".equals(paragraphIn)) {
+            page.addChild(paragraph);
+        } else if ("graphics".equals(paragraphIn)) {
+            graphics.addChild(paragraph);
+        } else if ("title".equals(paragraphIn)) {
+            root.setTitle(paragraph);
+        } else if ("abstract".equals(paragraphIn)) {
+            root.setAbstractParagraph(paragraph);
+        } else {
+            throw new IllegalStateException("Paragraph in unknown place " + paragraphIn);
+        }
+
+        paragraph = null;
+    }
+
+    private void readLine(@NotNull final Map<String, Object> record) {
+
+        if (paragraph == null) {
+            throw new IllegalStateException("Line outside paragraph");
+        }
+
+        final List<?>        wordRecords = (List<?>) record.get("words");
+        final List<WordNode> words       = new ArrayList<WordNode>(wordRecords.size());
+
+        for (Object wordRecord : wordRecords) {
+            final List<?>  fields = (List<?>) wordRecord;
+            final WordNode word   = new WordNode(new Rectangle(toFloat(fields.get(2)),
+                                        toFloat(fields.get(3)), toFloat(fields.get(4)),
+                                        toFloat(fields.get(5))), styles.get(toInt(fields.get(1))),
+                                        (String) fields.get(0), toFloat(fields.get(6)));
+
+            if (fields.size() > 7) {
+                addRoles(word, fields.get(7));
+            }
+
+            words.add(word);
+        }
+
+        final LineNode line = new LineNode();
+
+        line.addChildren(words);
+        addRoles(line, record.get("roles"));
+        lines.add(line);
+    }
+
+    private void readParagraph(@NotNull final Map<String, Object> record) {
+
+        finishParagraph();
+        paragraphIn = (String) record.get("in");
+
+        if (("page".equals(paragraphIn) && (page == null))
+                || ("graphics".equals(paragraphIn) && (graphics == null))) {
+            throw new IllegalStateException("Paragraph before its " + paragraphIn);
+        }
+
+        paragraph = new ParagraphNode(toInt(record.get("seqNo")));
+        addRoles(paragraph, record.get("roles"));
+
+        if (Boolean.TRUE.equals(record.get("title"))) {
+            root.setTitle(paragraph);
+        }
+
+        if (Boolean.TRUE.equals(record.get("abstract"))) {
+            root.setAbstractParagraph(paragraph);
+        }
+    }
+
+    private void readRecord(@NotNull final Map<String, Object> record) throws IOException {
+
+        final Object type = record.get("type");
+
+        if ("line".equals(type)) {
+            readLine(record);
+        } else if ("paragraph".equals(type)) {
+            readParagraph(record);
+        } else if ("style".equals(type)) {
+            if (toInt(record.get("ordinal")) != styles.size()) {
+                throw new IllegalStateException("Styles out of order");
+            }
+
+            final Style style = new Style((String) record.get("font"),
+                                          (String) record.get("subType"),
+                                          toInt(record.get("xSize")), toInt(record.get("ySize")),
+                                          (String) record.get("id"),
+                                          Boolean.TRUE.equals(record.get("italic")),
+                                          Boolean.TRUE.equals(record.get("bold")),
+                                          Boolean.TRUE.equals(record.get("math")));
+
+            styles.add(style);
+            root.getStyles().add(style);
+        } else if ("page".equals(type)) {
+            finishParagraph();
+            page     = new PageNode(toInt(record.get("number")));
+            graphics = null;
+            pages.add(page);
+        } else if ("graphics".equals(type)) {
+            if (page == null) {
+                throw new IllegalStateException("Graphics before page");
+            }
+
+            finishParagraph();
+            graphics = new GraphicsNode(toRectangle(record.get("pos")));
+            page.addGraphics(graphics);
+        } else if ("document".equals(type)) {
+            if (toInt(record.get("version")) > JsonLinesOutput.FORMAT_VERSION) {
+                throw new IOException("Unsupported version " + record.get("version"));
+            }
+        }
+
+        /* other records are for other readers */
+    }
+
+// -------------------------- INNER CLASSES --------------------------
+
+    /**
+     * A number as it was written, so that it can be read as exactly the float or int it was
+     */
+    private static final class NumberLiteral {
+
+        @NotNull
+        final String text;
+
+        NumberLiteral(@NotNull final String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+
+    /**
+     * Just enough of a JSON parser for one record. Objects become maps, arrays lists, and
+     * numbers NumberLiterals
+     */
+    private static final class Parser {
+
+        private int          pos;
+        @NotNull
+        private final String text;
+
+        Parser(@NotNull final String text) {
+            this.text = text;
+        }
+
+        @SuppressWarnings({ "unchecked" })
+        @NotNull
+        Map<String, Object> parseRecord() {
+
+            final Object value = parseValue();
+
+            skipWhitespace();
+
+            if (!(value instanceof Map) || (pos != text.length())) {
+                throw new IllegalArgumentException("Expected one object");
+            }
+
+            return (Map<String, Object>) value;
+        }
+
+        private void expect(final char c) {
+
+            skipWhitespace();
+
+            if ((pos >= text.length()) || (text.charAt(pos) != c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + pos);
+            }
+
+            pos++;
+        }
+
+        private void expectWord(@NotNull final String word) {
+
+            if (!text.startsWith(word, pos)) {
+                throw new IllegalArgumentException("Expected " + word + " at " + pos);
+            }
+
+            pos += word.length();
+        }
+
+        @NotNull
+        private List<Object> parseArray() {
+
+            final List<Object> ret = new ArrayList<Object>();
+
+            expect('[');
+
+            if (peek() == ']') {
+                pos++;
+
+                return ret;
+            }
+
+            do {
+                ret.add(parseValue());
+            } while (parseSeparator(']'));
+
+            return ret;
+        }
+
+        @NotNull
+        private NumberLiteral parseNumber() {
+
+            final int start = pos;
+
+            while (pos < text.length()) {
+                final char c = text.charAt(pos);
+
+                if (((c >= '0') && (c <= '9')) || (c == '-') || (c == '+') || (c == '.')
+                        || (c == 'e') || (c == 'E')) {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+
+            if (start == pos) {
+                throw new IllegalArgumentException("Expected a value at " + pos);
+            }
+
+            return new NumberLiteral(text.substring(start, pos));
+        }
+
+        @NotNull
+        private Map<String, Object> parseObject() {
+
+            final Map<String, Object> ret = new LinkedHashMap<String, Object>();
+
+            expect('{');
+
+            if (peek() == '}') {
+                pos++;
+
+                return ret;
+            }
+
+            do {
+                skipWhitespace();
+
+                final String key = parseString();
+
+                expect(':');
+                ret.put(key, parseValue());
+            } while (parseSeparator('}'));
+
+            return ret;
+        }
+
+        /**
+         * @return true after a comma, false after the end character
+         */
+        private boolean parseSeparator(final char end) {
+
+            final char c = peek();
+
+            pos++;
+
+            if (c == ',') {
+                return true;
+            }
+
+            if (c != end) {
+                throw new IllegalArgumentException("Expected ',' or '" + end + "' at " + (pos - 1));
+            }
+
+            return false;
+        }
+
+        @NotNull
+        private String parseString() {
+
+            if ((pos >= text.length()) || (text.charAt(pos) != '"')) {
+                throw new IllegalArgumentException("Expected a string at " + pos);
+            }
+
+            pos++;
+
+            final StringBuilder sb = new StringBuilder();
+
+            while (true) {
+                if (pos >= text.length()) {
+                    throw new IllegalArgumentException("Unterminated string");
+                }
+
+                final char c = text.charAt(pos++);
+
+                if (c == '"') {
+                    return sb.toString();
+                }
+
+                if (c != '\\') {
+                    sb.append(c);
+
+                    continue;
+                }
+
+                final char escaped = text.charAt(pos++);
+
+                switch (escaped) {
+                case 'b' :
+                    sb.append('\b');
+
+                    break;
+                case 'f' :
+                    sb.append('\f');
+
+                    break;
+                case 'n' :
+                    sb.append('\n');
+
+                    break;
+                case 'r' :
+                    sb.append('\r');
+
+                    break;
+                case 't' :
+                    sb.append('\t');
+
+                    break;
+                case 'u' :
+                    sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    pos += 4;
+
+                    break;
+                default :
+                    sb.append(escaped);
+                }
+            }
+        }
+
+        @Nullable
+        private Object parseValue() {
+
+            switch (peek()) {
+            case '{' :
+                return parseObject();
+            case '[' :
+                return parseArray();
+            case '"' :
+                return parseString();
+            case 't' :
+                expectWord("true");
+
+                return Boolean.TRUE;
+            case 'f' :
+                expectWord("false");
+
+                return Boolean.FALSE;
+            case 'n' :
+                expectWord("null");
+
+                return null;
+            default :
+                return parseNumber();
+            }
+        }
+
+        /**
+         * Returns the next character which is not whitespace, without consuming it
+         */
+        private char peek() {
+
+            skipWhitespace();
+
+            if (pos >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end of record");
+            }
+
+            return text.charAt(pos);
+        }
+
+        private void skipWhitespace() {
+
+            while ((pos < text.length()) && (text.charAt(pos) <= ' ')) {
+                pos++;
+            }
+        }
+    }
+}
@@ -25,10 +25,8 @@ import org.elacin.pdfextract.style.Style;
 import org.elacin.pdfextract.tree.*;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.io.*;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -38,6 +36,9 @@ import static org.elacin.pdfextract.geom.Sorting.sortStylesById;
 /**
  * Created by IntelliJ IDEA. User: elacin Date: 16.01.11 Time: 17.14 To change this template use
  * File | Settings | File Templates.
+ * <p/>
+ * The output is written straight to a buffered writer as the tree is walked, so only the buffer
+ * is held in memory, not the whole document.
  */
 public class SimpleXMLOutput implements XMLWriter {
 
@@ -46,6 +47,21 @@ public class SimpleXMLOutput implements XMLWriter {
     private int                 indent           = 0;
     private final int           indentationWidth = 4;
 
+    /* spaces to write indentation from, grown when needed */
+    @NotNull
+    private char[] spaces = createSpaces(indentationWidth * 4);
+
+// -------------------------- STATIC METHODS --------------------------
+    @NotNull
+    private static char[] createSpaces(final int length) {
+
+        final char[] ret = new char[length];
+
+        Arrays.fill(ret, ' ');
+
+        return ret;
+    }
+
 // ------------------------ INTERFACE METHODS ------------------------
 // --------------------- Interface XMLWriter ---------------------
     public void writeTree(@NotNull final DocumentNode root, @NotNull final File output) {
@@ -53,89 +69,97 @@ public class SimpleXMLOutput implements XMLWriter {
         /* write to file */
         log.info("LOG00110:Opening " + output + " for output");
 
-        final PrintStream out;
+        final Writer out;
 
         try {
-            out = new PrintStream(new BufferedOutputStream(new FileOutputStream(output, false),
-                    8192 * 4), false, "UTF-8");
+            out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output, false),
+                    "UTF-8"), 8192 * 4);
         } catch (Exception e) {
             throw new RuntimeException("Could not open output file", e);
         }
 
-        StringBuffer sb = new StringBuffer();
-
-        writeDocument(sb, root);
-
-        // final String result = PrettyPrinter.prettyFormat(sb.toString());
-        final String result = sb.toString();
-
-        out.print(result);
-        out.close();
+        try {
+            writeDocument(out, root);
+        } catch (IOException e) {
+            throw new RuntimeException("Error while writing to output file", e);
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.warn("LOG01644:Could not close output file " + output, e);
+            }
+        }
     }
 
 // -------------------------- OTHER METHODS --------------------------
-    private void writeDocument(@NotNull final StringBuffer out, @NotNull DocumentNode root) {
+    private void writeDocument(@NotNull final Writer out, @NotNull DocumentNode root)
+            throws IOException {
 
-        out.append("<document>\n");
+        out.write("<document>\n");
         writeStyles(out, root.getStyles());
 
         for (PageNode node : root.getChildren()) {
             writePage(out, node);
         }
 
-        out.append("</document>");
+        out.write("</document>");
     }
 
-    private void writeLine(@NotNull final StringBuffer out, @NotNull LineNode line) {
+    private void writeLine(@NotNull final Writer out, @NotNull LineNode line) throws IOException {
 
         indent += indentationWidth;
         indent(out);
 
         if (line.findDominatingStyle().equals(Style.FORMULA)) {
-            out.append("<formula>");
-            out.append(getTextForNode(line));
-            out.append("</formula>\n");
+            out.write("<formula>");
+            writeTextForNode(out, line);
+            out.write("</formula>\n");
         } else {
-            out.append("<line");
-            out.append(" styleRef=\"").append(String.valueOf(line.findDominatingStyle().id)).append(
-                "\"");
+            out.write("<line");
+            out.write(" styleRef=\"");
+            out.write(String.valueOf(line.findDominatingStyle().id));
+            out.write("\"");
 
             if (Constants.VERBOSE_OUTPUT) {
                 writeRectangle(out, line.getPos());
-                out.append(">\n");
+                out.write(">\n");
 
                 for (WordNode word : line.getChildren()) {
                     writeWord(out, word);
                 }
 
-                out.append("</line>\n");
+                out.write("</line>\n");
             } else {
-                out.append(">");
-                out.append(getTextForNode(line));
-                out.append("</line>\n");
+                out.write(">");
+                writeTextForNode(out, line);
+                out.write("</line>\n");
             }
         }
 
         indent -= indentationWidth;
     }
 
-    private void indent(final StringBuffer out) {
+    private void indent(@NotNull final Writer out) throws IOException {
 
-        for (int i = 0; i < indent; i++) {
-            out.append(" ");
+        if (indent > spaces.length) {
+            spaces = createSpaces(indent * 2);
         }
+
+        out.write(spaces, 0, indent);
     }
 
-    private void writePage(@NotNull StringBuffer out, @NotNull PageNode page) {
+    private void writePage(@NotNull Writer out, @NotNull PageNode page) throws IOException {
 
-        out.append("<page");
-        out.append(" num=\"").append(Integer.toString(page.getPageNumber())).append("\"");
+        out.write("<page");
+        out.write(" num=\"");
+        out.write(Integer.toString(page.getPageNumber()));
+        out.write("\"");
 
         if (Constants.VERBOSE_OUTPUT) {
             writeRectangle(out, page.getPos());
         }
 
-        out.append(">\n");
+        out.write(">\n");
 
         for (ParagraphNode paragraphNode : page.getChildren()) {
             writeParagraph(out, paragraphNode);
@@ -145,99 +169,116 @@ public class SimpleXMLOutput implements XMLWriter {
             writeGraphic(out, graphicsNode);
         }
 
-        out.append("</page>\n");
+        out.write("</page>\n");
     }
 
-    private void writeGraphic(final StringBuffer out, final GraphicsNode graphicsNode) {
+    private void writeGraphic(@NotNull final Writer out, @NotNull final GraphicsNode graphicsNode)
+            throws IOException {
 
         indent += indentationWidth;
         indent(out);
-        out.append("<graphics");
+        out.write("<graphics");
         writeRectangle(out, graphicsNode.getPos());
-        out.append(">\n");
+        out.write(">\n");
 
         for (ParagraphNode paragraphNode : graphicsNode.getChildren()) {
             writeParagraph(out, paragraphNode);
         }
 
         indent(out);
-        out.append("</graphic>\n");
+        out.write("</graphic>\n");
         indent -= indentationWidth;
     }
 
-    private void writeParagraph(@NotNull final StringBuffer out,
-                                @NotNull final ParagraphNode paragraph) {
+    private void writeParagraph(@NotNull final Writer out, @NotNull final ParagraphNode paragraph)
+            throws IOException {
 
         indent += indentationWidth;
         indent(out);
-        out.append("<paragraph");
+        out.write("<paragraph");
         writeRectangle(out, paragraph.getPos());
-        out.append(" seqno=\"").append(paragraph.getSeqNo()).append("\"");
-        out.append(">\n");
+        out.write(" seqno=\"");
+        out.write(Integer.toString(paragraph.getSeqNo()));
+        out.write("\"");
+        out.write(">\n");
 
         for (LineNode line : paragraph.getChildren()) {
             writeLine(out, line);
         }
 
         indent(out);
-        out.append("</paragraph>\n");
+        out.write("</paragraph>\n");
         indent -= indentationWidth;
     }
 
-    private void writeRectangle(@NotNull StringBuffer sb, @NotNull Rectangle pos) {
-
-        sb.append(" x=\"").append(String.valueOf(pos.x)).append("\"");
-        sb.append(" y=\"").append(String.valueOf(pos.y)).append("\"");
-        sb.append(" w=\"").append(String.valueOf(pos.width)).append("\"");
-        sb.append(" h=\"").append(String.valueOf(pos.height)).append("\"");
+    private void writeRectangle(@NotNull Writer out, @NotNull Rectangle pos) throws IOException {
+
+        out.write(" x=\"");
+        out.write(String.valueOf(pos.x));
+        out.write("\" y=\"");
+        out.write(String.valueOf(pos.y));
+        out.write("\" w=\"");
+        out.write(String.valueOf(pos.width));
+        out.write("\" h=\"");
+        out.write(String.valueOf(pos.height));
+        out.write("\"");
     }
 
-    private void writeStyles(@NotNull final StringBuffer out, @NotNull List<Style> styles) {
+    private void writeStyles(@NotNull final Writer out, @NotNull List<Style> styles)
+            throws IOException {
 
-        out.append("<styles>\n");
+        out.write("<styles>\n");
 
         /* output the styles sorted by id */
         Collections.sort(styles, sortStylesById);
 
         for (Style style : styles) {
-            out.append("<style");
-            out.append(" id=\"").append(String.valueOf(style.id)).append("\"");
-            out.append(" font=\"").append(style.fontName).append("\"");
-            out.append(" size=\"").append(String.valueOf(style.xSize)).append("\"");
+            out.write("<style");
+            out.write(" id=\"");
+            out.write(String.valueOf(style.id));
+            out.write("\" font=\"");
+            out.write(String.valueOf(style.fontName));
+            out.write("\" size=\"");
+            out.write(String.valueOf(style.xSize));
+            out.write("\"");
 
             if (style.isItalic()) {
-                out.append(" italic=\"true\"");
+                out.write(" italic=\"true\"");
             }
 
             if (style.isMathFont()) {
-                out.append(" math=\"true\"");
+                out.write(" math=\"true\"");
             }
 
             if (style.isBold()) {
-                out.append(" bold=\"true\"");
+                out.write(" bold=\"true\"");
             }
 
-            out.append("/>\n");
+            out.write("/>\n");
         }
 
-        out.append("</styles>\n");
+        out.write("</styles>\n");
     }
 
-    private void writeWord(@NotNull final StringBuffer out, @NotNull WordNode word) {
+    private void writeWord(@NotNull final Writer out, @NotNull WordNode word) throws IOException {
 
-        out.append("<word");
-        out.append(" value=\"").append(getTextForNode(word)).append("\"");
-        out.append(" styleRef=\"").append(String.valueOf(word.getStyle().id)).append("\" ");
+        out.write("<word");
+        out.write(" value=\"");
+        writeTextForNode(out, word);
+        out.write("\" styleRef=\"");
+        out.write(String.valueOf(word.getStyle().id));
+        out.write("\" ");
         writeRectangle(out, word.getPos());
-        out.append("/>\n");
+        out.write("/>\n");
     }
 
-    private String getTextForNode(final AbstractNode text) {
+    private void writeTextForNode(@NotNull final Writer out, @NotNull final AbstractNode text)
+            throws IOException {
 
         if (Constants.ESCAPE_HTML) {
-            return escapeHtml(text.getText());
+            escapeHtml(out, text.getText());
+        } else {
+            out.write(text.getText());
         }
-
-        return text.getText();
     }
 }
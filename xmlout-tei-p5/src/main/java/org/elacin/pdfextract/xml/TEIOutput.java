@@ -24,6 +24,7 @@ import org.elacin.pdfextract.tree.*;
 import org.elacin.pdfextract.tree.Role;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import org.tei_c.*;
 
@@ -31,9 +32,12 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 
 import java.lang.String;
 
@@ -49,6 +53,10 @@ public class TEIOutput implements XMLWriter {
 // ------------------------------ FIELDS ------------------------------
     private static final Logger log = Logger.getLogger(TEIOutput.class);
 
+    /* creating the context is expensive, and it is safe to share between threads */
+    @Nullable
+    private static JAXBContext jaxbContext;
+
 // ------------------------ INTERFACE METHODS ------------------------
 // --------------------- Interface XMLWriter ---------------------
     public void writeTree(@NotNull DocumentNode root, File destination) {
@@ -65,12 +73,15 @@ public class TEIOutput implements XMLWriter {
         addBack(root, text);
         tei.setText(text);
 
+        OutputStream out = null;
+
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance("org.tei_c");
-            Marshaller  marshaller  = jaxbContext.createMarshaller();
+            out = new BufferedOutputStream(new FileOutputStream(destination), 8192 * 4);
+
+            final Marshaller marshaller = getContext().createMarshaller();
 
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.marshal(tei, new FileOutputStream(destination));
+            marshaller.marshal(tei, out);
         } catch (JAXBException e) {
             log.warn("LOG01140:", e);
 
@@ -79,6 +90,14 @@ public class TEIOutput implements XMLWriter {
             log.warn("LOG01120:", e);
 
             return;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    log.warn("LOG01645:Could not close " + destination, e);
+                }
+            }
         }
 
         long time = System.currentTimeMillis() - t0;
@@ -88,6 +107,21 @@ public class TEIOutput implements XMLWriter {
         }
     }
 
+// -------------------------- STATIC METHODS --------------------------
+
+    /**
+     * Marshallers are not thread safe, so one is made from this for every document
+     */
+    @NotNull
+    private static synchronized JAXBContext getContext() throws JAXBException {
+
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance("org.tei_c");
+        }
+
+        return jaxbContext;
+    }
+
 // -------------------------- OTHER METHODS --------------------------
     private void addAbstract(final DocumentNode root, @NotNull Front front) {
 